@@ -1,5 +1,10 @@
 package com.rustdesk.api.config;
 
+import com.rustdesk.api.repository.PartitionViewInspector;
+import com.rustdesk.api.repository.PartitionedTables;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
@@ -16,4 +21,17 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 public class JpaConfig {
     // JPA auditing is now enabled
     // @CreatedDate and @LastModifiedDate annotations in BaseEntity will work automatically
+
+    /**
+     * Read monthly partitioned SQLite tables through their views
+     */
+    @Bean
+    public HibernatePropertiesCustomizer partitionViewCustomizer(PartitionedTables partitionedTables) {
+        return properties -> {
+            if (!partitionedTables.routedTables().isEmpty()) {
+                properties.put(AvailableSettings.STATEMENT_INSPECTOR,
+                        new PartitionViewInspector(partitionedTables.routedTables()));
+            }
+        };
+    }
 }
@@ -9,6 +9,9 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * RustDesk Configuration Properties
  * Maps to application.yml rustdesk configuration section
@@ -49,6 +52,51 @@ public class RustDeskProperties {
      */
     private RelayServer relayServer = new RelayServer();
 
+    /**
+     * Deleted user cleanup configuration
+     */
+    private UserCleanup userCleanup = new UserCleanup();
+
+    /**
+     * Group statistics configuration
+     */
+    private GroupStats groupStats = new GroupStats();
+
+    /**
+     * LDAP configuration
+     */
+    private Ldap ldap = new Ldap();
+
+    /**
+     * OAuth provider registry configuration
+     */
+    private Oauth oauth = new Oauth();
+
+    /**
+     * Captcha configuration
+     */
+    private Captcha captcha = new Captcha();
+
+    /**
+     * Address book sync configuration
+     */
+    private AddressBook addressBook = new AddressBook();
+
+    /**
+     * Device presence configuration
+     */
+    private Presence presence = new Presence();
+
+    /**
+     * Share link configuration
+     */
+    private Share share = new Share();
+
+    /**
+     * Audit ingestion configuration
+     */
+    private Audit audit = new Audit();
+
     @Data
     public static class Server {
         /**
@@ -209,4 +257,389 @@ public class RustDeskProperties {
          */
         private Boolean enabled = false;
     }
+
+    @Data
+    public static class UserCleanup {
+        /**
+         * Rows processed per chunk (one transaction per chunk)
+         */
+        @Min(value = 1, message = "Cleanup chunk size must be greater than 0")
+        private Integer chunkSize = 500;
+
+        /**
+         * Delay between polls for pending cleanup jobs in milliseconds
+         */
+        @Min(value = 100, message = "Cleanup poll interval must be at least 100 milliseconds")
+        private Long pollInterval = 5000L;
+
+        /**
+         * Maximum attempts before a job is marked failed
+         */
+        @Min(value = 1, message = "Cleanup max attempts must be greater than 0")
+        private Integer maxAttempts = 5;
+    }
+
+    @Data
+    public static class GroupStats {
+        /**
+         * Interval between full reloads of the cached group counts in milliseconds
+         */
+        @Min(value = 1000, message = "Group stats reconcile interval must be at least 1000 milliseconds")
+        private Long reconcileInterval = 600000L;
+    }
+
+    @Data
+    public static class Ldap {
+        /**
+         * Enable LDAP integration
+         */
+        private Boolean enabled = false;
+
+        /**
+         * LDAP server URL
+         */
+        private String url = "ldap://localhost:389";
+
+        /**
+         * Base DN of the directory
+         */
+        private String baseDn = "";
+
+        /**
+         * DN used to bind for searches
+         */
+        private String bindDn = "";
+
+        /**
+         * Password of the bind DN
+         */
+        private String bindPassword = "";
+
+        /**
+         * Base DN for user searches, defaults to the base DN
+         */
+        private String userBaseDn = "";
+
+        /**
+         * Filter selecting user entries
+         */
+        private String userFilter = "(objectClass=person)";
+
+        /**
+         * Attribute holding the username
+         */
+        private String usernameAttr = "uid";
+
+        /**
+         * Attribute holding the email address
+         */
+        private String emailAttr = "mail";
+
+        /**
+         * Attribute holding the first name
+         */
+        private String firstNameAttr = "givenName";
+
+        /**
+         * Attribute holding the last name
+         */
+        private String lastNameAttr = "sn";
+
+        /**
+         * DN of the group whose members are administrators, empty to leave admin flags alone
+         */
+        private String adminGroup = "";
+
+        /**
+         * DN of the group whose members may log in, empty to allow everyone
+         */
+        private String allowGroup = "";
+
+        /**
+         * Enable periodic synchronization of users into the local database
+         */
+        private Boolean sync = true;
+
+        /**
+         * Attribute telling whether an account is enabled
+         * (Active Directory userAccountControl or a boolean attribute)
+         */
+        private String enableAttr = "userAccountControl";
+
+        /**
+         * Attribute used for incremental passes: modifyTimestamp or uSNChanged
+         */
+        private String changeAttr = "modifyTimestamp";
+
+        /**
+         * Entries per paged-results page; each page is applied in one transaction
+         */
+        @Min(value = 1, message = "LDAP page size must be greater than 0")
+        private Integer pageSize = 500;
+
+        /**
+         * Delay between synchronization passes in milliseconds
+         */
+        @Min(value = 1000, message = "LDAP sync interval must be at least 1000 milliseconds")
+        private Long syncInterval = 900000L;
+
+        /**
+         * Interval between full passes in milliseconds; full passes also disable
+         * users that no longer exist in the directory
+         */
+        @Min(value = 60000, message = "LDAP full sync interval must be at least 60000 milliseconds")
+        private Long fullSyncInterval = 86400000L;
+
+        /**
+         * Connect and read timeout in milliseconds
+         */
+        @Min(value = 100, message = "LDAP timeout must be at least 100 milliseconds")
+        private Integer timeout = 10000;
+    }
+
+    @Data
+    public static class Oauth {
+        /**
+         * Interval between reloads of the provider registry in milliseconds
+         */
+        @Min(value = 1000, message = "OAuth refresh interval must be at least 1000 milliseconds")
+        private Long refreshInterval = 300000L;
+    }
+
+    @Data
+    public static class Captcha {
+        /**
+         * Number of pre-rendered captchas kept ready
+         */
+        @Min(value = 1, message = "Captcha pool size must be greater than 0")
+        private Integer poolSize = 200;
+
+        /**
+         * Background threads rendering captchas into the pool
+         */
+        @Min(value = 1, message = "Captcha render threads must be greater than 0")
+        private Integer renderThreads = 1;
+
+        /**
+         * Answer store: memory or redis
+         */
+        private String store = "memory";
+
+        /**
+         * Image width in pixels
+         */
+        @Min(value = 50, message = "Captcha width must be at least 50 pixels")
+        private Integer width = 120;
+
+        /**
+         * Image height in pixels
+         */
+        @Min(value = 20, message = "Captcha height must be at least 20 pixels")
+        private Integer height = 40;
+
+        /**
+         * Number of characters
+         */
+        @Min(value = 1, message = "Captcha length must be greater than 0")
+        private Integer length = 4;
+    }
+
+    @Data
+    public static class AddressBook {
+        /**
+         * Number of most recent changes kept per address book for delta sync
+         */
+        @Min(value = 1, message = "Address book change retention must be greater than 0")
+        private Long changeRetention = 1000L;
+
+        /**
+         * Interval between change log compactions in milliseconds
+         */
+        @Min(value = 1000, message = "Address book compaction interval must be at least 1000 milliseconds")
+        private Long compactInterval = 600000L;
+
+        /**
+         * Maximum number of users whose tag bitmap index is kept in memory
+         */
+        @Min(value = 1, message = "Tag index max users must be greater than 0")
+        private Long tagIndexMaxUsers = 1000L;
+
+        /**
+         * Seconds an unused tag bitmap index is kept in memory
+         */
+        @Min(value = 1, message = "Tag index idle TTL must be greater than 0")
+        private Long tagIndexIdleTtl = 1800L;
+
+        /**
+         * Total gzip bytes of serialized address book snapshots kept in memory
+         */
+        @Min(value = 0, message = "Snapshot cache size cannot be negative")
+        private Long snapshotCacheMaxBytes = 67108864L;
+
+        /**
+         * Maximum number of address books whose tag catalog is kept in memory
+         */
+        @Min(value = 1, message = "Tag catalog cache size must be greater than 0")
+        private Long tagCatalogMaxBooks = 10000L;
+    }
+
+    @Data
+    public static class Presence {
+        /**
+         * A device is online while its last heartbeat is within this window, in milliseconds
+         */
+        @Min(value = 1000, message = "Presence online window must be at least 1000 milliseconds")
+        private Long onlineWindow = 300000L;
+    }
+
+    @Data
+    public static class Share {
+        /**
+         * Maximum resolved and maximum rejected share tokens kept in memory
+         */
+        @Min(value = 1, message = "Share cache size must be greater than 0")
+        private Long cacheMaxEntries = 100000L;
+
+        /**
+         * Seconds an unknown or expired share token is remembered as rejected
+         */
+        @Min(value = 1, message = "Share negative cache TTL must be greater than 0")
+        private Long negativeTtl = 300L;
+
+        /**
+         * Interval between purges of expired share records, in milliseconds
+         */
+        @Min(value = 1000, message = "Share purge interval must be at least 1000 milliseconds")
+        private Long purgeInterval = 3600000L;
+
+        /**
+         * Maximum chunks of 500 expired share records deleted per purge
+         */
+        @Min(value = 1, message = "Share purge chunks must be greater than 0")
+        private Integer purgeMaxChunks = 20;
+    }
+
+    @Data
+    public static class Audit {
+        /**
+         * Ring buffer capacity for connection audit events, rounded up to a power of two
+         */
+        @Min(value = 2, message = "Audit buffer size must be at least 2")
+        private Integer bufferSize = 65536;
+
+        /**
+         * Maximum events written per batch
+         */
+        @Min(value = 1, message = "Audit batch size must be greater than 0")
+        private Integer batchSize = 500;
+
+        /**
+         * Milliseconds a consumer waits for a batch to fill before writing it
+         */
+        @Min(value = 0, message = "Audit linger cannot be negative")
+        private Long linger = 200L;
+
+        /**
+         * Consumer threads writing batches
+         */
+        @Min(value = 1, message = "Audit consumers must be greater than 0")
+        private Integer consumers = 1;
+
+        /**
+         * Policy when the buffer is full: block, drop-oldest or spill
+         */
+        private String overflowPolicy = "block";
+
+        /**
+         * Milliseconds a publisher waits for room under the block policy before the event is rejected
+         */
+        @Min(value = 0, message = "Audit block timeout cannot be negative")
+        private Long blockTimeout = 1000L;
+
+        /**
+         * Directory of the spill file under the spill policy
+         */
+        private String spillPath = "./data/audit-spill";
+
+        /**
+         * Seconds after which a connection without a close event is recorded as timed out
+         */
+        @Min(value = 60, message = "Audit session timeout must be at least 60 seconds")
+        private Long sessionTimeout = 86400L;
+
+        /**
+         * Interval in milliseconds between sweeps for timed out sessions
+         */
+        @Min(value = 1000, message = "Audit session sweep interval must be at least 1 second")
+        private Long sessionSweepInterval = 60000L;
+
+        /**
+         * Enable monthly partitioning and partition-drop retention of the log tables
+         */
+        private Boolean partitionEnabled = false;
+
+        /**
+         * Tables partitioned by month on created_at
+         */
+        private List<String> partitionTables = new ArrayList<>(List.of("audit_conn", "audit_file", "login_log"));
+
+        /**
+         * Months of logs kept, including the current one
+         */
+        @Min(value = 1, message = "Retention months must be greater than 0")
+        private Integer retentionMonths = 12;
+
+        /**
+         * Upcoming months for which partitions are created ahead of time
+         */
+        @Min(value = 1, message = "Partition premake months must be greater than 0")
+        private Integer partitionPremakeMonths = 2;
+
+        /**
+         * Interval in milliseconds between partition maintenance runs
+         */
+        @Min(value = 60000, message = "Partition interval must be at least 1 minute")
+        private Long partitionInterval = 3600000L;
+
+        /**
+         * Interval in milliseconds between folds of new audit rows into the rollups
+         */
+        @Min(value = 1000, message = "Rollup interval must be at least 1 second")
+        private Long rollupInterval = 60000L;
+
+        /**
+         * Milliseconds an audit row ID must have been visible before the rollups fold
+         * up to it, so transactions committing out of ID order are not skipped
+         */
+        @Min(value = 0, message = "Rollup lag cannot be negative")
+        private Long rollupLag = 30000L;
+
+        /**
+         * Enable moving aged audit records into compressed archive segments
+         */
+        private Boolean archiveEnabled = false;
+
+        /**
+         * Days after which audit records are moved to the archive
+         */
+        @Min(value = 1, message = "Archive after days must be greater than 0")
+        private Integer archiveAfterDays = 90;
+
+        /**
+         * Directory of the archive segments
+         */
+        private String archivePath = "./data/audit-archive";
+
+        /**
+         * Maximum records per archive segment
+         */
+        @Min(value = 1024, message = "Archive segment rows must be at least 1024")
+        private Integer archiveSegmentRows = 100000;
+
+        /**
+         * Interval in milliseconds between archive runs
+         */
+        @Min(value = 60000, message = "Archive interval must be at least 1 minute")
+        private Long archiveInterval = 3600000L;
+    }
 }
@@ -28,11 +28,20 @@ public final class Constants {
     // Status
     public static final Integer STATUS_ENABLE = 1;
     public static final Integer STATUS_DISABLED = 2;
+    public static final Integer STATUS_DELETING = 3;
 
     // Group Types
     public static final Integer GROUP_TYPE_USER = 1;
     public static final Integer GROUP_TYPE_DEVICE = 2;
 
+    // Address Book Collection Rules
+    public static final Integer RULE_TYPE_USER = 1;
+    public static final Integer RULE_TYPE_GROUP = 2;
+    public static final int PERMISSION_NONE = 0;
+    public static final int PERMISSION_READ = 1;
+    public static final int PERMISSION_READ_WRITE = 2;
+    public static final int PERMISSION_FULL = 3;
+
     // Cache Keys
     public static final String CACHE_TOKEN_PREFIX = "token:";
     public static final String CACHE_USER_PREFIX = "user:";
@@ -0,0 +1,92 @@
+package com.rustdesk.api.constant;
+
+import lombok.Getter;
+
+/**
+ * User cleanup step enumeration
+ * Ordered list of tables processed by the background cascade after a user is deleted.
+ */
+@Getter
+public enum UserCleanupStep {
+
+    /**
+     * Delete login tokens
+     */
+    USER_TOKENS("user_tokens"),
+
+    /**
+     * Delete share links created by the user
+     */
+    SHARE_RECORDS("share_record"),
+
+    /**
+     * Delete third-party account bindings
+     */
+    USER_THIRD("user_third"),
+
+    /**
+     * Detach bound devices (peers are kept, user_id is cleared)
+     */
+    PEERS("peers"),
+
+    /**
+     * Delete address book entries and their tag index rows
+     */
+    ADDRESS_BOOKS("address_books"),
+
+    /**
+     * Delete the address book change log
+     */
+    ADDRESS_BOOK_CHANGES("address_book_change"),
+
+    /**
+     * Delete address book version counters
+     */
+    ADDRESS_BOOK_VERSIONS("address_book_version"),
+
+    /**
+     * Delete tags
+     */
+    TAGS("tags"),
+
+    /**
+     * Delete sharing rules of collections owned by the user
+     */
+    COLLECTION_RULES("address_book_collection_rule"),
+
+    /**
+     * Delete sharing rules that target the user
+     */
+    SHARED_RULES("address_book_collection_rule"),
+
+    /**
+     * Delete address book collections
+     */
+    COLLECTIONS("address_book_collection"),
+
+    /**
+     * Soft delete login logs
+     */
+    LOGIN_LOGS("login_log"),
+
+    /**
+     * Delete the tombstoned user row
+     */
+    USER("users");
+
+    private final String table;
+
+    UserCleanupStep(String table) {
+        this.table = table;
+    }
+
+    /**
+     * Get the step that follows this one
+     *
+     * @return next step or null if this is the last step
+     */
+    public UserCleanupStep next() {
+        UserCleanupStep[] steps = values();
+        return ordinal() + 1 < steps.length ? steps[ordinal() + 1] : null;
+    }
+}
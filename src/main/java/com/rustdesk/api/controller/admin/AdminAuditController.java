@@ -0,0 +1,262 @@
+package com.rustdesk.api.controller.admin;
+
+import cn.dev33.satoken.stp.StpUtil;
+import com.rustdesk.api.dto.response.ApiResponse;
+import com.rustdesk.api.dto.response.AuditRollupResponse;
+import com.rustdesk.api.dto.response.CursorPageResponse;
+import com.rustdesk.api.entity.AuditConn;
+import com.rustdesk.api.entity.AuditFile;
+import com.rustdesk.api.entity.LoginLog;
+import com.rustdesk.api.entity.User;
+import com.rustdesk.api.service.AuditLogService;
+import com.rustdesk.api.service.AuditRollupService;
+import com.rustdesk.api.service.LoginLogService;
+import com.rustdesk.api.service.UserService;
+import com.rustdesk.api.util.SeekPage;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Admin Audit Controller
+ * Serves audit and login log browsing and the audit dashboards
+ *
+ * @author RustDesk
+ * @version 2.0.0
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+@Validated
+@Tag(name = "Admin Audit", description = "Admin Audit Dashboard API")
+@SecurityRequirement(name = "Bearer Authentication")
+public class AdminAuditController {
+
+    private final AuditRollupService auditRollupService;
+    private final AuditLogService auditLogService;
+    private final LoginLogService loginLogService;
+    private final UserService userService;
+
+    /**
+     * Get Connection Audit Records
+     *
+     * @param peerId controlled peer ID
+     * @param fromPeer controlling peer ID
+     * @param action connection action
+     * @param from start of the time range
+     * @param to end of the time range, exclusive
+     * @param cursor cursor of the page, omitted for the first page
+     * @param limit page size
+     * @param count whether to include the number of matching records
+     * @param httpRequest HTTP request
+     * @return Page of records, newest first
+     */
+    @GetMapping("/audit/conn")
+    @Operation(summary = "Get Connection Audit Records", description = "Page through connection audit records with a cursor")
+    public ApiResponse<CursorPageResponse<AuditConn>> getConnPage(
+            @RequestParam(required = false) String peerId,
+            @RequestParam(required = false) String fromPeer,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") @Min(1) @Max(500) int limit,
+            @RequestParam(defaultValue = "false") boolean count,
+            HttpServletRequest httpRequest) {
+        if (!isAdmin(httpRequest)) {
+            log.warn("Failed to get connection audit records: User is not admin");
+            return ApiResponse.forbidden("Admin permission required");
+        }
+        return ApiResponse.success(convertToCursorPageResponse(
+                auditLogService.findConnPage(peerId, fromPeer, action, from, to, cursor, limit, count)));
+    }
+
+    /**
+     * Get File Transfer Audit Records
+     *
+     * @param peerId controlled peer ID
+     * @param fromPeer controlling peer ID
+     * @param type transfer type
+     * @param from start of the time range
+     * @param to end of the time range, exclusive
+     * @param cursor cursor of the page, omitted for the first page
+     * @param limit page size
+     * @param count whether to include the number of matching records
+     * @param httpRequest HTTP request
+     * @return Page of records, newest first
+     */
+    @GetMapping("/audit/file")
+    @Operation(summary = "Get File Transfer Audit Records", description = "Page through file transfer audit records with a cursor")
+    public ApiResponse<CursorPageResponse<AuditFile>> getFilePage(
+            @RequestParam(required = false) String peerId,
+            @RequestParam(required = false) String fromPeer,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") @Min(1) @Max(500) int limit,
+            @RequestParam(defaultValue = "false") boolean count,
+            HttpServletRequest httpRequest) {
+        if (!isAdmin(httpRequest)) {
+            log.warn("Failed to get file transfer audit records: User is not admin");
+            return ApiResponse.forbidden("Admin permission required");
+        }
+        return ApiResponse.success(convertToCursorPageResponse(
+                auditLogService.findFilePage(peerId, fromPeer, type, from, to, cursor, limit, count)));
+    }
+
+    /**
+     * Get Login Logs
+     *
+     * @param userId user ID
+     * @param client client name
+     * @param type login type
+     * @param deleted whether to list deleted logs instead of active ones
+     * @param from start of the time range
+     * @param to end of the time range, exclusive
+     * @param cursor cursor of the page, omitted for the first page
+     * @param limit page size
+     * @param count whether to include the number of matching logs
+     * @param httpRequest HTTP request
+     * @return Page of login logs, newest first
+     */
+    @GetMapping("/audit/login")
+    @Operation(summary = "Get Login Logs", description = "Page through login logs with a cursor")
+    public ApiResponse<CursorPageResponse<LoginLog>> getLoginPage(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String client,
+            @RequestParam(required = false) String type,
+            @RequestParam(defaultValue = "false") boolean deleted,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") @Min(1) @Max(500) int limit,
+            @RequestParam(defaultValue = "false") boolean count,
+            HttpServletRequest httpRequest) {
+        if (!isAdmin(httpRequest)) {
+            log.warn("Failed to get login logs: User is not admin");
+            return ApiResponse.forbidden("Admin permission required");
+        }
+        return ApiResponse.success(convertToCursorPageResponse(
+                loginLogService.findPage(deleted, userId, client, type, from, to, cursor, limit, count)));
+    }
+
+    /**
+     * Get Audit Event Counts
+     *
+     * @param source conn or file
+     * @param granularity hour or day
+     * @param from start of the range, defaults to 24 hours or 30 days before the end
+     * @param to end of the range, exclusive, defaults to the end of the current bucket
+     * @param peerId peer ID, omitted to sum all peers
+     * @param httpRequest HTTP request
+     * @return Event counts per bucket and action
+     */
+    @GetMapping("/audit/rollup")
+    @Operation(summary = "Get Audit Event Counts", description = "Get connection or file transfer counts per hour or day")
+    public ApiResponse<List<AuditRollupResponse>> getRollup(
+            @RequestParam(defaultValue = "conn") String source,
+            @RequestParam(defaultValue = "hour") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String peerId,
+            HttpServletRequest httpRequest) {
+        if (!isAdmin(httpRequest)) {
+            log.warn("Failed to get audit rollup: User is not admin");
+            return ApiResponse.forbidden("Admin permission required");
+        }
+
+        List<AuditRollupResponse> points = auditRollupService.series(source, granularity, from, to, peerId).stream()
+                .map(point -> AuditRollupResponse.builder()
+                        .bucket(point.bucket())
+                        .peerId(point.peerId())
+                        .action(point.action())
+                        .count(point.count())
+                        .build())
+                .toList();
+        return ApiResponse.success(points);
+    }
+
+    /**
+     * Get Busiest Peers
+     *
+     * @param source conn or file
+     * @param from start of the range, defaults to 30 days before the end
+     * @param to end of the range, exclusive, defaults to the end of the current hour
+     * @param limit maximum number of peers
+     * @param httpRequest HTTP request
+     * @return Event counts per peer, busiest first
+     */
+    @GetMapping("/audit/rollup/peers")
+    @Operation(summary = "Get Busiest Peers", description = "Get the peers with the most connection or file transfer events")
+    public ApiResponse<List<AuditRollupResponse>> getTopPeers(
+            @RequestParam(defaultValue = "conn") String source,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(500) int limit,
+            HttpServletRequest httpRequest) {
+        if (!isAdmin(httpRequest)) {
+            log.warn("Failed to get busiest peers: User is not admin");
+            return ApiResponse.forbidden("Admin permission required");
+        }
+
+        List<AuditRollupResponse> peers = auditRollupService.topPeers(source, from, to, limit).stream()
+                .map(total -> AuditRollupResponse.builder()
+                        .peerId(total.peerId())
+                        .count(total.count())
+                        .build())
+                .toList();
+        return ApiResponse.success(peers);
+    }
+
+    private static <T> CursorPageResponse<T> convertToCursorPageResponse(SeekPage<T> page) {
+        return CursorPageResponse.<T>builder()
+                .items(page.items())
+                .nextCursor(page.next() != null ? page.next().encode() : null)
+                .total(page.total())
+                .build();
+    }
+
+    /**
+     * Check if current user is admin
+     *
+     * @param request HTTP request
+     * @return true if user is admin
+     */
+    private boolean isAdmin(HttpServletRequest request) {
+        Long userId = getCurrentUserId(request);
+        if (userId == null) {
+            return false;
+        }
+
+        return userService.findById(userId)
+                .map(User::getIsAdmin)
+                .orElse(false);
+    }
+
+    /**
+     * Get current user ID from Sa-Token
+     *
+     * @param request HTTP request
+     * @return User ID or null
+     */
+    private Long getCurrentUserId(HttpServletRequest request) {
+        try {
+            return StpUtil.getLoginIdAsLong();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
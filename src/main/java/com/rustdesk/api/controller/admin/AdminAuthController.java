@@ -8,6 +8,7 @@ import com.rustdesk.api.dto.response.LoginResponse;
 import com.rustdesk.api.dto.response.UserResponse;
 import com.rustdesk.api.entity.User;
 import com.rustdesk.api.entity.UserToken;
+import com.rustdesk.api.service.CaptchaService;
 import com.rustdesk.api.service.LoginLogService;
 import com.rustdesk.api.service.UserService;
 import com.rustdesk.api.service.UserTokenService;
@@ -38,6 +39,7 @@ public class AdminAuthController {
     private final UserService userService;
     private final UserTokenService userTokenService;
     private final LoginLogService loginLogService;
+    private final CaptchaService captchaService;
 
     /**
      * Admin Login
@@ -53,6 +55,12 @@ public class AdminAuthController {
             HttpServletRequest httpRequest) {
         log.info("Admin login attempt for username: {}", request.getUsername());
 
+        // Verify captcha before touching the user table
+        if (captchaService.isEnabled() && !captchaService.verify(request.getCaptchaId(), request.getCaptcha())) {
+            log.warn("Admin login failed: Invalid captcha - {}", request.getUsername());
+            return ApiResponse.badRequest("Invalid captcha");
+        }
+
         // Find user by username
         User user = userService.findByUsername(request.getUsername())
                 .orElse(null);
@@ -68,7 +76,7 @@ public class AdminAuthController {
         }
 
         // Verify password
-        if (!PasswordUtil.verifyPassword(request.getPassword(), user.getPassword())) {
+        if (!userService.verifyPassword(user, request.getPassword())) {
             log.warn("Admin login failed: Invalid password for user - {}", request.getUsername());
             return ApiResponse.unauthorized("Invalid username or password");
         }
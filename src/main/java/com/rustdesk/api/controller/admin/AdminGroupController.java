@@ -2,10 +2,15 @@ package com.rustdesk.api.controller.admin;
 
 import cn.dev33.satoken.stp.StpUtil;
 import com.rustdesk.api.dto.response.ApiResponse;
+import com.rustdesk.api.dto.response.GroupResponse;
+import com.rustdesk.api.dto.response.UserResponse;
 import com.rustdesk.api.entity.Group;
+import com.rustdesk.api.entity.Peer;
 import com.rustdesk.api.entity.User;
 import com.rustdesk.api.exception.ApiException;
 import com.rustdesk.api.service.GroupService;
+import com.rustdesk.api.service.GroupStatsService;
+import com.rustdesk.api.service.PeerService;
 import com.rustdesk.api.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -36,23 +41,27 @@ import java.util.Map;
 public class AdminGroupController {
 
     private final GroupService groupService;
+    private final GroupStatsService groupStatsService;
     private final UserService userService;
+    private final PeerService peerService;
 
     /**
      * Get Group List
      *
      * @param httpRequest HTTP request
-     * @return List of all groups
+     * @return List of all groups with user and device counts
      */
     @GetMapping("/group/list")
-    @Operation(summary = "Get Group List", description = "Get list of all groups")
-    public ApiResponse<List<Group>> getGroupList(HttpServletRequest httpRequest) {
+    @Operation(summary = "Get Group List", description = "Get list of all groups with user and device counts")
+    public ApiResponse<List<GroupResponse>> getGroupList(HttpServletRequest httpRequest) {
         if (!isAdmin(httpRequest)) {
             log.warn("Failed to get group list: User is not admin");
             return ApiResponse.forbidden("Admin permission required");
         }
 
-        List<Group> groups = groupService.findAll();
+        List<GroupResponse> groups = groupService.findAll().stream()
+                .map(this::convertToGroupResponse)
+                .toList();
 
         log.debug("Retrieved {} groups", groups.size());
         return ApiResponse.success(groups);
@@ -77,6 +86,7 @@ public class AdminGroupController {
 
         String name = (String) request.get("name");
         Integer type = (Integer) request.get("type");
+        Object parentId = request.get("parentId");
 
         log.info("Creating group: {}", name);
 
@@ -84,6 +94,7 @@ public class AdminGroupController {
         Group group = new Group();
         group.setName(name);
         group.setType(type != null ? type : 1);
+        group.setParentId(parentId != null ? Long.valueOf(parentId.toString()) : null);
 
         Group savedGroup = groupService.createGroup(group);
 
@@ -124,6 +135,12 @@ public class AdminGroupController {
 
         Group updatedGroup = groupService.updateGroup(group);
 
+        // Re-parent the group and its subtree if requested
+        if (request.containsKey("parentId")) {
+            Object parentId = request.get("parentId");
+            updatedGroup = groupService.moveGroup(groupId, parentId != null ? Long.valueOf(parentId.toString()) : null);
+        }
+
         log.info("Group updated successfully: {}", group.getName());
         return ApiResponse.success("Group updated successfully", updatedGroup);
     }
@@ -157,6 +174,92 @@ public class AdminGroupController {
         return ApiResponse.success("Group deleted successfully");
     }
 
+    /**
+     * Get Peers in Group Subtree
+     *
+     * @param id Subtree root group ID
+     * @param httpRequest HTTP request
+     * @return Peers in the group and all of its descendant groups
+     */
+    @GetMapping("/group/peers")
+    @Operation(summary = "Get Group Subtree Peers", description = "Get all devices in a group and its descendant groups")
+    public ApiResponse<List<Peer>> getSubtreePeers(
+            @RequestParam Long id,
+            HttpServletRequest httpRequest) {
+        if (!isAdmin(httpRequest)) {
+            log.warn("Failed to get group peers: User is not admin");
+            return ApiResponse.forbidden("Admin permission required");
+        }
+
+        Group group = groupService.findById(id)
+                .orElseThrow(() -> ApiException.notFound("Group not found"));
+
+        List<Peer> peers = peerService.findByGroupSubtree(group);
+
+        log.debug("Retrieved {} peers in subtree of group {}", peers.size(), id);
+        return ApiResponse.success(peers);
+    }
+
+    /**
+     * Get Users in Group Subtree
+     *
+     * @param id Subtree root group ID
+     * @param httpRequest HTTP request
+     * @return Users in the group and all of its descendant groups
+     */
+    @GetMapping("/group/users")
+    @Operation(summary = "Get Group Subtree Users", description = "Get all users in a group and its descendant groups")
+    public ApiResponse<List<UserResponse>> getSubtreeUsers(
+            @RequestParam Long id,
+            HttpServletRequest httpRequest) {
+        if (!isAdmin(httpRequest)) {
+            log.warn("Failed to get group users: User is not admin");
+            return ApiResponse.forbidden("Admin permission required");
+        }
+
+        Group group = groupService.findById(id)
+                .orElseThrow(() -> ApiException.notFound("Group not found"));
+
+        List<UserResponse> users = userService.findByGroupSubtree(group).stream()
+                .map(user -> UserResponse.builder()
+                        .id(user.getId())
+                        .username(user.getUsername())
+                        .email(user.getEmail())
+                        .nickname(user.getNickname())
+                        .avatar(user.getAvatar())
+                        .groupId(user.getGroupId())
+                        .isAdmin(user.getIsAdmin())
+                        .status(user.getStatus())
+                        .remark(user.getRemark())
+                        .build())
+                .toList();
+
+        log.debug("Retrieved {} users in subtree of group {}", users.size(), id);
+        return ApiResponse.success(users);
+    }
+
+    /**
+     * Convert Group entity to GroupResponse
+     * Counts come from the in-memory group stats, not from per-group queries.
+     *
+     * @param group Group entity
+     * @return GroupResponse
+     */
+    private GroupResponse convertToGroupResponse(Group group) {
+        return GroupResponse.builder()
+                .id(group.getId())
+                .name(group.getName())
+                .type(group.getType())
+                .parentId(group.getParentId())
+                .path(group.getPath())
+                .depth(group.getDepth())
+                .userCount(groupStatsService.getUserCount(group.getId()))
+                .peerCount(groupStatsService.getPeerCount(group.getId()))
+                .createdAt(group.getCreatedAt())
+                .updatedAt(group.getUpdatedAt())
+                .build();
+    }
+
     /**
      * Check if current user is admin
      *
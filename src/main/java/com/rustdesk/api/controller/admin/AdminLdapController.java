@@ -0,0 +1,114 @@
+package com.rustdesk.api.controller.admin;
+
+import cn.dev33.satoken.stp.StpUtil;
+import com.rustdesk.api.dto.response.ApiResponse;
+import com.rustdesk.api.entity.LdapSyncState;
+import com.rustdesk.api.entity.User;
+import com.rustdesk.api.exception.ApiException;
+import com.rustdesk.api.service.LdapSyncService;
+import com.rustdesk.api.service.UserService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Admin LDAP Controller
+ * Handles LDAP synchronization operations for administrators
+ *
+ * @author RustDesk
+ * @version 2.0.0
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+@Validated
+@Tag(name = "Admin LDAP Management", description = "Admin LDAP Management API")
+@SecurityRequirement(name = "Bearer Authentication")
+public class AdminLdapController {
+
+    private final LdapSyncService ldapSyncService;
+    private final UserService userService;
+
+    /**
+     * Run LDAP Sync
+     *
+     * @param full true to force a full pass
+     * @param httpRequest HTTP request
+     * @return Sync state after the pass
+     */
+    @PostMapping("/ldap/sync")
+    @Operation(summary = "Run LDAP Sync", description = "Synchronize users from LDAP now")
+    public ApiResponse<LdapSyncState> sync(
+            @RequestParam(defaultValue = "false") boolean full,
+            HttpServletRequest httpRequest) {
+        if (!isAdmin(httpRequest)) {
+            log.warn("Failed to run LDAP sync: User is not admin");
+            return ApiResponse.forbidden("Admin permission required");
+        }
+
+        log.info("Running {} LDAP sync", full ? "full" : "incremental");
+
+        try {
+            return ApiResponse.success("LDAP sync completed", ldapSyncService.sync(full));
+        } catch (IllegalStateException e) {
+            return ApiResponse.conflict(e.getMessage());
+        }
+    }
+
+    /**
+     * Get LDAP Sync Status
+     *
+     * @param httpRequest HTTP request
+     * @return State of the last sync pass
+     */
+    @GetMapping("/ldap/status")
+    @Operation(summary = "Get LDAP Sync Status", description = "Get watermark and result of the last LDAP sync")
+    public ApiResponse<LdapSyncState> getStatus(HttpServletRequest httpRequest) {
+        if (!isAdmin(httpRequest)) {
+            log.warn("Failed to get LDAP sync status: User is not admin");
+            return ApiResponse.forbidden("Admin permission required");
+        }
+
+        LdapSyncState state = ldapSyncService.getState()
+                .orElseThrow(() -> ApiException.notFound("LDAP sync has not run yet"));
+
+        return ApiResponse.success(state);
+    }
+
+    /**
+     * Check if current user is admin
+     *
+     * @param request HTTP request
+     * @return true if admin, false otherwise
+     */
+    private boolean isAdmin(HttpServletRequest request) {
+        Long userId = getCurrentUserId(request);
+        if (userId == null) {
+            return false;
+        }
+
+        return userService.findById(userId)
+                .map(User::getIsAdmin)
+                .orElse(false);
+    }
+
+    /**
+     * Get current user ID from Sa-Token
+     *
+     * @param request HTTP request
+     * @return User ID or null
+     */
+    private Long getCurrentUserId(HttpServletRequest request) {
+        try {
+            return StpUtil.getLoginIdAsLong();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.rustdesk.api.controller.admin;
+
+import cn.dev33.satoken.stp.StpUtil;
+import com.rustdesk.api.dto.request.OauthRequest;
+import com.rustdesk.api.dto.response.ApiResponse;
+import com.rustdesk.api.dto.response.OauthResponse;
+import com.rustdesk.api.entity.Oauth;
+import com.rustdesk.api.entity.User;
+import com.rustdesk.api.exception.ApiException;
+import com.rustdesk.api.service.OauthService;
+import com.rustdesk.api.service.UserService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin OAuth Controller
+ * Handles OAuth provider management operations for administrators
+ *
+ * @author RustDesk
+ * @version 2.0.0
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+@Validated
+@Tag(name = "Admin OAuth Management", description = "Admin OAuth Provider Management API")
+@SecurityRequirement(name = "Bearer Authentication")
+public class AdminOauthController {
+
+    private final OauthService oauthService;
+    private final UserService userService;
+
+    /**
+     * Get OAuth Provider List
+     *
+     * @param httpRequest HTTP request
+     * @return List of all provider configs, without client secrets
+     */
+    @GetMapping("/oauth/list")
+    @Operation(summary = "Get OAuth Provider List", description = "Get list of all OAuth provider configs")
+    public ApiResponse<List<OauthResponse>> getOauthList(HttpServletRequest httpRequest) {
+        if (!isAdmin(httpRequest)) {
+            log.warn("Failed to get OAuth provider list: User is not admin");
+            return ApiResponse.forbidden("Admin permission required");
+        }
+
+        List<OauthResponse> providers = oauthService.findAll();
+
+        log.debug("Retrieved {} OAuth providers", providers.size());
+        return ApiResponse.success(providers);
+    }
+
+    /**
+     * Create OAuth Provider
+     *
+     * @param request Provider create request
+     * @param httpRequest HTTP request
+     * @return Newly created provider config
+     */
+    @PostMapping("/oauth/create")
+    @Operation(summary = "Create OAuth Provider", description = "Create a new OAuth provider config")
+    public ApiResponse<OauthResponse> createOauth(
+            @Valid @RequestBody OauthRequest request,
+            HttpServletRequest httpRequest) {
+        if (!isAdmin(httpRequest)) {
+            log.warn("Failed to create OAuth provider: User is not admin");
+            return ApiResponse.forbidden("Admin permission required");
+        }
+
+        log.info("Creating OAuth provider: {}", request.getOp());
+
+        Oauth oauth = new Oauth();
+        applyRequest(oauth, request);
+
+        Oauth saved = oauthService.create(oauth);
+
+        log.info("OAuth provider created successfully: {}", saved.getOp());
+        return ApiResponse.success("OAuth provider created successfully", OauthResponse.from(saved));
+    }
+
+    /**
+     * Update OAuth Provider
+     *
+     * @param request Provider update request
+     * @param httpRequest HTTP request
+     * @return Updated provider config
+     */
+    @PostMapping("/oauth/update")
+    @Operation(summary = "Update OAuth Provider", description = "Update an existing OAuth provider config")
+    public ApiResponse<OauthResponse> updateOauth(
+            @Valid @RequestBody OauthRequest request,
+            HttpServletRequest httpRequest) {
+        if (!isAdmin(httpRequest)) {
+            log.warn("Failed to update OAuth provider: User is not admin");
+            return ApiResponse.forbidden("Admin permission required");
+        }
+        if (request.getId() == null) {
+            return ApiResponse.badRequest("Provider config ID is required");
+        }
+
+        log.info("Updating OAuth provider ID: {}", request.getId());
+
+        Oauth oauth = oauthService.findById(request.getId())
+                .orElseThrow(() -> ApiException.notFound("OAuth provider not found"));
+        applyRequest(oauth, request);
+
+        Oauth saved = oauthService.update(oauth);
+
+        log.info("OAuth provider updated successfully: {}", saved.getOp());
+        return ApiResponse.success("OAuth provider updated successfully", OauthResponse.from(saved));
+    }
+
+    /**
+     * Delete OAuth Provider
+     *
+     * @param request Delete request with provider config ID
+     * @param httpRequest HTTP request
+     * @return Success response
+     */
+    @PostMapping("/oauth/delete")
+    @Operation(summary = "Delete OAuth Provider", description = "Delete an OAuth provider config")
+    public ApiResponse<Void> deleteOauth(
+            @RequestBody Map<String, Long> request,
+            HttpServletRequest httpRequest) {
+        if (!isAdmin(httpRequest)) {
+            log.warn("Failed to delete OAuth provider: User is not admin");
+            return ApiResponse.forbidden("Admin permission required");
+        }
+
+        Long id = request.get("id");
+        log.info("Deleting OAuth provider ID: {}", id);
+
+        oauthService.findById(id)
+                .orElseThrow(() -> ApiException.notFound("OAuth provider not found"));
+
+        oauthService.delete(id);
+
+        log.info("OAuth provider deleted successfully: {}", id);
+        return ApiResponse.success("OAuth provider deleted successfully");
+    }
+
+    /**
+     * Copy request fields onto a provider config
+     *
+     * @param oauth provider config
+     * @param request provider request
+     */
+    private void applyRequest(Oauth oauth, OauthRequest request) {
+        oauth.setOp(request.getOp());
+        oauth.setOauthType(request.getOauthType());
+        oauth.setClientId(request.getClientId());
+        if (request.getClientSecret() != null) {
+            oauth.setClientSecret(request.getClientSecret());
+        }
+        if (request.getAutoRegister() != null) {
+            oauth.setAutoRegister(request.getAutoRegister());
+        }
+        oauth.setScopes(request.getScopes());
+        oauth.setIssuer(request.getIssuer());
+        if (request.getPkceEnable() != null) {
+            oauth.setPkceEnable(request.getPkceEnable());
+        }
+        oauth.setPkceMethod(request.getPkceMethod());
+    }
+
+    /**
+     * Check if current user is admin
+     *
+     * @param request HTTP request
+     * @return true if admin, false otherwise
+     */
+    private boolean isAdmin(HttpServletRequest request) {
+        Long userId = getCurrentUserId(request);
+        if (userId == null) {
+            return false;
+        }
+
+        return userService.findById(userId)
+                .map(User::getIsAdmin)
+                .orElse(false);
+    }
+
+    /**
+     * Get current user ID from Sa-Token
+     *
+     * @param request HTTP request
+     * @return User ID or null
+     */
+    private Long getCurrentUserId(HttpServletRequest request) {
+        try {
+            return StpUtil.getLoginIdAsLong();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -5,7 +5,9 @@ import com.rustdesk.api.dto.request.UserCreateRequest;
 import com.rustdesk.api.dto.response.ApiResponse;
 import com.rustdesk.api.dto.response.UserResponse;
 import com.rustdesk.api.entity.User;
+import com.rustdesk.api.entity.UserCleanupJob;
 import com.rustdesk.api.exception.ApiException;
+import com.rustdesk.api.service.UserCleanupService;
 import com.rustdesk.api.service.UserService;
 import com.rustdesk.api.util.PasswordUtil;
 import io.swagger.v3.oas.annotations.Operation;
@@ -38,6 +40,7 @@ import java.util.stream.Collectors;
 public class AdminUserController {
 
     private final UserService userService;
+    private final UserCleanupService userCleanupService;
 
     /**
      * Get Current Admin Info
@@ -214,10 +217,36 @@ public class AdminUserController {
 
         userService.deleteUser(userId);
 
+        // Kick out active sessions, the token rows are removed by the cleanup job
+        StpUtil.logout(userId);
+
         log.info("User deleted successfully: {}", user.getUsername());
         return ApiResponse.success("User deleted successfully");
     }
 
+    /**
+     * Get User Deletion Progress
+     *
+     * @param id User ID
+     * @param httpRequest HTTP request
+     * @return Latest cleanup job for the user
+     */
+    @GetMapping("/user/delete/status")
+    @Operation(summary = "Get User Deletion Progress", description = "Get progress of the background cleanup for a deleted user")
+    public ApiResponse<UserCleanupJob> getDeleteStatus(
+            @RequestParam Long id,
+            HttpServletRequest httpRequest) {
+        if (!isAdmin(httpRequest)) {
+            log.warn("Failed to get user deletion progress: User is not admin");
+            return ApiResponse.forbidden("Admin permission required");
+        }
+
+        UserCleanupJob job = userCleanupService.findLatestByUserId(id)
+                .orElseThrow(() -> ApiException.notFound("No deletion in progress for this user"));
+
+        return ApiResponse.success(job);
+    }
+
     /**
      * Convert User entity to UserResponse DTO
      *
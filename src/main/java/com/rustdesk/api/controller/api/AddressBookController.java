@@ -0,0 +1,564 @@
+package com.rustdesk.api.controller.api;
+
+import cn.dev33.satoken.stp.StpUtil;
+import com.rustdesk.api.constant.Constants;
+import com.rustdesk.api.dto.request.CollectionRuleRequest;
+import com.rustdesk.api.dto.request.CollectionRulesRequest;
+import com.rustdesk.api.dto.request.TagRequest;
+import com.rustdesk.api.dto.response.AddressBookImportResponse;
+import com.rustdesk.api.dto.response.AddressBookOnlineResponse;
+import com.rustdesk.api.dto.response.AddressBookResponse;
+import com.rustdesk.api.dto.response.AddressBookSyncResponse;
+import com.rustdesk.api.dto.response.CollectionRuleResponse;
+import com.rustdesk.api.dto.response.CollectionRulesResponse;
+import com.rustdesk.api.dto.response.TagResponse;
+import com.rustdesk.api.dto.response.ApiResponse;
+import com.rustdesk.api.entity.AddressBook;
+import com.rustdesk.api.entity.AddressBookCollectionRule;
+import com.rustdesk.api.exception.ApiException;
+import com.rustdesk.api.service.AddressBookCollectionService;
+import com.rustdesk.api.service.AddressBookImportService;
+import com.rustdesk.api.service.AddressBookService;
+import com.rustdesk.api.service.AddressBookSnapshotService;
+import com.rustdesk.api.service.AddressBookVersionService;
+import com.rustdesk.api.service.CollectionAccessService;
+import com.rustdesk.api.service.PresenceService;
+import com.rustdesk.api.service.TagCatalogService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Address Book Controller
+ * Handles address book synchronization and collection sharing
+ *
+ * @author RustDesk
+ * @version 2.0.0
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/ab")
+@RequiredArgsConstructor
+@Validated
+@Tag(name = "Address Book", description = "Address Book API")
+@SecurityRequirement(name = "Bearer Authentication")
+public class AddressBookController {
+
+    private final AddressBookService addressBookService;
+    private final AddressBookCollectionService addressBookCollectionService;
+    private final CollectionAccessService collectionAccessService;
+    private final PresenceService presenceService;
+    private final AddressBookVersionService addressBookVersionService;
+    private final AddressBookSnapshotService addressBookSnapshotService;
+    private final AddressBookImportService addressBookImportService;
+    private final TagCatalogService tagCatalogService;
+
+    /**
+     * Sync Address Book
+     * Returns the changes since the client's last version, or a full snapshot
+     * when the client has no version or the change log no longer covers it.
+     * Shared collections of other users can be synced with read permission.
+     *
+     * @param collectionId collection ID, 0 for the personal address book
+     * @param since last version the client has seen, 0 for none
+     * @return Sync result
+     */
+    @GetMapping("/sync")
+    @Operation(summary = "Sync Address Book", description = "Get address book changes since a version, or a full snapshot")
+    public ApiResponse<AddressBookSyncResponse> sync(
+            @RequestParam(defaultValue = "0") Long collectionId,
+            @RequestParam(defaultValue = "0") Long since) {
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            log.warn("Failed to sync address book: No valid token");
+            return ApiResponse.unauthorized("Authentication required");
+        }
+
+        Long bookId = collectionId != null ? collectionId : AddressBookVersionService.PERSONAL_COLLECTION;
+        Long ownerId = resolveReadableOwner(userId, bookId);
+
+        AddressBookService.SyncResult result = addressBookService.sync(ownerId, bookId, since != null ? since : 0L);
+
+        return ApiResponse.success(AddressBookSyncResponse.builder()
+                .version(result.version())
+                .full(result.full())
+                .entries(result.entries().stream().map(this::convertToAddressBookResponse).toList())
+                .deletedIds(result.deletedIds())
+                .tagColors(tagCatalogService.getCatalog(ownerId, bookId).colors())
+                .build());
+    }
+
+    /**
+     * Get Address Book Snapshot
+     * Returns the full address book as the same body a full sync returns, served
+     * from pre-compressed bytes cached per version. Honors If-None-Match and sends
+     * the gzip bytes as is to clients that accept gzip. Entries carry no online
+     * flag; use the online endpoint for that.
+     *
+     * @param collectionId collection ID, 0 for the personal address book
+     * @param ifNoneMatch entity tags the client holds
+     * @param acceptEncoding encodings the client accepts
+     * @return Snapshot body, or 304 if the client's copy is current
+     */
+    @GetMapping("/snapshot")
+    @Operation(summary = "Get Address Book Snapshot", description = "Get the full address book as cacheable, gzip-encoded JSON with ETag support")
+    public ResponseEntity<byte[]> snapshot(
+            @RequestParam(defaultValue = "0") Long collectionId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            log.warn("Failed to get address book snapshot: No valid token");
+            throw ApiException.unauthorized("Authentication required");
+        }
+
+        Long bookId = collectionId != null ? collectionId : AddressBookVersionService.PERSONAL_COLLECTION;
+        Long ownerId = resolveReadableOwner(userId, bookId);
+
+        long version = addressBookVersionService.getVersion(ownerId, bookId);
+        TagCatalogService.Catalog catalog = tagCatalogService.getCatalog(ownerId, bookId);
+        AddressBookSnapshotService.Snapshot snapshot = addressBookSnapshotService.get(ownerId, bookId, version,
+                catalog.fingerprint(), (snapshotVersion, entries) -> ApiResponse.success(AddressBookSyncResponse.builder()
+                        .version(snapshotVersion)
+                        .full(true)
+                        .entries(entries.stream().map(this::convertToCacheableResponse).toList())
+                        .deletedIds(List.of())
+                        .tagColors(catalog.colors())
+                        .build()));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(snapshot.etag());
+        headers.setCacheControl("private, no-cache");
+        headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+        if (matchesETag(ifNoneMatch, snapshot.etag())) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip")) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return new ResponseEntity<>(snapshot.gzip(), headers, HttpStatus.OK);
+        }
+        return new ResponseEntity<>(AddressBookSnapshotService.decompress(snapshot), headers, HttpStatus.OK);
+    }
+
+    /**
+     * Get Address Book Online Status
+     * Returns only a bitset of which entries are online, for cheap polling
+     * between syncs. Bit i refers to the i-th entry of the book ordered by ID.
+     *
+     * @param collectionId collection ID, 0 for the personal address book
+     * @return Online bitset
+     */
+    @GetMapping("/online")
+    @Operation(summary = "Get Address Book Online Status", description = "Get the online bitset of the entries of an address book")
+    public ApiResponse<AddressBookOnlineResponse> online(@RequestParam(defaultValue = "0") Long collectionId) {
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            log.warn("Failed to get address book online status: No valid token");
+            return ApiResponse.unauthorized("Authentication required");
+        }
+
+        Long bookId = collectionId != null ? collectionId : AddressBookVersionService.PERSONAL_COLLECTION;
+        Long ownerId = resolveReadableOwner(userId, bookId);
+
+        AddressBookService.BookDevices devices = addressBookService.findBookDevices(ownerId, bookId);
+        BitSet bits = presenceService.onlineBits(devices.deviceIds());
+
+        return ApiResponse.success(AddressBookOnlineResponse.builder()
+                .version(devices.version())
+                .count(devices.deviceIds().size())
+                .online(bits.cardinality())
+                .bits(Base64.getEncoder().encodeToString(bits.toByteArray()))
+                .build());
+    }
+
+    /**
+     * List Address Book Entries
+     * Optionally filtered by tags through the tag index.
+     *
+     * @param tags tags to filter by, none for all entries
+     * @param all true to require all tags, false to require any of them
+     * @return List of entries
+     */
+    @GetMapping("/list")
+    @Operation(summary = "List Address Book", description = "Get address book entries, optionally filtered by tags")
+    public ApiResponse<List<AddressBookResponse>> list(
+            @RequestParam(required = false) List<String> tags,
+            @RequestParam(defaultValue = "false") boolean all) {
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            log.warn("Failed to list address book: No valid token");
+            return ApiResponse.unauthorized("Authentication required");
+        }
+
+        List<AddressBook> entries = tags == null || tags.isEmpty()
+                ? addressBookService.findByUserId(userId)
+                : addressBookService.findByUserIdAndTags(userId, tags, all);
+
+        log.debug("Retrieved {} address book entries for user ID: {}", entries.size(), userId);
+        return ApiResponse.success(entries.stream().map(this::convertToAddressBookResponse).toList());
+    }
+
+    /**
+     * Filter Address Book Entries
+     * Evaluates a boolean tag expression such as {@code windows AND finance AND NOT kiosk}.
+     *
+     * @param q tag expression
+     * @return List of matching entries
+     */
+    @GetMapping("/filter")
+    @Operation(summary = "Filter Address Book", description = "Get address book entries matching a boolean tag expression (AND, OR, NOT, parentheses)")
+    public ApiResponse<List<AddressBookResponse>> filter(@RequestParam String q) {
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            log.warn("Failed to filter address book: No valid token");
+            return ApiResponse.unauthorized("Authentication required");
+        }
+
+        List<AddressBook> entries = addressBookService.findByUserIdAndTagExpression(userId, q);
+
+        log.debug("Filtered {} address book entries for user ID: {}", entries.size(), userId);
+        return ApiResponse.success(entries.stream().map(this::convertToAddressBookResponse).toList());
+    }
+
+    /**
+     * Get Tags
+     * Served from the in-memory tag catalog.
+     *
+     * @param collectionId collection ID, 0 for the personal address book
+     * @return Tags of the address book
+     */
+    @GetMapping("/tags")
+    @Operation(summary = "Get Tags", description = "Get the tags of an address book")
+    public ApiResponse<List<TagResponse>> tags(@RequestParam(defaultValue = "0") Long collectionId) {
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            log.warn("Failed to get tags: No valid token");
+            return ApiResponse.unauthorized("Authentication required");
+        }
+
+        Long bookId = collectionId != null ? collectionId : AddressBookVersionService.PERSONAL_COLLECTION;
+        Long ownerId = resolveReadableOwner(userId, bookId);
+
+        return ApiResponse.success(tagCatalogService.getCatalog(ownerId, bookId).tags().stream()
+                .map(tag -> TagResponse.builder().id(tag.id()).name(tag.name()).color(tag.color()).build())
+                .toList());
+    }
+
+    /**
+     * Save Tag
+     * Creates a tag or updates its color. Requires write access to the address book.
+     *
+     * @param request tag request
+     * @return Saved tag
+     */
+    @PostMapping("/tags")
+    @Operation(summary = "Save Tag", description = "Create a tag or update its color")
+    public ApiResponse<TagResponse> saveTag(@Validated @RequestBody TagRequest request) {
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            log.warn("Failed to save tag: No valid token");
+            return ApiResponse.unauthorized("Authentication required");
+        }
+
+        Long bookId = request.getCollectionId() != null ? request.getCollectionId() : AddressBookVersionService.PERSONAL_COLLECTION;
+        Long ownerId = resolveWritableOwner(userId, bookId);
+
+        com.rustdesk.api.entity.Tag tag = tagCatalogService.saveTag(ownerId, bookId, request.getName(), request.getColor());
+        return ApiResponse.success(TagResponse.builder().id(tag.getId()).name(tag.getName()).color(tag.getColor()).build());
+    }
+
+    /**
+     * Delete Tag
+     * Requires write access to the address book.
+     *
+     * @param collectionId collection ID, 0 for the personal address book
+     * @param name tag name
+     * @return Success response
+     */
+    @DeleteMapping("/tags")
+    @Operation(summary = "Delete Tag", description = "Delete a tag of an address book")
+    public ApiResponse<Void> deleteTag(@RequestParam(defaultValue = "0") Long collectionId, @RequestParam String name) {
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            log.warn("Failed to delete tag: No valid token");
+            return ApiResponse.unauthorized("Authentication required");
+        }
+
+        Long bookId = collectionId != null ? collectionId : AddressBookVersionService.PERSONAL_COLLECTION;
+        Long ownerId = resolveWritableOwner(userId, bookId);
+
+        if (!tagCatalogService.deleteTag(ownerId, bookId, name)) {
+            return ApiResponse.notFound("Tag not found");
+        }
+        return ApiResponse.success("Tag deleted successfully");
+    }
+
+    /**
+     * Import Address Book
+     * Imports a legacy RustDesk client or Go server address book document into the
+     * personal address book. The body is streamed, so documents of any size can be
+     * posted. Devices the user already has are skipped.
+     *
+     * @param dryRun true to only report what would be imported
+     * @param httpRequest HTTP request carrying the JSON document
+     * @return Import result
+     * @throws IOException if the request body cannot be opened
+     */
+    @PostMapping("/import")
+    @Operation(summary = "Import Address Book", description = "Import a legacy address book document ({\"data\": ...} or {\"peers\": [...], \"tags\": [...]}), optionally as a dry run")
+    public ApiResponse<AddressBookImportResponse> importAddressBook(
+            @RequestParam(defaultValue = "false") boolean dryRun,
+            HttpServletRequest httpRequest) throws IOException {
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            log.warn("Failed to import address book: No valid token");
+            return ApiResponse.unauthorized("Authentication required");
+        }
+
+        AddressBookImportResponse result = addressBookImportService.importAddressBook(userId, httpRequest.getInputStream(), dryRun);
+        return ApiResponse.success(result);
+    }
+
+    /**
+     * Get Accessible Collections
+     * Collections the current user owns or that are shared with the user or the user's groups.
+     *
+     * @return Map of collection ID to permission (1 = read, 2 = read/write, 3 = full control)
+     */
+    @GetMapping("/collections")
+    @Operation(summary = "Get Accessible Collections", description = "Get collections the current user can access with the effective permission")
+    public ApiResponse<Map<Long, Integer>> collections() {
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            log.warn("Failed to get collections: No valid token");
+            return ApiResponse.unauthorized("Authentication required");
+        }
+
+        return ApiResponse.success(collectionAccessService.getAccessibleCollections(userId));
+    }
+
+    /**
+     * Save Collection Rule
+     * Shares a collection with a user or group. Requires full control of the collection.
+     *
+     * @param request rule request
+     * @return Saved rule
+     */
+    @PostMapping("/rule")
+    @Operation(summary = "Save Collection Rule", description = "Create or update the sharing rule of a collection for a user or group")
+    public ApiResponse<CollectionRuleResponse> saveRule(@Validated @RequestBody CollectionRuleRequest request) {
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            log.warn("Failed to save collection rule: No valid token");
+            return ApiResponse.unauthorized("Authentication required");
+        }
+        if (collectionAccessService.getPermission(userId, request.getCollectionId()) < Constants.PERMISSION_FULL) {
+            log.warn("User {} cannot manage rules of collection {}", userId, request.getCollectionId());
+            return ApiResponse.forbidden("Full control of the collection is required");
+        }
+
+        AddressBookCollectionRule saved = addressBookCollectionService.saveRule(request.getCollectionId(),
+                request.getType(), request.getToId(), request.getRule());
+        return ApiResponse.success(CollectionRuleResponse.builder()
+                .id(saved.getId())
+                .collectionId(saved.getCollectionId())
+                .type(saved.getType())
+                .toId(saved.getToId())
+                .rule(saved.getRule())
+                .build());
+    }
+
+    /**
+     * Replace Collection Rules
+     * Sets the complete list of sharing rules of a collection in one call: missing
+     * targets are added, changed permissions updated and unlisted targets removed.
+     * Requires full control of the collection.
+     *
+     * @param request desired rules
+     * @return Applied changes
+     */
+    @PutMapping("/rules")
+    @Operation(summary = "Replace Collection Rules", description = "Replace all sharing rules of a collection with the given set")
+    public ApiResponse<CollectionRulesResponse> replaceRules(@Validated @RequestBody CollectionRulesRequest request) {
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            log.warn("Failed to replace collection rules: No valid token");
+            return ApiResponse.unauthorized("Authentication required");
+        }
+        if (collectionAccessService.getPermission(userId, request.getCollectionId()) < Constants.PERMISSION_FULL) {
+            log.warn("User {} cannot manage rules of collection {}", userId, request.getCollectionId());
+            return ApiResponse.forbidden("Full control of the collection is required");
+        }
+
+        AddressBookCollectionService.RuleDiff diff = addressBookCollectionService.replaceRules(request.getCollectionId(),
+                request.getRules().stream()
+                        .map(rule -> new AddressBookCollectionService.RuleTarget(rule.getType(), rule.getToId(), rule.getRule()))
+                        .toList());
+        return ApiResponse.success(CollectionRulesResponse.builder()
+                .created(diff.created())
+                .updated(diff.updated())
+                .deleted(diff.deleted())
+                .unchanged(diff.unchanged())
+                .build());
+    }
+
+    /**
+     * Delete Collection Rule
+     * Requires full control of the collection.
+     *
+     * @param id rule ID
+     * @return Success response
+     */
+    @DeleteMapping("/rule")
+    @Operation(summary = "Delete Collection Rule", description = "Delete a sharing rule of a collection")
+    public ApiResponse<Void> deleteRule(@RequestParam Long id) {
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            log.warn("Failed to delete collection rule: No valid token");
+            return ApiResponse.unauthorized("Authentication required");
+        }
+        Long collectionId = addressBookCollectionService.findRule(id)
+                .map(AddressBookCollectionRule::getCollectionId)
+                .orElse(null);
+        if (collectionId == null) {
+            return ApiResponse.notFound("Collection rule not found");
+        }
+        if (collectionAccessService.getPermission(userId, collectionId) < Constants.PERMISSION_FULL) {
+            log.warn("User {} cannot manage rules of collection {}", userId, collectionId);
+            return ApiResponse.forbidden("Full control of the collection is required");
+        }
+
+        addressBookCollectionService.deleteRule(id);
+        return ApiResponse.success("Collection rule deleted successfully");
+    }
+
+    /**
+     * Convert AddressBook entity to AddressBookResponse DTO
+     *
+     * @param addressBook AddressBook entity
+     * @return AddressBookResponse DTO
+     */
+    private AddressBookResponse convertToAddressBookResponse(AddressBook addressBook) {
+        AddressBookResponse response = convertToCacheableResponse(addressBook);
+        response.setOnline(presenceService.isOnline(addressBook.getDeviceId()));
+        return response;
+    }
+
+    /**
+     * Convert AddressBook entity to AddressBookResponse DTO without live state
+     *
+     * @param addressBook AddressBook entity
+     * @return AddressBookResponse DTO
+     */
+    private AddressBookResponse convertToCacheableResponse(AddressBook addressBook) {
+        return AddressBookResponse.builder()
+                .id(addressBook.getId())
+                .deviceId(addressBook.getDeviceId())
+                .username(addressBook.getUsername())
+                .hostname(addressBook.getHostname())
+                .alias(addressBook.getAlias())
+                .platform(addressBook.getPlatform())
+                .tags(addressBook.getTags())
+                .hash(addressBook.getHash())
+                .collectionId(addressBook.getCollectionId())
+                .forceAlwaysRelay(addressBook.getForceAlwaysRelay())
+                .rdpPort(addressBook.getRdpPort())
+                .rdpUsername(addressBook.getRdpUsername())
+                .loginName(addressBook.getLoginName())
+                .sameServer(addressBook.getSameServer())
+                .build();
+    }
+
+    /**
+     * Check an If-None-Match header against an entity tag, using weak comparison
+     *
+     * @param ifNoneMatch header value
+     * @param etag current entity tag
+     * @return true if the client's copy is current
+     */
+    private static boolean matchesETag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        String opaque = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Resolve the owner of an address book the current user may read
+     *
+     * @param userId current user ID
+     * @param collectionId collection ID, 0 for the personal address book
+     * @return owner user ID
+     * @throws ApiException if the collection does not exist or is not readable
+     */
+    private Long resolveReadableOwner(Long userId, Long collectionId) {
+        if (AddressBookVersionService.PERSONAL_COLLECTION.equals(collectionId)) {
+            return userId;
+        }
+        Long ownerId = collectionAccessService.getOwnerId(collectionId)
+                .orElseThrow(() -> ApiException.notFound("Collection not found"));
+        if (!collectionAccessService.canRead(userId, collectionId)) {
+            log.warn("User {} has no access to collection {}", userId, collectionId);
+            throw ApiException.forbidden("No access to this collection");
+        }
+        return ownerId;
+    }
+
+    /**
+     * Resolve the owner of an address book the current user may modify
+     *
+     * @param userId current user ID
+     * @param collectionId collection ID, 0 for the personal address book
+     * @return owner user ID
+     * @throws ApiException if the collection does not exist or is not writable
+     */
+    private Long resolveWritableOwner(Long userId, Long collectionId) {
+        if (AddressBookVersionService.PERSONAL_COLLECTION.equals(collectionId)) {
+            return userId;
+        }
+        Long ownerId = collectionAccessService.getOwnerId(collectionId)
+                .orElseThrow(() -> ApiException.notFound("Collection not found"));
+        if (!collectionAccessService.canWrite(userId, collectionId)) {
+            log.warn("User {} cannot modify collection {}", userId, collectionId);
+            throw ApiException.forbidden("No write access to this collection");
+        }
+        return ownerId;
+    }
+
+    /**
+     * Get current user ID from Sa-Token
+     *
+     * @return User ID or null
+     */
+    private Long getCurrentUserId() {
+        try {
+            return StpUtil.getLoginIdAsLong();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.rustdesk.api.controller.api;
+
+import com.rustdesk.api.dto.request.AuditConnRequest;
+import com.rustdesk.api.dto.response.ApiResponse;
+import com.rustdesk.api.entity.AuditConn;
+import com.rustdesk.api.exception.ApiException;
+import com.rustdesk.api.service.AuditConnIngestService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Audit Controller
+ * Receives connection audit events from the RustDesk server
+ *
+ * @author RustDesk
+ * @version 2.0.0
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/audit")
+@RequiredArgsConstructor
+@Validated
+@Tag(name = "Audit", description = "Audit Event API")
+public class AuditController {
+
+    /**
+     * Maximum events accepted in one batch request
+     */
+    private static final int MAX_BATCH = 1000;
+
+    private static final String ACTION_CLOSE = "close";
+
+    private final AuditConnIngestService auditConnIngestService;
+
+    /**
+     * Report Connection Event
+     * The event is buffered and written asynchronously.
+     *
+     * @param request connection event
+     * @return Success response
+     */
+    @PostMapping("/conn")
+    @Operation(summary = "Report Connection Event", description = "Queue a connection audit event for storage")
+    public ApiResponse<Void> conn(@Validated @RequestBody AuditConnRequest request) {
+        publish(convertToAuditConn(request));
+        return ApiResponse.success();
+    }
+
+    /**
+     * Report Connection Events
+     *
+     * @param requests connection events
+     * @return Number of queued events
+     */
+    @PostMapping("/conn/batch")
+    @Operation(summary = "Report Connection Events", description = "Queue several connection audit events for storage")
+    public ApiResponse<Integer> connBatch(@RequestBody @Size(max = MAX_BATCH, message = "At most 1000 events per batch")
+                                          List<@Valid AuditConnRequest> requests) {
+        for (AuditConnRequest request : requests) {
+            publish(convertToAuditConn(request));
+        }
+        return ApiResponse.success(requests.size());
+    }
+
+    private void publish(AuditConn event) {
+        if (!auditConnIngestService.publish(event)) {
+            log.warn("Connection audit event rejected, buffer full: conn {}", event.getConnId());
+            throw new ApiException(503, "Audit pipeline is full, retry later");
+        }
+    }
+
+    private AuditConn convertToAuditConn(AuditConnRequest request) {
+        AuditConn event = new AuditConn();
+        event.setAction(request.getAction());
+        event.setConnId(request.getConnId());
+        event.setPeerId(request.getId());
+        List<String> peer = request.getPeer();
+        if (peer != null && !peer.isEmpty()) {
+            event.setFromPeer(peer.get(0));
+            event.setFromName(peer.size() > 1 ? peer.get(1) : null);
+        }
+        event.setIp(request.getIp());
+        event.setSessionId(request.getSessionId());
+        event.setType(request.getType());
+        event.setUuid(request.getUuid());
+        if (ACTION_CLOSE.equals(request.getAction())) {
+            event.setCloseTime(System.currentTimeMillis() / 1000);
+        }
+        return event;
+    }
+}
@@ -1,16 +1,19 @@
 package com.rustdesk.api.controller.api;
 
 import cn.dev33.satoken.stp.StpUtil;
+import com.rustdesk.api.dto.request.HeartbeatRequest;
 import com.rustdesk.api.dto.request.LoginRequest;
 import com.rustdesk.api.dto.response.ApiResponse;
+import com.rustdesk.api.dto.response.CaptchaResponse;
 import com.rustdesk.api.dto.response.LoginResponse;
 import com.rustdesk.api.dto.response.UserResponse;
 import com.rustdesk.api.entity.User;
 import com.rustdesk.api.entity.UserToken;
+import com.rustdesk.api.service.CaptchaService;
 import com.rustdesk.api.service.LoginLogService;
+import com.rustdesk.api.service.PresenceService;
 import com.rustdesk.api.service.UserService;
 import com.rustdesk.api.service.UserTokenService;
-import com.rustdesk.api.util.PasswordUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
@@ -40,6 +43,8 @@ public class AuthController {
     private final UserService userService;
     private final UserTokenService userTokenService;
     private final LoginLogService loginLogService;
+    private final CaptchaService captchaService;
+    private final PresenceService presenceService;
 
     /**
      * User Login
@@ -55,6 +60,12 @@ public class AuthController {
             HttpServletRequest httpRequest) {
         log.info("Login attempt for username: {}", request.getUsername());
 
+        // Verify captcha before touching the user table
+        if (captchaService.isEnabled() && !captchaService.verify(request.getCaptchaId(), request.getCaptcha())) {
+            log.warn("Login failed: Invalid captcha - {}", request.getUsername());
+            return ApiResponse.badRequest("Invalid captcha");
+        }
+
         // Find user by username
         User user = userService.findByUsername(request.getUsername())
                 .orElse(null);
@@ -64,7 +75,7 @@ public class AuthController {
         }
 
         // Verify password
-        if (!PasswordUtil.verifyPassword(request.getPassword(), user.getPassword())) {
+        if (!userService.verifyPassword(user, request.getPassword())) {
             log.warn("Login failed: Invalid password for user - {}", request.getUsername());
             return ApiResponse.unauthorized("Invalid username or password");
         }
@@ -138,18 +149,46 @@ public class AuthController {
         options.put("enableRegistration", true);
         options.put("enableOAuth", false);
         options.put("enableLDAP", false);
+        options.put("enableCaptcha", captchaService.isEnabled());
         return ApiResponse.success(options);
     }
 
+    /**
+     * Get Captcha
+     *
+     * @return Captcha ID and image
+     */
+    @GetMapping("/captcha")
+    @Operation(summary = "Get Captcha", description = "Get a login captcha image")
+    public ApiResponse<CaptchaResponse> getCaptcha() {
+        CaptchaService.IssuedCaptcha captcha;
+        try {
+            captcha = captchaService.issue();
+        } catch (IllegalStateException e) {
+            return ApiResponse.error(503, e.getMessage());
+        }
+
+        CaptchaResponse response = CaptchaResponse.builder()
+                .captchaId(captcha.id())
+                .image(captcha.dataUrl())
+                .build();
+        return ApiResponse.success(response);
+    }
+
     /**
      * Heartbeat
+     * Marks the reporting device online in the presence map.
      *
+     * @param request optional device identification
      * @return Success response
      */
     @PostMapping("/heartbeat")
     @Operation(summary = "Heartbeat", description = "Keep-alive heartbeat check")
-    public ApiResponse<Map<String, Object>> heartbeat() {
+    public ApiResponse<Map<String, Object>> heartbeat(@RequestBody(required = false) HeartbeatRequest request) {
         log.debug("Heartbeat received");
+        if (request != null) {
+            presenceService.touch(request.getId());
+        }
         Map<String, Object> response = new HashMap<>();
         response.put("timestamp", System.currentTimeMillis());
         response.put("status", "ok");
@@ -6,6 +6,7 @@ import com.rustdesk.api.dto.response.ApiResponse;
 import com.rustdesk.api.dto.response.PeerResponse;
 import com.rustdesk.api.entity.Peer;
 import com.rustdesk.api.service.PeerService;
+import com.rustdesk.api.service.PresenceService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -35,6 +36,7 @@ import java.util.stream.Collectors;
 public class PeerController {
 
     private final PeerService peerService;
+    private final PresenceService presenceService;
 
     /**
      * Report System Information
@@ -81,6 +83,7 @@ public class PeerController {
         peer.setLastOnlineIp(httpRequest.getRemoteAddr());
 
         peerService.save(peer);
+        presenceService.touch(peer.getDeviceId());
 
         log.info("Sysinfo reported successfully for device: {}", request.getDeviceId());
         return ApiResponse.success("System information updated successfully");
@@ -118,10 +121,7 @@ public class PeerController {
      * @return PeerResponse DTO
      */
     private PeerResponse convertToPeerResponse(Peer peer) {
-        // Check if device is online (within last 5 minutes)
-        long fiveMinutesAgo = System.currentTimeMillis() - (5 * 60 * 1000);
-        boolean online = peer.getLastOnlineTime() != null &&
-                peer.getLastOnlineTime() > fiveMinutesAgo;
+        boolean online = presenceService.isOnline(peer.getDeviceId());
 
         return PeerResponse.builder()
                 .id(peer.getId())
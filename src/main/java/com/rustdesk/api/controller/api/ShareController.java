@@ -0,0 +1,160 @@
+package com.rustdesk.api.controller.api;
+
+import cn.dev33.satoken.stp.StpUtil;
+import com.rustdesk.api.dto.request.ShareCreateRequest;
+import com.rustdesk.api.dto.response.ApiResponse;
+import com.rustdesk.api.dto.response.ShareRecordResponse;
+import com.rustdesk.api.entity.Peer;
+import com.rustdesk.api.entity.ShareRecord;
+import com.rustdesk.api.service.PeerService;
+import com.rustdesk.api.service.ShareRecordService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Share Controller
+ * Handles share links of peers
+ *
+ * @author RustDesk
+ * @version 2.0.0
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/share")
+@RequiredArgsConstructor
+@Validated
+@Tag(name = "Share", description = "Peer Share Link API")
+@SecurityRequirement(name = "Bearer Authentication")
+public class ShareController {
+
+    private final ShareRecordService shareRecordService;
+    private final PeerService peerService;
+
+    /**
+     * Create Share Link
+     * The peer must be bound to the current user.
+     *
+     * @param request create request
+     * @return Created share link
+     */
+    @PostMapping
+    @Operation(summary = "Create Share Link", description = "Create a share link for one of the current user's peers")
+    public ApiResponse<ShareRecordResponse> create(@Validated @RequestBody ShareCreateRequest request) {
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            log.warn("Failed to create share link: No valid token");
+            return ApiResponse.unauthorized("Authentication required");
+        }
+        boolean owned = peerService.findByDeviceId(request.getPeerId())
+                .map(Peer::getUserId)
+                .filter(userId::equals)
+                .isPresent();
+        if (!owned) {
+            return ApiResponse.notFound("Peer not found");
+        }
+
+        ShareRecord record = shareRecordService.create(userId, request.getPeerId(), request.getPasswordType(),
+                request.getPassword(), request.getExpireSeconds() != null ? request.getExpireSeconds() : 0L);
+        return ApiResponse.success(convertToShareRecordResponse(record));
+    }
+
+    /**
+     * Get Share Links
+     *
+     * @return Share links of the current user
+     */
+    @GetMapping
+    @Operation(summary = "Get Share Links", description = "Get the share links created by the current user")
+    public ApiResponse<List<ShareRecordResponse>> list() {
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            log.warn("Failed to get share links: No valid token");
+            return ApiResponse.unauthorized("Authentication required");
+        }
+
+        return ApiResponse.success(shareRecordService.findByUserId(userId).stream()
+                .map(this::convertToShareRecordResponse)
+                .toList());
+    }
+
+    /**
+     * Resolve Share Link
+     *
+     * @param token share token
+     * @return Shared peer, without the password
+     */
+    @GetMapping("/{token}")
+    @Operation(summary = "Resolve Share Link", description = "Get the peer a share token grants access to")
+    public ApiResponse<ShareRecordResponse> resolve(@PathVariable String token) {
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            log.warn("Failed to resolve share link: No valid token");
+            return ApiResponse.unauthorized("Authentication required");
+        }
+
+        return shareRecordService.resolve(token)
+                .map(link -> ApiResponse.success(ShareRecordResponse.builder()
+                        .peerId(link.peerId())
+                        .shareToken(link.shareToken())
+                        .passwordType(link.passwordType())
+                        .expire(link.expire())
+                        .build()))
+                .orElseGet(() -> ApiResponse.notFound("Share link not found or expired"));
+    }
+
+    /**
+     * Revoke Share Link
+     *
+     * @param id share record ID
+     * @return Success response
+     */
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Revoke Share Link", description = "Delete one of the current user's share links")
+    public ApiResponse<Void> revoke(@PathVariable Long id) {
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            log.warn("Failed to revoke share link: No valid token");
+            return ApiResponse.unauthorized("Authentication required");
+        }
+        if (!shareRecordService.revoke(userId, id)) {
+            return ApiResponse.notFound("Share link not found");
+        }
+        return ApiResponse.success("Share link revoked successfully");
+    }
+
+    /**
+     * Convert ShareRecord entity to ShareRecordResponse DTO
+     *
+     * @param record ShareRecord entity
+     * @return ShareRecordResponse DTO
+     */
+    private ShareRecordResponse convertToShareRecordResponse(ShareRecord record) {
+        return ShareRecordResponse.builder()
+                .id(record.getId())
+                .peerId(record.getPeerId())
+                .shareToken(record.getShareToken())
+                .passwordType(record.getPasswordType())
+                .expire(record.getExpire())
+                .build();
+    }
+
+    /**
+     * Get current user ID from Sa-Token
+     *
+     * @return User ID or null
+     */
+    private Long getCurrentUserId() {
+        try {
+            return StpUtil.getLoginIdAsLong();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
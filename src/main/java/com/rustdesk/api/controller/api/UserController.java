@@ -7,6 +7,7 @@ import com.rustdesk.api.dto.response.UserResponse;
 import com.rustdesk.api.entity.User;
 import com.rustdesk.api.exception.ApiException;
 import com.rustdesk.api.service.UserService;
+import com.rustdesk.api.service.UserVersionService;
 import com.rustdesk.api.util.PasswordUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -14,6 +15,9 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
@@ -34,20 +38,29 @@ import org.springframework.web.bind.annotation.*;
 public class UserController {
 
     private final UserService userService;
+    private final UserVersionService userVersionService;
 
     /**
      * Get Current User Info
+     * Answers 304 Not Modified without reading the user when If-None-Match carries the current ETag.
      *
      * @param httpRequest HTTP request
      * @return Current user information
      */
     @GetMapping("/user/info")
-    @Operation(summary = "Get Current User Info", description = "Get authenticated user's information")
-    public ApiResponse<UserResponse> getUserInfo(HttpServletRequest httpRequest) {
+    @Operation(summary = "Get Current User Info", description = "Get authenticated user's information, supports If-None-Match")
+    public ResponseEntity<ApiResponse<UserResponse>> getUserInfo(HttpServletRequest httpRequest) {
         Long userId = getCurrentUserId(httpRequest);
         if (userId == null) {
             log.warn("Failed to get user info: No valid token");
-            return ApiResponse.unauthorized("Authentication required");
+            return ResponseEntity.ok(ApiResponse.unauthorized("Authentication required"));
+        }
+
+        // Take the tag before reading, so a concurrent update can only make it older than the body
+        String etag = userVersionService.etag(userId);
+        if (userVersionService.matches(httpRequest.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            log.debug("User info not modified for user: {}", userId);
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
         }
 
         User user = userService.findById(userId)
@@ -66,18 +79,19 @@ public class UserController {
                 .build();
 
         log.debug("Retrieved user info for user: {}", user.getUsername());
-        return ApiResponse.success(userResponse);
+        return ResponseEntity.ok().eTag(etag).body(ApiResponse.success(userResponse));
     }
 
     /**
      * Get Current User (Compatible endpoint)
+     * Honors If-None-Match the same way as GET /api/user/info.
      *
      * @param httpRequest HTTP request
      * @return Current user information
      */
     @PostMapping("/currentUser")
     @Operation(summary = "Get Current User", description = "Get authenticated user's information (compatible endpoint)")
-    public ApiResponse<UserResponse> getCurrentUser(HttpServletRequest httpRequest) {
+    public ResponseEntity<ApiResponse<UserResponse>> getCurrentUser(HttpServletRequest httpRequest) {
         return getUserInfo(httpRequest);
     }
 
@@ -102,6 +116,11 @@ public class UserController {
         User user = userService.findById(userId)
                 .orElseThrow(() -> ApiException.notFound("User not found"));
 
+        if (user.getLdapDn() != null) {
+            log.warn("Failed to change password: LDAP user - {}", user.getUsername());
+            return ApiResponse.badRequest("Password is managed by the LDAP directory");
+        }
+
         // Verify old password
         if (!PasswordUtil.verifyPassword(request.getOldPassword(), user.getPassword())) {
             log.warn("Failed to change password: Invalid old password for user - {}", user.getUsername());
@@ -0,0 +1,61 @@
+package com.rustdesk.api.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Connection Audit Request DTO
+ * Connection event reported by the RustDesk server
+ *
+ * @author RustDesk
+ * @version 2.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Connection Audit Request")
+public class AuditConnRequest {
+
+    @NotBlank(message = "Action cannot be blank")
+    @Size(max = 50, message = "Action must not exceed 50 characters")
+    @Schema(description = "Action", example = "new", requiredMode = Schema.RequiredMode.REQUIRED)
+    private String action;
+
+    @NotBlank(message = "Connection ID cannot be blank")
+    @Size(max = 255, message = "Connection ID must not exceed 255 characters")
+    @JsonProperty("conn_id")
+    @Schema(description = "Connection ID", example = "1001", requiredMode = Schema.RequiredMode.REQUIRED)
+    private String connId;
+
+    @NotBlank(message = "Peer ID cannot be blank")
+    @Size(max = 255, message = "Peer ID must not exceed 255 characters")
+    @Schema(description = "ID of the controlled peer", example = "123456789", requiredMode = Schema.RequiredMode.REQUIRED)
+    private String id;
+
+    @Schema(description = "Controlling peer as [id, name]", example = "[\"987654321\", \"alice-laptop\"]")
+    private List<String> peer;
+
+    @Size(max = 100, message = "IP must not exceed 100 characters")
+    @Schema(description = "Remote IP", example = "192.168.1.10")
+    private String ip;
+
+    @Size(max = 255, message = "Session ID must not exceed 255 characters")
+    @JsonProperty("session_id")
+    @Schema(description = "Session ID", example = "4242")
+    private String sessionId;
+
+    @Size(max = 100, message = "Type must not exceed 100 characters")
+    @Schema(description = "Connection type", example = "0")
+    private String type;
+
+    @Size(max = 255, message = "UUID must not exceed 255 characters")
+    @Schema(description = "Device UUID", example = "550e8400-e29b-41d4-a716-446655440000")
+    private String uuid;
+}
@@ -0,0 +1,42 @@
+package com.rustdesk.api.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Collection Sharing Rule Request DTO
+ *
+ * @author RustDesk
+ * @version 2.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Collection Sharing Rule Request")
+public class CollectionRuleRequest {
+
+    @NotNull(message = "Collection ID cannot be null")
+    @Schema(description = "Collection ID", example = "1", required = true)
+    private Long collectionId;
+
+    @NotNull(message = "Type cannot be null")
+    @Min(value = 1, message = "Type must be 1 (user) or 2 (group)")
+    @Max(value = 2, message = "Type must be 1 (user) or 2 (group)")
+    @Schema(description = "Target type: 1 = user, 2 = group", example = "2", required = true)
+    private Integer type;
+
+    @NotNull(message = "Target ID cannot be null")
+    @Schema(description = "Target user or group ID", example = "3", required = true)
+    private Long toId;
+
+    @NotNull(message = "Rule cannot be null")
+    @Min(value = 1, message = "Rule must be between 1 and 3")
+    @Max(value = 3, message = "Rule must be between 1 and 3")
+    @Schema(description = "Permission: 1 = read, 2 = read/write, 3 = full control", example = "1", required = true)
+    private Integer rule;
+}
@@ -0,0 +1,25 @@
+package com.rustdesk.api.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Heartbeat Request DTO
+ *
+ * @author RustDesk
+ * @version 2.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Heartbeat Request")
+public class HeartbeatRequest {
+
+    @Schema(description = "Device ID", example = "123456789")
+    private String id;
+
+    @Schema(description = "Device UUID", example = "550e8400-e29b-41d4-a716-446655440000")
+    private String uuid;
+}
@@ -31,4 +31,10 @@ public class LoginRequest {
 
     @Schema(description = "Device UUID", example = "uuid-456")
     private String deviceUuid;
+
+    @Schema(description = "Captcha ID, required when captcha is enabled", example = "3f2a9c0e1b7d4e5f8a6b9c0d1e2f3a4b")
+    private String captchaId;
+
+    @Schema(description = "Captcha answer, required when captcha is enabled", example = "x7k2")
+    private String captcha;
 }
@@ -0,0 +1,55 @@
+package com.rustdesk.api.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * OAuth Provider Request DTO
+ *
+ * @author RustDesk
+ * @version 2.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "OAuth Provider Request")
+public class OauthRequest {
+
+    @Schema(description = "Provider config ID, required for update", example = "1")
+    private Long id;
+
+    @NotBlank(message = "Provider identifier cannot be blank")
+    @Size(max = 100, message = "Provider identifier must not exceed 100 characters")
+    @Schema(description = "Provider identifier", example = "github", required = true)
+    private String op;
+
+    @NotBlank(message = "OAuth type cannot be blank")
+    @Schema(description = "OAuth type: github, google, gitlab", example = "github", required = true)
+    private String oauthType;
+
+    @NotBlank(message = "Client ID cannot be blank")
+    @Schema(description = "Client ID", required = true)
+    private String clientId;
+
+    @Schema(description = "Client Secret")
+    private String clientSecret;
+
+    @Schema(description = "Auto register user on first login", example = "false")
+    private Boolean autoRegister;
+
+    @Schema(description = "Scopes (comma-separated)", example = "read:user,user:email")
+    private String scopes;
+
+    @Schema(description = "OIDC Issuer URL")
+    private String issuer;
+
+    @Schema(description = "Enable PKCE", example = "false")
+    private Boolean pkceEnable;
+
+    @Schema(description = "PKCE Method: S256 or plain", example = "S256")
+    private String pkceMethod;
+}
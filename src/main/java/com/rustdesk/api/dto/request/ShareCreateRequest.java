@@ -0,0 +1,43 @@
+package com.rustdesk.api.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Share Link Create Request DTO
+ *
+ * @author RustDesk
+ * @version 2.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Share Link Create Request")
+public class ShareCreateRequest {
+
+    @NotBlank(message = "Peer ID cannot be blank")
+    @Size(max = 255, message = "Peer ID must not exceed 255 characters")
+    @Schema(description = "Device ID of the shared peer", example = "123456789", required = true)
+    private String peerId;
+
+    @NotNull(message = "Password type cannot be null")
+    @Min(value = 0, message = "Password type must be between 0 and 2")
+    @Max(value = 2, message = "Password type must be between 0 and 2")
+    @Schema(description = "Password type: 0 = none, 1 = fixed, 2 = one-time", example = "0", required = true)
+    private Integer passwordType = 0;
+
+    @Size(max = 128, message = "Password must not exceed 128 characters")
+    @Schema(description = "Password, required unless the password type is 0")
+    private String password;
+
+    @Min(value = 0, message = "Expiry cannot be negative")
+    @Schema(description = "Seconds until the link expires, 0 for no expiry", example = "86400")
+    private Long expireSeconds = 0L;
+}
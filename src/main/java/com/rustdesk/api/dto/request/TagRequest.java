@@ -0,0 +1,33 @@
+package com.rustdesk.api.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Tag Request DTO
+ *
+ * @author RustDesk
+ * @version 2.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Tag Create or Update Request")
+public class TagRequest {
+
+    @Schema(description = "Collection ID, 0 for the personal address book", example = "0")
+    private Long collectionId = 0L;
+
+    @NotBlank(message = "Tag name cannot be blank")
+    @Size(max = 100, message = "Tag name must not exceed 100 characters")
+    @Schema(description = "Tag name", example = "finance", required = true)
+    private String name;
+
+    @Size(max = 20, message = "Color must not exceed 20 characters")
+    @Schema(description = "Tag color", example = "4288585374")
+    private String color;
+}
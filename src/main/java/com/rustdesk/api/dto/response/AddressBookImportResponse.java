@@ -0,0 +1,52 @@
+package com.rustdesk.api.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Address Book Import Response DTO
+ *
+ * @author RustDesk
+ * @version 2.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Result or dry-run diff of an address book import")
+public class AddressBookImportResponse {
+
+    @Schema(description = "True if nothing was written", example = "true")
+    private Boolean dryRun;
+
+    @Schema(description = "Peers read from the document", example = "20000")
+    private Integer total;
+
+    @Schema(description = "Entries created, or that would be created in a dry run", example = "18250")
+    private Integer created;
+
+    @Schema(description = "Peers skipped because the user already has an entry for the device", example = "1700")
+    private Integer existing;
+
+    @Schema(description = "Peers skipped because the device appears earlier in the document", example = "30")
+    private Integer duplicates;
+
+    @Schema(description = "Peers skipped because of a missing or oversized field", example = "20")
+    private Integer invalid;
+
+    @Schema(description = "Tags created, or that would be created in a dry run")
+    private List<String> newTags;
+
+    @Schema(description = "Device IDs of created entries, capped")
+    private List<String> createdDeviceIds;
+
+    @Schema(description = "Device IDs skipped as already present, capped")
+    private List<String> existingDeviceIds;
+}
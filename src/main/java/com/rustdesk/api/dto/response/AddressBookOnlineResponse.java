@@ -0,0 +1,35 @@
+package com.rustdesk.api.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Address Book Online Status Response DTO
+ *
+ * @author RustDesk
+ * @version 2.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Online status of the entries of an address book")
+public class AddressBookOnlineResponse {
+
+    @Schema(description = "Address book version the entry order belongs to", example = "42")
+    private Long version;
+
+    @Schema(description = "Number of entries", example = "120")
+    private Integer count;
+
+    @Schema(description = "Number of online entries", example = "17")
+    private Integer online;
+
+    @Schema(description = "Base64 little-endian bitset, bit i set if the i-th entry ordered by ID is online", example = "BQI=")
+    private String bits;
+}
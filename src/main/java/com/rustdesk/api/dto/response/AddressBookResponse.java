@@ -0,0 +1,70 @@
+package com.rustdesk.api.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Address Book Response DTO
+ *
+ * @author RustDesk
+ * @version 2.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Address Book Entry Response")
+public class AddressBookResponse {
+
+    @Schema(description = "Entry ID", example = "1")
+    private Long id;
+
+    @Schema(description = "Device ID", example = "123456789")
+    private String deviceId;
+
+    @Schema(description = "Remote Username", example = "admin")
+    private String username;
+
+    @Schema(description = "Hostname", example = "DESKTOP-ABC123")
+    private String hostname;
+
+    @Schema(description = "Alias", example = "Office PC")
+    private String alias;
+
+    @Schema(description = "Platform", example = "Windows")
+    private String platform;
+
+    @Schema(description = "Tags")
+    private List<String> tags;
+
+    @Schema(description = "Saved Password Hash")
+    private String hash;
+
+    @Schema(description = "Collection ID, absent for the personal address book", example = "1")
+    private Long collectionId;
+
+    @Schema(description = "Force Always Relay", example = "false")
+    private Boolean forceAlwaysRelay;
+
+    @Schema(description = "RDP Port", example = "3389")
+    private Integer rdpPort;
+
+    @Schema(description = "RDP Username", example = "administrator")
+    private String rdpUsername;
+
+    @Schema(description = "Login Name", example = "admin")
+    private String loginName;
+
+    @Schema(description = "Same Server", example = "false")
+    private Boolean sameServer;
+
+    @Schema(description = "Live online status of the device", example = "true")
+    private Boolean online;
+}
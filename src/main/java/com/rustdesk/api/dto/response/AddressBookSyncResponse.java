@@ -0,0 +1,41 @@
+package com.rustdesk.api.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Address Book Sync Response DTO
+ *
+ * @author RustDesk
+ * @version 2.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Address Book Sync Response")
+public class AddressBookSyncResponse {
+
+    @Schema(description = "Version to send as 'since' with the next sync", example = "42")
+    private Long version;
+
+    @Schema(description = "True if entries is a full snapshot replacing the local copy", example = "false")
+    private Boolean full;
+
+    @Schema(description = "Full snapshot, or entries created or updated since the given version")
+    private List<AddressBookResponse> entries;
+
+    @Schema(description = "IDs of entries removed since the given version")
+    private List<Long> deletedIds;
+
+    @Schema(description = "Colors of the address book's tags by name")
+    private Map<String, String> tagColors;
+}
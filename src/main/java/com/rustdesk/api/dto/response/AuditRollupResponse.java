@@ -0,0 +1,37 @@
+package com.rustdesk.api.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Audit Rollup Response DTO
+ *
+ * @author RustDesk
+ * @version 2.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Audit Rollup Response")
+public class AuditRollupResponse {
+
+    @Schema(description = "Start of the hour or day, absent for per-peer totals", example = "2024-10-16T14:00:00")
+    private LocalDateTime bucket;
+
+    @Schema(description = "Peer ID, absent when summed over all peers", example = "123456789")
+    private String peerId;
+
+    @Schema(description = "Connection action or file transfer type, absent for per-peer totals", example = "new")
+    private String action;
+
+    @Schema(description = "Number of events", example = "42")
+    private Long count;
+}
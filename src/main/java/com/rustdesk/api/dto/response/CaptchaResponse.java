@@ -0,0 +1,29 @@
+package com.rustdesk.api.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Captcha Response DTO
+ *
+ * @author RustDesk
+ * @version 2.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Captcha Response")
+public class CaptchaResponse {
+
+    @Schema(description = "Captcha ID, sent back with the answer", example = "3f2a9c0e1b7d4e5f8a6b9c0d1e2f3a4b")
+    private String captchaId;
+
+    @Schema(description = "Captcha image as a PNG data URL", example = "data:image/png;base64,iVBORw0KGgo...")
+    private String image;
+}
@@ -0,0 +1,38 @@
+package com.rustdesk.api.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Collection Sharing Rule Response DTO
+ *
+ * @author RustDesk
+ * @version 2.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Collection Sharing Rule Response")
+public class CollectionRuleResponse {
+
+    @Schema(description = "Rule ID", example = "1")
+    private Long id;
+
+    @Schema(description = "Collection ID", example = "1")
+    private Long collectionId;
+
+    @Schema(description = "Target type: 1 = user, 2 = group", example = "2")
+    private Integer type;
+
+    @Schema(description = "Target user or group ID", example = "3")
+    private Long toId;
+
+    @Schema(description = "Permission: 1 = read, 2 = read/write, 3 = full control", example = "1")
+    private Integer rule;
+}
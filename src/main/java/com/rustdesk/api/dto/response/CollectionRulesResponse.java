@@ -0,0 +1,35 @@
+package com.rustdesk.api.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Collection Sharing Rules Replace Response DTO
+ *
+ * @author RustDesk
+ * @version 2.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Changes applied to the sharing rules of a collection")
+public class CollectionRulesResponse {
+
+    @Schema(description = "Rules created", example = "40")
+    private Integer created;
+
+    @Schema(description = "Rules whose permission changed", example = "5")
+    private Integer updated;
+
+    @Schema(description = "Rules removed", example = "12")
+    private Integer deleted;
+
+    @Schema(description = "Rules left as they were", example = "255")
+    private Integer unchanged;
+}
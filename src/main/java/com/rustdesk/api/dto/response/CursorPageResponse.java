@@ -0,0 +1,35 @@
+package com.rustdesk.api.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Cursor Page Response DTO
+ *
+ * @param <T> item type
+ * @author RustDesk
+ * @version 2.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Cursor Page Response")
+public class CursorPageResponse<T> {
+
+    @Schema(description = "Items of the page, newest first")
+    private List<T> items;
+
+    @Schema(description = "Opaque cursor of the next page, absent on the last page", example = "MS4xNzI5MDg5NjAwLjAuNDI")
+    private String nextCursor;
+
+    @Schema(description = "Number of matching items, only when requested", example = "1234")
+    private Long total;
+}
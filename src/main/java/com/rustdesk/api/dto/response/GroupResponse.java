@@ -0,0 +1,55 @@
+package com.rustdesk.api.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Group Response DTO
+ *
+ * @author RustDesk
+ * @version 2.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Group Response")
+public class GroupResponse {
+
+    @Schema(description = "Group ID", example = "1")
+    private Long id;
+
+    @Schema(description = "Group Name", example = "Default")
+    private String name;
+
+    @Schema(description = "Group Type", example = "1")
+    private Integer type;
+
+    @Schema(description = "Parent Group ID", example = "1")
+    private Long parentId;
+
+    @Schema(description = "Materialized path of group IDs from the root", example = "/1/5/")
+    private String path;
+
+    @Schema(description = "Depth in the hierarchy, 0 for a root group", example = "1")
+    private Integer depth;
+
+    @Schema(description = "Number of users in the group", example = "12")
+    private Long userCount;
+
+    @Schema(description = "Number of devices in the group", example = "34")
+    private Long peerCount;
+
+    @Schema(description = "Created Time")
+    private LocalDateTime createdAt;
+
+    @Schema(description = "Updated Time")
+    private LocalDateTime updatedAt;
+}
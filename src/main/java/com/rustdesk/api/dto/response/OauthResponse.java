@@ -0,0 +1,83 @@
+package com.rustdesk.api.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.rustdesk.api.entity.Oauth;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+import org.apache.commons.lang3.StringUtils;
+
+import java.time.LocalDateTime;
+
+/**
+ * OAuth Provider Response DTO
+ * Immutable; the client secret is never returned, only whether one is set.
+ *
+ * @author RustDesk
+ * @version 2.0.0
+ */
+@Value
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "OAuth Provider Response")
+public class OauthResponse {
+
+    @Schema(description = "Provider config ID", example = "1")
+    Long id;
+
+    @Schema(description = "Provider identifier", example = "github")
+    String op;
+
+    @Schema(description = "Provider type", example = "github")
+    String oauthType;
+
+    @Schema(description = "Client ID")
+    String clientId;
+
+    @Schema(description = "Whether a client secret is configured", example = "true")
+    Boolean clientSecretSet;
+
+    @Schema(description = "Register unknown users on first login", example = "false")
+    Boolean autoRegister;
+
+    @Schema(description = "Comma separated scopes", example = "read:user,user:email")
+    String scopes;
+
+    @Schema(description = "OIDC issuer")
+    String issuer;
+
+    @Schema(description = "PKCE enabled", example = "false")
+    Boolean pkceEnable;
+
+    @Schema(description = "PKCE method", example = "S256")
+    String pkceMethod;
+
+    @Schema(description = "Creation time")
+    LocalDateTime createdAt;
+
+    @Schema(description = "Last update time")
+    LocalDateTime updatedAt;
+
+    /**
+     * Create a response from a provider config
+     *
+     * @param oauth provider config
+     * @return response without the client secret
+     */
+    public static OauthResponse from(Oauth oauth) {
+        return OauthResponse.builder()
+                .id(oauth.getId())
+                .op(oauth.getOp())
+                .oauthType(oauth.getOauthType())
+                .clientId(oauth.getClientId())
+                .clientSecretSet(StringUtils.isNotEmpty(oauth.getClientSecret()))
+                .autoRegister(oauth.getAutoRegister())
+                .scopes(oauth.getScopes())
+                .issuer(oauth.getIssuer())
+                .pkceEnable(oauth.getPkceEnable())
+                .pkceMethod(oauth.getPkceMethod())
+                .createdAt(oauth.getCreatedAt())
+                .updatedAt(oauth.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,38 @@
+package com.rustdesk.api.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Share Link Response DTO
+ *
+ * @author RustDesk
+ * @version 2.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Share Link Response")
+public class ShareRecordResponse {
+
+    @Schema(description = "Share record ID", example = "1")
+    private Long id;
+
+    @Schema(description = "Device ID of the shared peer", example = "123456789")
+    private String peerId;
+
+    @Schema(description = "Share token", example = "3f2b9c0e8d7a4e1f9b6c5d4a3e2f1a0b")
+    private String shareToken;
+
+    @Schema(description = "Password type: 0 = none, 1 = fixed, 2 = one-time", example = "0")
+    private Integer passwordType;
+
+    @Schema(description = "Expiry in epoch milliseconds, 0 for none", example = "1735689600000")
+    private Long expire;
+}
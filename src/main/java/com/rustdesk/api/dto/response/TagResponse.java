@@ -0,0 +1,32 @@
+package com.rustdesk.api.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Tag Response DTO
+ *
+ * @author RustDesk
+ * @version 2.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Tag Response")
+public class TagResponse {
+
+    @Schema(description = "Tag ID", example = "1")
+    private Long id;
+
+    @Schema(description = "Tag name", example = "finance")
+    private String name;
+
+    @Schema(description = "Tag color", example = "4288585374")
+    private String color;
+}
@@ -0,0 +1,77 @@
+package com.rustdesk.api.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * Address Book Change Entity
+ * One entry of the address book change log used for delta sync.
+ *
+ * @author RustDesk API Team
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "address_book_change", indexes = {
+    @Index(name = "idx_user_collection_version", columnList = "user_id, collection_id, version")
+})
+@EntityListeners(AuditingEntityListener.class)
+public class AddressBookChange {
+
+    public static final int OP_UPSERT = 0;
+    public static final int OP_DELETE = 1;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Owner user ID
+     */
+    @NotNull(message = "User ID cannot be null")
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * Collection ID, 0 for the personal address book
+     */
+    @NotNull(message = "Collection ID cannot be null")
+    @Column(name = "collection_id", nullable = false)
+    private Long collectionId;
+
+    /**
+     * Version assigned to this change
+     */
+    @NotNull(message = "Version cannot be null")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    /**
+     * Changed address book entry ID
+     */
+    @NotNull(message = "Address book ID cannot be null")
+    @Column(name = "address_book_id", nullable = false)
+    private Long addressBookId;
+
+    /**
+     * Operation: 0 = upsert, 1 = delete
+     */
+    @NotNull(message = "Operation cannot be null")
+    @Column(name = "op", nullable = false)
+    private Integer op;
+
+    /**
+     * Created timestamp
+     */
+    @CreatedDate
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
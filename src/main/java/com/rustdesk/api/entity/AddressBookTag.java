@@ -0,0 +1,48 @@
+package com.rustdesk.api.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Address Book Tag entity
+ * One tag of one address book entry; a normalized, indexed copy of {@link AddressBook#getTags()}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@IdClass(AddressBookTag.Key.class)
+@Table(name = "address_book_tags", indexes = {
+        @Index(name = "idx_user_tag", columnList = "user_id, tag, address_book_id")
+})
+public class AddressBookTag {
+
+    @Id
+    @Column(name = "address_book_id", nullable = false)
+    private Long addressBookId;
+
+    @Id
+    @Column(name = "tag", nullable = false, length = 255)
+    private String tag;
+
+    /**
+     * Owner user ID, copied from the entry so filters need no join
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * Composite primary key
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long addressBookId;
+        private String tag;
+    }
+}
@@ -0,0 +1,73 @@
+package com.rustdesk.api.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * Address Book Version Entity
+ * Monotonic version counter of one address book (a user's personal book or one collection).
+ *
+ * @author RustDesk API Team
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "address_book_version", indexes = {
+    @Index(name = "idx_user_collection", columnList = "user_id, collection_id", unique = true)
+})
+@EntityListeners(AuditingEntityListener.class)
+public class AddressBookVersion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Owner user ID
+     */
+    @NotNull(message = "User ID cannot be null")
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * Collection ID, 0 for the personal address book
+     */
+    @NotNull(message = "Collection ID cannot be null")
+    @Column(name = "collection_id", nullable = false)
+    private Long collectionId;
+
+    /**
+     * Version of the latest change
+     */
+    @Column(name = "version", nullable = false)
+    private Long version = 0L;
+
+    /**
+     * Changes up to and including this version have been compacted away
+     */
+    @Column(name = "compacted_version", nullable = false)
+    private Long compactedVersion = 0L;
+
+    /**
+     * Created timestamp
+     */
+    @CreatedDate
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Updated timestamp
+     */
+    @LastModifiedDate
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
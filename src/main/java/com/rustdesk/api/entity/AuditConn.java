@@ -22,8 +22,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "audit_conn", indexes = {
     @Index(name = "idx_conn_id", columnList = "conn_id"),
-    @Index(name = "idx_peer_id", columnList = "peer_id"),
-    @Index(name = "idx_from_peer", columnList = "from_peer"),
+    @Index(name = "idx_peer_created", columnList = "peer_id, created_at"),
+    @Index(name = "idx_from_peer_created", columnList = "from_peer, created_at"),
     @Index(name = "idx_action", columnList = "action"),
     @Index(name = "idx_session_id", columnList = "session_id"),
     @Index(name = "idx_created_at", columnList = "created_at")
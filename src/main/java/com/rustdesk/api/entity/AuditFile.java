@@ -21,8 +21,8 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Entity
 @Table(name = "audit_file", indexes = {
-    @Index(name = "idx_from_peer", columnList = "from_peer"),
-    @Index(name = "idx_peer_id", columnList = "peer_id"),
+    @Index(name = "idx_from_peer_created", columnList = "from_peer, created_at"),
+    @Index(name = "idx_peer_created", columnList = "peer_id, created_at"),
     @Index(name = "idx_uuid", columnList = "uuid"),
     @Index(name = "idx_is_file", columnList = "is_file"),
     @Index(name = "idx_created_at", columnList = "created_at")
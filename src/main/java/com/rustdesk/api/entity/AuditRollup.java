@@ -0,0 +1,95 @@
+package com.rustdesk.api.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * Audit Rollup Entity
+ * Number of audit events of one peer and action in one hour or day.
+ *
+ * @author RustDesk API Team
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "audit_rollup", indexes = {
+    @Index(name = "idx_key", columnList = "source, granularity, bucket, peer_id, action", unique = true),
+    @Index(name = "idx_peer_bucket", columnList = "source, granularity, peer_id, bucket")
+})
+@EntityListeners(AuditingEntityListener.class)
+public class AuditRollup {
+
+    /**
+     * Connection events, action is the connection action
+     */
+    public static final String SOURCE_CONN = "conn";
+
+    /**
+     * File transfer events, action is the transfer type
+     */
+    public static final String SOURCE_FILE = "file";
+
+    public static final String GRANULARITY_HOUR = "hour";
+
+    public static final String GRANULARITY_DAY = "day";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Audit table the events come from: conn or file
+     */
+    @NotBlank(message = "Source cannot be blank")
+    @Column(name = "source", nullable = false, length = 10)
+    private String source;
+
+    /**
+     * Bucket size: hour or day
+     */
+    @NotBlank(message = "Granularity cannot be blank")
+    @Column(name = "granularity", nullable = false, length = 10)
+    private String granularity;
+
+    /**
+     * Start of the bucket
+     */
+    @NotNull(message = "Bucket cannot be null")
+    @Column(name = "bucket", nullable = false)
+    private LocalDateTime bucket;
+
+    /**
+     * Peer ID
+     */
+    @NotBlank(message = "Peer ID cannot be blank")
+    @Column(name = "peer_id", nullable = false, length = 255)
+    private String peerId;
+
+    /**
+     * Connection action or file transfer type, empty if the event had none
+     */
+    @Column(name = "action", nullable = false, length = 100)
+    private String action = "";
+
+    /**
+     * Number of events
+     */
+    @Column(name = "count", nullable = false)
+    private Long count = 0L;
+
+    /**
+     * Updated timestamp
+     */
+    @LastModifiedDate
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
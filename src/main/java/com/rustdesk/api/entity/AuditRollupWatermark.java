@@ -0,0 +1,45 @@
+package com.rustdesk.api.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * Audit Rollup Watermark Entity
+ * Last audit row folded into the rollups, per source table.
+ *
+ * @author RustDesk API Team
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "audit_rollup_watermark")
+@EntityListeners(AuditingEntityListener.class)
+public class AuditRollupWatermark {
+
+    /**
+     * Source: conn or file
+     */
+    @Id
+    @Column(name = "source", length = 10)
+    private String source;
+
+    /**
+     * ID of the last audit row folded into the rollups
+     */
+    @Column(name = "last_id", nullable = false)
+    private Long lastId = 0L;
+
+    /**
+     * Updated timestamp
+     */
+    @LastModifiedDate
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,133 @@
+package com.rustdesk.api.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * Audit Session Entity
+ * One connection session, stitched from its new and close audit events.
+ *
+ * @author RustDesk API Team
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "audit_session", indexes = {
+    @Index(name = "idx_conn_start", columnList = "conn_id, start_time", unique = true),
+    @Index(name = "idx_peer_id", columnList = "peer_id"),
+    @Index(name = "idx_start_time", columnList = "start_time")
+})
+@EntityListeners(AuditingEntityListener.class)
+public class AuditSession {
+
+    /**
+     * Session ended by a close event
+     */
+    public static final String STATUS_CLOSED = "closed";
+
+    /**
+     * No close event arrived within the session timeout
+     */
+    public static final String STATUS_TIMEOUT = "timeout";
+
+    /**
+     * A new event with the same connection ID arrived before the close
+     */
+    public static final String STATUS_SUPERSEDED = "superseded";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Connection ID
+     */
+    @NotBlank(message = "Connection ID cannot be blank")
+    @Column(name = "conn_id", nullable = false, length = 255)
+    private String connId;
+
+    /**
+     * Session ID
+     */
+    @Column(name = "session_id", length = 255)
+    private String sessionId;
+
+    /**
+     * Controlled peer ID
+     */
+    @NotBlank(message = "Peer ID cannot be blank")
+    @Column(name = "peer_id", nullable = false, length = 255)
+    private String peerId;
+
+    /**
+     * Controlling peer ID
+     */
+    @Column(name = "from_peer", length = 255)
+    private String fromPeer;
+
+    /**
+     * Controlling peer name
+     */
+    @Column(name = "from_name", length = 255)
+    private String fromName;
+
+    /**
+     * Remote IP
+     */
+    @Column(name = "ip", length = 100)
+    private String ip;
+
+    /**
+     * Connection type
+     */
+    @Column(name = "type", length = 100)
+    private String type;
+
+    /**
+     * Device UUID
+     */
+    @Column(name = "uuid", length = 255)
+    private String uuid;
+
+    /**
+     * Time of the new event
+     */
+    @NotNull(message = "Start time cannot be null")
+    @Column(name = "start_time", nullable = false)
+    private LocalDateTime startTime;
+
+    /**
+     * Time of the close event, null if the session did not close
+     */
+    @Column(name = "end_time")
+    private LocalDateTime endTime;
+
+    /**
+     * Duration in seconds, null if the session did not close
+     */
+    @Column(name = "duration")
+    private Long duration;
+
+    /**
+     * How the session ended: closed, timeout or superseded
+     */
+    @NotBlank(message = "Status cannot be blank")
+    @Column(name = "status", nullable = false, length = 20)
+    private String status;
+
+    /**
+     * Created timestamp
+     */
+    @CreatedDate
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -15,7 +15,9 @@ import lombok.EqualsAndHashCode;
 @Entity
 @Table(name = "groups", indexes = {
         @Index(name = "idx_name", columnList = "name"),
-        @Index(name = "idx_type", columnList = "type")
+        @Index(name = "idx_type", columnList = "type"),
+        @Index(name = "idx_parent_id", columnList = "parent_id"),
+        @Index(name = "idx_path", columnList = "path")
 })
 public class Group extends BaseEntity {
 
@@ -27,4 +29,23 @@ public class Group extends BaseEntity {
     @NotNull(message = "Group type cannot be null")
     @Column(name = "type", nullable = false)
     private Integer type;
+
+    /**
+     * Parent group ID, null for a root group
+     */
+    @Column(name = "parent_id")
+    private Long parentId;
+
+    /**
+     * Materialized path of group IDs from the root, e.g. "/1/5/12/".
+     * All groups in a subtree share the path of the subtree root as prefix.
+     */
+    @Column(name = "path", nullable = false, length = 500)
+    private String path = "";
+
+    /**
+     * Depth in the hierarchy, 0 for a root group
+     */
+    @Column(name = "depth", nullable = false)
+    private Integer depth = 0;
 }
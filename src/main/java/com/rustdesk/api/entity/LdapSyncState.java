@@ -0,0 +1,92 @@
+package com.rustdesk.api.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * LDAP Sync State Entity
+ * Single row holding the incremental synchronization watermark and the result of the last pass.
+ *
+ * @author RustDesk API Team
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "ldap_sync_state")
+@EntityListeners(AuditingEntityListener.class)
+public class LdapSyncState {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Highest change attribute value (modifyTimestamp or uSNChanged) seen by the last successful pass
+     */
+    @Column(name = "watermark", length = 64)
+    private String watermark;
+
+    /**
+     * Time of the last successful pass
+     */
+    @Column(name = "last_sync_at")
+    private LocalDateTime lastSyncAt;
+
+    /**
+     * Time of the last successful full pass
+     */
+    @Column(name = "last_full_sync_at")
+    private LocalDateTime lastFullSyncAt;
+
+    /**
+     * Users created by the last pass
+     */
+    @Column(name = "last_created", nullable = false)
+    private Integer lastCreated = 0;
+
+    /**
+     * Users updated by the last pass
+     */
+    @Column(name = "last_updated", nullable = false)
+    private Integer lastUpdated = 0;
+
+    /**
+     * Users disabled by the last pass
+     */
+    @Column(name = "last_disabled", nullable = false)
+    private Integer lastDisabled = 0;
+
+    /**
+     * Directory entries skipped by the last pass because their username belongs to a local user
+     */
+    @Column(name = "last_conflicts", nullable = false)
+    private Integer lastConflicts = 0;
+
+    /**
+     * Error of the last failed pass, cleared on success
+     */
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    /**
+     * Created timestamp
+     */
+    @CreatedDate
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Updated timestamp
+     */
+    @LastModifiedDate
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -22,7 +22,7 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Entity
 @Table(name = "login_log", indexes = {
-    @Index(name = "idx_user_id", columnList = "user_id"),
+    @Index(name = "idx_user_created", columnList = "user_id, created_at"),
     @Index(name = "idx_client", columnList = "client"),
     @Index(name = "idx_device_id", columnList = "device_id"),
     @Index(name = "idx_uuid", columnList = "uuid"),
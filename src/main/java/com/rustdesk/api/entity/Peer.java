@@ -1,10 +1,12 @@
 package com.rustdesk.api.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 /**
  * Peer (Device) entity
@@ -75,4 +77,21 @@ public class Peer extends BaseEntity {
     @Size(max = 200, message = "Alias must not exceed 200 characters")
     @Column(name = "alias", length = 200)
     private String alias;
+
+    /**
+     * Group ID as last loaded from or written to the database.
+     * Lets the service layer detect group moves without re-reading the row.
+     */
+    @Transient
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Long persistedGroupId;
+
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    void snapshotGroupId() {
+        this.persistedGroupId = this.groupId;
+    }
 }
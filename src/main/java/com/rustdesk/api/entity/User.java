@@ -1,5 +1,6 @@
 package com.rustdesk.api.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -7,6 +8,7 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 /**
  * User entity
@@ -57,4 +59,27 @@ public class User extends BaseEntity {
     @Size(max = 500, message = "Remark must not exceed 500 characters")
     @Column(name = "remark", length = 500)
     private String remark;
+
+    /**
+     * Distinguished name of the LDAP entry, null for local users
+     */
+    @Column(name = "ldap_dn", length = 255)
+    private String ldapDn;
+
+    /**
+     * Group ID as last loaded from or written to the database.
+     * Lets the service layer detect group moves without re-reading the row.
+     */
+    @Transient
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Long persistedGroupId;
+
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    void snapshotGroupId() {
+        this.persistedGroupId = this.groupId;
+    }
 }
@@ -0,0 +1,110 @@
+package com.rustdesk.api.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * User Cleanup Job Entity
+ * Tracks the progress of the background cascade that runs after a user is deleted.
+ *
+ * @author RustDesk API Team
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "user_cleanup_job", indexes = {
+    @Index(name = "idx_user_id", columnList = "user_id"),
+    @Index(name = "idx_status", columnList = "status")
+})
+@EntityListeners(AuditingEntityListener.class)
+public class UserCleanupJob {
+
+    public static final int STATUS_PENDING = 0;
+    public static final int STATUS_DONE = 1;
+    public static final int STATUS_FAILED = 2;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * ID of the deleted user
+     */
+    @NotNull(message = "User ID cannot be null")
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * Username at deletion time (kept for display after the user row is gone)
+     */
+    @Column(name = "username", length = 50)
+    private String username;
+
+    /**
+     * Current step, see {@link com.rustdesk.api.constant.UserCleanupStep}
+     */
+    @NotBlank(message = "Step cannot be blank")
+    @Column(name = "step", nullable = false, length = 50)
+    private String step;
+
+    /**
+     * Job status: 0 = pending, 1 = done, 2 = failed
+     */
+    @NotNull(message = "Status cannot be null")
+    @Column(name = "status", nullable = false)
+    private Integer status = STATUS_PENDING;
+
+    /**
+     * Rows processed in the current step
+     */
+    @Column(name = "step_processed", nullable = false)
+    private Long stepProcessed = 0L;
+
+    /**
+     * Rows processed across all steps
+     */
+    @Column(name = "total_processed", nullable = false)
+    private Long totalProcessed = 0L;
+
+    /**
+     * Number of failed attempts
+     */
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+
+    /**
+     * Last error message
+     */
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    /**
+     * Completion time
+     */
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    /**
+     * Created timestamp
+     */
+    @CreatedDate
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Updated timestamp
+     */
+    @LastModifiedDate
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
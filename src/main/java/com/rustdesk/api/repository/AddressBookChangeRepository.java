@@ -0,0 +1,52 @@
+package com.rustdesk.api.repository;
+
+import com.rustdesk.api.entity.AddressBookChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * AddressBookChange repository interface
+ */
+@Repository
+public interface AddressBookChangeRepository extends JpaRepository<AddressBookChange, Long>, AddressBookChangeRepositoryCustom {
+
+    /**
+     * Find the changes of an address book after a version, oldest first
+     *
+     * @param userId owner user ID
+     * @param collectionId collection ID, 0 for the personal address book
+     * @param version exclusive lower bound
+     * @return List of changes
+     */
+    List<AddressBookChange> findByUserIdAndCollectionIdAndVersionGreaterThanOrderByVersionAsc(
+            Long userId, Long collectionId, Long version);
+
+    /**
+     * Delete the changes of an address book up to and including a version
+     *
+     * @param userId owner user ID
+     * @param collectionId collection ID, 0 for the personal address book
+     * @param version inclusive upper bound
+     * @return number of changes deleted
+     */
+    @Modifying
+    @Query("DELETE FROM AddressBookChange c WHERE c.userId = :userId AND c.collectionId = :collectionId AND c.version <= :version")
+    int deleteUpToVersion(@Param("userId") Long userId, @Param("collectionId") Long collectionId,
+                          @Param("version") Long version);
+
+    /**
+     * Find change IDs by user ID
+     *
+     * @param userId user ID
+     * @param pageable chunk size
+     * @return List of change IDs
+     */
+    @Query("SELECT c.id FROM AddressBookChange c WHERE c.userId = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+}
@@ -0,0 +1,18 @@
+package com.rustdesk.api.repository;
+
+import com.rustdesk.api.entity.AddressBookChange;
+
+import java.util.List;
+
+/**
+ * AddressBookChange repository fragment for bulk writes
+ */
+public interface AddressBookChangeRepositoryCustom {
+
+    /**
+     * Append changes to the log with JDBC batching
+     *
+     * @param changes new changes
+     */
+    void insertBatch(List<AddressBookChange> changes);
+}
@@ -0,0 +1,38 @@
+package com.rustdesk.api.repository;
+
+import com.rustdesk.api.entity.AddressBookChange;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * AddressBookChange repository fragment implementation
+ */
+@RequiredArgsConstructor
+public class AddressBookChangeRepositoryImpl implements AddressBookChangeRepositoryCustom {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_SQL = "INSERT INTO address_book_change "
+            + "(user_id, collection_id, version, address_book_id, op, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertBatch(List<AddressBookChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.batchUpdate(INSERT_SQL, changes, BATCH_SIZE, (ps, change) -> {
+            ps.setLong(1, change.getUserId());
+            ps.setLong(2, change.getCollectionId());
+            ps.setLong(3, change.getVersion());
+            ps.setLong(4, change.getAddressBookId());
+            ps.setInt(5, change.getOp());
+            JdbcTimestamps.bind(ps, 6, now);
+        });
+    }
+}
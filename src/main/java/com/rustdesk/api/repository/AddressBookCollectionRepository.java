@@ -1,7 +1,10 @@
 package com.rustdesk.api.repository;
 
 import com.rustdesk.api.entity.AddressBookCollection;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -19,4 +22,14 @@ public interface AddressBookCollectionRepository extends JpaRepository<AddressBo
      * @return List of address book collections
      */
     List<AddressBookCollection> findByUserId(Long userId);
+
+    /**
+     * Find collection IDs by user ID (chunked)
+     *
+     * @param userId user ID
+     * @param pageable chunk size
+     * @return List of collection IDs
+     */
+    @Query("SELECT c.id FROM AddressBookCollection c WHERE c.userId = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId, Pageable pageable);
 }
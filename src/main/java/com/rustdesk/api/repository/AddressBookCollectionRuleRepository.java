@@ -1,7 +1,10 @@
 package com.rustdesk.api.repository;
 
 import com.rustdesk.api.entity.AddressBookCollectionRule;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,7 +14,7 @@ import java.util.Optional;
  * AddressBookCollectionRule repository interface
  */
 @Repository
-public interface AddressBookCollectionRuleRepository extends JpaRepository<AddressBookCollectionRule, Long> {
+public interface AddressBookCollectionRuleRepository extends JpaRepository<AddressBookCollectionRule, Long>, AddressBookCollectionRuleRepositoryCustom {
 
     /**
      * Find collection rules by collection ID
@@ -38,4 +41,25 @@ public interface AddressBookCollectionRuleRepository extends JpaRepository<Addre
      * @return Optional AddressBookCollectionRule
      */
     Optional<AddressBookCollectionRule> findByCollectionIdAndTypeAndToId(Long collectionId, Integer type, Long toId);
+
+    /**
+     * Find rule IDs of collections owned by a user (chunked)
+     *
+     * @param userId owner user ID
+     * @param pageable chunk size
+     * @return List of rule IDs
+     */
+    @Query("SELECT r.id FROM AddressBookCollectionRule r WHERE r.userId = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Find rule IDs by target type and target ID (chunked)
+     *
+     * @param type rule type
+     * @param toId target ID
+     * @param pageable chunk size
+     * @return List of rule IDs
+     */
+    @Query("SELECT r.id FROM AddressBookCollectionRule r WHERE r.type = :type AND r.toId = :toId")
+    List<Long> findIdsByTypeAndToId(@Param("type") Integer type, @Param("toId") Long toId, Pageable pageable);
 }
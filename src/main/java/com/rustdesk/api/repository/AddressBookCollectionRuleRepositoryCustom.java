@@ -0,0 +1,19 @@
+package com.rustdesk.api.repository;
+
+import com.rustdesk.api.entity.AddressBookCollectionRule;
+
+import java.util.List;
+
+/**
+ * AddressBookCollectionRule repository fragment for bulk writes
+ */
+public interface AddressBookCollectionRuleRepositoryCustom {
+
+    /**
+     * Insert rules with JDBC batching
+     * Generated IDs are not set on the given rules.
+     *
+     * @param rules new rules
+     */
+    void insertBatch(List<AddressBookCollectionRule> rules);
+}
@@ -0,0 +1,39 @@
+package com.rustdesk.api.repository;
+
+import com.rustdesk.api.entity.AddressBookCollectionRule;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * AddressBookCollectionRule repository fragment implementation
+ */
+@RequiredArgsConstructor
+public class AddressBookCollectionRuleRepositoryImpl implements AddressBookCollectionRuleRepositoryCustom {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_SQL = "INSERT INTO address_book_collection_rule "
+            + "(user_id, collection_id, rule, type, to_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertBatch(List<AddressBookCollectionRule> rules) {
+        if (rules.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.batchUpdate(INSERT_SQL, rules, BATCH_SIZE, (ps, rule) -> {
+            ps.setLong(1, rule.getUserId());
+            ps.setLong(2, rule.getCollectionId());
+            ps.setInt(3, rule.getRule());
+            ps.setInt(4, rule.getType());
+            ps.setLong(5, rule.getToId());
+            JdbcTimestamps.bind(ps, 6, now);
+            JdbcTimestamps.bind(ps, 7, now);
+        });
+    }
+}
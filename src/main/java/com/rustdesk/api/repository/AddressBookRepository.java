@@ -1,9 +1,14 @@
 package com.rustdesk.api.repository;
 
 import com.rustdesk.api.entity.AddressBook;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,7 +16,7 @@ import java.util.Optional;
  * AddressBook repository interface
  */
 @Repository
-public interface AddressBookRepository extends JpaRepository<AddressBook, Long> {
+public interface AddressBookRepository extends JpaRepository<AddressBook, Long>, AddressBookRepositoryCustom {
 
     /**
      * Find address books by user ID
@@ -38,4 +43,126 @@ public interface AddressBookRepository extends JpaRepository<AddressBook, Long>
      * @return Optional AddressBook
      */
     Optional<AddressBook> findByUserIdAndDeviceId(Long userId, String deviceId);
+
+    /**
+     * Find address book IDs by user ID (chunked)
+     *
+     * @param userId user ID
+     * @param pageable chunk size
+     * @return List of address book IDs
+     */
+    @Query("SELECT ab.id FROM AddressBook ab WHERE ab.userId = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Find the entries of one address book
+     * Entries without a collection belong to the personal book, collection 0.
+     *
+     * @param userId owner user ID
+     * @param collectionId collection ID, 0 for the personal address book
+     * @return List of address books
+     */
+    @Query("SELECT ab FROM AddressBook ab WHERE ab.userId = :userId AND COALESCE(ab.collectionId, 0) = :collectionId")
+    List<AddressBook> findByBook(@Param("userId") Long userId, @Param("collectionId") Long collectionId);
+
+    /**
+     * Find address books of a user by device IDs
+     *
+     * @param userId user ID
+     * @param deviceIds device IDs
+     * @return List of address books
+     */
+    List<AddressBook> findByUserIdAndDeviceIdIn(Long userId, Collection<String> deviceIds);
+
+    /**
+     * Find a user's address books that carry any of the given tags
+     *
+     * @param userId user ID
+     * @param tags tags
+     * @return List of address books
+     */
+    @Query("SELECT ab FROM AddressBook ab WHERE ab.id IN "
+            + "(SELECT t.addressBookId FROM AddressBookTag t WHERE t.userId = :userId AND t.tag IN :tags)")
+    List<AddressBook> findByUserIdAndAnyTag(@Param("userId") Long userId, @Param("tags") Collection<String> tags);
+
+    /**
+     * Find a user's address books that carry all of the given tags
+     *
+     * @param userId user ID
+     * @param tags distinct tags
+     * @param count number of distinct tags
+     * @return List of address books
+     */
+    @Query("SELECT ab FROM AddressBook ab WHERE ab.id IN "
+            + "(SELECT t.addressBookId FROM AddressBookTag t WHERE t.userId = :userId AND t.tag IN :tags "
+            + "GROUP BY t.addressBookId HAVING COUNT(t.tag) = :count)")
+    List<AddressBook> findByUserIdAndAllTags(@Param("userId") Long userId, @Param("tags") Collection<String> tags,
+                                             @Param("count") long count);
+
+    /**
+     * Find all address book IDs of a user
+     *
+     * @param userId user ID
+     * @return List of address book IDs in ascending order
+     */
+    @Query("SELECT ab.id FROM AddressBook ab WHERE ab.userId = :userId ORDER BY ab.id")
+    List<Long> findAllIdsByUserId(@Param("userId") Long userId);
+
+    /**
+     * Check if a collection has entries
+     *
+     * @param collectionId collection ID
+     * @return true if at least one entry belongs to the collection
+     */
+    boolean existsByCollectionId(Long collectionId);
+
+    /**
+     * Find the device IDs of one address book ordered by entry ID
+     *
+     * @param userId owner user ID
+     * @param collectionId collection ID, 0 for the personal address book
+     * @return List of device IDs
+     */
+    @Query("SELECT ab.deviceId FROM AddressBook ab WHERE ab.userId = :userId AND COALESCE(ab.collectionId, 0) = :collectionId ORDER BY ab.id")
+    List<String> findDeviceIdsByBook(@Param("userId") Long userId, @Param("collectionId") Long collectionId);
+
+    /**
+     * Find the collections a user has entries in
+     *
+     * @param userId owner user ID
+     * @return collection IDs, 0 for the personal address book
+     */
+    @Query("SELECT DISTINCT COALESCE(ab.collectionId, 0) FROM AddressBook ab WHERE ab.userId = :userId")
+    List<Long> findBookIdsByUserId(@Param("userId") Long userId);
+
+    /**
+     * Find entry IDs of one address book (chunked)
+     *
+     * @param userId owner user ID
+     * @param collectionId collection ID, 0 for the personal address book
+     * @param pageable chunk size
+     * @return List of address book IDs
+     */
+    @Query("SELECT ab.id FROM AddressBook ab WHERE ab.userId = :userId AND COALESCE(ab.collectionId, 0) = :collectionId")
+    List<Long> findIdsByBook(@Param("userId") Long userId, @Param("collectionId") Long collectionId, Pageable pageable);
+
+    /**
+     * Delete address book entries by IDs in one statement
+     *
+     * @param ids address book IDs
+     * @return number of deleted rows
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("DELETE FROM AddressBook ab WHERE ab.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Find which of the given devices a user already has entries for
+     *
+     * @param userId user ID
+     * @param deviceIds device IDs
+     * @return device IDs with an entry in any of the user's address books
+     */
+    @Query("SELECT DISTINCT ab.deviceId FROM AddressBook ab WHERE ab.userId = :userId AND ab.deviceId IN :deviceIds")
+    List<String> findDeviceIdsByUserIdAndDeviceIdIn(@Param("userId") Long userId, @Param("deviceIds") Collection<String> deviceIds);
 }
@@ -0,0 +1,20 @@
+package com.rustdesk.api.repository;
+
+import com.rustdesk.api.entity.AddressBook;
+
+import java.util.List;
+
+/**
+ * AddressBook repository fragment for bulk writes
+ */
+public interface AddressBookRepositoryCustom {
+
+    /**
+     * Insert address books with JDBC batching
+     * Identity IDs are not populated; reload the rows if they are needed.
+     *
+     * @param addressBooks new address books
+     * @return number of rows inserted
+     */
+    int insertBatch(List<AddressBook> addressBooks);
+}
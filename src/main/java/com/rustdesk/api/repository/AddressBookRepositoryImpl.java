@@ -0,0 +1,72 @@
+package com.rustdesk.api.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rustdesk.api.entity.AddressBook;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * AddressBook repository fragment implementation
+ * <p>
+ * Address book IDs are identity columns, which makes Hibernate give up insert
+ * batching, so bulk inserts go through JDBC directly.
+ * </p>
+ */
+@RequiredArgsConstructor
+public class AddressBookRepositoryImpl implements AddressBookRepositoryCustom {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_SQL = "INSERT INTO address_books (row_id, device_id, user_id, username, password, "
+            + "hostname, alias, platform, tags, hash, collection_id, force_always_relay, rdp_port, rdp_username, "
+            + "online, login_name, same_server, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public int insertBatch(List<AddressBook> addressBooks) {
+        if (addressBooks.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.batchUpdate(INSERT_SQL, addressBooks, BATCH_SIZE, (ps, ab) -> {
+            ps.setObject(1, ab.getRowId());
+            ps.setString(2, ab.getDeviceId());
+            ps.setObject(3, ab.getUserId());
+            ps.setString(4, ab.getUsername());
+            ps.setString(5, ab.getPassword());
+            ps.setString(6, ab.getHostname());
+            ps.setString(7, ab.getAlias());
+            ps.setString(8, ab.getPlatform());
+            ps.setString(9, toJson(ab.getTags()));
+            ps.setString(10, ab.getHash());
+            ps.setObject(11, ab.getCollectionId());
+            ps.setBoolean(12, Boolean.TRUE.equals(ab.getForceAlwaysRelay()));
+            ps.setObject(13, ab.getRdpPort());
+            ps.setString(14, ab.getRdpUsername());
+            ps.setBoolean(15, Boolean.TRUE.equals(ab.getOnline()));
+            ps.setString(16, ab.getLoginName());
+            ps.setBoolean(17, Boolean.TRUE.equals(ab.getSameServer()));
+            JdbcTimestamps.bind(ps, 18, now);
+            JdbcTimestamps.bind(ps, 19, now);
+        });
+        return addressBooks.size();
+    }
+
+    private String toJson(List<String> tags) {
+        if (tags == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(tags);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid address book tags", e);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.rustdesk.api.repository;
+
+import com.rustdesk.api.entity.AddressBookTag;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * AddressBookTag repository interface
+ */
+@Repository
+public interface AddressBookTagRepository extends JpaRepository<AddressBookTag, AddressBookTag.Key>,
+        AddressBookTagRepositoryCustom {
+
+    /**
+     * Delete the tag rows of address book entries
+     *
+     * @param addressBookIds address book entry IDs
+     * @return number of rows deleted
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("DELETE FROM AddressBookTag t WHERE t.addressBookId IN :addressBookIds")
+    int deleteByAddressBookIdIn(@Param("addressBookIds") Collection<Long> addressBookIds);
+
+    /**
+     * Find all tag rows of a user
+     *
+     * @param userId user ID
+     * @return List of tag rows
+     */
+    List<AddressBookTag> findByUserId(Long userId);
+}
@@ -0,0 +1,18 @@
+package com.rustdesk.api.repository;
+
+import com.rustdesk.api.entity.AddressBookTag;
+
+import java.util.List;
+
+/**
+ * AddressBookTag repository fragment for bulk writes
+ */
+public interface AddressBookTagRepositoryCustom {
+
+    /**
+     * Insert tag rows with JDBC batching
+     *
+     * @param tags new tag rows
+     */
+    void insertBatch(List<AddressBookTag> tags);
+}
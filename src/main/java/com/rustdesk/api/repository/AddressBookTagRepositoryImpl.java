@@ -0,0 +1,36 @@
+package com.rustdesk.api.repository;
+
+import com.rustdesk.api.entity.AddressBookTag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * AddressBookTag repository fragment implementation
+ * <p>
+ * Tag rows have assigned composite keys, so saveAll would issue a select per
+ * row before inserting it; batches go through JDBC directly.
+ * </p>
+ */
+@RequiredArgsConstructor
+public class AddressBookTagRepositoryImpl implements AddressBookTagRepositoryCustom {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_SQL = "INSERT INTO address_book_tags (address_book_id, user_id, tag) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertBatch(List<AddressBookTag> tags) {
+        if (tags.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, tags, BATCH_SIZE, (ps, tag) -> {
+            ps.setLong(1, tag.getAddressBookId());
+            ps.setLong(2, tag.getUserId());
+            ps.setString(3, tag.getTag());
+        });
+    }
+}
@@ -0,0 +1,59 @@
+package com.rustdesk.api.repository;
+
+import com.rustdesk.api.entity.AddressBookVersion;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * AddressBookVersion repository interface
+ */
+@Repository
+public interface AddressBookVersionRepository extends JpaRepository<AddressBookVersion, Long> {
+
+    /**
+     * Find the version of an address book
+     *
+     * @param userId owner user ID
+     * @param collectionId collection ID, 0 for the personal address book
+     * @return Optional AddressBookVersion
+     */
+    Optional<AddressBookVersion> findByUserIdAndCollectionId(Long userId, Long collectionId);
+
+    /**
+     * Find and lock the version of an address book for allocating new versions
+     *
+     * @param userId owner user ID
+     * @param collectionId collection ID, 0 for the personal address book
+     * @return Optional AddressBookVersion
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v FROM AddressBookVersion v WHERE v.userId = :userId AND v.collectionId = :collectionId")
+    Optional<AddressBookVersion> findForUpdate(@Param("userId") Long userId, @Param("collectionId") Long collectionId);
+
+    /**
+     * Find versions whose change log has grown beyond the given length
+     *
+     * @param retain number of changes to keep
+     * @return List of versions to compact
+     */
+    @Query("SELECT v FROM AddressBookVersion v WHERE v.version - v.compactedVersion > :retain")
+    List<AddressBookVersion> findCompactable(@Param("retain") long retain);
+
+    /**
+     * Find version IDs by user ID
+     *
+     * @param userId user ID
+     * @param pageable chunk size
+     * @return List of version IDs
+     */
+    @Query("SELECT v.id FROM AddressBookVersion v WHERE v.userId = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+}
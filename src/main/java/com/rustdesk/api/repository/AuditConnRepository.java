@@ -4,15 +4,19 @@ import com.rustdesk.api.entity.AuditConn;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
  * AuditConn repository interface
  */
 @Repository
-public interface AuditConnRepository extends JpaRepository<AuditConn, Long> {
+public interface AuditConnRepository extends JpaRepository<AuditConn, Long>, AuditConnRepositoryCustom {
 
     /**
      * Find connection audit records by peer ID
@@ -29,4 +33,65 @@ public interface AuditConnRepository extends JpaRepository<AuditConn, Long> {
      * @return Page of connection audit records
      */
     Page<AuditConn> findAll(Pageable pageable);
+
+    /**
+     * Find new events since a time that have no stitched session
+     *
+     * @param since earliest event time
+     * @return new events, oldest first
+     */
+    @Query("SELECT a FROM AuditConn a WHERE a.action = 'new' AND a.createdAt >= :since " +
+           "AND NOT EXISTS (SELECT s.id FROM AuditSession s WHERE s.connId = a.connId AND s.startTime = a.createdAt) " +
+           "ORDER BY a.createdAt ASC")
+    List<AuditConn> findUnstitchedOpens(@Param("since") LocalDateTime since);
+
+    /**
+     * Find events of an action for connections since a time
+     *
+     * @param action event action
+     * @param connIds connection IDs
+     * @param since earliest event time
+     * @return events, oldest first
+     */
+    List<AuditConn> findByActionAndConnIdInAndCreatedAtGreaterThanEqualOrderByCreatedAtAsc(
+            String action, Collection<String> connIds, LocalDateTime since);
+
+    /**
+     * Find the rollup fields of records within an ID range
+     *
+     * @param afterId last ID already read
+     * @param maxId highest ID to read
+     * @param pageable chunk size
+     * @return List of [id, createdAt, peerId, action] ordered by ID
+     */
+    @Query("SELECT a.id, a.createdAt, a.peerId, a.action FROM AuditConn a WHERE a.id > :afterId AND a.id <= :maxId ORDER BY a.id ASC")
+    List<Object[]> findRollupRowsAfter(@Param("afterId") Long afterId, @Param("maxId") Long maxId, Pageable pageable);
+
+    /**
+     * Find the highest record ID
+     *
+     * @return highest ID, null if there are no records
+     */
+    @Query("SELECT MAX(a.id) FROM AuditConn a")
+    Long findMaxId();
+
+    /**
+     * Find the creation time of the oldest record after an ID and before a time
+     *
+     * @param afterId exclusive lower ID bound
+     * @param before exclusive upper creation time bound
+     * @return oldest creation time, null if there is no such record
+     */
+    @Query("SELECT MIN(a.createdAt) FROM AuditConn a WHERE a.id > :afterId AND a.createdAt < :before")
+    LocalDateTime findOldestCreatedAtAfter(@Param("afterId") Long afterId, @Param("before") LocalDateTime before);
+
+    /**
+     * Find records within an ID range
+     *
+     * @param fromId lowest ID
+     * @param toId highest ID
+     * @param pageable chunk size
+     * @return List of records ordered by ID
+     */
+    List<AuditConn> findByIdBetweenOrderByIdAsc(Long fromId, Long toId, Pageable pageable);
 }
@@ -0,0 +1,116 @@
+package com.rustdesk.api.repository;
+
+import com.rustdesk.api.entity.AuditConn;
+import com.rustdesk.api.util.SeekCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * AuditConn repository fragment implementation
+ */
+@RequiredArgsConstructor
+public class AuditConnRepositoryImpl implements AuditConnRepositoryCustom {
+
+    /**
+     * Rows per statement, 12 columns each stays far below SQLite's bound parameter limit
+     */
+    private static final int ROWS_PER_STATEMENT = 500;
+
+    private static final String INSERT_PREFIX = "INSERT INTO audit_conn "
+            + "(action, conn_id, peer_id, from_peer, from_name, ip, session_id, type, uuid, close_time, created_at, updated_at) VALUES ";
+
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String FULL_STATEMENT = statement(ROWS_PER_STATEMENT);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PartitionedTables partitionedTables;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int insertBatch(List<AuditConn> records) {
+        int inserted = 0;
+        for (int from = 0; from < records.size(); from += ROWS_PER_STATEMENT) {
+            List<AuditConn> rows = records.subList(from, Math.min(records.size(), from + ROWS_PER_STATEMENT));
+            inserted += jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(
+                        rows.size() == ROWS_PER_STATEMENT ? FULL_STATEMENT : statement(rows.size()));
+                int index = 1;
+                for (AuditConn record : rows) {
+                    index = bind(ps, index, record);
+                }
+                return ps;
+            });
+        }
+        return inserted;
+    }
+
+    @Override
+    public List<AuditConn> findPage(String peerId, String fromPeer, String action, LocalDateTime from, LocalDateTime to,
+                                    SeekCursor after, int limit) {
+        return query(peerId, fromPeer, action, from, to).fetch(entityManager, after, limit);
+    }
+
+    @Override
+    public long countPage(String peerId, String fromPeer, String action, LocalDateTime from, LocalDateTime to) {
+        return query(peerId, fromPeer, action, from, to).count(entityManager);
+    }
+
+    @Override
+    public int deleteByIdIn(Collection<Long> ids) {
+        entityManager.flush();
+        int deleted = partitionedTables.deleteByIdIn("audit_conn", ids);
+        entityManager.clear();
+        return deleted;
+    }
+
+    private static KeysetQuery<AuditConn> query(String peerId, String fromPeer, String action,
+                                                LocalDateTime from, LocalDateTime to) {
+        return new KeysetQuery<>(AuditConn.class)
+                .eq("peerId", peerId)
+                .eq("fromPeer", fromPeer)
+                .eq("action", action)
+                .between(from, to);
+    }
+
+    private static String statement(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows * (ROW_PLACEHOLDERS.length() + 2));
+        sql.append(INSERT_PREFIX);
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "" : ", ").append(ROW_PLACEHOLDERS);
+        }
+        return sql.toString();
+    }
+
+    private static int bind(PreparedStatement ps, int index, AuditConn record) throws SQLException {
+        LocalDateTime created = record.getCreatedAt() != null ? record.getCreatedAt() : LocalDateTime.now();
+        ps.setString(index++, record.getAction());
+        ps.setString(index++, record.getConnId());
+        ps.setString(index++, record.getPeerId());
+        ps.setString(index++, record.getFromPeer());
+        ps.setString(index++, record.getFromName());
+        ps.setString(index++, record.getIp());
+        ps.setString(index++, record.getSessionId());
+        ps.setString(index++, record.getType());
+        ps.setString(index++, record.getUuid());
+        if (record.getCloseTime() != null) {
+            ps.setLong(index++, record.getCloseTime());
+        } else {
+            ps.setNull(index++, Types.BIGINT);
+        }
+        JdbcTimestamps.bind(ps, index++, created);
+        JdbcTimestamps.bind(ps, index++, created);
+        return index;
+    }
+}
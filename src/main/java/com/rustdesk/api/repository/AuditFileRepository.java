@@ -4,15 +4,18 @@ import com.rustdesk.api.entity.AuditFile;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
  * AuditFile repository interface
  */
 @Repository
-public interface AuditFileRepository extends JpaRepository<AuditFile, Long> {
+public interface AuditFileRepository extends JpaRepository<AuditFile, Long>, AuditFileRepositoryCustom {
 
     /**
      * Find file audit records by peer ID
@@ -29,4 +32,43 @@ public interface AuditFileRepository extends JpaRepository<AuditFile, Long> {
      * @return Page of file audit records
      */
     Page<AuditFile> findAll(Pageable pageable);
+
+    /**
+     * Find the rollup fields of records within an ID range
+     *
+     * @param afterId last ID already read
+     * @param maxId highest ID to read
+     * @param pageable chunk size
+     * @return List of [id, createdAt, peerId, type] ordered by ID
+     */
+    @Query("SELECT a.id, a.createdAt, a.peerId, a.type FROM AuditFile a WHERE a.id > :afterId AND a.id <= :maxId ORDER BY a.id ASC")
+    List<Object[]> findRollupRowsAfter(@Param("afterId") Long afterId, @Param("maxId") Long maxId, Pageable pageable);
+
+    /**
+     * Find the highest record ID
+     *
+     * @return highest ID, null if there are no records
+     */
+    @Query("SELECT MAX(a.id) FROM AuditFile a")
+    Long findMaxId();
+
+    /**
+     * Find the creation time of the oldest record after an ID and before a time
+     *
+     * @param afterId exclusive lower ID bound
+     * @param before exclusive upper creation time bound
+     * @return oldest creation time, null if there is no such record
+     */
+    @Query("SELECT MIN(a.createdAt) FROM AuditFile a WHERE a.id > :afterId AND a.createdAt < :before")
+    LocalDateTime findOldestCreatedAtAfter(@Param("afterId") Long afterId, @Param("before") LocalDateTime before);
+
+    /**
+     * Find records within an ID range
+     *
+     * @param fromId lowest ID
+     * @param toId highest ID
+     * @param pageable chunk size
+     * @return List of records ordered by ID
+     */
+    List<AuditFile> findByIdBetweenOrderByIdAsc(Long fromId, Long toId, Pageable pageable);
 }
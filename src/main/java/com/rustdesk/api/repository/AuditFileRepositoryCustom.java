@@ -0,0 +1,50 @@
+package com.rustdesk.api.repository;
+
+import com.rustdesk.api.entity.AuditFile;
+import com.rustdesk.api.util.SeekCursor;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * AuditFile repository fragment for keyset paging
+ */
+public interface AuditFileRepositoryCustom {
+
+    /**
+     * Find records after a cursor, newest first
+     * Filters left null are not applied.
+     *
+     * @param peerId controlled peer ID
+     * @param fromPeer controlling peer ID
+     * @param type transfer type
+     * @param from inclusive start of the creation time range
+     * @param to exclusive end of the creation time range
+     * @param after cursor, null for the first page
+     * @param limit maximum rows
+     * @return records ordered by creation time and ID descending
+     */
+    List<AuditFile> findPage(String peerId, String fromPeer, String type, LocalDateTime from, LocalDateTime to,
+                             SeekCursor after, int limit);
+
+    /**
+     * Count records matching the filters of {@link #findPage}
+     *
+     * @param peerId controlled peer ID
+     * @param fromPeer controlling peer ID
+     * @param type transfer type
+     * @param from inclusive start of the creation time range
+     * @param to exclusive end of the creation time range
+     * @return record count
+     */
+    long countPage(String peerId, String fromPeer, String type, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Delete records by IDs
+     *
+     * @param ids record IDs
+     * @return number of deleted rows
+     */
+    int deleteByIdIn(Collection<Long> ids);
+}
@@ -0,0 +1,51 @@
+package com.rustdesk.api.repository;
+
+import com.rustdesk.api.entity.AuditFile;
+import com.rustdesk.api.util.SeekCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * AuditFile repository fragment implementation
+ */
+@RequiredArgsConstructor
+public class AuditFileRepositoryImpl implements AuditFileRepositoryCustom {
+
+    private final PartitionedTables partitionedTables;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<AuditFile> findPage(String peerId, String fromPeer, String type, LocalDateTime from, LocalDateTime to,
+                                    SeekCursor after, int limit) {
+        return query(peerId, fromPeer, type, from, to).fetch(entityManager, after, limit);
+    }
+
+    @Override
+    public long countPage(String peerId, String fromPeer, String type, LocalDateTime from, LocalDateTime to) {
+        return query(peerId, fromPeer, type, from, to).count(entityManager);
+    }
+
+    @Override
+    public int deleteByIdIn(Collection<Long> ids) {
+        entityManager.flush();
+        int deleted = partitionedTables.deleteByIdIn("audit_file", ids);
+        entityManager.clear();
+        return deleted;
+    }
+
+    private static KeysetQuery<AuditFile> query(String peerId, String fromPeer, String type,
+                                                LocalDateTime from, LocalDateTime to) {
+        return new KeysetQuery<>(AuditFile.class)
+                .eq("peerId", peerId)
+                .eq("fromPeer", fromPeer)
+                .eq("type", type)
+                .between(from, to);
+    }
+}
@@ -0,0 +1,77 @@
+package com.rustdesk.api.repository;
+
+import com.rustdesk.api.entity.AuditRollup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * AuditRollup repository interface
+ */
+@Repository
+public interface AuditRollupRepository extends JpaRepository<AuditRollup, Long> {
+
+    /**
+     * Find the rollups of some buckets
+     *
+     * @param source source
+     * @param granularity granularity
+     * @param buckets bucket starts
+     * @return rollups in those buckets
+     */
+    List<AuditRollup> findBySourceAndGranularityAndBucketIn(String source, String granularity,
+                                                           Collection<LocalDateTime> buckets);
+
+    /**
+     * Find the rollups of one peer in a time range
+     *
+     * @param source source
+     * @param granularity granularity
+     * @param peerId peer ID
+     * @param from first bucket, inclusive
+     * @param to end of the range, exclusive
+     * @return rollups ordered by bucket
+     */
+    @Query("SELECT r FROM AuditRollup r WHERE r.source = :source AND r.granularity = :granularity " +
+           "AND r.peerId = :peerId AND r.bucket >= :from AND r.bucket < :to ORDER BY r.bucket ASC, r.action ASC")
+    List<AuditRollup> findPeerSeries(@Param("source") String source, @Param("granularity") String granularity,
+                                     @Param("peerId") String peerId, @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to);
+
+    /**
+     * Sum the rollups of all peers per bucket and action in a time range
+     *
+     * @param source source
+     * @param granularity granularity
+     * @param from first bucket, inclusive
+     * @param to end of the range, exclusive
+     * @return List of [bucket, action, count] ordered by bucket
+     */
+    @Query("SELECT r.bucket, r.action, SUM(r.count) FROM AuditRollup r WHERE r.source = :source " +
+           "AND r.granularity = :granularity AND r.bucket >= :from AND r.bucket < :to " +
+           "GROUP BY r.bucket, r.action ORDER BY r.bucket ASC, r.action ASC")
+    List<Object[]> sumSeries(@Param("source") String source, @Param("granularity") String granularity,
+                             @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Sum the rollups per peer in a time range, busiest first
+     *
+     * @param source source
+     * @param granularity granularity
+     * @param from first bucket, inclusive
+     * @param to end of the range, exclusive
+     * @param pageable result limit
+     * @return List of [peerId, count]
+     */
+    @Query("SELECT r.peerId, SUM(r.count) FROM AuditRollup r WHERE r.source = :source " +
+           "AND r.granularity = :granularity AND r.bucket >= :from AND r.bucket < :to " +
+           "GROUP BY r.peerId ORDER BY SUM(r.count) DESC")
+    List<Object[]> sumByPeer(@Param("source") String source, @Param("granularity") String granularity,
+                             @Param("from") LocalDateTime from, @Param("to") LocalDateTime to, Pageable pageable);
+}
@@ -0,0 +1,12 @@
+package com.rustdesk.api.repository;
+
+import com.rustdesk.api.entity.AuditRollupWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * AuditRollupWatermark repository interface
+ */
+@Repository
+public interface AuditRollupWatermarkRepository extends JpaRepository<AuditRollupWatermark, String> {
+}
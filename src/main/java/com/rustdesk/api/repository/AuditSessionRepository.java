@@ -0,0 +1,23 @@
+package com.rustdesk.api.repository;
+
+import com.rustdesk.api.entity.AuditSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * AuditSession repository interface
+ */
+@Repository
+public interface AuditSessionRepository extends JpaRepository<AuditSession, Long> {
+
+    /**
+     * Check if a session has already been stitched
+     *
+     * @param connId connection ID
+     * @param startTime time of the new event
+     * @return true if the session exists
+     */
+    boolean existsByConnIdAndStartTime(String connId, LocalDateTime startTime);
+}
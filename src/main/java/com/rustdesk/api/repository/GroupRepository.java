@@ -2,6 +2,9 @@ package com.rustdesk.api.repository;
 
 import com.rustdesk.api.entity.Group;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -28,4 +31,40 @@ public interface GroupRepository extends JpaRepository<Group, Long> {
      * @return List of groups
      */
     List<Group> findByType(Integer type);
+
+    /**
+     * Check if a group has child groups
+     *
+     * @param parentId parent group ID
+     * @return true if at least one child exists
+     */
+    boolean existsByParentId(Long parentId);
+
+    /**
+     * Find all groups in a path range, ordered by path
+     * With from = subtree path and to = its upper bound this returns the whole subtree.
+     *
+     * @param from inclusive lower bound
+     * @param to exclusive upper bound
+     * @return List of groups
+     */
+    @Query("SELECT g FROM Group g WHERE g.path >= :from AND g.path < :to ORDER BY g.path")
+    List<Group> findByPathRange(@Param("from") String from, @Param("to") String to);
+
+    /**
+     * Rewrite the path prefix and depth of every group in a path range
+     * Used to move a whole subtree under a new parent in one statement.
+     *
+     * @param from inclusive lower bound (old subtree path)
+     * @param to exclusive upper bound
+     * @param oldLength length of the old subtree path
+     * @param newPath new subtree path
+     * @param depthDelta change in depth
+     * @return number of groups updated
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Group g SET g.path = CONCAT(:newPath, SUBSTRING(g.path, :oldLength + 1)), g.depth = g.depth + :depthDelta " +
+            "WHERE g.path >= :from AND g.path < :to")
+    int movePathRange(@Param("from") String from, @Param("to") String to, @Param("oldLength") int oldLength,
+                      @Param("newPath") String newPath, @Param("depthDelta") int depthDelta);
 }
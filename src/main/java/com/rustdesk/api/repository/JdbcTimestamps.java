@@ -0,0 +1,36 @@
+package com.rustdesk.api.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Bind date-times in hand-written JDBC statements the way Hibernate does
+ * Hibernate runs with {@code hibernate.jdbc.time_zone: UTC}; binding without the
+ * same calendar would shift the stored value by the JVM time zone offset on
+ * drivers that apply it, such as MySQL, and mix both conventions in one column.
+ */
+final class JdbcTimestamps {
+
+    private static final TimeZone UTC = TimeZone.getTimeZone(ZoneOffset.UTC);
+
+    private JdbcTimestamps() {
+    }
+
+    /**
+     * Bind a date-time parameter
+     *
+     * @param ps statement
+     * @param index parameter index
+     * @param time date-time
+     * @throws SQLException if the parameter cannot be set
+     */
+    static void bind(PreparedStatement ps, int index, LocalDateTime time) throws SQLException {
+        // Calendar is mutable and may be modified by the driver
+        ps.setTimestamp(index, Timestamp.valueOf(time), Calendar.getInstance(UTC));
+    }
+}
@@ -0,0 +1,103 @@
+package com.rustdesk.api.repository;
+
+import com.rustdesk.api.util.SeekCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keyset query over entities with createdAt and id, newest first
+ * Only the filters that are set become predicates, so each query can use the
+ * index that matches it instead of OR-ing optional parameters.
+ *
+ * @param <T> entity type
+ */
+final class KeysetQuery<T> {
+
+    private final Class<T> type;
+    private final List<String> predicates = new ArrayList<>();
+    private final Map<String, Object> parameters = new LinkedHashMap<>();
+
+    KeysetQuery(Class<T> type) {
+        this.type = type;
+    }
+
+    /**
+     * Add an equality filter if the value is set
+     *
+     * @param field entity field name
+     * @param value value, ignored if null or blank
+     * @return this query
+     */
+    KeysetQuery<T> eq(String field, Object value) {
+        if (value != null && !(value instanceof String text && text.isBlank())) {
+            predicates.add("e." + field + " = :" + field);
+            parameters.put(field, value);
+        }
+        return this;
+    }
+
+    /**
+     * Restrict to a creation time range
+     *
+     * @param from inclusive start, ignored if null
+     * @param to exclusive end, ignored if null
+     * @return this query
+     */
+    KeysetQuery<T> between(LocalDateTime from, LocalDateTime to) {
+        if (from != null) {
+            predicates.add("e.createdAt >= :rangeFrom");
+            parameters.put("rangeFrom", from);
+        }
+        if (to != null) {
+            predicates.add("e.createdAt < :rangeTo");
+            parameters.put("rangeTo", to);
+        }
+        return this;
+    }
+
+    /**
+     * Fetch the rows after a cursor
+     *
+     * @param entityManager entity manager
+     * @param after cursor, null for the first page
+     * @param limit maximum rows
+     * @return rows ordered by createdAt and id descending
+     */
+    List<T> fetch(EntityManager entityManager, SeekCursor after, int limit) {
+        List<String> where = new ArrayList<>(predicates);
+        if (after != null) {
+            where.add("(e.createdAt < :cursorAt OR (e.createdAt = :cursorAt AND e.id < :cursorId))");
+        }
+        TypedQuery<T> query = entityManager.createQuery("SELECT e FROM " + type.getSimpleName() + " e"
+                + clause(where) + " ORDER BY e.createdAt DESC, e.id DESC", type);
+        parameters.forEach(query::setParameter);
+        if (after != null) {
+            query.setParameter("cursorAt", after.createdAt());
+            query.setParameter("cursorId", after.id());
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * Count all rows matching the filters
+     *
+     * @param entityManager entity manager
+     * @return row count
+     */
+    long count(EntityManager entityManager) {
+        TypedQuery<Long> query = entityManager.createQuery("SELECT COUNT(e) FROM " + type.getSimpleName() + " e"
+                + clause(predicates), Long.class);
+        parameters.forEach(query::setParameter);
+        return query.getSingleResult();
+    }
+
+    private static String clause(List<String> where) {
+        return where.isEmpty() ? "" : " WHERE " + String.join(" AND ", where);
+    }
+}
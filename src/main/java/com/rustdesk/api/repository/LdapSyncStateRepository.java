@@ -0,0 +1,21 @@
+package com.rustdesk.api.repository;
+
+import com.rustdesk.api.entity.LdapSyncState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * LdapSyncState repository interface
+ */
+@Repository
+public interface LdapSyncStateRepository extends JpaRepository<LdapSyncState, Long> {
+
+    /**
+     * Find the sync state row
+     *
+     * @return Optional LdapSyncState
+     */
+    Optional<LdapSyncState> findFirstByOrderByIdAsc();
+}
@@ -4,6 +4,8 @@ import com.rustdesk.api.entity.LoginLog;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,7 +14,7 @@ import java.util.List;
  * LoginLog repository interface
  */
 @Repository
-public interface LoginLogRepository extends JpaRepository<LoginLog, Long> {
+public interface LoginLogRepository extends JpaRepository<LoginLog, Long>, LoginLogRepositoryCustom {
 
     /**
      * Find login logs by user ID
@@ -30,4 +32,14 @@ public interface LoginLogRepository extends JpaRepository<LoginLog, Long> {
      * @return Page of login logs
      */
     Page<LoginLog> findByIsDeleted(Integer isDeleted, Pageable pageable);
+
+    /**
+     * Find IDs of login logs that are not yet soft deleted (chunked)
+     *
+     * @param userId user ID
+     * @param pageable chunk size
+     * @return List of login log IDs
+     */
+    @Query("SELECT l.id FROM LoginLog l WHERE l.userId = :userId AND l.isDeleted = false")
+    List<Long> findActiveIdsByUserId(@Param("userId") Long userId, Pageable pageable);
 }
@@ -0,0 +1,60 @@
+package com.rustdesk.api.repository;
+
+import com.rustdesk.api.entity.LoginLog;
+import com.rustdesk.api.util.SeekCursor;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * LoginLog repository fragment for keyset paging and writes across monthly tables
+ */
+public interface LoginLogRepositoryCustom {
+
+    /**
+     * Find login logs after a cursor, newest first
+     * Filters left null are not applied.
+     *
+     * @param isDeleted deleted status
+     * @param userId user ID
+     * @param client client name
+     * @param type login type
+     * @param from inclusive start of the creation time range
+     * @param to exclusive end of the creation time range
+     * @param after cursor, null for the first page
+     * @param limit maximum rows
+     * @return login logs ordered by creation time and ID descending
+     */
+    List<LoginLog> findPage(Boolean isDeleted, Long userId, String client, String type, LocalDateTime from,
+                            LocalDateTime to, SeekCursor after, int limit);
+
+    /**
+     * Count login logs matching the filters of {@link #findPage}
+     *
+     * @param isDeleted deleted status
+     * @param userId user ID
+     * @param client client name
+     * @param type login type
+     * @param from inclusive start of the creation time range
+     * @param to exclusive end of the creation time range
+     * @return login log count
+     */
+    long countPage(Boolean isDeleted, Long userId, String client, String type, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Soft delete login logs by IDs
+     *
+     * @param ids login log IDs
+     * @return number of updated rows
+     */
+    int markDeletedByIdIn(Collection<Long> ids);
+
+    /**
+     * Delete login logs by IDs
+     *
+     * @param ids login log IDs
+     * @return number of deleted rows
+     */
+    int deleteByIdIn(Collection<Long> ids);
+}
@@ -0,0 +1,60 @@
+package com.rustdesk.api.repository;
+
+import com.rustdesk.api.entity.LoginLog;
+import com.rustdesk.api.util.SeekCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * LoginLog repository fragment implementation
+ */
+@RequiredArgsConstructor
+public class LoginLogRepositoryImpl implements LoginLogRepositoryCustom {
+
+    private final PartitionedTables partitionedTables;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<LoginLog> findPage(Boolean isDeleted, Long userId, String client, String type, LocalDateTime from,
+                                   LocalDateTime to, SeekCursor after, int limit) {
+        return query(isDeleted, userId, client, type, from, to).fetch(entityManager, after, limit);
+    }
+
+    @Override
+    public long countPage(Boolean isDeleted, Long userId, String client, String type, LocalDateTime from, LocalDateTime to) {
+        return query(isDeleted, userId, client, type, from, to).count(entityManager);
+    }
+
+    @Override
+    public int markDeletedByIdIn(Collection<Long> ids) {
+        entityManager.flush();
+        int updated = partitionedTables.updateByIdIn("login_log", "is_deleted = ?", ids, true);
+        entityManager.clear();
+        return updated;
+    }
+
+    @Override
+    public int deleteByIdIn(Collection<Long> ids) {
+        entityManager.flush();
+        int deleted = partitionedTables.deleteByIdIn("login_log", ids);
+        entityManager.clear();
+        return deleted;
+    }
+
+    private static KeysetQuery<LoginLog> query(Boolean isDeleted, Long userId, String client, String type,
+                                               LocalDateTime from, LocalDateTime to) {
+        return new KeysetQuery<>(LoginLog.class)
+                .eq("isDeleted", isDeleted)
+                .eq("userId", userId)
+                .eq("client", client)
+                .eq("type", type)
+                .between(from, to);
+    }
+}
@@ -0,0 +1,37 @@
+package com.rustdesk.api.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Point repository reads of monthly partitioned SQLite tables at their views
+ * <p>
+ * Once past months are moved into {@code <table>_YYYYMM} tables, the base table
+ * only holds the current month. SELECT statements reading a partitioned table are
+ * rewritten to read {@code <table>_all} instead, which spans the base table and the
+ * monthly tables. Writes are left alone: inserts belong in the base table and
+ * updates and deletes of existing rows go through {@link PartitionedTables}.
+ * </p>
+ */
+public class PartitionViewInspector implements StatementInspector {
+
+    private final Pattern tables;
+
+    public PartitionViewInspector(List<String> tables) {
+        this.tables = Pattern.compile("(?i)\\b(from|join)\\s+(" + String.join("|", tables) + ")\\b");
+    }
+
+    @Override
+    public String inspect(String sql) {
+        String head = sql.stripLeading().toLowerCase(Locale.ROOT);
+        if (!head.startsWith("select") && !head.startsWith("with")) {
+            return sql;
+        }
+        Matcher matcher = tables.matcher(sql);
+        return matcher.find() ? matcher.replaceAll("$1 $2_all") : sql;
+    }
+}
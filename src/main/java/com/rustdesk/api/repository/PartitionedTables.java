@@ -0,0 +1,115 @@
+package com.rustdesk.api.repository;
+
+import com.rustdesk.api.config.properties.RustDeskProperties;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Physical tables behind the monthly partitioned log tables
+ * <p>
+ * On SQLite, partition maintenance moves past months out of the base table into
+ * {@code <table>_YYYYMM} tables. Repository reads are pointed at the
+ * {@code <table>_all} view by {@link PartitionViewInspector}, but a view cannot
+ * report how many rows a write changed, so writes to existing rows are applied
+ * to each physical table here. On other databases, or with partitioning disabled,
+ * the table is its only physical table.
+ * </p>
+ */
+@Component
+public class PartitionedTables {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final List<String> routedTables;
+
+    public PartitionedTables(JdbcTemplate jdbcTemplate, RustDeskProperties rustDeskProperties,
+                             DataSourceProperties dataSourceProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        RustDeskProperties.Audit audit = rustDeskProperties.getAudit();
+        String url = dataSourceProperties.getUrl();
+        boolean sqlite = url != null && url.startsWith("jdbc:sqlite:");
+        this.routedTables = audit.getPartitionEnabled() && sqlite
+                ? List.copyOf(audit.getPartitionTables()) : Collections.emptyList();
+    }
+
+    /**
+     * Get the tables whose reads go through the {@code <table>_all} view
+     *
+     * @return table names, empty unless partitioning is enabled on SQLite
+     */
+    public List<String> routedTables() {
+        return routedTables;
+    }
+
+    /**
+     * Get the physical tables of a table
+     *
+     * @param table table name
+     * @return the base table followed by its monthly tables
+     */
+    public List<String> of(String table) {
+        if (!routedTables.contains(table)) {
+            return List.of(table);
+        }
+        Pattern monthly = Pattern.compile(Pattern.quote(table) + "_\\d{6}");
+        List<String> tables = new ArrayList<>();
+        tables.add(table);
+        jdbcTemplate.queryForList("SELECT name FROM sqlite_master WHERE type = 'table' AND name LIKE ? ORDER BY name DESC",
+                        String.class, table + "_%").stream()
+                .filter(name -> monthly.matcher(name).matches())
+                .forEach(tables::add);
+        return tables;
+    }
+
+    /**
+     * Update rows by ID in every physical table of a table
+     *
+     * @param table table name
+     * @param assignments SET clause without the keyword
+     * @param ids row IDs
+     * @param values values of the placeholders in the assignments
+     * @return number of updated rows
+     */
+    public int updateByIdIn(String table, String assignments, Collection<Long> ids, Object... values) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Object> args = new ArrayList<>(List.of(values));
+        args.addAll(ids);
+        int updated = 0;
+        for (String name : of(table)) {
+            updated += jdbcTemplate.update("UPDATE " + name + " SET " + assignments + " WHERE id IN ("
+                    + placeholders(ids.size()) + ")", args.toArray());
+        }
+        return updated;
+    }
+
+    /**
+     * Delete rows by ID from every physical table of a table
+     *
+     * @param table table name
+     * @param ids row IDs
+     * @return number of deleted rows
+     */
+    public int deleteByIdIn(String table, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int deleted = 0;
+        for (String name : of(table)) {
+            deleted += jdbcTemplate.update("DELETE FROM " + name + " WHERE id IN (" + placeholders(ids.size()) + ")",
+                    ids.toArray());
+        }
+        return deleted;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
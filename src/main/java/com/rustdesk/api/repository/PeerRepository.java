@@ -1,9 +1,15 @@
 package com.rustdesk.api.repository;
 
 import com.rustdesk.api.entity.Peer;
+import com.rustdesk.api.repository.projection.GroupCount;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -44,4 +50,52 @@ public interface PeerRepository extends JpaRepository<Peer, Long> {
      * @return List of peers
      */
     List<Peer> findByGroupId(Long groupId);
+
+    /**
+     * Find peer IDs bound to a user (chunked)
+     *
+     * @param userId user ID
+     * @param pageable chunk size
+     * @return List of peer IDs
+     */
+    @Query("SELECT p.id FROM Peer p WHERE p.userId = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Detach peers from their user
+     *
+     * @param ids peer IDs
+     * @return number of updated rows
+     */
+    @Modifying
+    @Query("UPDATE Peer p SET p.userId = NULL WHERE p.id IN :ids")
+    int detachUserByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Count peers per group
+     *
+     * @return List of group counts
+     */
+    @Query("SELECT p.groupId AS groupId, COUNT(p.id) AS total FROM Peer p WHERE p.groupId IS NOT NULL GROUP BY p.groupId")
+    List<GroupCount> countByGroup();
+
+    /**
+     * Find peers in all groups within a path range
+     * With from = subtree path and to = its upper bound this returns every peer in the subtree.
+     *
+     * @param from inclusive lower bound
+     * @param to exclusive upper bound
+     * @return List of peers
+     */
+    @Query("SELECT p FROM Peer p WHERE p.groupId IN (SELECT g.id FROM Group g WHERE g.path >= :from AND g.path < :to)")
+    List<Peer> findByGroupPathRange(@Param("from") String from, @Param("to") String to);
+
+    /**
+     * Find device IDs and last online times of peers seen after a time
+     *
+     * @param since epoch milliseconds
+     * @return List of [deviceId, lastOnlineTime] pairs
+     */
+    @Query("SELECT p.deviceId, p.lastOnlineTime FROM Peer p WHERE p.lastOnlineTime > :since")
+    List<Object[]> findOnlineSince(@Param("since") Long since);
 }
@@ -1,7 +1,10 @@
 package com.rustdesk.api.repository;
 
 import com.rustdesk.api.entity.ShareRecord;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -35,4 +38,24 @@ public interface ShareRecordRepository extends JpaRepository<ShareRecord, Long>
      * @param expire expiration timestamp
      */
     void deleteByExpireBefore(Long expire);
+
+    /**
+     * Find share record IDs by user ID (chunked)
+     *
+     * @param userId user ID
+     * @param pageable chunk size
+     * @return List of share record IDs
+     */
+    @Query("SELECT s.id FROM ShareRecord s WHERE s.userId = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Find IDs of share records that expired before a time (chunked)
+     *
+     * @param now epoch milliseconds
+     * @param pageable chunk size
+     * @return List of share record IDs
+     */
+    @Query("SELECT s.id FROM ShareRecord s WHERE s.expire > 0 AND s.expire <= :now")
+    List<Long> findExpiredIds(@Param("now") Long now, Pageable pageable);
 }
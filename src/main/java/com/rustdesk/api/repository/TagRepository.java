@@ -1,7 +1,10 @@
 package com.rustdesk.api.repository;
 
 import com.rustdesk.api.entity.Tag;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -39,4 +42,24 @@ public interface TagRepository extends JpaRepository<Tag, Long> {
      * @return Optional Tag
      */
     Optional<Tag> findByUserIdAndNameAndCollectionId(Long userId, String name, Long collectionId);
+
+    /**
+     * Find tag IDs by user ID (chunked)
+     *
+     * @param userId user ID
+     * @param pageable chunk size
+     * @return List of tag IDs
+     */
+    @Query("SELECT t.id FROM Tag t WHERE t.userId = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Find the tags of one address book
+     *
+     * @param userId owner user ID
+     * @param collectionId collection ID, 0 for the personal address book
+     * @return List of tags
+     */
+    @Query("SELECT t FROM Tag t WHERE t.userId = :userId AND COALESCE(t.collectionId, 0) = :collectionId ORDER BY t.id")
+    List<Tag> findByBook(@Param("userId") Long userId, @Param("collectionId") Long collectionId);
 }
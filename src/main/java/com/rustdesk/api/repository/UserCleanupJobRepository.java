@@ -0,0 +1,31 @@
+package com.rustdesk.api.repository;
+
+import com.rustdesk.api.entity.UserCleanupJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * UserCleanupJob repository interface
+ */
+@Repository
+public interface UserCleanupJobRepository extends JpaRepository<UserCleanupJob, Long> {
+
+    /**
+     * Find cleanup jobs by status, oldest first
+     *
+     * @param status job status
+     * @return List of cleanup jobs
+     */
+    List<UserCleanupJob> findByStatusOrderByIdAsc(Integer status);
+
+    /**
+     * Find the latest cleanup job for a user
+     *
+     * @param userId user ID
+     * @return Optional UserCleanupJob
+     */
+    Optional<UserCleanupJob> findFirstByUserIdOrderByIdDesc(Long userId);
+}
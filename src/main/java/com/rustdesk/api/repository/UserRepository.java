@@ -1,9 +1,14 @@
 package com.rustdesk.api.repository;
 
 import com.rustdesk.api.entity.User;
+import com.rustdesk.api.repository.projection.GroupCount;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -52,4 +57,58 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return List of users
      */
     List<User> findByGroupId(Long groupId);
+
+    /**
+     * Count users per group
+     *
+     * @return List of group counts
+     */
+    @Query("SELECT u.groupId AS groupId, COUNT(u.id) AS total FROM User u WHERE u.groupId IS NOT NULL GROUP BY u.groupId")
+    List<GroupCount> countByGroup();
+
+    /**
+     * Find users in all groups within a path range
+     * With from = subtree path and to = its upper bound this returns every user in the subtree.
+     *
+     * @param from inclusive lower bound
+     * @param to exclusive upper bound
+     * @return List of users
+     */
+    @Query("SELECT u FROM User u WHERE u.groupId IN (SELECT g.id FROM Group g WHERE g.path >= :from AND g.path < :to)")
+    List<User> findByGroupPathRange(@Param("from") String from, @Param("to") String to);
+
+    /**
+     * Find users by usernames
+     *
+     * @param usernames usernames
+     * @return List of users
+     */
+    List<User> findByUsernameIn(Collection<String> usernames);
+
+    /**
+     * Find LDAP-managed users with the given status
+     *
+     * @param status user status
+     * @return List of users
+     */
+    List<User> findByLdapDnIsNotNullAndStatus(Integer status);
+
+    /**
+     * Update the status of users by IDs
+     *
+     * @param ids user IDs
+     * @param status new status
+     * @return number of users updated
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE User u SET u.status = :status WHERE u.id IN :ids")
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids, @Param("status") Integer status);
+
+    /**
+     * Find users by LDAP distinguished names
+     *
+     * @param ldapDns distinguished names
+     * @return List of users
+     */
+    List<User> findByLdapDnIn(Collection<String> ldapDns);
 }
@@ -1,7 +1,10 @@
 package com.rustdesk.api.repository;
 
 import com.rustdesk.api.entity.UserThird;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -38,4 +41,14 @@ public interface UserThirdRepository extends JpaRepository<UserThird, Long> {
      * @return List of user third-party bindings
      */
     List<UserThird> findByUserId(Long userId);
+
+    /**
+     * Find third-party binding IDs by user ID (chunked)
+     *
+     * @param userId user ID
+     * @param pageable chunk size
+     * @return List of binding IDs
+     */
+    @Query("SELECT t.id FROM UserThird t WHERE t.userId = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId, Pageable pageable);
 }
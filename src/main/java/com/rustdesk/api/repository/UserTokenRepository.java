@@ -1,7 +1,10 @@
 package com.rustdesk.api.repository;
 
 import com.rustdesk.api.entity.UserToken;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -42,4 +45,14 @@ public interface UserTokenRepository extends JpaRepository<UserToken, Long> {
      * @param expiredAt expired timestamp
      */
     void deleteByExpiredAtBefore(Long expiredAt);
+
+    /**
+     * Find token IDs by user ID (chunked)
+     *
+     * @param userId user ID
+     * @param pageable chunk size
+     * @return List of token IDs
+     */
+    @Query("SELECT t.id FROM UserToken t WHERE t.userId = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId, Pageable pageable);
 }
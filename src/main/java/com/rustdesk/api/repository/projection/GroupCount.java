@@ -0,0 +1,22 @@
+package com.rustdesk.api.repository.projection;
+
+/**
+ * Group count projection
+ * Row of a GROUP BY group_id aggregate query.
+ */
+public interface GroupCount {
+
+    /**
+     * Group ID
+     *
+     * @return group ID
+     */
+    Long getGroupId();
+
+    /**
+     * Number of rows in the group
+     *
+     * @return row count
+     */
+    Long getTotal();
+}
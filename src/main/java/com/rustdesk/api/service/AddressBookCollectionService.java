@@ -0,0 +1,336 @@
+package com.rustdesk.api.service;
+
+import com.google.common.collect.Lists;
+import com.rustdesk.api.constant.Constants;
+import com.rustdesk.api.entity.AddressBookCollection;
+import com.rustdesk.api.entity.AddressBookCollectionRule;
+import com.rustdesk.api.repository.AddressBookCollectionRepository;
+import com.rustdesk.api.repository.AddressBookCollectionRuleRepository;
+import com.rustdesk.api.repository.AddressBookRepository;
+import com.rustdesk.api.repository.GroupRepository;
+import com.rustdesk.api.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+/**
+ * Address Book Collection Service
+ * Manages shared address book collections and their sharing rules.
+ * <p>
+ * Every write tells {@link CollectionAccessService} which users and groups it
+ * affects, so their materialized permissions are recomputed after commit.
+ * </p>
+ *
+ * @author RustDesk API Team
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AddressBookCollectionService {
+
+    /**
+     * Maximum number of values bound to one IN clause
+     */
+    private static final int IN_CHUNK_SIZE = 500;
+
+    private final AddressBookCollectionRepository addressBookCollectionRepository;
+    private final AddressBookCollectionRuleRepository addressBookCollectionRuleRepository;
+    private final AddressBookRepository addressBookRepository;
+    private final CollectionAccessService collectionAccessService;
+    private final UserRepository userRepository;
+    private final GroupRepository groupRepository;
+
+    /**
+     * Find collections owned by a user
+     *
+     * @param userId owner user ID
+     * @return list of collections
+     */
+    @Transactional(readOnly = true)
+    public List<AddressBookCollection> findByUserId(Long userId) {
+        return addressBookCollectionRepository.findByUserId(userId);
+    }
+
+    /**
+     * Find collection by ID
+     *
+     * @param id collection ID
+     * @return Optional AddressBookCollection
+     */
+    @Transactional(readOnly = true)
+    public Optional<AddressBookCollection> findById(Long id) {
+        return addressBookCollectionRepository.findById(id);
+    }
+
+    /**
+     * Create a collection
+     *
+     * @param collection collection
+     * @return created collection
+     */
+    @Transactional
+    public AddressBookCollection createCollection(AddressBookCollection collection) {
+        log.info("Creating address book collection for user: {}", collection.getUserId());
+
+        AddressBookCollection saved = addressBookCollectionRepository.save(collection);
+        collectionAccessService.rulesChanged(List.of(saved.getUserId()), List.of());
+        log.info("Address book collection created with id: {}", saved.getId());
+        return saved;
+    }
+
+    /**
+     * Delete a collection and its sharing rules
+     *
+     * @param id collection ID
+     * @throws IllegalArgumentException if the collection is not found or still has entries
+     */
+    @Transactional
+    public void deleteCollection(Long id) {
+        log.info("Deleting address book collection: {}", id);
+
+        AddressBookCollection collection = addressBookCollectionRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Address book collection not found with id: " + id));
+        if (addressBookRepository.existsByCollectionId(id)) {
+            log.warn("Address book collection {} still has entries", id);
+            throw new IllegalArgumentException("Address book collection still has entries: " + id);
+        }
+
+        List<AddressBookCollectionRule> rules = addressBookCollectionRuleRepository.findByCollectionId(id);
+        addressBookCollectionRuleRepository.deleteAllInBatch(rules);
+        addressBookCollectionRepository.delete(collection);
+
+        List<Long> users = new ArrayList<>(List.of(collection.getUserId()));
+        List<Long> groups = new ArrayList<>();
+        rules.forEach(rule -> addTarget(rule, users, groups));
+        collectionAccessService.rulesChanged(users, groups);
+        log.info("Address book collection deleted: {}, {} rules removed", id, rules.size());
+    }
+
+    /**
+     * Find the sharing rules of a collection
+     *
+     * @param collectionId collection ID
+     * @return list of rules
+     */
+    @Transactional(readOnly = true)
+    public List<AddressBookCollectionRule> findRules(Long collectionId) {
+        return addressBookCollectionRuleRepository.findByCollectionId(collectionId);
+    }
+
+    /**
+     * Find sharing rule by ID
+     *
+     * @param id rule ID
+     * @return Optional AddressBookCollectionRule
+     */
+    @Transactional(readOnly = true)
+    public Optional<AddressBookCollectionRule> findRule(Long id) {
+        return addressBookCollectionRuleRepository.findById(id);
+    }
+
+    /**
+     * Create or update the sharing rule of a collection for a target
+     * An existing rule for the same (collection, type, target) is updated in place.
+     *
+     * @param collectionId collection ID
+     * @param type target type, user or group
+     * @param toId target user or group ID
+     * @param permission permission to grant
+     * @return saved rule
+     * @throws IllegalArgumentException if the collection or target is not found or the rule is invalid
+     */
+    @Transactional
+    public AddressBookCollectionRule saveRule(Long collectionId, Integer type, Long toId, Integer permission) {
+        log.info("Saving rule on collection {}: type {}, target {}, permission {}", collectionId, type, toId, permission);
+
+        if (!Constants.RULE_TYPE_USER.equals(type) && !Constants.RULE_TYPE_GROUP.equals(type)) {
+            throw new IllegalArgumentException("Invalid rule type: " + type);
+        }
+        if (permission == null || permission < Constants.PERMISSION_READ || permission > Constants.PERMISSION_FULL) {
+            throw new IllegalArgumentException("Invalid rule permission: " + permission);
+        }
+        if (toId == null) {
+            throw new IllegalArgumentException("Rule target cannot be null");
+        }
+        if (Constants.RULE_TYPE_GROUP.equals(type) ? !groupRepository.existsById(toId) : !userRepository.existsById(toId)) {
+            log.warn("Rule target not found: type {}, ID {}", type, toId);
+            throw new IllegalArgumentException((Constants.RULE_TYPE_GROUP.equals(type) ? "Group" : "User")
+                    + " not found with id: " + toId);
+        }
+        AddressBookCollection collection = addressBookCollectionRepository.findById(collectionId)
+                .orElseThrow(() -> new IllegalArgumentException("Address book collection not found with id: " + collectionId));
+
+        AddressBookCollectionRule rule = addressBookCollectionRuleRepository
+                .findByCollectionIdAndTypeAndToId(collectionId, type, toId)
+                .orElseGet(AddressBookCollectionRule::new);
+        rule.setUserId(collection.getUserId());
+        rule.setCollectionId(collectionId);
+        rule.setType(type);
+        rule.setToId(toId);
+        rule.setRule(permission);
+        AddressBookCollectionRule saved = addressBookCollectionRuleRepository.save(rule);
+
+        List<Long> users = new ArrayList<>();
+        List<Long> groups = new ArrayList<>();
+        addTarget(saved, users, groups);
+        collectionAccessService.rulesChanged(users, groups);
+        log.info("Collection rule saved with id: {}", saved.getId());
+        return saved;
+    }
+
+    /**
+     * Replace the sharing rules of a collection with a desired set
+     * The existing rules are read with one query and diffed by (type, target): new
+     * targets are inserted with one JDBC batch, changed permissions are updated in
+     * Hibernate batches, and targets no longer wanted are deleted in bulk. Permissions
+     * are invalidated once for every affected user and group.
+     *
+     * @param collectionId collection ID
+     * @param desired desired rules, at most one per target
+     * @return counts of the applied changes
+     * @throws IllegalArgumentException if the collection is not found or a rule is invalid
+     */
+    @Transactional
+    public RuleDiff replaceRules(Long collectionId, List<RuleTarget> desired) {
+        log.info("Replacing rules of collection {} with {} rules", collectionId, desired.size());
+
+        AddressBookCollection collection = addressBookCollectionRepository.findById(collectionId)
+                .orElseThrow(() -> new IllegalArgumentException("Address book collection not found with id: " + collectionId));
+
+        Map<List<Long>, RuleTarget> wanted = new HashMap<>();
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> groupIds = new HashSet<>();
+        for (RuleTarget target : desired) {
+            if (!Constants.RULE_TYPE_USER.equals(target.type()) && !Constants.RULE_TYPE_GROUP.equals(target.type())) {
+                throw new IllegalArgumentException("Invalid rule type: " + target.type());
+            }
+            if (target.permission() == null || target.permission() < Constants.PERMISSION_READ
+                    || target.permission() > Constants.PERMISSION_FULL) {
+                throw new IllegalArgumentException("Invalid rule permission: " + target.permission());
+            }
+            if (target.toId() == null) {
+                throw new IllegalArgumentException("Rule target cannot be null");
+            }
+            if (wanted.put(List.of(target.type().longValue(), target.toId()), target) != null) {
+                throw new IllegalArgumentException("Duplicate rule for target type " + target.type() + ", ID " + target.toId());
+            }
+            (Constants.RULE_TYPE_GROUP.equals(target.type()) ? groupIds : userIds).add(target.toId());
+        }
+        requireExisting("User", userIds, ids -> userRepository.findAllById(ids).size());
+        requireExisting("Group", groupIds, ids -> groupRepository.findAllById(ids).size());
+
+        List<AddressBookCollectionRule> toInsert = new ArrayList<>();
+        List<Long> toDelete = new ArrayList<>();
+        List<Long> users = new ArrayList<>();
+        List<Long> groups = new ArrayList<>();
+        int updated = 0;
+        int unchanged = 0;
+        for (AddressBookCollectionRule rule : addressBookCollectionRuleRepository.findByCollectionId(collectionId)) {
+            RuleTarget target = wanted.remove(List.of(rule.getType().longValue(), rule.getToId()));
+            if (target == null) {
+                toDelete.add(rule.getId());
+                addTarget(rule, users, groups);
+            } else if (!target.permission().equals(rule.getRule())) {
+                // Managed entity, flushed as a batched update
+                rule.setRule(target.permission());
+                addTarget(rule, users, groups);
+                updated++;
+            } else {
+                unchanged++;
+            }
+        }
+        for (RuleTarget target : wanted.values()) {
+            AddressBookCollectionRule rule = new AddressBookCollectionRule();
+            rule.setUserId(collection.getUserId());
+            rule.setCollectionId(collectionId);
+            rule.setType(target.type());
+            rule.setToId(target.toId());
+            rule.setRule(target.permission());
+            toInsert.add(rule);
+            addTarget(rule, users, groups);
+        }
+
+        addressBookCollectionRuleRepository.flush();
+        for (List<Long> chunk : Lists.partition(toDelete, IN_CHUNK_SIZE)) {
+            addressBookCollectionRuleRepository.deleteAllByIdInBatch(chunk);
+        }
+        addressBookCollectionRuleRepository.insertBatch(toInsert);
+
+        if (!users.isEmpty() || !groups.isEmpty()) {
+            collectionAccessService.rulesChanged(users, groups);
+        }
+        log.info("Rules of collection {} replaced: {} created, {} updated, {} deleted, {} unchanged",
+                collectionId, toInsert.size(), updated, toDelete.size(), unchanged);
+        return new RuleDiff(toInsert.size(), updated, toDelete.size(), unchanged);
+    }
+
+    /**
+     * Delete a sharing rule
+     *
+     * @param id rule ID
+     * @return deleted rule
+     * @throws IllegalArgumentException if the rule is not found
+     */
+    @Transactional
+    public AddressBookCollectionRule deleteRule(Long id) {
+        log.info("Deleting collection rule: {}", id);
+
+        AddressBookCollectionRule rule = addressBookCollectionRuleRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Collection rule not found with id: " + id));
+        addressBookCollectionRuleRepository.delete(rule);
+
+        List<Long> users = new ArrayList<>();
+        List<Long> groups = new ArrayList<>();
+        addTarget(rule, users, groups);
+        collectionAccessService.rulesChanged(users, groups);
+        log.info("Collection rule deleted: {}", id);
+        return rule;
+    }
+
+    private static void requireExisting(String kind, Set<Long> ids, ToIntFunction<List<Long>> counter) {
+        for (List<Long> chunk : Lists.partition(List.copyOf(ids), IN_CHUNK_SIZE)) {
+            if (counter.applyAsInt(chunk) != chunk.size()) {
+                throw new IllegalArgumentException(kind + " not found among rule targets");
+            }
+        }
+    }
+
+    private static void addTarget(AddressBookCollectionRule rule, List<Long> users, List<Long> groups) {
+        if (Constants.RULE_TYPE_GROUP.equals(rule.getType())) {
+            groups.add(rule.getToId());
+        } else {
+            users.add(rule.getToId());
+        }
+    }
+
+    /**
+     * Desired sharing rule of a collection
+     *
+     * @param type target type, user or group
+     * @param toId target user or group ID
+     * @param permission permission to grant
+     */
+    public record RuleTarget(Integer type, Long toId, Integer permission) {
+    }
+
+    /**
+     * Changes applied by a rule replacement
+     *
+     * @param created rules inserted
+     * @param updated rules whose permission changed
+     * @param deleted rules removed
+     * @param unchanged rules kept as they were
+     */
+    public record RuleDiff(int created, int updated, int deleted, int unchanged) {
+    }
+}
@@ -0,0 +1,434 @@
+package com.rustdesk.api.service;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rustdesk.api.dto.response.AddressBookImportResponse;
+import com.rustdesk.api.entity.AddressBook;
+import com.rustdesk.api.entity.AddressBookTag;
+import com.rustdesk.api.entity.Tag;
+import com.rustdesk.api.repository.AddressBookRepository;
+import com.rustdesk.api.repository.AddressBookTagRepository;
+import com.rustdesk.api.repository.TagRepository;
+import com.rustdesk.api.util.JsonStringReader;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Address Book Import Service
+ * Imports legacy RustDesk address book documents into a user's personal address book.
+ * <p>
+ * Accepts the client format {@code {"tags": [...], "peers": [...], "tag_colors": ...}},
+ * also wrapped as {@code {"data": "<that document as a string>"}} the way the Go
+ * server and clients store it. The document is read with the streaming parser one
+ * peer at a time. When {@code data} is the first field, as the Go server writes
+ * it, the string is decoded while it is parsed and fields after it are ignored;
+ * a {@code data} string further into the document is loaded whole. Peers are
+ * deduplicated against the user's existing entries with one IN query per batch
+ * and inserted with JDBC batches. Missing tags are created once at the end. In dry-run mode the same diff is computed without writing.
+ * </p>
+ *
+ * @author RustDesk API Team
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AddressBookImportService {
+
+    /**
+     * Peers checked and written per batch
+     */
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * Maximum device IDs listed per category in the result
+     */
+    private static final int MAX_LISTED = 1000;
+
+    /**
+     * Bytes examined for a leading {@code {"data": "}
+     */
+    private static final int WRAPPER_PREFIX_LIMIT = 64;
+
+    private static final int MAX_TAG_NAME_LENGTH = 100;
+    private static final int MAX_TAG_COLOR_LENGTH = 20;
+
+    private final AddressBookRepository addressBookRepository;
+    private final AddressBookTagRepository addressBookTagRepository;
+    private final TagRepository tagRepository;
+    private final AddressBookVersionService addressBookVersionService;
+    private final AddressBookTagIndexService addressBookTagIndexService;
+    private final TagCatalogService tagCatalogService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Import an address book document
+     * The import is atomic: a malformed document rolls back everything written so far.
+     *
+     * @param userId user ID
+     * @param input JSON document
+     * @param dryRun true to only compute the diff
+     * @return import result
+     * @throws IllegalArgumentException if the document is not valid JSON or not an object
+     */
+    @Transactional
+    public AddressBookImportResponse importAddressBook(Long userId, InputStream input, boolean dryRun) {
+        log.info("Importing address book for user: {} (dry run: {})", userId, dryRun);
+        Import state = new Import(userId, dryRun);
+        try (JsonParser parser = openDocument(input)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Address book document must be a JSON object");
+            }
+            readDocument(parser, state);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed address book document: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to read address book document: " + e.getMessage());
+        }
+        flush(state);
+        List<String> newTags = createTags(state);
+
+        log.info("Imported address book for user: {} (dry run: {}): {} peers, {} created, {} existing, {} duplicates, {} invalid, {} new tags",
+                userId, dryRun, state.total, state.created, state.existing, state.duplicates, state.invalid, newTags.size());
+        return AddressBookImportResponse.builder()
+                .dryRun(dryRun)
+                .total(state.total)
+                .created(state.created)
+                .existing(state.existing)
+                .duplicates(state.duplicates)
+                .invalid(state.invalid)
+                .newTags(newTags)
+                .createdDeviceIds(state.createdDeviceIds)
+                .existingDeviceIds(state.existingDeviceIds)
+                .build();
+    }
+
+    /**
+     * Open a parser on the document, unwrapping a leading {@code {"data": "..."}} without loading the string
+     */
+    private JsonParser openDocument(InputStream input) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(input);
+        buffered.mark(WRAPPER_PREFIX_LIMIT);
+        byte[] prefix = buffered.readNBytes(WRAPPER_PREFIX_LIMIT);
+        buffered.reset();
+        int start = dataStringStart(prefix);
+        if (start < 0) {
+            return objectMapper.getFactory().createParser(buffered);
+        }
+        buffered.skipNBytes(start);
+        Reader data = new JsonStringReader(new BufferedReader(new InputStreamReader(buffered, StandardCharsets.UTF_8)));
+        return objectMapper.getFactory().createParser(data);
+    }
+
+    /**
+     * Find where the data string starts in a document beginning with {@code {"data": "}
+     *
+     * @param prefix first bytes of the document
+     * @return offset just after the opening quote, or -1 if the document does not start that way
+     */
+    private static int dataStringStart(byte[] prefix) {
+        int i = prefix.length >= 3 && (prefix[0] & 0xFF) == 0xEF && (prefix[1] & 0xFF) == 0xBB
+                && (prefix[2] & 0xFF) == 0xBF ? 3 : 0;
+        for (String part : new String[]{"{", "\"data\"", ":", "\""}) {
+            while (i < prefix.length && Character.isWhitespace(prefix[i])) {
+                i++;
+            }
+            byte[] expected = part.getBytes(StandardCharsets.US_ASCII);
+            if (!Arrays.equals(prefix, i, Math.min(i + expected.length, prefix.length), expected, 0, expected.length)) {
+                return -1;
+            }
+            i += expected.length;
+        }
+        return i;
+    }
+
+    /**
+     * Read the fields of a document object; the parser is positioned on its START_OBJECT
+     */
+    private void readDocument(JsonParser parser, Import state) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "data" -> {
+                    if (value == JsonToken.VALUE_STRING) {
+                        // Stored double-encoded: the string is itself the document. Only a leading
+                        // data field is streamed, see openDocument; here the string is already loaded
+                        try (JsonParser inner = objectMapper.getFactory().createParser(parser.getText())) {
+                            if (inner.nextToken() == JsonToken.START_OBJECT) {
+                                readDocument(inner, state);
+                            }
+                        }
+                    } else if (value == JsonToken.START_OBJECT) {
+                        readDocument(parser, state);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                case "peers" -> {
+                    if (value != JsonToken.START_ARRAY) {
+                        throw new IllegalArgumentException("'peers' must be an array");
+                    }
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        if (parser.currentToken() != JsonToken.START_OBJECT) {
+                            parser.skipChildren();
+                            state.total++;
+                            state.invalid++;
+                            continue;
+                        }
+                        accept(objectMapper.readValue(parser, LegacyPeer.class), state);
+                    }
+                }
+                case "tags" -> {
+                    if (value != JsonToken.START_ARRAY) {
+                        throw new IllegalArgumentException("'tags' must be an array");
+                    }
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        if (parser.currentToken() == JsonToken.VALUE_STRING) {
+                            state.tag(parser.getText(), null);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                }
+                case "tag_colors" -> {
+                    Map<String, Object> colors = value == JsonToken.VALUE_STRING
+                            ? objectMapper.readValue(parser.getText(), new TypeReference<Map<String, Object>>() { })
+                            : value == JsonToken.START_OBJECT
+                            ? objectMapper.readValue(parser, new TypeReference<Map<String, Object>>() { })
+                            : null;
+                    if (colors == null) {
+                        parser.skipChildren();
+                    } else {
+                        colors.forEach((name, color) -> state.tag(name, color != null ? color.toString() : null));
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private void accept(LegacyPeer peer, Import state) {
+        state.total++;
+        String deviceId = peer.getId() != null ? peer.getId().trim() : "";
+        if (deviceId.isEmpty() || !peer.fits()) {
+            state.invalid++;
+            return;
+        }
+        if (!state.seen.add(deviceId)) {
+            state.duplicates++;
+            return;
+        }
+
+        AddressBook addressBook = new AddressBook();
+        addressBook.setUserId(state.userId);
+        addressBook.setDeviceId(deviceId);
+        addressBook.setUsername(peer.getUsername());
+        addressBook.setHostname(peer.getHostname());
+        addressBook.setAlias(peer.getAlias());
+        addressBook.setPlatform(peer.getPlatform());
+        addressBook.setHash(peer.getHash());
+        addressBook.setTags(new ArrayList<>(AddressBookService.normalizeTags(peer.getTags())));
+        addressBook.setForceAlwaysRelay(Boolean.TRUE.equals(peer.getForceAlwaysRelay()));
+        addressBook.setRdpPort(peer.rdpPortValue());
+        addressBook.setRdpUsername(peer.getRdpUsername());
+        addressBook.setLoginName(peer.getLoginName());
+        addressBook.setSameServer(Boolean.TRUE.equals(peer.getSameServer()));
+        addressBook.getTags().forEach(tag -> state.tag(tag, null));
+
+        state.pending.add(addressBook);
+        if (state.pending.size() >= BATCH_SIZE) {
+            flush(state);
+        }
+    }
+
+    /**
+     * Check the pending peers against existing entries and insert the new ones
+     */
+    private void flush(Import state) {
+        if (state.pending.isEmpty()) {
+            return;
+        }
+        List<String> deviceIds = state.pending.stream().map(AddressBook::getDeviceId).toList();
+        Set<String> existing = new HashSet<>(addressBookRepository.findDeviceIdsByUserIdAndDeviceIdIn(state.userId, deviceIds));
+
+        List<AddressBook> newEntries = new ArrayList<>(state.pending.size());
+        for (AddressBook addressBook : state.pending) {
+            if (existing.contains(addressBook.getDeviceId())) {
+                state.existing++;
+                state.listExisting(addressBook.getDeviceId());
+            } else {
+                newEntries.add(addressBook);
+                state.created++;
+                state.listCreated(addressBook.getDeviceId());
+            }
+        }
+        state.pending.clear();
+        if (state.dryRun || newEntries.isEmpty()) {
+            return;
+        }
+
+        addressBookRepository.insertBatch(newEntries);
+        // Batched inserts do not return identity values, reload to get the IDs
+        List<AddressBook> created = addressBookRepository.findByUserIdAndDeviceIdIn(state.userId,
+                newEntries.stream().map(AddressBook::getDeviceId).toList());
+        addressBookVersionService.recordUpserts(created);
+
+        List<AddressBookTag> rows = new ArrayList<>();
+        Map<Long, Set<String>> tagsByEntry = new HashMap<>();
+        for (AddressBook addressBook : created) {
+            Set<String> tags = AddressBookService.normalizeTags(addressBook.getTags());
+            tags.forEach(tag -> rows.add(new AddressBookTag(addressBook.getId(), tag, state.userId)));
+            tagsByEntry.put(addressBook.getId(), tags);
+        }
+        addressBookTagRepository.insertBatch(rows);
+        addressBookTagIndexService.entriesChanged(state.userId, tagsByEntry);
+    }
+
+    /**
+     * Create the personal tags the user does not have yet
+     *
+     * @return names of the new tags
+     */
+    private List<String> createTags(Import state) {
+        TagCatalogService.Catalog catalog = tagCatalogService.getCatalog(state.userId, AddressBookVersionService.PERSONAL_COLLECTION);
+        List<Tag> newTags = new ArrayList<>();
+        state.tags.forEach((name, color) -> {
+            if (name.length() > MAX_TAG_NAME_LENGTH || catalog.contains(name)) {
+                return;
+            }
+            Tag tag = new Tag();
+            tag.setName(name);
+            tag.setUserId(state.userId);
+            tag.setColor(color != null && color.length() <= MAX_TAG_COLOR_LENGTH ? color : null);
+            newTags.add(tag);
+        });
+        if (!state.dryRun) {
+            tagCatalogService.tagsSaved(state.userId, AddressBookVersionService.PERSONAL_COLLECTION,
+                    tagRepository.saveAll(newTags));
+        }
+        return newTags.stream().map(Tag::getName).toList();
+    }
+
+    /**
+     * State of one import
+     */
+    private static final class Import {
+
+        private final Long userId;
+        private final boolean dryRun;
+        private final Set<String> seen = new HashSet<>();
+        private final List<AddressBook> pending = new ArrayList<>(BATCH_SIZE);
+        private final Map<String, String> tags = new LinkedHashMap<>();
+        private final List<String> createdDeviceIds = new ArrayList<>();
+        private final List<String> existingDeviceIds = new ArrayList<>();
+        private int total;
+        private int created;
+        private int existing;
+        private int duplicates;
+        private int invalid;
+
+        private Import(Long userId, boolean dryRun) {
+            this.userId = userId;
+            this.dryRun = dryRun;
+        }
+
+        private void tag(String name, String color) {
+            if (name == null || name.isBlank()) {
+                return;
+            }
+            String trimmed = name.trim();
+            if (color != null) {
+                tags.put(trimmed, color);
+            } else {
+                tags.putIfAbsent(trimmed, null);
+            }
+        }
+
+        private void listCreated(String deviceId) {
+            if (createdDeviceIds.size() < MAX_LISTED) {
+                createdDeviceIds.add(deviceId);
+            }
+        }
+
+        private void listExisting(String deviceId) {
+            if (existingDeviceIds.size() < MAX_LISTED) {
+                existingDeviceIds.add(deviceId);
+            }
+        }
+    }
+
+    /**
+     * Peer as stored by RustDesk clients and the Go server
+     */
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private static class LegacyPeer {
+
+        private String id;
+        private String username;
+        private String hostname;
+        private String alias;
+        private String platform;
+        private List<String> tags;
+        private String hash;
+        @JsonAlias("force_always_relay")
+        private Boolean forceAlwaysRelay;
+        @JsonAlias("rdp_port")
+        private String rdpPort;
+        @JsonAlias("rdp_username")
+        private String rdpUsername;
+        @JsonAlias("login_name")
+        private String loginName;
+        @JsonAlias("same_server")
+        private Boolean sameServer;
+
+        private Integer rdpPortValue() {
+            if (rdpPort == null || rdpPort.isBlank()) {
+                return null;
+            }
+            try {
+                return Integer.valueOf(rdpPort.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Check the fields against the column limits
+         */
+        private boolean fits() {
+            return id.trim().length() <= 100
+                    && length(username) <= 100 && length(hostname) <= 200 && length(alias) <= 200
+                    && length(platform) <= 50 && length(hash) <= 255
+                    && length(rdpUsername) <= 100 && length(loginName) <= 100;
+        }
+
+        private static int length(String value) {
+            return value != null ? value.length() : 0;
+        }
+    }
+}
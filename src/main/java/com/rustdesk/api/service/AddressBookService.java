@@ -1,17 +1,32 @@
 package com.rustdesk.api.service;
 
+import com.google.common.collect.Lists;
 import com.rustdesk.api.entity.AddressBook;
+import com.rustdesk.api.entity.AddressBookTag;
 import com.rustdesk.api.entity.Peer;
 import com.rustdesk.api.repository.AddressBookRepository;
+import com.rustdesk.api.repository.AddressBookTagRepository;
 import com.rustdesk.api.repository.PeerRepository;
+import com.rustdesk.api.util.TagExpression;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Address Book Service
@@ -24,8 +39,16 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class AddressBookService {
 
+    /**
+     * Maximum number of values bound to one IN clause
+     */
+    private static final int IN_CHUNK_SIZE = 500;
+
     private final AddressBookRepository addressBookRepository;
+    private final AddressBookTagRepository addressBookTagRepository;
     private final PeerRepository peerRepository;
+    private final AddressBookVersionService addressBookVersionService;
+    private final AddressBookTagIndexService addressBookTagIndexService;
 
     /**
      * Find all address book entries for a user
@@ -52,6 +75,55 @@ public class AddressBookService {
         return addressBookRepository.findByUserIdAndCollectionId(userId, collectionId);
     }
 
+    /**
+     * Find address book entries of a user by tags
+     * Served from the tag index, without loading the user's other entries.
+     *
+     * @param userId user ID
+     * @param tags tags to match
+     * @param matchAll true to require all tags, false to require any of them
+     * @return list of address book entries
+     */
+    @Transactional(readOnly = true)
+    public List<AddressBook> findByUserIdAndTags(Long userId, Collection<String> tags, boolean matchAll) {
+        Set<String> distinct = normalizeTags(tags);
+        log.debug("Finding address books for user: {} with {} of tags {}", userId, matchAll ? "all" : "any", distinct);
+        if (distinct.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return matchAll
+                ? addressBookRepository.findByUserIdAndAllTags(userId, distinct, distinct.size())
+                : addressBookRepository.findByUserIdAndAnyTag(userId, distinct);
+    }
+
+    /**
+     * Find address book entries of a user matching a boolean tag expression
+     * The expression is evaluated on the in-memory tag bitmaps; only the matches are read.
+     *
+     * @param userId user ID
+     * @param expression tag expression, e.g. {@code windows AND finance AND NOT kiosk}
+     * @return list of address book entries ordered by ID
+     * @throws IllegalArgumentException if the expression is malformed
+     */
+    @Transactional(readOnly = true)
+    public List<AddressBook> findByUserIdAndTagExpression(Long userId, String expression) {
+        TagExpression parsed = TagExpression.parse(expression);
+        List<Long> ids = addressBookTagIndexService.query(userId, parsed);
+        log.debug("Tag expression matched {} address books for user: {}", ids.size(), userId);
+
+        List<AddressBook> entries = new ArrayList<>(ids.size());
+        for (List<Long> chunk : Lists.partition(ids, IN_CHUNK_SIZE)) {
+            for (AddressBook addressBook : addressBookRepository.findAllById(chunk)) {
+                // The index may trail a write that is still committing
+                if (userId.equals(addressBook.getUserId())) {
+                    entries.add(addressBook);
+                }
+            }
+        }
+        entries.sort(Comparator.comparing(AddressBook::getId));
+        return entries;
+    }
+
     /**
      * Create a new address book entry
      *
@@ -74,6 +146,8 @@ public class AddressBookService {
         }
 
         AddressBook saved = addressBookRepository.save(addressBook);
+        indexTags(List.of(saved));
+        addressBookVersionService.recordUpserts(List.of(saved));
         log.info("Address book entry created with id: {}", saved.getId());
         return saved;
     }
@@ -88,12 +162,37 @@ public class AddressBookService {
     public AddressBook updateAddressBook(AddressBook addressBook) {
         log.info("Updating address book entry: {}", addressBook.getId());
 
-        if (!addressBookRepository.existsById(addressBook.getId())) {
+        Optional<AddressBook> existingOpt = addressBookRepository.findById(addressBook.getId());
+        if (existingOpt.isEmpty()) {
             log.warn("Address book entry not found: {}", addressBook.getId());
             throw new IllegalArgumentException("Address book entry not found with id: " + addressBook.getId());
         }
 
+        AddressBook existing = existingOpt.get();
+        addressBook.setCreatedAt(existing.getCreatedAt());
+        addressBook.setUpdatedAt(existing.getUpdatedAt());
+        if (addressBook.equals(existing)) {
+            // Unchanged content (hash included) must not cost clients a version
+            log.debug("Address book entry unchanged: {}", existing.getId());
+            return existing;
+        }
+        Long previousUserId = existing.getUserId();
+        Long previousCollectionId = AddressBookVersionService.collectionOf(existing);
+
+        List<String> previousTags = existing.getTags();
+
         AddressBook saved = addressBookRepository.save(addressBook);
+        if (!Objects.equals(previousUserId, saved.getUserId()) || !Objects.equals(previousTags, saved.getTags())) {
+            indexTags(List.of(saved));
+        }
+        if (!Objects.equals(previousUserId, saved.getUserId())) {
+            addressBookTagIndexService.entriesRemoved(previousUserId, List.of(saved.getId()));
+        }
+        if (!Objects.equals(previousUserId, saved.getUserId())
+                || !previousCollectionId.equals(AddressBookVersionService.collectionOf(saved))) {
+            addressBookVersionService.recordMovedOut(previousUserId, previousCollectionId, saved.getId());
+        }
+        addressBookVersionService.recordUpserts(List.of(saved));
         log.info("Address book entry updated: {}", saved.getId());
         return saved;
     }
@@ -107,18 +206,24 @@ public class AddressBookService {
     public void deleteAddressBook(Long id) {
         log.info("Deleting address book entry: {}", id);
 
-        if (!addressBookRepository.existsById(id)) {
+        Optional<AddressBook> existingOpt = addressBookRepository.findById(id);
+        if (existingOpt.isEmpty()) {
             log.warn("Address book entry not found: {}", id);
             throw new IllegalArgumentException("Address book entry not found with id: " + id);
         }
 
-        addressBookRepository.deleteById(id);
+        addressBookTagRepository.deleteByAddressBookIdIn(List.of(id));
+        addressBookRepository.delete(existingOpt.get());
+        addressBookVersionService.recordDeletes(List.of(existingOpt.get()));
+        addressBookTagIndexService.entriesRemoved(existingOpt.get().getUserId(), List.of(id));
         log.info("Address book entry deleted: {}", id);
     }
 
     /**
      * Batch create address book entries from peer IDs
      * Creates address book entries for the specified user from a list of peer IDs.
+     * Peers and existing entries are looked up with IN queries and new entries are
+     * inserted with JDBC batches, so the statement count does not grow per peer.
      *
      * @param userId user ID
      * @param peerIds list of peer IDs
@@ -128,24 +233,28 @@ public class AddressBookService {
     public List<AddressBook> batchCreateFromPeers(Long userId, List<Long> peerIds) {
         log.info("Batch creating address book entries for user: {} from {} peers", userId, peerIds.size());
 
-        List<AddressBook> createdEntries = new ArrayList<>();
-
-        for (Long peerId : peerIds) {
-            Optional<Peer> peerOpt = peerRepository.findById(peerId);
-            if (peerOpt.isEmpty()) {
-                log.warn("Peer not found: {}", peerId);
-                continue;
+        // Keyed by device ID, which also drops duplicate peer IDs and peers sharing a device
+        Map<String, Peer> peersByDevice = new LinkedHashMap<>();
+        for (List<Long> chunk : Lists.partition(List.copyOf(new LinkedHashSet<>(peerIds)), IN_CHUNK_SIZE)) {
+            for (Peer peer : peerRepository.findAllById(chunk)) {
+                peersByDevice.putIfAbsent(peer.getDeviceId(), peer);
             }
+        }
+        if (peersByDevice.size() < peerIds.size()) {
+            log.debug("{} of {} peer IDs not found or duplicated", peerIds.size() - peersByDevice.size(), peerIds.size());
+        }
 
-            Peer peer = peerOpt.get();
-
-            // Check if address book entry already exists
-            Optional<AddressBook> existingOpt = addressBookRepository.findByUserIdAndDeviceId(userId, peer.getDeviceId());
-            if (existingOpt.isPresent()) {
-                log.debug("Address book entry already exists for device: {}", peer.getDeviceId());
-                continue;
-            }
+        for (AddressBook existing : findByUserIdAndDeviceIds(userId, peersByDevice.keySet())) {
+            log.debug("Address book entry already exists for device: {}", existing.getDeviceId());
+            peersByDevice.remove(existing.getDeviceId());
+        }
+        if (peersByDevice.isEmpty()) {
+            log.info("Batch created 0 address book entries for user: {}", userId);
+            return new ArrayList<>();
+        }
 
+        List<AddressBook> newEntries = new ArrayList<>(peersByDevice.size());
+        for (Peer peer : peersByDevice.values()) {
             // Create new address book entry from peer
             AddressBook addressBook = new AddressBook();
             addressBook.setUserId(userId);
@@ -154,18 +263,90 @@ public class AddressBookService {
             addressBook.setAlias(peer.getAlias());
             addressBook.setPlatform(peer.getOs());
             addressBook.setUsername(peer.getUsername());
-
-            AddressBook saved = addressBookRepository.save(addressBook);
-            createdEntries.add(saved);
+            newEntries.add(addressBook);
         }
+        addressBookRepository.insertBatch(newEntries);
+
+        // Batched inserts do not return identity values, reload to get the IDs
+        List<AddressBook> createdEntries = findByUserIdAndDeviceIds(userId, peersByDevice.keySet());
+        addressBookVersionService.recordUpserts(createdEntries);
+        Map<Long, Set<String>> untagged = new HashMap<>();
+        createdEntries.forEach(entry -> untagged.put(entry.getId(), Set.of()));
+        addressBookTagIndexService.entriesChanged(userId, untagged);
 
         log.info("Batch created {} address book entries for user: {}", createdEntries.size(), userId);
         return createdEntries;
     }
 
+    /**
+     * Rewrite the tag index rows of entries from their JSON tags
+     * Must run after the entries are saved, in the same transaction.
+     *
+     * @param addressBooks saved address book entries
+     */
+    private void indexTags(List<AddressBook> addressBooks) {
+        for (List<AddressBook> chunk : Lists.partition(addressBooks, IN_CHUNK_SIZE)) {
+            addressBookTagRepository.deleteByAddressBookIdIn(chunk.stream().map(AddressBook::getId).toList());
+            List<AddressBookTag> rows = new ArrayList<>();
+            for (AddressBook addressBook : chunk) {
+                if (addressBook.getUserId() == null) {
+                    continue;
+                }
+                for (String tag : normalizeTags(addressBook.getTags())) {
+                    rows.add(new AddressBookTag(addressBook.getId(), tag, addressBook.getUserId()));
+                }
+            }
+            addressBookTagRepository.insertBatch(rows);
+        }
+
+        Map<Long, Map<Long, Set<String>>> byUser = new HashMap<>();
+        for (AddressBook addressBook : addressBooks) {
+            if (addressBook.getUserId() != null) {
+                byUser.computeIfAbsent(addressBook.getUserId(), k -> new HashMap<>())
+                        .put(addressBook.getId(), normalizeTags(addressBook.getTags()));
+            }
+        }
+        byUser.forEach(addressBookTagIndexService::entriesChanged);
+    }
+
+    /**
+     * Trim tags and drop blanks and duplicates
+     *
+     * @param tags raw tags, may be null
+     * @return distinct tags in their original order
+     */
+    static Set<String> normalizeTags(Collection<String> tags) {
+        Set<String> distinct = new LinkedHashSet<>();
+        if (tags != null) {
+            for (String tag : tags) {
+                if (tag != null && !tag.isBlank()) {
+                    distinct.add(tag.trim());
+                }
+            }
+        }
+        return distinct;
+    }
+
+    /**
+     * Find a user's entries for many devices, in IN chunks
+     *
+     * @param userId user ID
+     * @param deviceIds device IDs
+     * @return list of address book entries
+     */
+    private List<AddressBook> findByUserIdAndDeviceIds(Long userId, Collection<String> deviceIds) {
+        List<AddressBook> found = new ArrayList<>();
+        for (List<String> chunk : Lists.partition(List.copyOf(deviceIds), IN_CHUNK_SIZE)) {
+            found.addAll(addressBookRepository.findByUserIdAndDeviceIdIn(userId, chunk));
+        }
+        return found;
+    }
+
     /**
      * Batch update tags for address book entries
-     * Updates tags for multiple address book entries at once.
+     * Updates tags for multiple address book entries at once: the entries are loaded
+     * with IN queries, unchanged ones are skipped, and the tag index of the changed
+     * ones is rewritten with one delete and one insert batch per chunk.
      *
      * @param userId user ID (for validation)
      * @param addressBooks list of address book entries with updated tags
@@ -175,27 +356,34 @@ public class AddressBookService {
     public List<AddressBook> updateTags(Long userId, List<AddressBook> addressBooks) {
         log.info("Batch updating tags for {} address book entries for user: {}", addressBooks.size(), userId);
 
-        List<AddressBook> updatedEntries = new ArrayList<>();
-
+        Map<Long, List<String>> requested = new LinkedHashMap<>();
         for (AddressBook addressBook : addressBooks) {
-            // Verify ownership
-            if (!addressBook.getUserId().equals(userId)) {
-                log.warn("Address book entry {} does not belong to user {}", addressBook.getId(), userId);
-                continue;
-            }
+            requested.put(addressBook.getId(), addressBook.getTags());
+        }
 
-            Optional<AddressBook> existingOpt = addressBookRepository.findById(addressBook.getId());
-            if (existingOpt.isEmpty()) {
-                log.warn("Address book entry not found: {}", addressBook.getId());
-                continue;
+        List<AddressBook> updatedEntries = new ArrayList<>();
+        for (List<Long> chunk : Lists.partition(List.copyOf(requested.keySet()), IN_CHUNK_SIZE)) {
+            for (AddressBook existing : addressBookRepository.findAllById(chunk)) {
+                // Verify ownership against the stored entry
+                if (!userId.equals(existing.getUserId())) {
+                    log.warn("Address book entry {} does not belong to user {}", existing.getId(), userId);
+                    continue;
+                }
+                List<String> tags = requested.get(existing.getId());
+                if (Objects.equals(existing.getTags(), tags)) {
+                    continue;
+                }
+                existing.setTags(tags);
+                updatedEntries.add(existing);
             }
-
-            AddressBook existing = existingOpt.get();
-            existing.setTags(addressBook.getTags());
-
-            AddressBook saved = addressBookRepository.save(existing);
-            updatedEntries.add(saved);
         }
+        if (updatedEntries.size() < requested.size()) {
+            log.debug("{} address book entries not found, not owned or unchanged", requested.size() - updatedEntries.size());
+        }
+
+        addressBookRepository.saveAll(updatedEntries);
+        indexTags(updatedEntries);
+        addressBookVersionService.recordUpserts(updatedEntries);
 
         log.info("Updated tags for {} address book entries", updatedEntries.size());
         return updatedEntries;
@@ -216,14 +404,102 @@ public class AddressBookService {
 
     /**
      * Delete all address book entries for a user
+     * Entries are deleted by ID in chunks with bulk statements, without loading them.
      *
      * @param userId user ID
+     * @return number of deleted entries
      */
     @Transactional
-    public void deleteByUserId(Long userId) {
+    public int deleteByUserId(Long userId) {
         log.info("Deleting all address book entries for user: {}", userId);
-        List<AddressBook> addressBooks = findByUserId(userId);
-        addressBookRepository.deleteAll(addressBooks);
-        log.info("Deleted {} address book entries for user: {}", addressBooks.size(), userId);
+        int deleted = 0;
+        for (Long collectionId : addressBookRepository.findBookIdsByUserId(userId)) {
+            List<Long> ids;
+            while (!(ids = addressBookRepository.findIdsByBook(userId, collectionId, PageRequest.of(0, IN_CHUNK_SIZE))).isEmpty()) {
+                addressBookTagRepository.deleteByAddressBookIdIn(ids);
+                deleted += addressBookRepository.deleteByIdIn(ids);
+                addressBookVersionService.recordDeletes(userId, collectionId, ids);
+            }
+        }
+        addressBookTagIndexService.invalidate(userId);
+        log.info("Deleted {} address book entries for user: {}", deleted, userId);
+        return deleted;
+    }
+
+    /**
+     * Sync one address book from a client's last seen version
+     * Returns only the entries changed since that version, or a full snapshot when
+     * the client has no version yet or its version is no longer covered by the change log.
+     *
+     * @param userId owner user ID
+     * @param collectionId collection ID, 0 for the personal address book
+     * @param since last version the client has seen, 0 for none
+     * @return sync result
+     */
+    @Transactional(readOnly = true)
+    public SyncResult sync(Long userId, Long collectionId, long since) {
+        Optional<AddressBookVersionService.Delta> deltaOpt = addressBookVersionService.changesSince(userId, collectionId, since);
+        if (deltaOpt.isEmpty()) {
+            // Read the version first: rows written in between are resent next time, never lost
+            long version = addressBookVersionService.getVersion(userId, collectionId);
+            List<AddressBook> entries = addressBookRepository.findByBook(userId, collectionId);
+            log.debug("Full address book sync for user: {} collection: {} at version {}", userId, collectionId, version);
+            return new SyncResult(version, true, entries, List.of());
+        }
+
+        AddressBookVersionService.Delta delta = deltaOpt.get();
+        Map<Long, AddressBook> rows = delta.upsertedIds().isEmpty() ? Map.of()
+                : addressBookRepository.findAllById(delta.upsertedIds()).stream()
+                        .collect(Collectors.toMap(AddressBook::getId, Function.identity()));
+        List<AddressBook> upserts = new ArrayList<>(rows.size());
+        List<Long> deletedIds = new ArrayList<>(delta.deletedIds());
+        for (Long id : delta.upsertedIds()) {
+            AddressBook row = rows.get(id);
+            if (row != null && userId.equals(row.getUserId())
+                    && collectionId.equals(AddressBookVersionService.collectionOf(row))) {
+                upserts.add(row);
+            } else {
+                // Removed without a logged delete, e.g. by the user cleanup cascade
+                deletedIds.add(id);
+            }
+        }
+        log.debug("Delta address book sync for user: {} collection: {} from {} to {}: {} upserts, {} deletes",
+                userId, collectionId, since, delta.version(), upserts.size(), deletedIds.size());
+        return new SyncResult(delta.version(), false, upserts, deletedIds);
+    }
+
+    /**
+     * Get the device IDs of an address book in entry ID order
+     * The order is what bit positions of the online bitset refer to.
+     *
+     * @param userId owner user ID
+     * @param collectionId collection ID, 0 for the personal address book
+     * @return version and device IDs
+     */
+    @Transactional(readOnly = true)
+    public BookDevices findBookDevices(Long userId, Long collectionId) {
+        long version = addressBookVersionService.getVersion(userId, collectionId);
+        List<String> deviceIds = addressBookRepository.findDeviceIdsByBook(userId, collectionId);
+        return new BookDevices(version, deviceIds);
+    }
+
+    /**
+     * Result of an address book sync
+     *
+     * @param version version to send with the next sync
+     * @param full true if entries is a full snapshot that replaces the client's copy
+     * @param entries full snapshot or entries created or updated since the client's version
+     * @param deletedIds IDs of entries removed since the client's version, empty for a snapshot
+     */
+    public record SyncResult(long version, boolean full, List<AddressBook> entries, List<Long> deletedIds) {
+    }
+
+    /**
+     * Device IDs of an address book
+     *
+     * @param version address book version read before the entries
+     * @param deviceIds device IDs ordered by entry ID
+     */
+    public record BookDevices(long version, List<String> deviceIds) {
     }
 }
@@ -0,0 +1,161 @@
+package com.rustdesk.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.rustdesk.api.config.properties.RustDeskProperties;
+import com.rustdesk.api.entity.AddressBook;
+import com.rustdesk.api.repository.AddressBookRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiFunction;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Address Book Snapshot Service
+ * Caches serialized full snapshots of address books as gzip bytes.
+ * <p>
+ * A snapshot is keyed by (user ID, collection ID, version, tag catalog fingerprint),
+ * serialized once and kept pre-compressed in a cache bounded by total compressed
+ * size, so repeated refreshes of a large book cost one version lookup. Every
+ * recorded change of a book evicts its snapshots after the transaction commits; the
+ * version and fingerprint in the key, and in the entity tag, also keep a snapshot
+ * from outliving the entries and tag colors it was built from.
+ * </p>
+ *
+ * @author RustDesk API Team
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AddressBookSnapshotService {
+
+    private final AddressBookRepository addressBookRepository;
+    private final ObjectMapper objectMapper;
+    private final RustDeskProperties rustDeskProperties;
+
+    private Cache<Key, Snapshot> snapshots;
+
+    @PostConstruct
+    public void init() {
+        snapshots = CacheBuilder.newBuilder()
+                .maximumWeight(rustDeskProperties.getAddressBook().getSnapshotCacheMaxBytes())
+                .weigher((Key key, Snapshot snapshot) -> snapshot.gzip().length)
+                .build();
+    }
+
+    /**
+     * Get the snapshot of an address book at a version, serializing it on a miss
+     *
+     * @param userId owner user ID
+     * @param collectionId collection ID, 0 for the personal address book
+     * @param version current version of the book, read before calling
+     * @param catalog fingerprint of the tag catalog the payload uses
+     * @param payload builds the response body from the version and entries
+     * @return snapshot
+     */
+    @Transactional(readOnly = true)
+    public Snapshot get(Long userId, Long collectionId, long version, long catalog,
+                        BiFunction<Long, List<AddressBook>, Object> payload) {
+        Key key = new Key(userId, collectionId, version, catalog);
+        try {
+            return snapshots.get(key, () -> build(key, payload));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to build address book snapshot", e.getCause());
+        }
+    }
+
+    /**
+     * Evict the snapshots of an address book once the current transaction commits
+     *
+     * @param userId owner user ID
+     * @param collectionId collection ID, 0 for the personal address book
+     */
+    public void evict(Long userId, Long collectionId) {
+        afterCommit(() -> snapshots.asMap().keySet()
+                .removeIf(key -> key.userId().equals(userId) && key.collectionId().equals(collectionId)));
+    }
+
+    /**
+     * Evict all snapshots of a user once the current transaction commits
+     *
+     * @param userId owner user ID
+     */
+    public void evictUser(Long userId) {
+        afterCommit(() -> snapshots.asMap().keySet().removeIf(key -> key.userId().equals(userId)));
+    }
+
+    /**
+     * Decompress a snapshot for clients that do not accept gzip
+     *
+     * @param snapshot snapshot
+     * @return uncompressed JSON bytes
+     */
+    public static byte[] decompress(Snapshot snapshot) {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(snapshot.gzip()))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Snapshot build(Key key, BiFunction<Long, List<AddressBook>, Object> payload) throws IOException {
+        List<AddressBook> entries = addressBookRepository.findByBook(key.userId(), key.collectionId());
+        byte[] json = objectMapper.writeValueAsBytes(payload.apply(key.version(), entries));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(512, json.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(json);
+        }
+        Snapshot snapshot = new Snapshot(key.version(),
+                "W/\"ab-" + key.userId() + "-" + key.collectionId() + "-" + key.version() + "-"
+                        + Long.toHexString(key.catalog()) + "\"",
+                bytes.toByteArray());
+        log.debug("Address book snapshot built for user {} collection {} at version {}: {} entries, {} -> {} bytes",
+                key.userId(), key.collectionId(), key.version(), entries.size(), json.length, snapshot.gzip().length);
+        return snapshot;
+    }
+
+    /**
+     * Run an action after the current transaction commits, or immediately without one
+     *
+     * @param action action to run
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record Key(Long userId, Long collectionId, long version, long catalog) {
+    }
+
+    /**
+     * Serialized address book snapshot
+     *
+     * @param version address book version
+     * @param etag weak entity tag of the snapshot
+     * @param gzip gzip-compressed JSON body
+     */
+    public record Snapshot(long version, String etag, byte[] gzip) {
+    }
+}
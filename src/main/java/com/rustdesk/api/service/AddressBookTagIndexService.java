@@ -0,0 +1,284 @@
+package com.rustdesk.api.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.rustdesk.api.config.properties.RustDeskProperties;
+import com.rustdesk.api.entity.AddressBookTag;
+import com.rustdesk.api.repository.AddressBookRepository;
+import com.rustdesk.api.repository.AddressBookTagRepository;
+import com.rustdesk.api.util.TagExpression;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Address Book Tag Index Service
+ * Per-user in-memory bitmaps of tag membership for boolean tag queries.
+ * <p>
+ * Each user's entries get dense ordinals, and every tag maps to a bitmap of the
+ * ordinals that carry it, plus one bitmap of all live entries for negation. A tag
+ * expression is then evaluated as bitmap AND/OR/ANDNOT without touching the
+ * database. Indexes are built on first use from the tag join table, kept in a
+ * bounded cache, and updated in place after address book writes commit.
+ * </p>
+ *
+ * @author RustDesk API Team
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AddressBookTagIndexService {
+
+    private final AddressBookRepository addressBookRepository;
+    private final AddressBookTagRepository addressBookTagRepository;
+    private final RustDeskProperties rustDeskProperties;
+
+    private Cache<Long, UserIndex> indexes;
+
+    /**
+     * Bumped on every change so a build that raced with a write is not cached
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        RustDeskProperties.AddressBook config = rustDeskProperties.getAddressBook();
+        indexes = CacheBuilder.newBuilder()
+                .maximumSize(config.getTagIndexMaxUsers())
+                .expireAfterAccess(config.getTagIndexIdleTtl(), TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * Find the entries of a user matching a tag expression
+     *
+     * @param userId user ID
+     * @param expression parsed tag expression
+     * @return matching entry IDs in ascending order
+     */
+    @Transactional(readOnly = true)
+    public List<Long> query(Long userId, TagExpression expression) {
+        return index(userId).evaluate(expression);
+    }
+
+    /**
+     * Set the tags of entries once the current transaction commits
+     * Entries not yet in the index are added.
+     *
+     * @param userId owner user ID
+     * @param tagsByEntry normalized tags by entry ID
+     */
+    public void entriesChanged(Long userId, Map<Long, Set<String>> tagsByEntry) {
+        if (userId == null || tagsByEntry.isEmpty()) {
+            return;
+        }
+        Map<Long, Set<String>> changes = Map.copyOf(tagsByEntry);
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            UserIndex index = indexes.getIfPresent(userId);
+            if (index != null) {
+                index.putAll(changes);
+            }
+        });
+    }
+
+    /**
+     * Remove entries once the current transaction commits
+     *
+     * @param userId owner user ID
+     * @param entryIds entry IDs
+     */
+    public void entriesRemoved(Long userId, Collection<Long> entryIds) {
+        if (userId == null || entryIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(entryIds);
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            UserIndex index = indexes.getIfPresent(userId);
+            if (index != null && index.removeAll(ids)) {
+                // Too many dead ordinals, rebuild on next use
+                indexes.invalidate(userId);
+            }
+        });
+    }
+
+    /**
+     * Drop a user's index once the current transaction commits
+     *
+     * @param userId user ID
+     */
+    public void invalidate(Long userId) {
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            indexes.invalidate(userId);
+        });
+    }
+
+    private UserIndex index(Long userId) {
+        UserIndex index = indexes.getIfPresent(userId);
+        if (index != null) {
+            return index;
+        }
+        long gen = generation.get();
+        index = load(userId);
+        if (generation.get() == gen) {
+            UserIndex raced = indexes.asMap().putIfAbsent(userId, index);
+            if (raced != null) {
+                return raced;
+            }
+            if (generation.get() != gen) {
+                // A write committed while caching, it may have missed this index
+                indexes.asMap().remove(userId, index);
+            }
+        }
+        return index;
+    }
+
+    private UserIndex load(Long userId) {
+        List<Long> ids = addressBookRepository.findAllIdsByUserId(userId);
+        UserIndex index = new UserIndex(ids.size());
+        for (Long id : ids) {
+            index.ordinal(id);
+        }
+        for (AddressBookTag tag : addressBookTagRepository.findByUserId(userId)) {
+            index.setTag(index.ordinal(tag.getAddressBookId()), tag.getTag());
+        }
+        log.debug("Tag index built for user {}: {} entries, {} tags", userId, ids.size(), index.tags.size());
+        return index;
+    }
+
+    /**
+     * Run an action after the current transaction commits, or immediately without one
+     *
+     * @param action action to run
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Tag bitmaps of one user
+     * Ordinals of removed entries are not reused; the index asks to be rebuilt
+     * once they make up half of it.
+     */
+    private static final class UserIndex {
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<Long, Integer> ordinals;
+        private long[] ids;
+        private int size;
+        private int dead;
+        private final BitSet live = new BitSet();
+        private final Map<String, BitSet> tags = new HashMap<>();
+
+        private UserIndex(int capacity) {
+            ordinals = new HashMap<>(Math.max(16, capacity * 2));
+            ids = new long[Math.max(16, capacity)];
+        }
+
+        private List<Long> evaluate(TagExpression expression) {
+            lock.readLock().lock();
+            try {
+                BitSet matches = expression.evaluate(tags::get, live);
+                List<Long> result = new ArrayList<>(matches.cardinality());
+                for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+                    result.add(ids[i]);
+                }
+                result.sort(null);
+                return result;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private void putAll(Map<Long, Set<String>> changes) {
+            lock.writeLock().lock();
+            try {
+                changes.forEach((id, entryTags) -> {
+                    int ordinal = ordinal(id);
+                    for (Map.Entry<String, BitSet> tag : tags.entrySet()) {
+                        if (!entryTags.contains(tag.getKey())) {
+                            tag.getValue().clear(ordinal);
+                        }
+                    }
+                    entryTags.forEach(tag -> setTag(ordinal, tag));
+                });
+                tags.values().removeIf(BitSet::isEmpty);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Remove entries
+         *
+         * @param removed entry IDs
+         * @return true if the index should be rebuilt
+         */
+        private boolean removeAll(List<Long> removed) {
+            lock.writeLock().lock();
+            try {
+                for (Long id : removed) {
+                    Integer ordinal = ordinals.remove(id);
+                    if (ordinal != null) {
+                        live.clear(ordinal);
+                        tags.values().forEach(bits -> bits.clear(ordinal));
+                        dead++;
+                    }
+                }
+                tags.values().removeIf(BitSet::isEmpty);
+                return dead > 64 && dead * 2 > size;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Get the ordinal of an entry, assigning one if needed; caller holds the write lock or owns the index
+         */
+        private int ordinal(Long id) {
+            Integer ordinal = ordinals.get(id);
+            if (ordinal == null) {
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size * 2);
+                }
+                ordinal = size++;
+                ids[ordinal] = id;
+                ordinals.put(id, ordinal);
+                live.set(ordinal);
+            }
+            return ordinal;
+        }
+
+        private void setTag(int ordinal, String tag) {
+            tags.computeIfAbsent(tag, k -> new BitSet()).set(ordinal);
+        }
+    }
+}
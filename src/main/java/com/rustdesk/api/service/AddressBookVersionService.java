@@ -0,0 +1,275 @@
+package com.rustdesk.api.service;
+
+import com.rustdesk.api.config.properties.RustDeskProperties;
+import com.rustdesk.api.entity.AddressBook;
+import com.rustdesk.api.entity.AddressBookChange;
+import com.rustdesk.api.entity.AddressBookVersion;
+import com.rustdesk.api.repository.AddressBookChangeRepository;
+import com.rustdesk.api.repository.AddressBookVersionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Address Book Version Service
+ * Keeps a version counter and a change log per address book for delta sync.
+ * <p>
+ * An address book is identified by (user ID, collection ID), collection 0 being
+ * the personal book. Every write to an entry allocates the next version of its
+ * book under a row lock and appends an upsert or delete to the change log in the
+ * same transaction, so versions are gap-free in commit order. The log is
+ * periodically compacted to the most recent changes; clients behind the compacted
+ * version fall back to a full snapshot.
+ * </p>
+ *
+ * @author RustDesk API Team
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AddressBookVersionService {
+
+    /**
+     * Collection ID of the personal address book
+     */
+    public static final Long PERSONAL_COLLECTION = 0L;
+
+    private final AddressBookVersionRepository addressBookVersionRepository;
+    private final AddressBookChangeRepository addressBookChangeRepository;
+    private final RustDeskProperties rustDeskProperties;
+    private final PlatformTransactionManager transactionManager;
+    private final AddressBookSnapshotService addressBookSnapshotService;
+
+    /**
+     * Get the address book key of an entry
+     *
+     * @param addressBook address book entry
+     * @return collection ID, 0 for the personal address book
+     */
+    public static Long collectionOf(AddressBook addressBook) {
+        return addressBook.getCollectionId() != null ? addressBook.getCollectionId() : PERSONAL_COLLECTION;
+    }
+
+    /**
+     * Get the current version of an address book
+     *
+     * @param userId owner user ID
+     * @param collectionId collection ID, 0 for the personal address book
+     * @return current version, 0 if the book has never been written
+     */
+    @Transactional(readOnly = true)
+    public long getVersion(Long userId, Long collectionId) {
+        return addressBookVersionRepository.findByUserIdAndCollectionId(userId, collectionId)
+                .map(AddressBookVersion::getVersion)
+                .orElse(0L);
+    }
+
+    /**
+     * Record upserts of entries
+     * Must be called in the transaction that writes the entries.
+     *
+     * @param addressBooks saved address book entries
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordUpserts(Collection<AddressBook> addressBooks) {
+        record(addressBooks, AddressBookChange.OP_UPSERT);
+    }
+
+    /**
+     * Record deletes of entries
+     * Must be called in the transaction that deletes the entries.
+     *
+     * @param addressBooks deleted address book entries
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeletes(Collection<AddressBook> addressBooks) {
+        record(addressBooks, AddressBookChange.OP_DELETE);
+    }
+
+    /**
+     * Record deletes of entries of one address book by ID
+     * Must be called in the transaction that deletes the entries.
+     *
+     * @param userId owner user ID
+     * @param collectionId collection ID, 0 for the personal address book
+     * @param addressBookIds deleted address book entry IDs
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeletes(Long userId, Long collectionId, List<Long> addressBookIds) {
+        if (addressBookIds.isEmpty()) {
+            return;
+        }
+        long version = allocate(userId, collectionId, addressBookIds.size());
+        List<AddressBookChange> changes = new ArrayList<>(addressBookIds.size());
+        for (Long addressBookId : addressBookIds) {
+            changes.add(change(userId, collectionId, version++, addressBookId, AddressBookChange.OP_DELETE));
+        }
+        addressBookChangeRepository.insertBatch(changes);
+    }
+
+    /**
+     * Record the removal of an entry from the book it was in before an update
+     *
+     * @param userId previous owner user ID
+     * @param collectionId previous collection ID, 0 for the personal address book
+     * @param addressBookId address book entry ID
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordMovedOut(Long userId, Long collectionId, Long addressBookId) {
+        long version = allocate(userId, collectionId, 1);
+        addressBookChangeRepository.save(change(userId, collectionId, version, addressBookId, AddressBookChange.OP_DELETE));
+    }
+
+    /**
+     * Get the changes of an address book after a version
+     *
+     * @param userId owner user ID
+     * @param collectionId collection ID, 0 for the personal address book
+     * @param since last version the client has seen
+     * @return collapsed delta, or empty if the client needs a full snapshot
+     */
+    @Transactional(readOnly = true)
+    public Optional<Delta> changesSince(Long userId, Long collectionId, long since) {
+        Optional<AddressBookVersion> current = addressBookVersionRepository.findByUserIdAndCollectionId(userId, collectionId);
+        long version = current.map(AddressBookVersion::getVersion).orElse(0L);
+        long compacted = current.map(AddressBookVersion::getCompactedVersion).orElse(0L);
+        // A client ahead of the server saw a different database; one behind the compaction point missed deletes
+        if (since <= 0 || since < compacted || since > version) {
+            return Optional.empty();
+        }
+
+        // Keep only the last operation per entry, in version order
+        Map<Long, Integer> lastOp = new LinkedHashMap<>();
+        long latest = since;
+        for (AddressBookChange change : addressBookChangeRepository
+                .findByUserIdAndCollectionIdAndVersionGreaterThanOrderByVersionAsc(userId, collectionId, since)) {
+            lastOp.remove(change.getAddressBookId());
+            lastOp.put(change.getAddressBookId(), change.getOp());
+            latest = change.getVersion();
+        }
+
+        Set<Long> upserted = new LinkedHashSet<>();
+        List<Long> deleted = new ArrayList<>();
+        lastOp.forEach((id, op) -> {
+            if (op == AddressBookChange.OP_DELETE) {
+                deleted.add(id);
+            } else {
+                upserted.add(id);
+            }
+        });
+        return Optional.of(new Delta(latest, upserted, deleted));
+    }
+
+    /**
+     * Compact change logs down to the configured retention
+     * Each book is compacted in its own transaction.
+     */
+    @Scheduled(initialDelayString = "${rustdesk.address-book.compact-interval:600000}",
+            fixedDelayString = "${rustdesk.address-book.compact-interval:600000}")
+    public void compact() {
+        long retain = rustDeskProperties.getAddressBook().getChangeRetention();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int compacted = 0;
+        for (AddressBookVersion candidate : addressBookVersionRepository.findCompactable(retain)) {
+            try {
+                Integer removed = transactionTemplate.execute(status -> compactOne(candidate, retain));
+                compacted += removed != null ? removed : 0;
+            } catch (Exception e) {
+                log.error("Failed to compact address book change log: user {}, collection {}",
+                        candidate.getUserId(), candidate.getCollectionId(), e);
+            }
+        }
+        if (compacted > 0) {
+            log.info("Compacted {} address book changes", compacted);
+        }
+    }
+
+    private int compactOne(AddressBookVersion candidate, long retain) {
+        AddressBookVersion version = addressBookVersionRepository
+                .findForUpdate(candidate.getUserId(), candidate.getCollectionId())
+                .orElse(null);
+        if (version == null || version.getVersion() - version.getCompactedVersion() <= retain) {
+            return 0;
+        }
+        long upTo = version.getVersion() - retain;
+        int removed = addressBookChangeRepository.deleteUpToVersion(version.getUserId(), version.getCollectionId(), upTo);
+        version.setCompactedVersion(upTo);
+        addressBookVersionRepository.save(version);
+        return removed;
+    }
+
+    private void record(Collection<AddressBook> addressBooks, int op) {
+        // Group by book so each book's counter is locked and advanced once
+        Map<List<Long>, List<AddressBook>> byBook = new LinkedHashMap<>();
+        for (AddressBook addressBook : addressBooks) {
+            byBook.computeIfAbsent(List.of(addressBook.getUserId(), collectionOf(addressBook)), k -> new ArrayList<>())
+                    .add(addressBook);
+        }
+
+        List<AddressBookChange> changes = new ArrayList<>(addressBooks.size());
+        byBook.forEach((key, entries) -> {
+            long version = allocate(key.get(0), key.get(1), entries.size());
+            for (AddressBook addressBook : entries) {
+                changes.add(change(key.get(0), key.get(1), version++, addressBook.getId(), op));
+            }
+        });
+        addressBookChangeRepository.insertBatch(changes);
+    }
+
+    /**
+     * Reserve a range of versions of an address book
+     *
+     * @param userId owner user ID
+     * @param collectionId collection ID
+     * @param count number of versions
+     * @return first reserved version
+     */
+    private long allocate(Long userId, Long collectionId, int count) {
+        AddressBookVersion version = addressBookVersionRepository.findForUpdate(userId, collectionId)
+                .orElseGet(() -> {
+                    AddressBookVersion created = new AddressBookVersion();
+                    created.setUserId(userId);
+                    created.setCollectionId(collectionId);
+                    return created;
+                });
+        long first = version.getVersion() + 1;
+        version.setVersion(version.getVersion() + count);
+        addressBookVersionRepository.save(version);
+        addressBookSnapshotService.evict(userId, collectionId);
+        return first;
+    }
+
+    private static AddressBookChange change(Long userId, Long collectionId, long version, Long addressBookId, int op) {
+        AddressBookChange change = new AddressBookChange();
+        change.setUserId(userId);
+        change.setCollectionId(collectionId);
+        change.setVersion(version);
+        change.setAddressBookId(addressBookId);
+        change.setOp(op);
+        return change;
+    }
+
+    /**
+     * Collapsed changes of an address book
+     *
+     * @param version version the client is at after applying the delta
+     * @param upsertedIds IDs of entries created or updated since the client's version
+     * @param deletedIds IDs of entries removed since the client's version
+     */
+    public record Delta(long version, Collection<Long> upsertedIds, List<Long> deletedIds) {
+    }
+}
@@ -0,0 +1,526 @@
+package com.rustdesk.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Lists;
+import com.rustdesk.api.config.properties.RustDeskProperties;
+import com.rustdesk.api.entity.AuditConn;
+import com.rustdesk.api.entity.AuditFile;
+import com.rustdesk.api.entity.AuditRollup;
+import com.rustdesk.api.repository.AuditConnRepository;
+import com.rustdesk.api.repository.AuditFileRepository;
+import com.rustdesk.api.util.ArchiveSegment;
+import com.rustdesk.api.util.SeekCursor;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Audit Archive Service
+ * Moves aged audit records into compressed local segments and searches them.
+ * <p>
+ * A scheduled archiver reads connection and file audit records in ID order after
+ * the last archived ID, writes those older than the configured age into an
+ * immutable {@link ArchiveSegment} and then deletes them from the table. Only
+ * records already folded into the rollups are archived, so dashboards keep
+ * counting them. A segment is visible to queries before its records are deleted,
+ * and queries drop the duplicates, so records are never missing in between; a
+ * crash after writing a segment is completed at startup. Queries first narrow
+ * the blocks through the mapped segment index by time range, cursor and peer
+ * Bloom filter, and stop decompressing once no remaining block can reach the page.
+ * </p>
+ *
+ * @author RustDesk API Team
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AuditArchiveService {
+
+    /**
+     * Records per archive block, the unit of decompression
+     */
+    private static final int BLOCK_ROWS = 1024;
+
+    /**
+     * Records read or deleted per database round trip
+     */
+    private static final int CHUNK_SIZE = 500;
+
+    private static final String NAME_FORMAT = "%019d";
+
+    private final AuditConnRepository auditConnRepository;
+    private final AuditFileRepository auditFileRepository;
+    private final AuditRollupService auditRollupService;
+    private final RustDeskProperties rustDeskProperties;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    private Source<AuditConn> connSource;
+    private Source<AuditFile> fileSource;
+
+    /**
+     * Open segments in ID order by source, replaced as a whole when a segment is added
+     */
+    private final Map<String, List<ArchiveSegment>> segments = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        connSource = new Source<>(AuditRollup.SOURCE_CONN, AuditConn.class, auditConnRepository,
+                auditConnRepository::findByIdBetweenOrderByIdAsc, auditConnRepository::deleteByIdIn, AuditConn::getId, AuditConn::getCreatedAt,
+                row -> Stream.of(row.getPeerId(), row.getFromPeer()).filter(Objects::nonNull).toList());
+        fileSource = new Source<>(AuditRollup.SOURCE_FILE, AuditFile.class, auditFileRepository,
+                auditFileRepository::findByIdBetweenOrderByIdAsc, auditFileRepository::deleteByIdIn, AuditFile::getId, AuditFile::getCreatedAt,
+                row -> Stream.of(row.getPeerId(), row.getFromPeer()).filter(Objects::nonNull).toList());
+        for (Source<?> source : List.of(connSource, fileSource)) {
+            try {
+                load(source);
+            } catch (Exception e) {
+                log.error("Failed to load {} audit archive", source.name(), e);
+            }
+        }
+    }
+
+    /**
+     * Move aged audit records into the archive
+     */
+    @Scheduled(initialDelayString = "${rustdesk.audit.archive-interval:3600000}",
+            fixedDelayString = "${rustdesk.audit.archive-interval:3600000}")
+    public synchronized void archive() {
+        RustDeskProperties.Audit config = rustDeskProperties.getAudit();
+        if (!Boolean.TRUE.equals(config.getArchiveEnabled())) {
+            return;
+        }
+        // Records leave the tables for good, so bring the rollups up to date first
+        auditRollupService.aggregate();
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(config.getArchiveAfterDays());
+        for (Source<?> source : List.of(connSource, fileSource)) {
+            int total = 0;
+            try {
+                int archived;
+                do {
+                    archived = archiveSegment(source, cutoff, config.getArchiveSegmentRows());
+                    total += archived;
+                } while (archived == config.getArchiveSegmentRows());
+            } catch (Exception e) {
+                log.error("Failed to archive {} audit records", source.name(), e);
+            }
+            if (total > 0) {
+                log.info("Archived {} {} audit records", total, source.name());
+            }
+        }
+    }
+
+    /**
+     * Find archived connection audit records, newest first
+     *
+     * @param peerId controlled peer ID, null for any
+     * @param fromPeer controlling peer ID, null for any
+     * @param action connection action, null for any
+     * @param from inclusive start of the time range, null for unbounded
+     * @param to exclusive end of the time range, null for unbounded
+     * @param after only records strictly before this position, null for all
+     * @param floor only records strictly after this position, null for all
+     * @param limit maximum number of records
+     * @return records ordered by {@code (created_at, id)} descending
+     */
+    public List<AuditConn> findConn(String peerId, String fromPeer, String action, LocalDateTime from,
+                                    LocalDateTime to, SeekCursor after, SeekCursor floor, int limit) {
+        return find(connSource, connFilter(peerId, fromPeer, action), from, to, after, floor, limit);
+    }
+
+    /**
+     * Count archived connection audit records
+     *
+     * @param peerId controlled peer ID, null for any
+     * @param fromPeer controlling peer ID, null for any
+     * @param action connection action, null for any
+     * @param from inclusive start of the time range, null for unbounded
+     * @param to exclusive end of the time range, null for unbounded
+     * @return number of matching records
+     */
+    public long countConn(String peerId, String fromPeer, String action, LocalDateTime from, LocalDateTime to) {
+        return count(connSource, connFilter(peerId, fromPeer, action), from, to);
+    }
+
+    /**
+     * Find archived file transfer audit records, newest first
+     *
+     * @param peerId controlled peer ID, null for any
+     * @param fromPeer controlling peer ID, null for any
+     * @param type transfer type, null for any
+     * @param from inclusive start of the time range, null for unbounded
+     * @param to exclusive end of the time range, null for unbounded
+     * @param after only records strictly before this position, null for all
+     * @param floor only records strictly after this position, null for all
+     * @param limit maximum number of records
+     * @return records ordered by {@code (created_at, id)} descending
+     */
+    public List<AuditFile> findFile(String peerId, String fromPeer, String type, LocalDateTime from,
+                                    LocalDateTime to, SeekCursor after, SeekCursor floor, int limit) {
+        return find(fileSource, fileFilter(peerId, fromPeer, type), from, to, after, floor, limit);
+    }
+
+    /**
+     * Count archived file transfer audit records
+     *
+     * @param peerId controlled peer ID, null for any
+     * @param fromPeer controlling peer ID, null for any
+     * @param type transfer type, null for any
+     * @param from inclusive start of the time range, null for unbounded
+     * @param to exclusive end of the time range, null for unbounded
+     * @return number of matching records
+     */
+    public long countFile(String peerId, String fromPeer, String type, LocalDateTime from, LocalDateTime to) {
+        return count(fileSource, fileFilter(peerId, fromPeer, type), from, to);
+    }
+
+    private static Filter<AuditConn> connFilter(String peerId, String fromPeer, String action) {
+        return Filter.of(peerId, fromPeer, List.of(
+                new Condition<>(peerId, AuditConn::getPeerId),
+                new Condition<>(fromPeer, AuditConn::getFromPeer),
+                new Condition<>(action, AuditConn::getAction)));
+    }
+
+    private static Filter<AuditFile> fileFilter(String peerId, String fromPeer, String type) {
+        return Filter.of(peerId, fromPeer, List.of(
+                new Condition<>(peerId, AuditFile::getPeerId),
+                new Condition<>(fromPeer, AuditFile::getFromPeer),
+                new Condition<>(type, AuditFile::getType)));
+    }
+
+    private int archiveSegment(Source<?> source, LocalDateTime cutoff, int segmentRows) throws IOException {
+        List<ArchiveSegment> current = segments.getOrDefault(source.name(), List.of());
+        long afterId = current.isEmpty() ? 0 : current.get(current.size() - 1).lastId();
+        long upToId = auditRollupService.getWatermark(source.name());
+        List<Long> ids = new ArrayList<>();
+        AbstractIterator<ArchiveSegment.Row> rows = rows(source, afterId, upToId, cutoff, segmentRows, ids);
+        if (!rows.hasNext()) {
+            return 0;
+        }
+
+        Path dir = Paths.get(rustDeskProperties.getAudit().getArchivePath(), source.name());
+        Files.createDirectories(dir);
+        Path dataFile = dir.resolve(String.format(NAME_FORMAT, rows.peek().id()) + ArchiveSegment.DATA_SUFFIX);
+        ArchiveSegment segment = ArchiveSegment.write(dataFile, rows, BLOCK_ROWS);
+        List<ArchiveSegment> updated = new ArrayList<>(current);
+        updated.add(segment);
+        segments.put(source.name(), List.copyOf(updated));
+
+        delete(source, ids);
+        log.debug("Archived {} {} audit records into {}", ids.size(), source.name(), dataFile);
+        return ids.size();
+    }
+
+    /**
+     * Read archivable records in ID order, stopping at the first one that is too recent
+     * The IDs of the records returned are collected into {@code ids}.
+     */
+    private <T> AbstractIterator<ArchiveSegment.Row> rows(Source<T> source, long afterId, long upToId,
+                                                         LocalDateTime cutoff, int limit, List<Long> ids) {
+        return new AbstractIterator<>() {
+            private final Deque<T> chunk = new ArrayDeque<>();
+            private long next = afterId + 1;
+            private boolean exhausted;
+
+            @Override
+            protected ArchiveSegment.Row computeNext() {
+                if (ids.size() == limit) {
+                    return endOfData();
+                }
+                if (chunk.isEmpty() && !exhausted) {
+                    List<T> read = next <= upToId
+                            ? source.chunk().find(next, upToId, PageRequest.of(0, CHUNK_SIZE)) : List.of();
+                    chunk.addAll(read);
+                    exhausted = read.size() < CHUNK_SIZE;
+                    if (!read.isEmpty()) {
+                        next = source.id().apply(read.get(read.size() - 1)) + 1;
+                    }
+                }
+                T row = chunk.poll();
+                if (row == null || !source.time().apply(row).isBefore(cutoff)) {
+                    return endOfData();
+                }
+                ids.add(source.id().apply(row));
+                try {
+                    return new ArchiveSegment.Row(objectMapper.writeValueAsBytes(row),
+                            toMillis(source.time().apply(row), false), source.id().apply(row), source.keys().apply(row));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    private void delete(Source<?> source, List<Long> ids) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (List<Long> chunk : Lists.partition(ids, CHUNK_SIZE)) {
+                source.delete().apply(chunk);
+            }
+        });
+    }
+
+    private <T> void load(Source<T> source) throws IOException {
+        Path dir = Paths.get(rustDeskProperties.getAudit().getArchivePath(), source.name());
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        List<Path> files;
+        try (Stream<Path> list = Files.list(dir)) {
+            files = list.sorted().toList();
+        }
+        List<ArchiveSegment> loaded = new ArrayList<>();
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (name.endsWith(".tmp")) {
+                Files.deleteIfExists(file);
+            } else if (name.endsWith(ArchiveSegment.DATA_SUFFIX)) {
+                if (!Files.exists(ArchiveSegment.indexFileOf(file))) {
+                    // The index is written last, so the segment was never completed
+                    log.warn("Removing incomplete audit archive segment {}", file);
+                    Files.delete(file);
+                } else {
+                    loaded.add(ArchiveSegment.open(file));
+                }
+            }
+        }
+        segments.put(source.name(), List.copyOf(loaded));
+        if (loaded.isEmpty()) {
+            return;
+        }
+
+        // Finish the delete if the last segment was written but its records are still in the table
+        ArchiveSegment last = loaded.get(loaded.size() - 1);
+        if (source.repository().existsById(last.lastId())) {
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < last.blockCount(); i++) {
+                for (String line : last.readBlock(i)) {
+                    ids.add(source.id().apply(parse(source, line)));
+                }
+            }
+            delete(source, ids);
+            log.warn("Removed {} {} audit records already in archive segment {}", ids.size(), source.name(),
+                    last.dataFile());
+        }
+        log.info("Loaded {} {} audit archive segments", loaded.size(), source.name());
+    }
+
+    private <T> List<T> find(Source<T> source, Filter<T> filter, LocalDateTime from, LocalDateTime to,
+                             SeekCursor after, SeekCursor floor, int limit) {
+        List<ArchiveSegment> current = segments.getOrDefault(source.name(), List.of());
+        if (current.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Function<T, SeekCursor> key = row -> new SeekCursor(source.time().apply(row), source.id().apply(row));
+        Predicate<T> predicate = filter.predicate(source, from, to);
+        if (after != null) {
+            predicate = predicate.and(row -> key.apply(row).compareTo(after) < 0);
+        }
+        if (floor != null) {
+            predicate = predicate.and(row -> key.apply(row).compareTo(floor) > 0);
+        }
+
+        // Newest blocks first, so the search can stop at the first block that cannot reach the top rows
+        List<BlockRef> blocks = candidates(current, filter, from, to, after, floor);
+        blocks.sort(Comparator.comparingLong((BlockRef ref) -> ref.block().maxTime()).reversed());
+        PriorityQueue<T> top = new PriorityQueue<>(limit + 1, Comparator.comparing(key));
+        for (BlockRef ref : blocks) {
+            if (top.size() == limit && ref.block().maxTime() < toMillis(key.apply(top.peek()).createdAt(), false)) {
+                break;
+            }
+            for (T row : read(source, ref)) {
+                if (predicate.test(row)) {
+                    top.add(row);
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                }
+            }
+        }
+        List<T> result = new ArrayList<>(top);
+        result.sort(Comparator.comparing(key).reversed());
+        return result;
+    }
+
+    private <T> long count(Source<T> source, Filter<T> filter, LocalDateTime from, LocalDateTime to) {
+        List<ArchiveSegment> current = segments.getOrDefault(source.name(), List.of());
+        if (current.isEmpty()) {
+            return 0;
+        }
+        Predicate<T> predicate = filter.predicate(source, from, to);
+        long fromMillis = from != null ? toMillis(from, true) : Long.MIN_VALUE;
+        long toMillis = to != null ? toMillis(to, false) : Long.MAX_VALUE;
+        long count = 0;
+        for (BlockRef ref : candidates(current, filter, from, to, null, null)) {
+            // Blocks wholly inside the range are counted from the index alone
+            if (filter.isEmpty() && ref.block().minTime() >= fromMillis && ref.block().maxTime() < toMillis) {
+                count += ref.block().rows();
+            } else {
+                count += read(source, ref).stream().filter(predicate).count();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Select the blocks that may hold matching records using only the mapped indexes
+     */
+    private static List<BlockRef> candidates(List<ArchiveSegment> current, Filter<?> filter, LocalDateTime from,
+                                             LocalDateTime to, SeekCursor after, SeekCursor floor) {
+        long minTime = Long.MIN_VALUE;
+        if (from != null) {
+            minTime = toMillis(from, false);
+        }
+        if (floor != null) {
+            minTime = Math.max(minTime, toMillis(floor.createdAt(), false));
+        }
+        long endTime = to != null ? toMillis(to, true) : Long.MAX_VALUE;
+        long maxTime = after != null ? toMillis(after.createdAt(), true) : Long.MAX_VALUE;
+        List<BlockRef> blocks = new ArrayList<>();
+        for (ArchiveSegment segment : current) {
+            for (int i = 0; i < segment.blockCount(); i++) {
+                ArchiveSegment.Block block = segment.block(i);
+                if (block.maxTime() < minTime || block.minTime() > maxTime || block.minTime() >= endTime) {
+                    continue;
+                }
+                if ((filter.peerId() != null && !segment.mightContain(i, filter.peerId()))
+                        || (filter.fromPeer() != null && !segment.mightContain(i, filter.fromPeer()))) {
+                    continue;
+                }
+                blocks.add(new BlockRef(segment, block));
+            }
+        }
+        return blocks;
+    }
+
+    private <T> List<T> read(Source<T> source, BlockRef ref) {
+        try {
+            List<String> lines = ref.segment().readBlock(ref.block().number());
+            List<T> rows = new ArrayList<>(lines.size());
+            for (String line : lines) {
+                rows.add(parse(source, line));
+            }
+            return rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read audit archive segment " + ref.segment().dataFile(), e);
+        }
+    }
+
+    private <T> T parse(Source<T> source, String line) throws IOException {
+        return objectMapper.readValue(line, source.type());
+    }
+
+    /**
+     * Convert a time to epoch milliseconds, rounding sub-millisecond parts down or up
+     */
+    private static long toMillis(LocalDateTime time, boolean ceil) {
+        Instant instant = time.toInstant(ZoneOffset.UTC);
+        long millis = instant.toEpochMilli();
+        return ceil && instant.getNano() % 1_000_000 != 0 ? millis + 1 : millis;
+    }
+
+    /**
+     * Reads a page of records in an ID range
+     */
+    @FunctionalInterface
+    private interface ChunkQuery<T> {
+        List<T> find(Long fromId, Long toId, PageRequest pageable);
+    }
+
+    /**
+     * Archived table
+     *
+     * @param name source name, also the archive subdirectory
+     * @param type entity type
+     * @param repository entity repository
+     * @param chunk ID range query
+     * @param delete delete by IDs, across the monthly tables of a partitioned table
+     * @param id ID of a record
+     * @param time creation time of a record
+     * @param keys peer IDs of a record, indexed by the block Bloom filters
+     * @param <T> entity type
+     */
+    private record Source<T>(String name, Class<T> type, JpaRepository<T, Long> repository, ChunkQuery<T> chunk,
+                             Function<Collection<Long>, Integer> delete, Function<T, Long> id, Function<T, LocalDateTime> time,
+                             Function<T, List<String>> keys) {
+    }
+
+    /**
+     * Equality condition on a field, ignored when the value is null
+     *
+     * @param value expected value
+     * @param field field of a record
+     * @param <T> entity type
+     */
+    private record Condition<T>(String value, Function<T, String> field) {
+    }
+
+    /**
+     * Record filter of a query
+     *
+     * @param peerId controlled peer ID checked against the Bloom filters, null for any
+     * @param fromPeer controlling peer ID checked against the Bloom filters, null for any
+     * @param conditions field conditions that are set
+     * @param <T> entity type
+     */
+    private record Filter<T>(String peerId, String fromPeer, List<Condition<T>> conditions) {
+
+        /**
+         * Build a filter, treating blank values as unset the way {@code KeysetQuery.eq} does for hot rows
+         */
+        private static <T> Filter<T> of(String peerId, String fromPeer, List<Condition<T>> conditions) {
+            return new Filter<>(StringUtils.defaultIfBlank(peerId, null), StringUtils.defaultIfBlank(fromPeer, null),
+                    conditions.stream().filter(c -> StringUtils.isNotBlank(c.value())).toList());
+        }
+
+        private boolean isEmpty() {
+            return conditions.isEmpty();
+        }
+
+        private Predicate<T> predicate(Source<T> source, LocalDateTime from, LocalDateTime to) {
+            Predicate<T> predicate = row -> true;
+            for (Condition<T> condition : conditions) {
+                predicate = predicate.and(row -> condition.value().equals(condition.field().apply(row)));
+            }
+            if (from != null) {
+                predicate = predicate.and(row -> !source.time().apply(row).isBefore(from));
+            }
+            if (to != null) {
+                predicate = predicate.and(row -> source.time().apply(row).isBefore(to));
+            }
+            return predicate;
+        }
+    }
+
+    private record BlockRef(ArchiveSegment segment, ArchiveSegment.Block block) {
+    }
+}
@@ -0,0 +1,462 @@
+package com.rustdesk.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rustdesk.api.config.properties.RustDeskProperties;
+import com.rustdesk.api.entity.AuditConn;
+import com.rustdesk.api.repository.AuditConnRepository;
+import com.rustdesk.api.util.RingBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Audit Connection Ingest Service
+ * Buffers connection audit events and writes them in batches.
+ * <p>
+ * Publishers put events into a preallocated lock-free ring buffer and return at
+ * once. Consumer threads drain it into batches, waiting up to the linger time for
+ * a batch to fill, and write each batch with multi-row INSERT statements. When the
+ * buffer is full the overflow policy decides: {@code block} waits up to the block
+ * timeout and then rejects, {@code drop-oldest} discards the oldest buffered
+ * events, and {@code spill} appends the event to a file on disk that consumers
+ * replay once the buffer runs empty. Idle consumers back off progressively and are
+ * woken by the next publish. Depth, lag and throughput are published as metrics.
+ * Stored events are handed to the session stitcher.
+ * </p>
+ *
+ * @author RustDesk API Team
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AuditConnIngestService {
+
+    private static final String POLICY_DROP_OLDEST = "drop-oldest";
+    private static final String POLICY_SPILL = "spill";
+
+    private static final String SPILL_FILE = "audit-conn.spill";
+    private static final String REPLAY_PREFIX = "audit-conn.replay-";
+    private static final String OFFSET_SUFFIX = ".offset";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * Spilled lines that could not be parsed, kept for inspection
+     */
+    private static final String QUARANTINE_FILE = "audit-conn.quarantine";
+
+    /**
+     * Park time while waiting for buffer space or for a batch to fill
+     */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * Bounds of the idle consumer backoff, doubled on every empty poll
+     */
+    private static final long MIN_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /**
+     * Interval between checks for spilled events
+     */
+    private static final long REPLAY_CHECK_MILLIS = 1000L;
+
+    private final AuditConnRepository auditConnRepository;
+    private final AuditSessionService auditSessionService;
+    private final RustDeskProperties rustDeskProperties;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+
+    private RingBuffer<Event> buffer;
+    private ExecutorService consumers;
+    private volatile boolean running;
+    private String overflowPolicy;
+    private int batchSize;
+    private long lingerNanos;
+    private Path spillDirectory;
+
+    private final Object spillLock = new Object();
+    private final AtomicBoolean replaying = new AtomicBoolean();
+    private final AtomicLong lastReplayCheck = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Queue<Thread> idleConsumers = new ConcurrentLinkedQueue<>();
+
+    private Counter published;
+    private Counter persisted;
+    private Counter dropped;
+    private Counter spilled;
+    private Counter rejected;
+    private Counter failed;
+    private Counter quarantined;
+    private Timer batchWrites;
+
+    @PostConstruct
+    public void init() {
+        RustDeskProperties.Audit config = rustDeskProperties.getAudit();
+        buffer = new RingBuffer<>(config.getBufferSize());
+        overflowPolicy = config.getOverflowPolicy().toLowerCase();
+        batchSize = config.getBatchSize();
+        lingerNanos = TimeUnit.MILLISECONDS.toNanos(config.getLinger());
+        if (POLICY_SPILL.equals(overflowPolicy)) {
+            spillDirectory = Paths.get(config.getSpillPath());
+            try {
+                Files.createDirectories(spillDirectory);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot create audit spill directory " + spillDirectory, e);
+            }
+        }
+
+        Gauge.builder("audit.conn.buffer.depth", buffer, RingBuffer::size)
+                .description("Connection audit events waiting in the ring buffer")
+                .register(meterRegistry);
+        Gauge.builder("audit.conn.lag", lagMillis, AtomicLong::get)
+                .description("Milliseconds between receiving the oldest event of the last batch and writing it")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        published = counter("audit.conn.published", "Connection audit events accepted into the buffer");
+        persisted = counter("audit.conn.persisted", "Connection audit events written to the database");
+        dropped = counter("audit.conn.dropped", "Buffered connection audit events discarded by the drop-oldest policy");
+        spilled = counter("audit.conn.spilled", "Connection audit events written to the spill file");
+        rejected = counter("audit.conn.rejected", "Connection audit events refused because the buffer stayed full");
+        failed = counter("audit.conn.failed", "Connection audit events lost because a batch write failed");
+        quarantined = counter("audit.conn.quarantined", "Spilled lines moved to the quarantine file because they could not be parsed");
+        batchWrites = Timer.builder("audit.conn.batch.write")
+                .description("Time to write one batch of connection audit events")
+                .register(meterRegistry);
+
+        running = true;
+        consumers = Executors.newFixedThreadPool(config.getConsumers(), runnable -> {
+            Thread thread = new Thread(runnable, "audit-conn-ingest");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < config.getConsumers(); i++) {
+            consumers.submit(this::consume);
+        }
+        log.info("Audit ingest started: buffer {}, batch {}, linger {} ms, {} consumers, overflow policy {}",
+                buffer.capacity(), batchSize, config.getLinger(), config.getConsumers(), overflowPolicy);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Consumers drain what is buffered before they exit
+        running = false;
+        idleConsumers.forEach(LockSupport::unpark);
+        consumers.shutdown();
+        try {
+            if (!consumers.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Audit ingest stopped with {} events still buffered", buffer.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Publish a connection audit event
+     *
+     * @param event event to store
+     * @return false if the event was rejected because the buffer stayed full
+     */
+    public boolean publish(AuditConn event) {
+        if (event.getCreatedAt() == null) {
+            event.setCreatedAt(LocalDateTime.now());
+        }
+        Event entry = new Event(event, System.currentTimeMillis());
+        if (buffer.offer(entry)) {
+            published.increment();
+            wakeConsumer();
+            return true;
+        }
+
+        switch (overflowPolicy) {
+            case POLICY_DROP_OLDEST -> {
+                while (!buffer.offer(entry)) {
+                    if (buffer.poll() != null) {
+                        dropped.increment();
+                    }
+                }
+                published.increment();
+                wakeConsumer();
+                return true;
+            }
+            case POLICY_SPILL -> {
+                spill(List.of(event));
+                return true;
+            }
+            default -> {
+                long deadline = System.nanoTime()
+                        + TimeUnit.MILLISECONDS.toNanos(rustDeskProperties.getAudit().getBlockTimeout());
+                while (!buffer.offer(entry)) {
+                    if (System.nanoTime() >= deadline) {
+                        rejected.increment();
+                        return false;
+                    }
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+                published.increment();
+                wakeConsumer();
+                return true;
+            }
+        }
+    }
+
+    private void wakeConsumer() {
+        Thread idle = idleConsumers.poll();
+        if (idle != null) {
+            LockSupport.unpark(idle);
+        }
+    }
+
+    private void consume() {
+        List<Event> batch = new ArrayList<>(batchSize);
+        long backoff = MIN_BACKOFF_NANOS;
+        while (true) {
+            buffer.drainTo(batch, batchSize);
+            if (batch.isEmpty()) {
+                if (!running) {
+                    return;
+                }
+                replaySpilled();
+                idle(backoff);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_NANOS);
+                continue;
+            }
+            backoff = MIN_BACKOFF_NANOS;
+            // Linger for a fuller batch, but not past shutdown
+            long deadline = System.nanoTime() + lingerNanos;
+            while (batch.size() < batchSize && running) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                if (buffer.drainTo(batch, batchSize - batch.size()) == 0) {
+                    LockSupport.parkNanos(Math.min(IDLE_PARK_NANOS, remaining));
+                }
+            }
+            lagMillis.set(System.currentTimeMillis() - batch.get(0).receivedAt());
+            write(batch.stream().map(Event::event).toList());
+            batch.clear();
+        }
+    }
+
+    /**
+     * Park until the next publish or the backoff elapses
+     */
+    private void idle(long backoff) {
+        Thread current = Thread.currentThread();
+        idleConsumers.add(current);
+        // Recheck after registering, an event published in between would not wake us
+        if (buffer.size() == 0 && running) {
+            LockSupport.parkNanos(this, backoff);
+        }
+        idleConsumers.remove(current);
+    }
+
+    private void write(List<AuditConn> events) {
+        try {
+            batchWrites.record(() -> auditConnRepository.insertBatch(events));
+            persisted.increment(events.size());
+        } catch (RuntimeException e) {
+            if (spillDirectory != null) {
+                log.error("Failed to write {} connection audit events, spilling them to disk", events.size(), e);
+                spill(events);
+            } else {
+                log.error("Failed to write {} connection audit events, dropping them", events.size(), e);
+                failed.increment(events.size());
+            }
+            return;
+        }
+        auditSessionService.stitch(events);
+    }
+
+    private void spill(List<AuditConn> events) {
+        synchronized (spillLock) {
+            try (BufferedWriter writer = Files.newBufferedWriter(spillDirectory.resolve(SPILL_FILE), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (AuditConn event : events) {
+                    writer.write(objectMapper.writeValueAsString(event));
+                    writer.newLine();
+                }
+                spilled.increment(events.size());
+            } catch (IOException e) {
+                log.error("Failed to spill {} connection audit events", events.size(), e);
+                failed.increment(events.size());
+            }
+        }
+    }
+
+    /**
+     * Write spilled events back once the buffer has run empty
+     * The spill file is rotated first so publishers keep spilling to a fresh file.
+     * The number of lines written is recorded next to the file after each batch, so
+     * a replay interrupted half way resumes there; only the batch in flight at a
+     * crash can be written twice. Lines that do not parse, such as one cut short by a
+     * crash while spilling, are appended to the quarantine file. A file that fails to
+     * replay is retried on the next check without holding up the others.
+     */
+    private void replaySpilled() {
+        long now = System.currentTimeMillis();
+        long last = lastReplayCheck.get();
+        if (spillDirectory == null || now - last < REPLAY_CHECK_MILLIS || !lastReplayCheck.compareAndSet(last, now)) {
+            return;
+        }
+        if (!replaying.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Path spill = spillDirectory.resolve(SPILL_FILE);
+            synchronized (spillLock) {
+                if (Files.exists(spill) && Files.size(spill) > 0) {
+                    Files.move(spill, spillDirectory.resolve(REPLAY_PREFIX + now), StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(spillDirectory, REPLAY_PREFIX + "*")) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    try {
+                        if (name.endsWith(TEMP_SUFFIX)) {
+                            // Offset being written when the process died; the previous offset still holds
+                            Files.delete(file);
+                        } else if (!name.endsWith(OFFSET_SUFFIX)) {
+                            replay(file);
+                        } else if (!Files.exists(replayFileOf(file))) {
+                            // Left behind by a crash between deleting a replayed file and its offset
+                            Files.delete(file);
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        log.error("Failed to replay spilled connection audit events from {}", name, e);
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to replay spilled connection audit events", e);
+        } finally {
+            replaying.set(false);
+        }
+    }
+
+    private void replay(Path file) throws IOException {
+        Path offsetFile = file.resolveSibling(file.getFileName() + OFFSET_SUFFIX);
+        long done = readOffset(offsetFile);
+        long lines = 0;
+        int count = 0;
+        int bad = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            List<AuditConn> batch = new ArrayList<>(batchSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (++lines <= done || line.isBlank()) {
+                    continue;
+                }
+                try {
+                    batch.add(objectMapper.readValue(line, AuditConn.class));
+                } catch (JsonProcessingException e) {
+                    quarantine(line);
+                    bad++;
+                    continue;
+                }
+                if (batch.size() == batchSize) {
+                    count += replayBatch(batch, offsetFile, lines);
+                }
+            }
+            count += replayBatch(batch, offsetFile, lines);
+        }
+        persisted.increment(count);
+        Files.delete(file);
+        Files.deleteIfExists(offsetFile);
+        log.info("Replayed {} spilled connection audit events from {}{}", count, file.getFileName(),
+                done > 0 ? ", resumed after line " + done : "");
+        if (bad > 0) {
+            log.warn("Moved {} unparsable lines of {} to {}", bad, file.getFileName(), QUARANTINE_FILE);
+        }
+    }
+
+    /**
+     * Read the number of lines already replayed from a file
+     *
+     * @param offsetFile offset file
+     * @return replayed line count, 0 if there is no usable offset
+     */
+    private static long readOffset(Path offsetFile) throws IOException {
+        if (!Files.exists(offsetFile)) {
+            return 0L;
+        }
+        String offset = Files.readString(offsetFile, StandardCharsets.UTF_8).trim();
+        try {
+            return Long.parseLong(offset);
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring unreadable replay offset {}: '{}'", offsetFile.getFileName(), offset);
+            return 0L;
+        }
+    }
+
+    private void quarantine(String line) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(spillDirectory.resolve(QUARANTINE_FILE), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(line);
+            writer.newLine();
+        }
+        quarantined.increment();
+    }
+
+    private int replayBatch(List<AuditConn> batch, Path offsetFile, long lines) throws IOException {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        int count = auditConnRepository.insertBatch(batch);
+        Path temp = offsetFile.resolveSibling(offsetFile.getFileName() + TEMP_SUFFIX);
+        Files.writeString(temp, Long.toString(lines), StandardCharsets.UTF_8);
+        Files.move(temp, offsetFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        auditSessionService.stitch(batch);
+        batch.clear();
+        return count;
+    }
+
+    private static Path replayFileOf(Path offsetFile) {
+        String name = offsetFile.getFileName().toString();
+        return offsetFile.resolveSibling(name.substring(0, name.length() - OFFSET_SUFFIX.length()));
+    }
+
+    private Counter counter(String name, String description) {
+        return Counter.builder(name).description(description).register(meterRegistry);
+    }
+
+    /**
+     * Buffered event
+     *
+     * @param event connection audit record
+     * @param receivedAt epoch milliseconds the event was published
+     */
+    private record Event(AuditConn event, long receivedAt) {
+    }
+}
@@ -0,0 +1,128 @@
+package com.rustdesk.api.service;
+
+import com.rustdesk.api.entity.AuditConn;
+import com.rustdesk.api.entity.AuditFile;
+import com.rustdesk.api.repository.AuditConnRepository;
+import com.rustdesk.api.repository.AuditFileRepository;
+import com.rustdesk.api.util.SeekCursor;
+import com.rustdesk.api.util.SeekPage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Audit Log Service
+ * Browses connection and file transfer audit records.
+ * <p>
+ * Pages are read with keyset pagination on {@code (created_at, id)}: each page
+ * continues strictly after the last row of the previous one, so deep pages cost the
+ * same as the first and rows inserted meanwhile do not shift them. Counting all
+ * matches is optional because it scans every matching row. Records moved to the
+ * audit archive are merged into the same order, so pages span both transparently.
+ * </p>
+ *
+ * @author RustDesk API Team
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AuditLogService {
+
+    private final AuditConnRepository auditConnRepository;
+    private final AuditFileRepository auditFileRepository;
+    private final AuditArchiveService auditArchiveService;
+
+    /**
+     * Get a page of connection audit records, newest first
+     *
+     * @param peerId controlled peer ID, null for any
+     * @param fromPeer controlling peer ID, null for any
+     * @param action connection action, null for any
+     * @param from inclusive start of the time range, null for unbounded
+     * @param to exclusive end of the time range, null for unbounded
+     * @param cursor cursor from the previous page, null for the first page
+     * @param limit page size
+     * @param withTotal whether to count all matching records
+     * @return page of records
+     */
+    @Transactional(readOnly = true)
+    public SeekPage<AuditConn> findConnPage(String peerId, String fromPeer, String action, LocalDateTime from,
+                                            LocalDateTime to, String cursor, int limit, boolean withTotal) {
+        SeekCursor after = SeekCursor.decode(cursor);
+        List<AuditConn> hot = auditConnRepository.findPage(peerId, fromPeer, action, from, to, after, limit + 1);
+        List<AuditConn> cold = auditArchiveService.findConn(peerId, fromPeer, action, from, to, after,
+                floor(hot, limit, AuditLogService::keyOf), limit + 1);
+        Long total = withTotal ? auditConnRepository.countPage(peerId, fromPeer, action, from, to)
+                + auditArchiveService.countConn(peerId, fromPeer, action, from, to) : null;
+        return SeekPage.of(merge(hot, cold, limit, AuditConn::getId, AuditLogService::keyOf), limit,
+                AuditLogService::keyOf, total);
+    }
+
+    /**
+     * Get a page of file transfer audit records, newest first
+     *
+     * @param peerId controlled peer ID, null for any
+     * @param fromPeer controlling peer ID, null for any
+     * @param type transfer type, null for any
+     * @param from inclusive start of the time range, null for unbounded
+     * @param to exclusive end of the time range, null for unbounded
+     * @param cursor cursor from the previous page, null for the first page
+     * @param limit page size
+     * @param withTotal whether to count all matching records
+     * @return page of records
+     */
+    @Transactional(readOnly = true)
+    public SeekPage<AuditFile> findFilePage(String peerId, String fromPeer, String type, LocalDateTime from,
+                                            LocalDateTime to, String cursor, int limit, boolean withTotal) {
+        SeekCursor after = SeekCursor.decode(cursor);
+        List<AuditFile> hot = auditFileRepository.findPage(peerId, fromPeer, type, from, to, after, limit + 1);
+        List<AuditFile> cold = auditArchiveService.findFile(peerId, fromPeer, type, from, to, after,
+                floor(hot, limit, AuditLogService::keyOf), limit + 1);
+        Long total = withTotal ? auditFileRepository.countPage(peerId, fromPeer, type, from, to)
+                + auditArchiveService.countFile(peerId, fromPeer, type, from, to) : null;
+        return SeekPage.of(merge(hot, cold, limit, AuditFile::getId, AuditLogService::keyOf), limit,
+                AuditLogService::keyOf, total);
+    }
+
+    private static SeekCursor keyOf(AuditConn row) {
+        return new SeekCursor(row.getCreatedAt(), row.getId());
+    }
+
+    private static SeekCursor keyOf(AuditFile row) {
+        return new SeekCursor(row.getCreatedAt(), row.getId());
+    }
+
+    /**
+     * Get the position of the last hot row when the hot table alone fills the lookahead page
+     * Archived rows at or below it cannot make the page.
+     */
+    private static <T> SeekCursor floor(List<T> hot, int limit, Function<T, SeekCursor> key) {
+        return hot.size() > limit ? key.apply(hot.get(limit)) : null;
+    }
+
+    /**
+     * Merge hot and archived rows into one lookahead page
+     * A row archived but not yet deleted from its table is returned once.
+     */
+    private static <T> List<T> merge(List<T> hot, List<T> cold, int limit, Function<T, Long> id,
+                                     Function<T, SeekCursor> key) {
+        if (cold.isEmpty()) {
+            return hot;
+        }
+        Map<Long, T> rows = new LinkedHashMap<>();
+        hot.forEach(row -> rows.put(id.apply(row), row));
+        cold.forEach(row -> rows.putIfAbsent(id.apply(row), row));
+        return rows.values().stream()
+                .sorted(Comparator.comparing(key).reversed())
+                .limit(limit + 1L)
+                .toList();
+    }
+}
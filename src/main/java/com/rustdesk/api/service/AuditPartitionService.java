@@ -0,0 +1,402 @@
+package com.rustdesk.api.service;
+
+import com.rustdesk.api.config.properties.RustDeskProperties;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Audit Partition Service
+ * Monthly partitioning and partition-drop retention for append-only log tables.
+ * <p>
+ * Retention drops whole months instead of deleting rows, so it costs no index
+ * bloat and no long table locks. The layout depends on the database:
+ * </p>
+ * <ul>
+ *   <li>MySQL: the table is range partitioned on {@code created_at} with one
+ *   partition {@code pYYYYMM} per month and a trailing {@code pmax}. An unpartitioned
+ *   table is converted on the first run, which rebuilds it once. Upcoming months
+ *   are split off {@code pmax} ahead of time.</li>
+ *   <li>PostgreSQL: partitions {@code <table>_YYYYMM} are created ahead of time for
+ *   tables declared {@code PARTITION BY RANGE (created_at)}; other tables are left
+ *   alone with a warning.</li>
+ *   <li>SQLite: the base table holds the current month. When a month ends the base
+ *   table is renamed to {@code <table>_YYYYMM} and recreated empty with the same
+ *   schema and ID sequence, so repositories keep writing to the same name. Rows of
+ *   any earlier month still in the table are moved to their own monthly table, or
+ *   deleted if past retention. The view {@code <table>_all} spans the base table and
+ *   all monthly tables, and repository reads go through it.</li>
+ * </ul>
+ *
+ * @author RustDesk API Team
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AuditPartitionService {
+
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final DateTimeFormatter BOUND = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final Pattern TABLE_NAME = Pattern.compile("[a-z][a-z0-9_]*");
+    private static final String MAX_PARTITION = "pmax";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final RustDeskProperties rustDeskProperties;
+    private final AuditRollupService auditRollupService;
+
+    private Dialect dialect;
+
+    @PostConstruct
+    public void init() {
+        RustDeskProperties.Audit config = rustDeskProperties.getAudit();
+        for (String table : config.getPartitionTables()) {
+            if (!TABLE_NAME.matcher(table).matches()) {
+                throw new IllegalArgumentException("Invalid partition table name: " + table);
+            }
+        }
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        dialect = Dialect.of(product);
+        if (config.getPartitionEnabled()) {
+            log.info("Audit partitioning enabled on {}: tables {}, retention {} months",
+                    product, config.getPartitionTables(), config.getRetentionMonths());
+            if (dialect == Dialect.SQLITE) {
+                // Repository reads of the tables are routed to the views
+                for (String table : config.getPartitionTables()) {
+                    if (!viewExists(table)) {
+                        createView(table, monthlyTables(table));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Create upcoming partitions and drop those past retention once they are counted in the rollups
+     * Each table is maintained independently so one failure does not block the others.
+     */
+    @Scheduled(initialDelayString = "${rustdesk.audit.partition-interval:3600000}",
+            fixedDelayString = "${rustdesk.audit.partition-interval:3600000}")
+    public void maintain() {
+        RustDeskProperties.Audit config = rustDeskProperties.getAudit();
+        if (!config.getPartitionEnabled()) {
+            return;
+        }
+        YearMonth current = YearMonth.now();
+        YearMonth retained = current.minusMonths(config.getRetentionMonths());
+        YearMonth until = current.plusMonths(config.getPartitionPremakeMonths());
+        for (String table : config.getPartitionTables()) {
+            try {
+                // A drop moves rows out of reach of the aggregator, keep months it has not counted yet
+                YearMonth cutoff = retained;
+                LocalDateTime pending = auditRollupService.foldBefore(table, retained.plusMonths(1).atDay(1).atStartOfDay());
+                if (pending != null) {
+                    cutoff = YearMonth.from(pending).minusMonths(1);
+                    log.warn("Keeping expired months of {} from {} until they are counted in the rollups",
+                            table, YearMonth.from(pending));
+                }
+                switch (dialect) {
+                    case MYSQL -> maintainMysql(table, current, cutoff, until);
+                    case POSTGRESQL -> maintainPostgres(table, current, cutoff, until);
+                    case SQLITE -> maintainSqlite(table, current, cutoff);
+                    default -> log.warn("Audit partitioning is not supported on this database, skipping {}", table);
+                }
+            } catch (Exception e) {
+                log.error("Failed to maintain partitions of {}", table, e);
+            }
+        }
+    }
+
+    private void maintainMysql(String table, YearMonth current, YearMonth cutoff, YearMonth until) {
+        List<String> names = mysqlPartitionNames(table);
+        if (names.isEmpty()) {
+            // First run: one partition per month from the oldest row, expired months are dropped below
+            YearMonth first = Optional.ofNullable(jdbcTemplate.queryForObject(
+                            "SELECT MIN(created_at) FROM " + table, Timestamp.class))
+                    .map(oldest -> YearMonth.from(oldest.toLocalDateTime()))
+                    .filter(oldest -> oldest.isBefore(current))
+                    .orElse(current);
+            log.warn("Converting {} to monthly partitions, the table is rebuilt once", table);
+            jdbcTemplate.execute("ALTER TABLE " + table + " DROP PRIMARY KEY, ADD PRIMARY KEY (id, created_at) "
+                    + "PARTITION BY RANGE COLUMNS(created_at) (" + mysqlPartitions(first, until) + ")");
+            names = mysqlPartitionNames(table);
+        }
+
+        TreeMap<YearMonth, String> months = monthly(names, "p");
+        YearMonth next = months.isEmpty() ? current : months.lastKey().plusMonths(1);
+        if (!next.isAfter(until) && names.contains(MAX_PARTITION)) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " REORGANIZE PARTITION " + MAX_PARTITION
+                    + " INTO (" + mysqlPartitions(next, until) + ")");
+            log.info("Created partitions of {} up to {}", table, until);
+        }
+
+        List<String> expired = new ArrayList<>(months.headMap(cutoff, true).values());
+        if (!expired.isEmpty() && expired.size() < months.size()) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " DROP PARTITION " + String.join(", ", expired));
+            log.info("Dropped expired partitions of {}: {}", table, expired);
+        }
+    }
+
+    private List<String> mysqlPartitionNames(String table) {
+        return jdbcTemplate.queryForList(
+                "SELECT PARTITION_NAME FROM information_schema.PARTITIONS "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL",
+                String.class, table);
+    }
+
+    private void maintainPostgres(String table, YearMonth current, YearMonth cutoff, YearMonth until) {
+        Boolean partitioned = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid "
+                        + "WHERE c.relname = ? AND pg_table_is_visible(c.oid))", Boolean.class, table);
+        if (!Boolean.TRUE.equals(partitioned)) {
+            log.warn("Table {} is not declared PARTITION BY RANGE (created_at), skipping", table);
+            return;
+        }
+
+        for (YearMonth month = current; !month.isAfter(until); month = month.plusMonths(1)) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + table + "_" + month.format(MONTH)
+                    + " PARTITION OF " + table + " FOR VALUES FROM ('" + bound(month) + "') TO ('"
+                    + bound(month.plusMonths(1)) + "')");
+        }
+
+        List<String> names = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                        + "JOIN pg_class p ON p.oid = i.inhparent WHERE p.relname = ? AND pg_table_is_visible(p.oid)",
+                String.class, table);
+        for (String expired : monthly(names, table + "_").headMap(cutoff, true).values()) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + expired);
+            jdbcTemplate.execute("DROP TABLE " + expired);
+            log.info("Dropped expired partition {}", expired);
+        }
+    }
+
+    private void maintainSqlite(String table, YearMonth current, YearMonth cutoff) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Boolean changed = transactionTemplate.execute(status -> {
+            boolean rotated = rotateSqlite(table, current, cutoff);
+            TreeMap<YearMonth, String> months = monthlyTables(table);
+            List<String> expired = new ArrayList<>(months.headMap(cutoff, true).values());
+            if (!rotated && expired.isEmpty() && viewExists(table)) {
+                return false;
+            }
+            jdbcTemplate.execute("DROP VIEW IF EXISTS " + table + "_all");
+            for (String name : expired) {
+                jdbcTemplate.execute("DROP TABLE " + name);
+                months.values().remove(name);
+            }
+            createView(table, months);
+            if (!expired.isEmpty()) {
+                log.info("Dropped expired monthly tables of {}: {}", table, expired);
+            }
+            return true;
+        });
+        if (Boolean.TRUE.equals(changed)) {
+            log.debug("Monthly layout of {} updated", table);
+        }
+    }
+
+    /**
+     * Move the base table aside once it holds rows from before the current month
+     * The table is renamed after the latest past month; rows of any earlier month,
+     * left behind by downtime or found when partitioning is first enabled, are moved
+     * to their own monthly tables or deleted if past retention.
+     *
+     * @return true if any rows were moved
+     */
+    private boolean rotateSqlite(String table, YearMonth current, YearMonth cutoff) {
+        // Rows are appended in ID order, so the lowest ID is the oldest row
+        List<Timestamp> oldest = jdbcTemplate.queryForList(
+                "SELECT created_at FROM " + table + " ORDER BY id LIMIT 1", Timestamp.class);
+        if (oldest.isEmpty() || !YearMonth.from(oldest.get(0).toLocalDateTime()).isBefore(current)) {
+            return false;
+        }
+        Timestamp monthStart = Timestamp.valueOf(current.atDay(1).atStartOfDay());
+        Timestamp latest = jdbcTemplate.queryForObject(
+                "SELECT MAX(created_at) FROM " + table + " WHERE created_at < ?", Timestamp.class, monthStart);
+        if (latest == null) {
+            // Only rows of the current month written with lower IDs, nothing to move
+            return false;
+        }
+
+        String createTable = jdbcTemplate.queryForObject(
+                "SELECT sql FROM sqlite_master WHERE type = 'table' AND name = ?", String.class, table);
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT sql FROM sqlite_master WHERE type = 'index' AND tbl_name = ? AND sql IS NOT NULL",
+                String.class, table);
+        jdbcTemplate.execute("DROP VIEW IF EXISTS " + table + "_all");
+
+        String source = table;
+        YearMonth last = YearMonth.from(latest.toLocalDateTime());
+        String archive = monthlyName(table, last);
+        if (!tableExists(archive)) {
+            Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+            List<String> indexNames = jdbcTemplate.queryForList(
+                    "SELECT name FROM sqlite_master WHERE type = 'index' AND tbl_name = ? AND sql IS NOT NULL",
+                    String.class, table);
+            jdbcTemplate.execute("ALTER TABLE " + table + " RENAME TO " + archive);
+            // Index names are global: hand them over to the new base table, the monthly table gets its own
+            for (String index : indexNames) {
+                jdbcTemplate.execute("DROP INDEX " + index);
+            }
+            jdbcTemplate.execute(createTable);
+            for (String index : indexes) {
+                jdbcTemplate.execute(index);
+                jdbcTemplate.execute(monthlyIndex(index, table, last));
+            }
+            if (jdbcTemplate.update("UPDATE sqlite_sequence SET seq = ? WHERE name = ?", maxId, table) == 0) {
+                jdbcTemplate.update("INSERT INTO sqlite_sequence (name, seq) VALUES (?, ?)", table, maxId);
+            }
+
+            // Rows written since the month started belong to the new base table
+            int carried = jdbcTemplate.update("INSERT INTO " + table + " SELECT * FROM " + archive
+                    + " WHERE created_at >= ?", monthStart);
+            if (carried > 0) {
+                jdbcTemplate.update("DELETE FROM " + archive + " WHERE created_at >= ?", monthStart);
+            }
+            log.info("Rotated {} to {}, {} rows of the current month carried over", table, archive, carried);
+            source = archive;
+        }
+
+        // Earlier months still in the source, each to its own table
+        Timestamp earliest = jdbcTemplate.queryForObject(
+                "SELECT MIN(created_at) FROM " + source + " WHERE created_at < ?", Timestamp.class,
+                source.equals(table) ? monthStart : Timestamp.valueOf(last.atDay(1).atStartOfDay()));
+        if (earliest == null) {
+            return true;
+        }
+        YearMonth end = source.equals(table) ? current : last;
+        for (YearMonth month = YearMonth.from(earliest.toLocalDateTime()); month.isBefore(end); month = month.plusMonths(1)) {
+            Timestamp from = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+            Timestamp to = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+            if (month.isAfter(cutoff)) {
+                String target = monthlyName(table, month);
+                boolean created = !tableExists(target);
+                if (created) {
+                    jdbcTemplate.execute(createTable.replaceFirst("(?i)^CREATE TABLE\\s+\"?" + table + "\"?",
+                            "CREATE TABLE " + target));
+                    for (String index : indexes) {
+                        jdbcTemplate.execute(monthlyIndex(index, table, month));
+                    }
+                }
+                int moved = jdbcTemplate.update("INSERT INTO " + target + " SELECT * FROM " + source
+                        + " WHERE created_at >= ? AND created_at < ?", from, to);
+                if (moved == 0 && created) {
+                    jdbcTemplate.execute("DROP TABLE " + target);
+                } else if (moved > 0) {
+                    log.info("Moved {} rows of {} from {} to {}", moved, month, source, target);
+                }
+            }
+            int removed = jdbcTemplate.update("DELETE FROM " + source + " WHERE created_at >= ? AND created_at < ?",
+                    from, to);
+            if (removed > 0 && !month.isAfter(cutoff)) {
+                log.info("Deleted {} expired rows of {} from {}", removed, month, source);
+            }
+        }
+        return true;
+    }
+
+    private TreeMap<YearMonth, String> monthlyTables(String table) {
+        List<String> names = jdbcTemplate.queryForList(
+                "SELECT name FROM sqlite_master WHERE type = 'table' AND name LIKE ?", String.class, table + "_%");
+        return monthly(names, table + "_");
+    }
+
+    private void createView(String table, TreeMap<YearMonth, String> months) {
+        StringBuilder view = new StringBuilder("CREATE VIEW " + table + "_all AS SELECT * FROM " + table);
+        months.descendingMap().values().forEach(name -> view.append(" UNION ALL SELECT * FROM ").append(name));
+        jdbcTemplate.execute(view.toString());
+    }
+
+    private static String monthlyName(String table, YearMonth month) {
+        return table + "_" + month.format(MONTH);
+    }
+
+    /**
+     * Rewrite an index definition of the base table for a monthly table
+     * Index names are global in SQLite, so the month is appended to the name.
+     */
+    private static String monthlyIndex(String index, String table, YearMonth month) {
+        String suffix = "_" + month.format(MONTH);
+        return index.replaceFirst("(?i)^(CREATE\\s+(?:UNIQUE\\s+)?INDEX\\s+)\"?(\\w+)\"?\\s+ON\\s+\"?" + table + "\"?",
+                "$1$2" + suffix + " ON " + table + suffix);
+    }
+
+    private boolean tableExists(String name) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM sqlite_master WHERE type = 'table' AND name = ?", Integer.class, name);
+        return count != null && count > 0;
+    }
+
+    private boolean viewExists(String table) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM sqlite_master WHERE type = 'view' AND name = ?", Integer.class, table + "_all");
+        return count != null && count > 0;
+    }
+
+    private static String mysqlPartitions(YearMonth from, YearMonth until) {
+        StringBuilder partitions = new StringBuilder();
+        for (YearMonth month = from; !month.isAfter(until); month = month.plusMonths(1)) {
+            partitions.append("PARTITION p").append(month.format(MONTH))
+                    .append(" VALUES LESS THAN ('").append(bound(month.plusMonths(1))).append("'), ");
+        }
+        return partitions.append("PARTITION ").append(MAX_PARTITION).append(" VALUES LESS THAN (MAXVALUE)").toString();
+    }
+
+    private static String bound(YearMonth month) {
+        return month.atDay(1).atStartOfDay().format(BOUND);
+    }
+
+    /**
+     * Index monthly partition names by month
+     *
+     * @param names partition or table names
+     * @param prefix name prefix before YYYYMM
+     * @return names by month; names not matching the pattern are ignored
+     */
+    private static TreeMap<YearMonth, String> monthly(List<String> names, String prefix) {
+        TreeMap<YearMonth, String> months = new TreeMap<>();
+        for (String name : names) {
+            if (name.length() == prefix.length() + 6 && name.startsWith(prefix)) {
+                try {
+                    months.put(YearMonth.parse(name.substring(prefix.length()), MONTH), name);
+                } catch (DateTimeParseException e) {
+                    log.debug("Ignoring non-monthly partition {}", name);
+                }
+            }
+        }
+        return months;
+    }
+
+    private enum Dialect {
+        MYSQL, POSTGRESQL, SQLITE, OTHER;
+
+        private static Dialect of(String product) {
+            String name = product == null ? "" : product.toLowerCase();
+            if (name.contains("mysql") || name.contains("mariadb")) {
+                return MYSQL;
+            }
+            if (name.contains("postgresql")) {
+                return POSTGRESQL;
+            }
+            return name.contains("sqlite") ? SQLITE : OTHER;
+        }
+    }
+}
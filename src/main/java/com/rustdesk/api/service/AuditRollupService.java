@@ -0,0 +1,331 @@
+package com.rustdesk.api.service;
+
+import com.rustdesk.api.config.properties.RustDeskProperties;
+import com.rustdesk.api.entity.AuditRollup;
+import com.rustdesk.api.entity.AuditRollupWatermark;
+import com.rustdesk.api.repository.AuditConnRepository;
+import com.rustdesk.api.repository.AuditFileRepository;
+import com.rustdesk.api.repository.AuditRollupRepository;
+import com.rustdesk.api.repository.AuditRollupWatermarkRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Audit Rollup Service
+ * Hourly and daily counts of audit events per peer and action for dashboards.
+ * <p>
+ * A scheduled aggregator reads the audit tables in ID order after a per-table
+ * watermark and adds each chunk to the hour and day rollups. The counts and the
+ * new watermark are written in one transaction, so every event is counted exactly
+ * once even across restarts, and history is backfilled chunk by chunk on the
+ * first runs. Dashboard queries read only the rollups, whose size depends on
+ * peers and buckets rather than on the number of events.
+ * </p>
+ * <p>
+ * On MySQL and PostgreSQL, concurrent inserts can commit out of ID order, so a
+ * lower ID may become visible after a higher one has been folded. Each run
+ * therefore folds only up to the highest ID that was already visible a configured
+ * lag earlier, by which time every row below it has committed or rolled back.
+ * </p>
+ * <p>
+ * Partition maintenance calls {@link #foldBefore} before dropping expired months,
+ * which folds past the per-run budget so no month is dropped before it is counted.
+ * </p>
+ *
+ * @author RustDesk API Team
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AuditRollupService {
+
+    private static final List<String> SOURCES = List.of(AuditRollup.SOURCE_CONN, AuditRollup.SOURCE_FILE);
+
+    private static final String TABLE_AUDIT_CONN = "audit_conn";
+    private static final String TABLE_AUDIT_FILE = "audit_file";
+
+    /**
+     * Audit rows folded per transaction
+     */
+    private static final int CHUNK_SIZE = 5000;
+
+    /**
+     * Chunks folded per source and run, bounds the time one run spends backfilling
+     */
+    private static final int MAX_CHUNKS_PER_RUN = 20;
+
+    private final AuditRollupRepository auditRollupRepository;
+    private final AuditRollupWatermarkRepository auditRollupWatermarkRepository;
+    private final AuditConnRepository auditConnRepository;
+    private final AuditFileRepository auditFileRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final RustDeskProperties rustDeskProperties;
+
+    /**
+     * Highest IDs seen by earlier runs per source, oldest first
+     */
+    private final Map<String, List<Mark>> marks = new HashMap<>();
+
+    /**
+     * Fold audit rows written since the last run into the rollups
+     */
+    @Scheduled(initialDelayString = "${rustdesk.audit.rollup-interval:60000}",
+            fixedDelayString = "${rustdesk.audit.rollup-interval:60000}")
+    public synchronized void aggregate() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (String source : SOURCES) {
+            int total = 0;
+            try {
+                long maxId = foldLimit(source);
+                Integer folded;
+                int chunks = 0;
+                do {
+                    folded = transactionTemplate.execute(status -> foldChunk(source, maxId));
+                    total += folded != null ? folded : 0;
+                } while (folded != null && folded == CHUNK_SIZE && ++chunks < MAX_CHUNKS_PER_RUN);
+            } catch (Exception e) {
+                log.error("Failed to aggregate {} audit rollups", source, e);
+            }
+            if (total > 0) {
+                log.debug("Folded {} {} audit events into rollups", total, source);
+            }
+        }
+    }
+
+    /**
+     * Fold the rows of an audit table created before a time
+     * Called before those rows are dropped. Keeps folding past the per-run budget,
+     * but not past the fold limit, until every row before {@code before} is counted.
+     *
+     * @param table audit table name
+     * @param before exclusive upper creation time bound
+     * @return creation time of the oldest row before {@code before} still not folded,
+     * null if all are folded or the table has no rollups
+     */
+    public synchronized LocalDateTime foldBefore(String table, LocalDateTime before) {
+        String source = TABLE_AUDIT_CONN.equals(table) ? AuditRollup.SOURCE_CONN
+                : TABLE_AUDIT_FILE.equals(table) ? AuditRollup.SOURCE_FILE : null;
+        if (source == null) {
+            return null;
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long maxId = foldLimit(source);
+        LocalDateTime pending;
+        Integer folded = CHUNK_SIZE;
+        while ((pending = oldestUnfolded(source, before)) != null && folded != null && folded == CHUNK_SIZE) {
+            folded = transactionTemplate.execute(status -> foldChunk(source, maxId));
+        }
+        return pending;
+    }
+
+    /**
+     * Get the ID up to which audit rows have been folded into the rollups
+     *
+     * @param source conn or file
+     * @return last folded ID, 0 if none
+     */
+    @Transactional(readOnly = true)
+    public long getWatermark(String source) {
+        return auditRollupWatermarkRepository.findById(source).map(AuditRollupWatermark::getLastId).orElse(0L);
+    }
+
+    /**
+     * Get event counts per bucket
+     *
+     * @param source conn or file
+     * @param granularity hour or day
+     * @param from start of the range, null for the default window before {@code to}
+     * @param to end of the range, exclusive; null for the end of the current bucket
+     * @param peerId peer ID, null to sum all peers
+     * @return counts per bucket and action, ordered by bucket
+     */
+    @Transactional(readOnly = true)
+    public List<Point> series(String source, String granularity, LocalDateTime from, LocalDateTime to, String peerId) {
+        validate(source, granularity);
+        Range range = range(granularity, from, to);
+        if (peerId != null && !peerId.isBlank()) {
+            return auditRollupRepository.findPeerSeries(source, granularity, peerId, range.from(), range.to()).stream()
+                    .map(rollup -> new Point(rollup.getBucket(), rollup.getPeerId(), rollup.getAction(), rollup.getCount()))
+                    .toList();
+        }
+        return auditRollupRepository.sumSeries(source, granularity, range.from(), range.to()).stream()
+                .map(row -> new Point((LocalDateTime) row[0], null, (String) row[1], ((Number) row[2]).longValue()))
+                .toList();
+    }
+
+    /**
+     * Get the peers with the most events
+     * Ranges on whole days are summed from the daily rollups.
+     *
+     * @param source conn or file
+     * @param from start of the range, null for 30 days before {@code to}
+     * @param to end of the range, exclusive; null for the end of the current hour
+     * @param limit maximum number of peers
+     * @return event counts per peer, busiest first
+     */
+    @Transactional(readOnly = true)
+    public List<PeerTotal> topPeers(String source, LocalDateTime from, LocalDateTime to, int limit) {
+        validate(source, AuditRollup.GRANULARITY_HOUR);
+        LocalDateTime end = to != null ? to : LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        LocalDateTime start = from != null ? from : end.minusDays(30);
+        Range range = range(AuditRollup.GRANULARITY_HOUR, start, end);
+        String granularity = range.from().toLocalTime().equals(LocalTime.MIDNIGHT)
+                && range.to().toLocalTime().equals(LocalTime.MIDNIGHT)
+                ? AuditRollup.GRANULARITY_DAY : AuditRollup.GRANULARITY_HOUR;
+        return auditRollupRepository.sumByPeer(source, granularity, range.from(), range.to(), PageRequest.of(0, limit))
+                .stream()
+                .map(row -> new PeerTotal((String) row[0], ((Number) row[1]).longValue()))
+                .toList();
+    }
+
+    /**
+     * Get the highest ID that has been visible for at least the rollup lag
+     *
+     * @param source conn or file
+     * @return ID up to which rows may be folded, 0 if none yet
+     */
+    private long foldLimit(String source) {
+        Long maxId = AuditRollup.SOURCE_CONN.equals(source)
+                ? auditConnRepository.findMaxId()
+                : auditFileRepository.findMaxId();
+        long now = System.currentTimeMillis();
+        long aged = now - rustDeskProperties.getAudit().getRollupLag();
+        List<Mark> seen = marks.computeIfAbsent(source, key -> new ArrayList<>());
+        seen.add(new Mark(now, maxId != null ? maxId : 0L));
+        // Keep the newest aged mark, older ones are covered by it
+        while (seen.size() > 1 && seen.get(1).time() <= aged) {
+            seen.remove(0);
+        }
+        return seen.get(0).time() <= aged ? seen.get(0).maxId() : 0L;
+    }
+
+    private LocalDateTime oldestUnfolded(String source, LocalDateTime before) {
+        long watermark = getWatermark(source);
+        return AuditRollup.SOURCE_CONN.equals(source)
+                ? auditConnRepository.findOldestCreatedAtAfter(watermark, before)
+                : auditFileRepository.findOldestCreatedAtAfter(watermark, before);
+    }
+
+    private int foldChunk(String source, long maxId) {
+        AuditRollupWatermark watermark = auditRollupWatermarkRepository.findById(source).orElseGet(() -> {
+            AuditRollupWatermark created = new AuditRollupWatermark();
+            created.setSource(source);
+            return created;
+        });
+        PageRequest chunk = PageRequest.of(0, CHUNK_SIZE);
+        List<Object[]> rows = AuditRollup.SOURCE_CONN.equals(source)
+                ? auditConnRepository.findRollupRowsAfter(watermark.getLastId(), maxId, chunk)
+                : auditFileRepository.findRollupRowsAfter(watermark.getLastId(), maxId, chunk);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        Map<Key, Long> hourly = new HashMap<>();
+        Map<Key, Long> daily = new HashMap<>();
+        for (Object[] row : rows) {
+            LocalDateTime createdAt = (LocalDateTime) row[1];
+            String peerId = row[2] != null ? (String) row[2] : "";
+            String action = row[3] != null ? (String) row[3] : "";
+            hourly.merge(new Key(createdAt.truncatedTo(ChronoUnit.HOURS), peerId, action), 1L, Long::sum);
+            daily.merge(new Key(createdAt.truncatedTo(ChronoUnit.DAYS), peerId, action), 1L, Long::sum);
+        }
+        apply(source, AuditRollup.GRANULARITY_HOUR, hourly);
+        apply(source, AuditRollup.GRANULARITY_DAY, daily);
+
+        watermark.setLastId((Long) rows.get(rows.size() - 1)[0]);
+        auditRollupWatermarkRepository.save(watermark);
+        return rows.size();
+    }
+
+    private void apply(String source, String granularity, Map<Key, Long> deltas) {
+        Set<LocalDateTime> buckets = deltas.keySet().stream().map(Key::bucket).collect(Collectors.toSet());
+        Map<Key, AuditRollup> existing = new HashMap<>();
+        for (AuditRollup rollup : auditRollupRepository.findBySourceAndGranularityAndBucketIn(source, granularity, buckets)) {
+            existing.put(new Key(rollup.getBucket(), rollup.getPeerId(), rollup.getAction()), rollup);
+        }
+
+        List<AuditRollup> changed = new ArrayList<>(deltas.size());
+        deltas.forEach((key, count) -> {
+            AuditRollup rollup = existing.get(key);
+            if (rollup == null) {
+                rollup = new AuditRollup();
+                rollup.setSource(source);
+                rollup.setGranularity(granularity);
+                rollup.setBucket(key.bucket());
+                rollup.setPeerId(key.peerId());
+                rollup.setAction(key.action());
+            }
+            rollup.setCount(rollup.getCount() + count);
+            changed.add(rollup);
+        });
+        auditRollupRepository.saveAll(changed);
+    }
+
+    private static void validate(String source, String granularity) {
+        if (!SOURCES.contains(source)) {
+            throw new IllegalArgumentException("Source must be one of " + SOURCES);
+        }
+        if (!AuditRollup.GRANULARITY_HOUR.equals(granularity) && !AuditRollup.GRANULARITY_DAY.equals(granularity)) {
+            throw new IllegalArgumentException("Granularity must be hour or day");
+        }
+    }
+
+    /**
+     * Align a range to whole buckets, defaulting to the last 24 hours or 30 days
+     */
+    private static Range range(String granularity, LocalDateTime from, LocalDateTime to) {
+        ChronoUnit unit = AuditRollup.GRANULARITY_DAY.equals(granularity) ? ChronoUnit.DAYS : ChronoUnit.HOURS;
+        LocalDateTime end = to != null ? to : LocalDateTime.now().truncatedTo(unit).plus(1, unit);
+        LocalDateTime start = from != null ? from : end.minus(unit == ChronoUnit.DAYS ? 30 : 24, unit);
+        start = start.truncatedTo(unit);
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("Range start must be before its end");
+        }
+        return new Range(start, end);
+    }
+
+    private record Key(LocalDateTime bucket, String peerId, String action) {
+    }
+
+    private record Mark(long time, long maxId) {
+    }
+
+    private record Range(LocalDateTime from, LocalDateTime to) {
+    }
+
+    /**
+     * Event count of one bucket
+     *
+     * @param bucket start of the bucket
+     * @param peerId peer ID, null when summed over all peers
+     * @param action connection action or file transfer type
+     * @param count number of events
+     */
+    public record Point(LocalDateTime bucket, String peerId, String action, long count) {
+    }
+
+    /**
+     * Event count of one peer
+     *
+     * @param peerId peer ID
+     * @param count number of events
+     */
+    public record PeerTotal(String peerId, long count) {
+    }
+}
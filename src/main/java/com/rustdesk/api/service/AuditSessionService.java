@@ -0,0 +1,220 @@
+package com.rustdesk.api.service;
+
+import com.google.common.collect.Lists;
+import com.rustdesk.api.config.properties.RustDeskProperties;
+import com.rustdesk.api.entity.AuditConn;
+import com.rustdesk.api.entity.AuditSession;
+import com.rustdesk.api.repository.AuditConnRepository;
+import com.rustdesk.api.repository.AuditSessionRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Audit Session Service
+ * Stitches new and close connection events into one session row with its duration.
+ * <p>
+ * Open connections are kept in memory by connection ID. A close event completes
+ * the matching open and writes the session; opens that see no close within the
+ * session timeout are written as timed out, and an open replaced by a new event
+ * for the same connection ID is written as superseded. A close that arrives before
+ * its open, which can happen with several ingest consumers or when the open is
+ * replayed late from the spill file, is held for up to the session timeout until
+ * the open shows up. At startup the open set is rebuilt from new events that have
+ * no session yet, completing those whose close was stored before the restart.
+ * </p>
+ *
+ * @author RustDesk API Team
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+// Recovery reads audit_conn, which may be routed to a view the partition service creates at startup
+@DependsOn("auditPartitionService")
+public class AuditSessionService {
+
+    private static final String ACTION_NEW = "new";
+    private static final String ACTION_CLOSE = "close";
+
+    private static final int CHUNK_SIZE = 500;
+
+    private final AuditConnRepository auditConnRepository;
+    private final AuditSessionRepository auditSessionRepository;
+    private final RustDeskProperties rustDeskProperties;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Open connections by connection ID, guarded by this
+     */
+    private final Map<String, AuditConn> open = new HashMap<>();
+
+    /**
+     * Close events still waiting for their open, by connection ID, guarded by this
+     */
+    private final Map<String, AuditConn> earlyCloses = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("audit.session.open", this, service -> service.openCount())
+                .description("Connections with a new event and no close yet")
+                .register(meterRegistry);
+        recover();
+    }
+
+    /**
+     * Apply stored connection events
+     * Called with each batch after it has been written to audit_conn.
+     *
+     * @param events stored events, in publish order
+     */
+    public void stitch(List<AuditConn> events) {
+        List<AuditSession> completed = new ArrayList<>();
+        synchronized (this) {
+            for (AuditConn event : events) {
+                if (ACTION_NEW.equals(event.getAction())) {
+                    opened(event, completed);
+                } else if (ACTION_CLOSE.equals(event.getAction())) {
+                    closed(event, completed);
+                }
+            }
+        }
+        save(completed);
+    }
+
+    /**
+     * Write opens older than the session timeout as timed out and drop closes whose open never came
+     */
+    @Scheduled(initialDelayString = "${rustdesk.audit.session-sweep-interval:60000}",
+            fixedDelayString = "${rustdesk.audit.session-sweep-interval:60000}")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        // A close past the session timeout belongs to an open that would have timed out anyway
+        LocalDateTime cutoff = now.minusSeconds(rustDeskProperties.getAudit().getSessionTimeout());
+        List<AuditSession> expired = new ArrayList<>();
+        int dropped = 0;
+        synchronized (this) {
+            for (Iterator<AuditConn> it = open.values().iterator(); it.hasNext(); ) {
+                AuditConn start = it.next();
+                if (start.getCreatedAt().isBefore(cutoff)) {
+                    expired.add(session(start, null, AuditSession.STATUS_TIMEOUT));
+                    it.remove();
+                }
+            }
+            for (Iterator<AuditConn> it = earlyCloses.values().iterator(); it.hasNext(); ) {
+                if (it.next().getCreatedAt().isBefore(cutoff)) {
+                    it.remove();
+                    dropped++;
+                }
+            }
+        }
+        save(expired);
+        if (!expired.isEmpty() || dropped > 0) {
+            log.info("Audit session sweep: {} timed out, {} unmatched closes dropped", expired.size(), dropped);
+        }
+    }
+
+    /**
+     * Get the number of open connections
+     *
+     * @return open connection count
+     */
+    public synchronized int openCount() {
+        return open.size();
+    }
+
+    /**
+     * Rebuild the open set from new events without a session
+     */
+    private void recover() {
+        LocalDateTime since = LocalDateTime.now().minusSeconds(rustDeskProperties.getAudit().getSessionTimeout());
+        List<AuditConn> opens = auditConnRepository.findUnstitchedOpens(since);
+        if (opens.isEmpty()) {
+            return;
+        }
+        List<String> connIds = opens.stream().map(AuditConn::getConnId).distinct().toList();
+        List<AuditConn> events = new ArrayList<>(opens);
+        for (List<String> chunk : Lists.partition(connIds, CHUNK_SIZE)) {
+            events.addAll(auditConnRepository.findByActionAndConnIdInAndCreatedAtGreaterThanEqualOrderByCreatedAtAsc(
+                    ACTION_CLOSE, chunk, since));
+        }
+        // Replay in time order, opens before closes stamped the same instant
+        events.sort((a, b) -> {
+            int byTime = a.getCreatedAt().compareTo(b.getCreatedAt());
+            return byTime != 0 ? byTime : Boolean.compare(ACTION_CLOSE.equals(a.getAction()), ACTION_CLOSE.equals(b.getAction()));
+        });
+        stitch(events);
+        synchronized (this) {
+            // Closes left over belong to sessions that were already stitched
+            earlyCloses.clear();
+        }
+        log.info("Audit sessions recovered: {} open connections", openCount());
+    }
+
+    private void opened(AuditConn event, List<AuditSession> completed) {
+        AuditConn close = earlyCloses.remove(event.getConnId());
+        if (close != null && !close.getCreatedAt().isBefore(event.getCreatedAt())) {
+            completed.add(session(event, close, AuditSession.STATUS_CLOSED));
+            return;
+        }
+        AuditConn previous = open.put(event.getConnId(), event);
+        if (previous != null && !previous.getCreatedAt().equals(event.getCreatedAt())) {
+            completed.add(session(previous, null, AuditSession.STATUS_SUPERSEDED));
+        }
+    }
+
+    private void closed(AuditConn event, List<AuditSession> completed) {
+        AuditConn start = open.get(event.getConnId());
+        if (start == null || start.getCreatedAt().isAfter(event.getCreatedAt())) {
+            earlyCloses.put(event.getConnId(), event);
+            return;
+        }
+        open.remove(event.getConnId());
+        completed.add(session(start, event, AuditSession.STATUS_CLOSED));
+    }
+
+    private void save(List<AuditSession> sessions) {
+        for (AuditSession session : sessions) {
+            try {
+                auditSessionRepository.save(session);
+            } catch (DataIntegrityViolationException e) {
+                // Replayed events can stitch a session twice
+                log.debug("Audit session already stored: conn {}, start {}", session.getConnId(), session.getStartTime());
+            } catch (RuntimeException e) {
+                log.error("Failed to store audit session: conn {}", session.getConnId(), e);
+            }
+        }
+    }
+
+    private static AuditSession session(AuditConn start, AuditConn end, String status) {
+        AuditSession session = new AuditSession();
+        session.setConnId(start.getConnId());
+        session.setSessionId(start.getSessionId() != null || end == null ? start.getSessionId() : end.getSessionId());
+        session.setPeerId(start.getPeerId());
+        session.setFromPeer(start.getFromPeer());
+        session.setFromName(start.getFromName());
+        session.setIp(start.getIp());
+        session.setType(start.getType());
+        session.setUuid(start.getUuid());
+        session.setStartTime(start.getCreatedAt());
+        session.setStatus(status);
+        if (end != null) {
+            session.setEndTime(end.getCreatedAt());
+            session.setDuration(Duration.between(start.getCreatedAt(), end.getCreatedAt()).toSeconds());
+        }
+        return session;
+    }
+}
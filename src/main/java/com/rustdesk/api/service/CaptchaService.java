@@ -0,0 +1,227 @@
+package com.rustdesk.api.service;
+
+import com.google.code.kaptcha.impl.DefaultKaptcha;
+import com.google.code.kaptcha.util.Config;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.rustdesk.api.config.properties.RustDeskProperties;
+import com.rustdesk.api.constant.Constants;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Captcha Service
+ * Serves login captchas from a pool of pre-rendered images.
+ * <p>
+ * Rendering a captcha is CPU-heavy AWT work, so it never happens on the request
+ * path in normal operation: background threads keep a bounded queue of rendered
+ * PNGs full and a request just takes the next one. When the pool runs dry, at
+ * most one image per render thread is rendered inline; further requests are
+ * refused until the pool refills. Answers are kept in a TTL store (in memory or
+ * Redis) and can be verified only once.
+ * </p>
+ *
+ * @author RustDesk API Team
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CaptchaService {
+
+    private static final String STORE_REDIS = "redis";
+
+    private final RustDeskProperties rustDeskProperties;
+    private final ObjectProvider<StringRedisTemplate> redisTemplateProvider;
+    private final MeterRegistry meterRegistry;
+
+    private DefaultKaptcha kaptcha;
+    private BlockingQueue<RenderedCaptcha> pool;
+    private ExecutorService renderers;
+    private Semaphore inlineRenders;
+    private Cache<String, String> memoryStore;
+    private Counter poolMisses;
+
+    @PostConstruct
+    public void init() {
+        RustDeskProperties.Captcha config = rustDeskProperties.getCaptcha();
+
+        Properties properties = new Properties();
+        properties.setProperty("kaptcha.border", "no");
+        properties.setProperty("kaptcha.image.width", String.valueOf(config.getWidth()));
+        properties.setProperty("kaptcha.image.height", String.valueOf(config.getHeight()));
+        properties.setProperty("kaptcha.textproducer.char.length", String.valueOf(config.getLength()));
+        properties.setProperty("kaptcha.textproducer.char.string", "abcdefhkmnprstuvwxy2345678");
+        kaptcha = new DefaultKaptcha();
+        kaptcha.setConfig(new Config(properties));
+
+        memoryStore = CacheBuilder.newBuilder()
+                .expireAfterWrite(Constants.CAPTCHA_EXPIRATION, TimeUnit.SECONDS)
+                .build();
+
+        pool = new ArrayBlockingQueue<>(config.getPoolSize());
+        inlineRenders = new Semaphore(config.getRenderThreads());
+        Gauge.builder("captcha.pool.depth", pool, BlockingQueue::size)
+                .description("Number of pre-rendered captchas ready to serve")
+                .register(meterRegistry);
+        poolMisses = Counter.builder("captcha.pool.misses")
+                .description("Captcha requests that found the pool empty")
+                .register(meterRegistry);
+
+        renderers = Executors.newFixedThreadPool(config.getRenderThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "captcha-render");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < config.getRenderThreads(); i++) {
+            renderers.submit(this::fillPool);
+        }
+        log.info("Captcha pool started: size {}, {} render threads", config.getPoolSize(), config.getRenderThreads());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderers.shutdownNow();
+    }
+
+    /**
+     * Check if captcha verification is required on login
+     *
+     * @return true if enabled
+     */
+    public boolean isEnabled() {
+        return Boolean.TRUE.equals(rustDeskProperties.getSecurity().getCaptchaEnabled());
+    }
+
+    /**
+     * Issue a captcha
+     *
+     * @return captcha ID and PNG image
+     * @throws IllegalStateException if the pool is empty and no inline render slot is free
+     */
+    public IssuedCaptcha issue() {
+        RenderedCaptcha captcha = pool.poll();
+        if (captcha == null) {
+            poolMisses.increment();
+            if (!inlineRenders.tryAcquire()) {
+                log.warn("Captcha pool exhausted");
+                throw new IllegalStateException("Captcha temporarily unavailable");
+            }
+            try {
+                captcha = render();
+            } finally {
+                inlineRenders.release();
+            }
+        }
+
+        String id = UUID.randomUUID().toString().replace("-", "");
+        storeAnswer(id, captcha.text());
+        return new IssuedCaptcha(id, captcha.png());
+    }
+
+    /**
+     * Verify a captcha answer
+     * The captcha is consumed whether or not the answer is correct.
+     *
+     * @param id captcha ID
+     * @param answer user answer
+     * @return true if the answer matches
+     */
+    public boolean verify(String id, String answer) {
+        if (id == null || answer == null) {
+            return false;
+        }
+        String expected = takeAnswer(id);
+        return expected != null && expected.equalsIgnoreCase(answer.trim());
+    }
+
+    private void storeAnswer(String id, String text) {
+        if (STORE_REDIS.equalsIgnoreCase(rustDeskProperties.getCaptcha().getStore())) {
+            redisTemplateProvider.getObject().opsForValue().set(Constants.CACHE_CAPTCHA_PREFIX + id, text,
+                    Duration.ofSeconds(Constants.CAPTCHA_EXPIRATION));
+        } else {
+            memoryStore.put(id, text);
+        }
+    }
+
+    private String takeAnswer(String id) {
+        if (STORE_REDIS.equalsIgnoreCase(rustDeskProperties.getCaptcha().getStore())) {
+            return redisTemplateProvider.getObject().opsForValue().getAndDelete(Constants.CACHE_CAPTCHA_PREFIX + id);
+        }
+        String text = memoryStore.getIfPresent(id);
+        memoryStore.invalidate(id);
+        return text;
+    }
+
+    /**
+     * Render captchas until interrupted, blocking while the pool is full
+     */
+    private void fillPool() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                pool.put(render());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.error("Failed to render captcha", e);
+            }
+        }
+    }
+
+    private RenderedCaptcha render() {
+        String text = kaptcha.createText();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        try {
+            ImageIO.write(kaptcha.createImage(text), "png", out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new RenderedCaptcha(text, out.toByteArray());
+    }
+
+    /**
+     * Captcha handed out to a client
+     *
+     * @param id captcha ID to send back with the answer
+     * @param png PNG image
+     */
+    public record IssuedCaptcha(String id, byte[] png) {
+
+        /**
+         * Get the image as a data URL
+         *
+         * @return data URL of the PNG image
+         */
+        public String dataUrl() {
+            return "data:image/png;base64," + Base64.getEncoder().encodeToString(png);
+        }
+    }
+
+    /**
+     * Pre-rendered captcha waiting in the pool
+     */
+    private record RenderedCaptcha(String text, byte[] png) {
+    }
+}
@@ -0,0 +1,303 @@
+package com.rustdesk.api.service;
+
+import com.rustdesk.api.constant.Constants;
+import com.rustdesk.api.entity.AddressBookCollection;
+import com.rustdesk.api.entity.AddressBookCollectionRule;
+import com.rustdesk.api.entity.User;
+import com.rustdesk.api.repository.AddressBookCollectionRepository;
+import com.rustdesk.api.repository.AddressBookCollectionRuleRepository;
+import com.rustdesk.api.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collection Access Service
+ * Resolves the effective permission of a user on shared address book collections.
+ * <p>
+ * Collection owners and sharing rules are held in an immutable snapshot indexed by
+ * target user and target group. For each user that is checked, the rules of the
+ * user, of the user's group and of that group's ancestors are folded once into a
+ * map of collection ID to the highest permission, so every later check is one map
+ * lookup. Rule and collection writes reload the snapshot and drop the maps of the
+ * users and groups they target; a group assignment drops that user's map; a change
+ * of the group tree is detected through the hierarchy generation.
+ * </p>
+ *
+ * @author RustDesk API Team
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CollectionAccessService {
+
+    private final AddressBookCollectionRepository addressBookCollectionRepository;
+    private final AddressBookCollectionRuleRepository addressBookCollectionRuleRepository;
+    private final UserRepository userRepository;
+    private final GroupHierarchyService groupHierarchyService;
+
+    /**
+     * Current rule snapshot, null when it has to be reloaded
+     */
+    private volatile Rules rules;
+
+    /**
+     * Materialized permissions by user ID
+     */
+    private final Map<Long, Effective> effective = new ConcurrentHashMap<>();
+
+    /**
+     * Users whose materialized permissions depend on a group, by group ID
+     */
+    private final Map<Long, Set<Long>> groupDependents = new ConcurrentHashMap<>();
+
+    /**
+     * Bumped on every invalidation so a materialization that raced with a write is not cached
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Get the permission of a user on a collection
+     *
+     * @param userId user ID
+     * @param collectionId collection ID
+     * @return one of the {@code Constants.PERMISSION_*} values
+     */
+    public int getPermission(Long userId, Long collectionId) {
+        if (userId == null || collectionId == null) {
+            return Constants.PERMISSION_NONE;
+        }
+        return permissions(userId).getOrDefault(collectionId, Constants.PERMISSION_NONE);
+    }
+
+    /**
+     * Check if a user may read a collection
+     *
+     * @param userId user ID
+     * @param collectionId collection ID
+     * @return true if the user owns the collection or has at least read permission
+     */
+    public boolean canRead(Long userId, Long collectionId) {
+        return getPermission(userId, collectionId) >= Constants.PERMISSION_READ;
+    }
+
+    /**
+     * Check if a user may modify the entries of a collection
+     *
+     * @param userId user ID
+     * @param collectionId collection ID
+     * @return true if the user owns the collection or has at least read-write permission
+     */
+    public boolean canWrite(Long userId, Long collectionId) {
+        return getPermission(userId, collectionId) >= Constants.PERMISSION_READ_WRITE;
+    }
+
+    /**
+     * Get all collections a user can access
+     *
+     * @param userId user ID
+     * @return unmodifiable map of collection ID to permission
+     */
+    public Map<Long, Integer> getAccessibleCollections(Long userId) {
+        return permissions(userId);
+    }
+
+    /**
+     * Get the owner of a collection
+     *
+     * @param collectionId collection ID
+     * @return Optional owner user ID
+     */
+    public Optional<Long> getOwnerId(Long collectionId) {
+        return Optional.ofNullable(rules().owners().get(collectionId));
+    }
+
+    /**
+     * Reload the rule snapshot and drop the permissions of the given targets once the
+     * current transaction commits
+     *
+     * @param userIds affected users
+     * @param groupIds affected groups, including their whole subtrees
+     */
+    public void rulesChanged(Collection<Long> userIds, Collection<Long> groupIds) {
+        List<Long> users = List.copyOf(userIds);
+        List<Long> groups = List.copyOf(groupIds);
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            rules = null;
+            users.forEach(effective::remove);
+            for (Long groupId : groups) {
+                Set<Long> dependents = groupDependents.remove(groupId);
+                if (dependents != null) {
+                    dependents.forEach(effective::remove);
+                }
+            }
+        });
+    }
+
+    /**
+     * Drop the permissions of a user once the current transaction commits
+     * Used when the user's group assignment changes or the user is removed.
+     *
+     * @param userId user ID
+     */
+    public void userChanged(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            effective.remove(userId);
+        });
+    }
+
+    /**
+     * Drop everything once the current transaction commits
+     * Used after bulk removals whose targets are not known.
+     */
+    public void invalidateAll() {
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            rules = null;
+            effective.clear();
+            groupDependents.clear();
+        });
+    }
+
+    private Map<Long, Integer> permissions(Long userId) {
+        long hierarchyGeneration = groupHierarchyService.getGeneration();
+        Effective cached = effective.get(userId);
+        if (cached != null && cached.hierarchyGeneration() == hierarchyGeneration) {
+            return cached.permissions();
+        }
+
+        long gen = generation.get();
+        Rules snapshot = rules();
+        Long groupId = userRepository.findById(userId).map(User::getGroupId).orElse(null);
+        List<Long> groups = new ArrayList<>();
+        if (groupId != null) {
+            groups.add(groupId);
+            groups.addAll(groupHierarchyService.getAncestorIds(groupId));
+        }
+
+        Map<Long, Integer> permissions = new HashMap<>();
+        snapshot.ownedBy().getOrDefault(userId, List.of())
+                .forEach(collectionId -> permissions.put(collectionId, Constants.PERMISSION_FULL));
+        snapshot.byUser().getOrDefault(userId, Map.of()).forEach((collectionId, rule) -> permissions.merge(collectionId, rule, Math::max));
+        for (Long group : groups) {
+            snapshot.byGroup().getOrDefault(group, Map.of()).forEach((collectionId, rule) -> permissions.merge(collectionId, rule, Math::max));
+        }
+        Map<Long, Integer> result = Collections.unmodifiableMap(permissions);
+
+        // Register dependencies before publishing so a concurrent group invalidation cannot miss this user
+        for (Long group : groups) {
+            groupDependents.computeIfAbsent(group, k -> ConcurrentHashMap.newKeySet()).add(userId);
+        }
+        if (generation.get() == gen && groupHierarchyService.getGeneration() == hierarchyGeneration) {
+            effective.put(userId, new Effective(result, hierarchyGeneration));
+            if (generation.get() != gen) {
+                // An invalidation committed while publishing, it may have missed this entry
+                effective.remove(userId);
+            }
+        }
+        return result;
+    }
+
+    private Rules rules() {
+        Rules current = rules;
+        if (current == null) {
+            synchronized (this) {
+                current = rules;
+                if (current == null) {
+                    long gen = generation.get();
+                    current = load();
+                    if (generation.get() == gen) {
+                        rules = current;
+                    }
+                }
+            }
+        }
+        return current;
+    }
+
+    private Rules load() {
+        Map<Long, Long> owners = new HashMap<>();
+        Map<Long, List<Long>> ownedBy = new HashMap<>();
+        for (AddressBookCollection collection : addressBookCollectionRepository.findAll()) {
+            owners.put(collection.getId(), collection.getUserId());
+            ownedBy.computeIfAbsent(collection.getUserId(), k -> new ArrayList<>()).add(collection.getId());
+        }
+
+        Map<Long, Map<Long, Integer>> byUser = new HashMap<>();
+        Map<Long, Map<Long, Integer>> byGroup = new HashMap<>();
+        int count = 0;
+        for (AddressBookCollectionRule rule : addressBookCollectionRuleRepository.findAll()) {
+            // Rules of deleted collections grant nothing
+            if (!owners.containsKey(rule.getCollectionId())) {
+                continue;
+            }
+            Map<Long, Map<Long, Integer>> target = Constants.RULE_TYPE_USER.equals(rule.getType()) ? byUser
+                    : Constants.RULE_TYPE_GROUP.equals(rule.getType()) ? byGroup : null;
+            if (target == null) {
+                log.warn("Ignoring collection rule {} with unknown type {}", rule.getId(), rule.getType());
+                continue;
+            }
+            target.computeIfAbsent(rule.getToId(), k -> new HashMap<>()).merge(rule.getCollectionId(), rule.getRule(), Math::max);
+            count++;
+        }
+        log.debug("Collection rules loaded: {} collections, {} rules", owners.size(), count);
+        return new Rules(owners, ownedBy, byUser, byGroup);
+    }
+
+    /**
+     * Run an action after the current transaction commits, or immediately without one
+     *
+     * @param action action to run
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Rule snapshot
+     *
+     * @param owners owner user ID by collection ID
+     * @param ownedBy collection IDs by owner user ID
+     * @param byUser permission by collection ID, by target user ID
+     * @param byGroup permission by collection ID, by target group ID
+     */
+    private record Rules(Map<Long, Long> owners, Map<Long, List<Long>> ownedBy,
+                         Map<Long, Map<Long, Integer>> byUser, Map<Long, Map<Long, Integer>> byGroup) {
+    }
+
+    /**
+     * Materialized permissions of one user
+     *
+     * @param permissions permission by collection ID
+     * @param hierarchyGeneration group hierarchy generation they were computed with
+     */
+    private record Effective(Map<Long, Integer> permissions, long hierarchyGeneration) {
+    }
+}
@@ -0,0 +1,135 @@
+package com.rustdesk.api.service;
+
+import com.rustdesk.api.entity.Group;
+import com.rustdesk.api.repository.GroupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Group Hierarchy Service
+ * In-memory snapshot of the group tree for ancestor lookups.
+ * <p>
+ * The snapshot is an immutable map of group ID to parent ID and depth, built
+ * from one query and replaced as a whole after any group write commits.
+ * Readers never lock; an ancestor lookup walks parent links and therefore costs
+ * O(depth) map lookups.
+ * </p>
+ *
+ * @author RustDesk API Team
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GroupHierarchyService {
+
+    private final GroupRepository groupRepository;
+
+    /**
+     * Current snapshot, null when it has to be reloaded
+     */
+    private volatile Map<Long, Node> snapshot;
+
+    /**
+     * Bumped on every invalidation so a load that raced with a write is not cached
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Get the ancestors of a group, nearest first
+     *
+     * @param groupId group ID
+     * @return ancestor group IDs, empty for a root or unknown group
+     */
+    public List<Long> getAncestorIds(Long groupId) {
+        Map<Long, Node> nodes = nodes();
+        Node node = groupId != null ? nodes.get(groupId) : null;
+        if (node == null) {
+            return Collections.emptyList();
+        }
+        List<Long> ancestors = new ArrayList<>(node.depth());
+        while (node.parentId() != null && (node = nodes.get(node.parentId())) != null) {
+            ancestors.add(node.id());
+        }
+        return ancestors;
+    }
+
+    /**
+     * Get the hierarchy generation
+     * Changes whenever the group tree may have changed, so callers can tag data derived from it.
+     *
+     * @return current generation
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Drop the snapshot once the current transaction commits
+     * The next read rebuilds it from the database.
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clear();
+                }
+            });
+        } else {
+            clear();
+        }
+    }
+
+    private void clear() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    /**
+     * Get the snapshot, rebuilding it if necessary
+     *
+     * @return map of group ID to node
+     */
+    private Map<Long, Node> nodes() {
+        Map<Long, Node> current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    long gen = generation.get();
+                    current = load();
+                    if (generation.get() == gen) {
+                        snapshot = current;
+                    }
+                }
+            }
+        }
+        return current;
+    }
+
+    private Map<Long, Node> load() {
+        List<Group> groups = groupRepository.findAll();
+        Map<Long, Node> nodes = new HashMap<>(groups.size() * 2);
+        for (Group group : groups) {
+            nodes.put(group.getId(), new Node(group.getId(), group.getParentId(), group.getDepth()));
+        }
+        log.debug("Group hierarchy loaded: {} groups", nodes.size());
+        return Collections.unmodifiableMap(nodes);
+    }
+
+    /**
+     * Group tree node
+     */
+    private record Node(Long id, Long parentId, int depth) {
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
@@ -22,6 +23,8 @@ import java.util.Optional;
 public class GroupService {
 
     private final GroupRepository groupRepository;
+    private final GroupStatsService groupStatsService;
+    private final GroupHierarchyService groupHierarchyService;
 
     /**
      * Find all groups
@@ -70,12 +73,25 @@ public class GroupService {
         return groupRepository.findByType(type);
     }
 
+    /**
+     * Find a group and all of its descendants, ordered by path
+     *
+     * @param group subtree root
+     * @return list of groups in the subtree
+     */
+    @Transactional(readOnly = true)
+    public List<Group> findSubtree(Group group) {
+        log.debug("Finding subtree of group: {}", group.getId());
+        return groupRepository.findByPathRange(group.getPath(), subtreeEnd(group.getPath()));
+    }
+
     /**
      * Create a new group
+     * When a parent ID is set the group is created below that parent.
      *
      * @param group group entity
      * @return created group
-     * @throws IllegalArgumentException if group name already exists
+     * @throws IllegalArgumentException if group name already exists or parent not found
      */
     @Transactional
     public Group createGroup(Group group) {
@@ -88,13 +104,70 @@ public class GroupService {
             throw new IllegalArgumentException("Group name already exists: " + group.getName());
         }
 
+        Group parent = null;
+        if (group.getParentId() != null) {
+            parent = groupRepository.findById(group.getParentId())
+                    .orElseThrow(() -> new IllegalArgumentException("Parent group not found with id: " + group.getParentId()));
+        }
+
+        // The path contains the group's own ID, so it is set once the ID is generated
+        group.setPath("");
+        group.setDepth(parent != null ? parent.getDepth() + 1 : 0);
         Group saved = groupRepository.save(group);
+        saved.setPath((parent != null ? parent.getPath() : "/") + saved.getId() + "/");
+        saved = groupRepository.save(saved);
+
+        groupHierarchyService.invalidate();
         log.info("Group created with id: {}", saved.getId());
         return saved;
     }
 
+    /**
+     * Move a group and its whole subtree under a new parent
+     * All descendant paths are rewritten with a single update statement.
+     *
+     * @param id group ID
+     * @param parentId new parent group ID, null to make the group a root
+     * @return moved group
+     * @throws IllegalArgumentException if a group is not found or the move would create a cycle
+     */
+    @Transactional
+    public Group moveGroup(Long id, Long parentId) {
+        log.info("Moving group {} under parent {}", id, parentId);
+
+        Group group = groupRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Group not found with id: " + id));
+        if (Objects.equals(group.getParentId(), parentId)) {
+            return group;
+        }
+
+        String newPath = "/" + id + "/";
+        int newDepth = 0;
+        if (parentId != null) {
+            Group parent = groupRepository.findById(parentId)
+                    .orElseThrow(() -> new IllegalArgumentException("Parent group not found with id: " + parentId));
+            if (parent.getPath().startsWith(group.getPath())) {
+                log.warn("Cannot move group {} below its own subtree", id);
+                throw new IllegalArgumentException("Cannot move a group below itself or one of its descendants");
+            }
+            newPath = parent.getPath() + id + "/";
+            newDepth = parent.getDepth() + 1;
+        }
+
+        String oldPath = group.getPath();
+        group.setParentId(parentId);
+        groupRepository.save(group);
+        int moved = groupRepository.movePathRange(oldPath, subtreeEnd(oldPath), oldPath.length(),
+                newPath, newDepth - group.getDepth());
+
+        groupHierarchyService.invalidate();
+        log.info("Group {} moved, {} groups updated", id, moved);
+        return groupRepository.findById(id).orElseThrow();
+    }
+
     /**
      * Update an existing group
+     * Does not change the position in the hierarchy. Use moveGroup() for that.
      *
      * @param group group entity with updated information
      * @return updated group
@@ -136,8 +209,14 @@ public class GroupService {
             log.warn("Group not found with id: {}", id);
             throw new IllegalArgumentException("Group not found with id: " + id);
         }
+        if (groupRepository.existsByParentId(id)) {
+            log.warn("Group has child groups: {}", id);
+            throw new IllegalArgumentException("Group has child groups: " + id);
+        }
 
         groupRepository.deleteById(id);
+        groupHierarchyService.invalidate();
+        groupStatsService.groupRemoved(id);
         log.info("Group deleted successfully: {}", id);
     }
 
@@ -185,8 +264,18 @@ public class GroupService {
         group.setName(name);
         group.setType(type);
 
-        Group saved = groupRepository.save(group);
-        log.info("New group created: {} with id: {}", name, saved.getId());
-        return saved;
+        return createGroup(group);
+    }
+
+    /**
+     * Get the exclusive upper bound of a subtree path range
+     * Every path in the subtree of {@code path} sorts in [path, subtreeEnd(path)),
+     * because the trailing '/' is replaced by the next character, '0'.
+     *
+     * @param path subtree root path, ending with '/'
+     * @return exclusive upper bound
+     */
+    public static String subtreeEnd(String path) {
+        return path.substring(0, path.length() - 1) + '0';
     }
 }
@@ -0,0 +1,188 @@
+package com.rustdesk.api.service;
+
+import com.rustdesk.api.repository.PeerRepository;
+import com.rustdesk.api.repository.UserRepository;
+import com.rustdesk.api.repository.projection.GroupCount;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Group Stats Service
+ * Keeps per-group user and device counts in memory so the group list does not
+ * have to count rows on every request.
+ * <p>
+ * Counts are loaded with one GROUP BY query per table on first use and then
+ * maintained incrementally by the user and peer write paths. Increments are only
+ * applied after the surrounding transaction commits, so rolled back writes never
+ * show up. A periodic reconcile reloads the counts from the database to repair
+ * any drift from writes that bypass the services.
+ * </p>
+ *
+ * @author RustDesk API Team
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GroupStatsService {
+
+    private final UserRepository userRepository;
+    private final PeerRepository peerRepository;
+
+    /**
+     * Current counts, null until first loaded
+     */
+    private volatile Counts counts;
+
+    /**
+     * Get the number of users in a group
+     *
+     * @param groupId group ID
+     * @return user count
+     */
+    public long getUserCount(Long groupId) {
+        return get(loadedCounts().users(), groupId);
+    }
+
+    /**
+     * Get the number of peers in a group
+     *
+     * @param groupId group ID
+     * @return peer count
+     */
+    public long getPeerCount(Long groupId) {
+        return get(loadedCounts().peers(), groupId);
+    }
+
+    /**
+     * Record a user moving between groups
+     * Use null for {@code from} when the user is created and for {@code to} when it is deleted.
+     *
+     * @param from previous group ID
+     * @param to new group ID
+     */
+    public void userMoved(Long from, Long to) {
+        if (!Objects.equals(from, to)) {
+            afterCommit(() -> move(counts != null ? counts.users() : null, from, to));
+        }
+    }
+
+    /**
+     * Record a peer moving between groups
+     * Use null for {@code from} when the peer is created and for {@code to} when it is deleted.
+     *
+     * @param from previous group ID
+     * @param to new group ID
+     */
+    public void peerMoved(Long from, Long to) {
+        if (!Objects.equals(from, to)) {
+            afterCommit(() -> move(counts != null ? counts.peers() : null, from, to));
+        }
+    }
+
+    /**
+     * Forget the counts of a deleted group
+     *
+     * @param groupId group ID
+     */
+    public void groupRemoved(Long groupId) {
+        afterCommit(() -> {
+            Counts current = counts;
+            if (current != null) {
+                current.users().remove(groupId);
+                current.peers().remove(groupId);
+            }
+        });
+    }
+
+    /**
+     * Reload all counts from the database
+     * Runs periodically to repair drift; the first load happens lazily on first read.
+     */
+    @Scheduled(initialDelayString = "${rustdesk.group-stats.reconcile-interval:600000}",
+            fixedDelayString = "${rustdesk.group-stats.reconcile-interval:600000}")
+    @Transactional(readOnly = true)
+    public void reconcile() {
+        Counts fresh = new Counts(toMap(userRepository.countByGroup()), toMap(peerRepository.countByGroup()));
+        counts = fresh;
+        log.debug("Group stats reloaded: {} user groups, {} peer groups", fresh.users().size(), fresh.peers().size());
+    }
+
+    /**
+     * Get the counts, loading them on first use
+     *
+     * @return current counts
+     */
+    private Counts loadedCounts() {
+        Counts current = counts;
+        if (current == null) {
+            synchronized (this) {
+                if (counts == null) {
+                    reconcile();
+                }
+                current = counts;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Run an action after the current transaction commits, or immediately without one
+     *
+     * @param action action to run
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static void move(Map<Long, AtomicLong> map, Long from, Long to) {
+        // Not loaded yet: the first load will read the committed state
+        if (map == null) {
+            return;
+        }
+        if (from != null) {
+            map.computeIfAbsent(from, k -> new AtomicLong()).decrementAndGet();
+        }
+        if (to != null) {
+            map.computeIfAbsent(to, k -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    private static long get(Map<Long, AtomicLong> map, Long groupId) {
+        AtomicLong count = groupId != null ? map.get(groupId) : null;
+        return count != null ? Math.max(count.get(), 0L) : 0L;
+    }
+
+    private static Map<Long, AtomicLong> toMap(List<GroupCount> rows) {
+        Map<Long, AtomicLong> map = new ConcurrentHashMap<>();
+        for (GroupCount row : rows) {
+            map.put(row.getGroupId(), new AtomicLong(row.getTotal()));
+        }
+        return map;
+    }
+
+    /**
+     * Immutable pair of count maps, swapped as a whole on reload
+     */
+    private record Counts(Map<Long, AtomicLong> users, Map<Long, AtomicLong> peers) {
+    }
+}
@@ -26,6 +26,7 @@ public class InitializationService {
 
     private final UserRepository userRepository;
     private final GroupRepository groupRepository;
+    private final GroupService groupService;
 
     private static final String DEFAULT_ADMIN_USERNAME = "admin";
     private static final String DEFAULT_ADMIN_PASSWORD = "admin@123";
@@ -72,7 +73,7 @@ public class InitializationService {
             defaultGroup.setName(DEFAULT_GROUP_NAME);
             defaultGroup.setType(DEFAULT_GROUP_TYPE);
 
-            Group saved = groupRepository.save(defaultGroup);
+            Group saved = groupService.createGroup(defaultGroup);
             log.info("Default group created with id: {}", saved.getId());
         } else {
             log.info("Default group already exists with id: {}", defaultGroupOpt.get().getId());
@@ -175,7 +176,7 @@ public class InitializationService {
         group.setName(name);
         group.setType(type);
 
-        Group saved = groupRepository.save(group);
+        Group saved = groupService.createGroup(group);
         log.info("Custom group created with id: {}", saved.getId());
         return saved;
     }
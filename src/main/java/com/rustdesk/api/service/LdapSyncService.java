@@ -0,0 +1,571 @@
+package com.rustdesk.api.service;
+
+import com.rustdesk.api.config.properties.RustDeskProperties;
+import com.rustdesk.api.constant.Constants;
+import com.rustdesk.api.entity.LdapSyncState;
+import com.rustdesk.api.entity.User;
+import com.rustdesk.api.repository.LdapSyncStateRepository;
+import com.rustdesk.api.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.naming.AuthenticationException;
+import javax.naming.Context;
+import javax.naming.NamingEnumeration;
+import javax.naming.NamingException;
+import javax.naming.directory.Attribute;
+import javax.naming.directory.Attributes;
+import javax.naming.directory.SearchControls;
+import javax.naming.directory.SearchResult;
+import javax.naming.ldap.Control;
+import javax.naming.ldap.InitialLdapContext;
+import javax.naming.ldap.LdapContext;
+import javax.naming.ldap.PagedResultsControl;
+import javax.naming.ldap.PagedResultsResponseControl;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * LDAP Sync Service
+ * Synchronizes directory users into the local users table.
+ * <p>
+ * Entries are read with the paged-results control, so a large directory never
+ * has to fit in one response. Every page is diffed against the matching local
+ * users (one IN query per page) and only the users that actually changed are
+ * written, one transaction per page.
+ * </p>
+ * <p>
+ * Incremental passes only ask for entries whose change attribute
+ * (modifyTimestamp, or uSNChanged on Active Directory) is at or above the
+ * watermark of the last successful pass. Deleted entries are invisible to such
+ * a filter, so a periodic full pass additionally disables LDAP-managed users
+ * that are no longer returned by the directory.
+ * </p>
+ * <p>
+ * Entries are matched to local users by DN, then by username. A username that
+ * belongs to a local account not created by the sync is reported as a conflict
+ * and left alone. Synced users have no local password and log in by binding to
+ * the directory with their DN.
+ * </p>
+ *
+ * @author RustDesk API Team
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LdapSyncService {
+
+    /**
+     * Password stored for LDAP users; never matches a BCrypt or MD5 hash check,
+     * they authenticate by binding to the directory instead
+     */
+    private static final String PASSWORD_PLACEHOLDER = "!ldap";
+
+    /**
+     * Active Directory userAccountControl ACCOUNTDISABLE flag
+     */
+    private static final int UF_ACCOUNTDISABLE = 0x2;
+
+    private static final String MEMBER_OF_ATTR = "memberOf";
+
+    private final UserRepository userRepository;
+    private final LdapSyncStateRepository ldapSyncStateRepository;
+    private final UserVersionService userVersionService;
+    private final RustDeskProperties rustDeskProperties;
+    private final PlatformTransactionManager transactionManager;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * Run a synchronization pass on schedule when LDAP sync is enabled
+     */
+    @Scheduled(initialDelayString = "${rustdesk.ldap.sync-interval:900000}",
+            fixedDelayString = "${rustdesk.ldap.sync-interval:900000}")
+    public void scheduledSync() {
+        RustDeskProperties.Ldap ldap = rustDeskProperties.getLdap();
+        if (!Boolean.TRUE.equals(ldap.getEnabled()) || !Boolean.TRUE.equals(ldap.getSync())) {
+            return;
+        }
+        try {
+            sync(false);
+        } catch (Exception e) {
+            log.error("Scheduled LDAP sync failed", e);
+        }
+    }
+
+    /**
+     * Get the state of the last synchronization pass
+     *
+     * @return Optional LdapSyncState
+     */
+    @Transactional(readOnly = true)
+    public Optional<LdapSyncState> getState() {
+        return ldapSyncStateRepository.findFirstByOrderByIdAsc();
+    }
+
+    /**
+     * Verify the password of a directory user by binding as that user
+     *
+     * @param dn distinguished name of the user
+     * @param password raw password
+     * @return true if the directory accepted the bind
+     */
+    public boolean authenticate(String dn, String password) {
+        RustDeskProperties.Ldap ldap = rustDeskProperties.getLdap();
+        // An empty password would be an unauthenticated bind, which most directories accept
+        if (!Boolean.TRUE.equals(ldap.getEnabled()) || StringUtils.isBlank(dn) || StringUtils.isEmpty(password)) {
+            return false;
+        }
+        Hashtable<String, String> env = environment(ldap);
+        env.put(Context.SECURITY_AUTHENTICATION, "simple");
+        env.put(Context.SECURITY_PRINCIPAL, dn);
+        env.put(Context.SECURITY_CREDENTIALS, password);
+        try {
+            new InitialLdapContext(env, null).close();
+            return true;
+        } catch (AuthenticationException e) {
+            log.debug("LDAP bind rejected for {}", dn);
+            return false;
+        } catch (NamingException e) {
+            log.error("LDAP bind failed for {}", dn, e);
+            return false;
+        }
+    }
+
+    /**
+     * Run a synchronization pass
+     * A full pass runs when forced, when there is no watermark yet, or when the
+     * full sync interval has elapsed; otherwise the pass is incremental.
+     *
+     * @param forceFull true to force a full pass
+     * @return updated sync state
+     * @throws IllegalStateException if LDAP is disabled, a pass is already running or the pass fails
+     */
+    public LdapSyncState sync(boolean forceFull) {
+        if (!Boolean.TRUE.equals(rustDeskProperties.getLdap().getEnabled())) {
+            throw new IllegalStateException("LDAP is not enabled");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("LDAP sync is already running");
+        }
+        try {
+            return doSync(forceFull);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private LdapSyncState doSync(boolean forceFull) {
+        RustDeskProperties.Ldap ldap = rustDeskProperties.getLdap();
+        LdapSyncState state = ldapSyncStateRepository.findFirstByOrderByIdAsc().orElseGet(LdapSyncState::new);
+        LocalDateTime startedAt = LocalDateTime.now();
+
+        boolean full = forceFull
+                || state.getWatermark() == null
+                || state.getLastFullSyncAt() == null
+                || state.getLastFullSyncAt().plus(Duration.ofMillis(ldap.getFullSyncInterval())).isBefore(startedAt);
+        log.info("Starting {} LDAP sync{}", full ? "full" : "incremental",
+                full ? "" : " from watermark " + state.getWatermark());
+
+        SyncResult result = new SyncResult();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        try {
+            search(buildFilter(full ? null : state.getWatermark()),
+                    page -> tx.executeWithoutResult(status -> applyPage(page, result)));
+            if (full) {
+                tx.executeWithoutResult(status -> disableMissing(result));
+            }
+        } catch (NamingException | IOException | RuntimeException e) {
+            log.error("LDAP sync failed after {} created, {} updated", result.created, result.updated, e);
+            state.setLastError(StringUtils.truncate(e.toString(), 1000));
+            ldapSyncStateRepository.save(state);
+            throw new IllegalStateException("LDAP sync failed: " + e.getMessage(), e);
+        }
+
+        if (result.watermark != null) {
+            state.setWatermark(result.watermark);
+        }
+        state.setLastSyncAt(startedAt);
+        if (full) {
+            state.setLastFullSyncAt(startedAt);
+        }
+        state.setLastCreated(result.created);
+        state.setLastUpdated(result.updated);
+        state.setLastDisabled(result.disabled);
+        state.setLastConflicts(result.conflicts);
+        state.setLastError(null);
+        LdapSyncState saved = ldapSyncStateRepository.save(state);
+
+        log.info("LDAP sync finished: {} created, {} updated, {} disabled, {} conflicts",
+                result.created, result.updated, result.disabled, result.conflicts);
+        return saved;
+    }
+
+    /**
+     * Diff one page of entries against local users and write the changes
+     *
+     * @param page directory entries
+     * @param result running result
+     */
+    private void applyPage(List<LdapEntry> page, SyncResult result) {
+        Map<String, User> byDn = userRepository.findByLdapDnIn(
+                        page.stream().map(LdapEntry::dn).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(User::getLdapDn, Function.identity(), (a, b) -> a));
+        Map<String, User> byUsername = userRepository.findByUsernameIn(
+                        page.stream().filter(entry -> !byDn.containsKey(entry.dn()))
+                                .map(LdapEntry::username).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(User::getUsername, Function.identity(), (a, b) -> a, HashMap::new));
+
+        // DN that each local username was matched to in this page
+        Map<String, String> claimed = new HashMap<>();
+        List<User> changed = new ArrayList<>();
+        for (LdapEntry entry : page) {
+            result.advance(entry);
+
+            // Renamed entries keep their DN, moved entries keep their username
+            User user = byDn.get(entry.dn());
+            if (user == null) {
+                user = byUsername.get(entry.username());
+            }
+            if (user == null && !entry.enabled()) {
+                // Accounts that are disabled in the directory are not imported
+                continue;
+            }
+            String claimant = claimed.putIfAbsent(user != null ? user.getUsername() : entry.username(), entry.dn());
+            if (claimant != null && !claimant.equals(entry.dn())) {
+                // Same username under several DNs, the first one wins
+                log.warn("LDAP entry {} has the same username as {}, skipped", entry.dn(), claimant);
+                result.conflicts++;
+                continue;
+            }
+            if (user == null) {
+                user = new User();
+                user.setUsername(entry.username());
+                user.setPassword(PASSWORD_PLACEHOLDER);
+                user.setIsAdmin(Boolean.TRUE.equals(entry.admin()));
+                user.setStatus(Constants.STATUS_ENABLE);
+                apply(user, entry);
+                changed.add(user);
+                byUsername.put(user.getUsername(), user);
+                result.created++;
+            } else if (user.getLdapDn() == null) {
+                // Local accounts, the built-in admin included, are never taken over by the directory
+                log.warn("LDAP entry {} conflicts with local user {}, skipped", entry.dn(), user.getUsername());
+                result.conflicts++;
+            } else {
+                result.seen.add(user.getId());
+                if (!Constants.STATUS_DELETING.equals(user.getStatus()) && apply(user, entry)) {
+                    changed.add(user);
+                    result.updated++;
+                }
+            }
+        }
+
+        if (!changed.isEmpty()) {
+            List<Long> ids = userRepository.saveAll(changed).stream().map(User::getId).toList();
+            result.seen.addAll(ids);
+            userVersionService.bump(ids);
+        }
+        log.debug("LDAP page applied: {} entries, {} written", page.size(), changed.size());
+    }
+
+    /**
+     * Copy directory attributes onto a user
+     *
+     * @param user local user
+     * @param entry directory entry
+     * @return true if the user changed
+     */
+    private boolean apply(User user, LdapEntry entry) {
+        boolean changed = false;
+        if (!Objects.equals(user.getLdapDn(), entry.dn())) {
+            user.setLdapDn(entry.dn());
+            changed = true;
+        }
+        if (entry.email() != null && !entry.email().equals(user.getEmail())) {
+            user.setEmail(entry.email());
+            changed = true;
+        }
+        if (entry.nickname() != null && !entry.nickname().equals(user.getNickname())) {
+            user.setNickname(entry.nickname());
+            changed = true;
+        }
+        if (entry.admin() != null && !entry.admin().equals(user.getIsAdmin())) {
+            user.setIsAdmin(entry.admin());
+            changed = true;
+        }
+        Integer status = entry.enabled() ? Constants.STATUS_ENABLE : Constants.STATUS_DISABLED;
+        if (!status.equals(user.getStatus())) {
+            user.setStatus(status);
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * Disable enabled LDAP users that were not returned by a full pass
+     *
+     * @param result result of the full pass
+     */
+    private void disableMissing(SyncResult result) {
+        List<Long> missing = userRepository.findByLdapDnIsNotNullAndStatus(Constants.STATUS_ENABLE).stream()
+                .filter(user -> !result.seen.contains(user.getId()))
+                .map(User::getId)
+                .toList();
+
+        int chunkSize = rustDeskProperties.getLdap().getPageSize();
+        for (int i = 0; i < missing.size(); i += chunkSize) {
+            List<Long> chunk = missing.subList(i, Math.min(i + chunkSize, missing.size()));
+            result.disabled += userRepository.updateStatusByIdIn(chunk, Constants.STATUS_DISABLED);
+            userVersionService.bump(chunk);
+        }
+        if (!missing.isEmpty()) {
+            log.info("Disabled {} LDAP users missing from the directory", missing.size());
+        }
+    }
+
+    /**
+     * Run a paged search and hand every page to the consumer
+     *
+     * @param filter search filter
+     * @param pageHandler page consumer
+     * @throws NamingException if the search fails
+     * @throws IOException if the paged-results control cannot be encoded
+     */
+    private void search(String filter, Consumer<List<LdapEntry>> pageHandler)
+            throws NamingException, IOException {
+        RustDeskProperties.Ldap ldap = rustDeskProperties.getLdap();
+        String base = StringUtils.defaultIfBlank(ldap.getUserBaseDn(), ldap.getBaseDn());
+
+        SearchControls controls = new SearchControls();
+        controls.setSearchScope(SearchControls.SUBTREE_SCOPE);
+        controls.setReturningAttributes(new String[]{
+                ldap.getUsernameAttr(), ldap.getEmailAttr(), ldap.getFirstNameAttr(), ldap.getLastNameAttr(),
+                ldap.getEnableAttr(), ldap.getChangeAttr(), MEMBER_OF_ATTR});
+
+        LdapContext ctx = new InitialLdapContext(environment(ldap), null);
+        try {
+            byte[] cookie = null;
+            do {
+                ctx.setRequestControls(new Control[]{
+                        new PagedResultsControl(ldap.getPageSize(), cookie, Control.CRITICAL)});
+
+                List<LdapEntry> page = new ArrayList<>(ldap.getPageSize());
+                NamingEnumeration<SearchResult> results = ctx.search(base, filter, controls);
+                try {
+                    while (results.hasMore()) {
+                        LdapEntry entry = toEntry(results.next(), ldap);
+                        if (entry != null) {
+                            page.add(entry);
+                        }
+                    }
+                } finally {
+                    results.close();
+                }
+                if (!page.isEmpty()) {
+                    pageHandler.accept(page);
+                }
+
+                cookie = null;
+                Control[] responseControls = ctx.getResponseControls();
+                if (responseControls != null) {
+                    for (Control control : responseControls) {
+                        if (control instanceof PagedResultsResponseControl paged) {
+                            cookie = paged.getCookie();
+                        }
+                    }
+                }
+            } while (cookie != null && cookie.length > 0);
+        } finally {
+            ctx.close();
+        }
+    }
+
+    private Hashtable<String, String> environment(RustDeskProperties.Ldap ldap) {
+        Hashtable<String, String> env = new Hashtable<>();
+        env.put(Context.INITIAL_CONTEXT_FACTORY, "com.sun.jndi.ldap.LdapCtxFactory");
+        env.put(Context.PROVIDER_URL, ldap.getUrl());
+        env.put(Context.REFERRAL, "ignore");
+        env.put("com.sun.jndi.ldap.connect.timeout", String.valueOf(ldap.getTimeout()));
+        env.put("com.sun.jndi.ldap.read.timeout", String.valueOf(ldap.getTimeout()));
+        if (StringUtils.isNotBlank(ldap.getBindDn())) {
+            env.put(Context.SECURITY_AUTHENTICATION, "simple");
+            env.put(Context.SECURITY_PRINCIPAL, ldap.getBindDn());
+            env.put(Context.SECURITY_CREDENTIALS, ldap.getBindPassword());
+        }
+        return env;
+    }
+
+    /**
+     * Build the search filter, restricted to changed entries for incremental passes
+     *
+     * @param watermark watermark of the last pass, null for a full pass
+     * @return LDAP filter
+     */
+    private String buildFilter(String watermark) {
+        RustDeskProperties.Ldap ldap = rustDeskProperties.getLdap();
+        String userFilter = ldap.getUserFilter().startsWith("(") ? ldap.getUserFilter() : "(" + ldap.getUserFilter() + ")";
+        if (watermark == null) {
+            return userFilter;
+        }
+        // >= rather than > so entries changed within the watermark's second are not missed
+        return "(&" + userFilter + "(" + ldap.getChangeAttr() + ">=" + escapeFilterValue(watermark) + "))";
+    }
+
+    /**
+     * Map a search result to an entry, skipping entries without a usable username
+     *
+     * @param result search result
+     * @param ldap LDAP configuration
+     * @return entry or null
+     * @throws NamingException if an attribute cannot be read
+     */
+    private LdapEntry toEntry(SearchResult result, RustDeskProperties.Ldap ldap) throws NamingException {
+        Attributes attrs = result.getAttributes();
+        String username = firstValue(attrs, ldap.getUsernameAttr());
+        if (username == null || username.length() < 3 || username.length() > 50) {
+            log.warn("Skipping LDAP entry with unusable username: {}", result.getNameInNamespace());
+            return null;
+        }
+
+        String email = firstValue(attrs, ldap.getEmailAttr());
+        if (email != null && email.length() > 100) {
+            email = null;
+        }
+        String nickname = StringUtils.trimToNull(StringUtils.joinWith(" ",
+                StringUtils.defaultString(firstValue(attrs, ldap.getFirstNameAttr())),
+                StringUtils.defaultString(firstValue(attrs, ldap.getLastNameAttr()))));
+
+        Set<String> memberOf = new HashSet<>();
+        Attribute memberOfAttr = attrs.get(MEMBER_OF_ATTR);
+        if (memberOfAttr != null) {
+            NamingEnumeration<?> values = memberOfAttr.getAll();
+            while (values.hasMore()) {
+                memberOf.add(values.next().toString().toLowerCase());
+            }
+        }
+
+        boolean enabled = isEnabled(firstValue(attrs, ldap.getEnableAttr()));
+        if (StringUtils.isNotBlank(ldap.getAllowGroup()) && !memberOf.contains(ldap.getAllowGroup().toLowerCase())) {
+            enabled = false;
+        }
+        Boolean admin = StringUtils.isNotBlank(ldap.getAdminGroup())
+                ? memberOf.contains(ldap.getAdminGroup().toLowerCase())
+                : null;
+
+        return new LdapEntry(result.getNameInNamespace(), username, email,
+                StringUtils.truncate(nickname, 100), enabled, admin, firstValue(attrs, ldap.getChangeAttr()));
+    }
+
+    /**
+     * Interpret the enable attribute
+     * Numeric values are treated as Active Directory userAccountControl flags,
+     * anything else as a boolean. A missing attribute means enabled.
+     *
+     * @param value attribute value
+     * @return true if the account is enabled
+     */
+    private static boolean isEnabled(String value) {
+        if (value == null) {
+            return true;
+        }
+        if (StringUtils.isNumeric(value)) {
+            return (Long.parseLong(value) & UF_ACCOUNTDISABLE) == 0;
+        }
+        return !"false".equalsIgnoreCase(value);
+    }
+
+    private static String firstValue(Attributes attrs, String name) throws NamingException {
+        if (StringUtils.isBlank(name)) {
+            return null;
+        }
+        Attribute attr = attrs.get(name);
+        Object value = attr != null ? attr.get() : null;
+        return value != null ? StringUtils.trimToNull(value.toString()) : null;
+    }
+
+    /**
+     * Escape a value for use in a search filter (RFC 4515)
+     *
+     * @param value raw value
+     * @return escaped value
+     */
+    private static String escapeFilterValue(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '\\' -> sb.append("\\5c");
+                case '*' -> sb.append("\\2a");
+                case '(' -> sb.append("\\28");
+                case ')' -> sb.append("\\29");
+                case '\0' -> sb.append("\\00");
+                default -> sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Compare two change attribute values
+     * uSNChanged values are compared numerically, modifyTimestamp values as strings
+     * (generalized time sorts lexicographically).
+     *
+     * @param a first value
+     * @param b second value
+     * @return negative, zero or positive like {@link Comparable#compareTo}
+     */
+    private static int compareChangeValues(String a, String b) {
+        if (StringUtils.isNumeric(a) && StringUtils.isNumeric(b)) {
+            return Long.compare(Long.parseLong(a), Long.parseLong(b));
+        }
+        return a.compareTo(b);
+    }
+
+    /**
+     * Directory entry reduced to the attributes we sync
+     */
+    private record LdapEntry(String dn, String username, String email, String nickname,
+                             boolean enabled, Boolean admin, String changeValue) {
+    }
+
+    /**
+     * Running counters and watermark of one pass
+     */
+    private static class SyncResult {
+        private final Set<Long> seen = new HashSet<>();
+        private String watermark;
+        private int created;
+        private int updated;
+        private int disabled;
+        private int conflicts;
+
+        void advance(LdapEntry entry) {
+            String value = entry.changeValue();
+            if (value != null && (watermark == null || compareChangeValues(value, watermark) > 0)) {
+                watermark = value;
+            }
+        }
+    }
+}
@@ -2,13 +2,17 @@ package com.rustdesk.api.service;
 
 import com.rustdesk.api.entity.LoginLog;
 import com.rustdesk.api.repository.LoginLogRepository;
+import com.rustdesk.api.util.SeekCursor;
+import com.rustdesk.api.util.SeekPage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,6 +27,11 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class LoginLogService {
 
+    /**
+     * Maximum number of IDs per bulk statement
+     */
+    private static final int DELETE_CHUNK_SIZE = 500;
+
     private final LoginLogRepository loginLogRepository;
 
     /**
@@ -69,16 +78,13 @@ public class LoginLogService {
     public LoginLog deleteLog(Long id) {
         log.info("Soft deleting login log: {}", id);
 
-        Optional<LoginLog> logOpt = loginLogRepository.findById(id);
-        if (logOpt.isEmpty()) {
+        // Past months may live in monthly tables, so update by ID instead of saving the entity
+        if (loginLogRepository.markDeletedByIdIn(List.of(id)) == 0) {
             log.warn("Login log not found with id: {}", id);
             throw new IllegalArgumentException("Login log not found with id: " + id);
         }
 
-        LoginLog loginLog = logOpt.get();
-        loginLog.setIsDeleted(true);
-
-        LoginLog saved = loginLogRepository.save(loginLog);
+        LoginLog saved = loginLogRepository.findById(id).orElseThrow();
         log.info("Login log soft deleted: {}", id);
         return saved;
     }
@@ -93,12 +99,11 @@ public class LoginLogService {
     public void hardDeleteLog(Long id) {
         log.info("Hard deleting login log: {}", id);
 
-        if (!loginLogRepository.existsById(id)) {
+        if (loginLogRepository.deleteByIdIn(List.of(id)) == 0) {
             log.warn("Login log not found with id: {}", id);
             throw new IllegalArgumentException("Login log not found with id: " + id);
         }
 
-        loginLogRepository.deleteById(id);
         log.info("Login log hard deleted: {}", id);
     }
 
@@ -117,6 +122,30 @@ public class LoginLogService {
         return loginLogRepository.findByIsDeleted(isDeletedInt, pageable);
     }
 
+    /**
+     * Get a page of login logs with keyset pagination, newest first
+     * Prefer this over {@link #findByIsDeleted} for deep paging, its cost does not grow with the page number.
+     *
+     * @param isDeleted deleted status
+     * @param userId user ID, null for any
+     * @param client client name, null for any
+     * @param type login type, null for any
+     * @param from inclusive start of the time range, null for unbounded
+     * @param to exclusive end of the time range, null for unbounded
+     * @param cursor cursor from the previous page, null for the first page
+     * @param limit page size
+     * @param withTotal whether to count all matching logs
+     * @return page of login logs
+     */
+    @Transactional(readOnly = true)
+    public SeekPage<LoginLog> findPage(Boolean isDeleted, Long userId, String client, String type, LocalDateTime from,
+                                       LocalDateTime to, String cursor, int limit, boolean withTotal) {
+        List<LoginLog> rows = loginLogRepository.findPage(isDeleted, userId, client, type, from, to,
+                SeekCursor.decode(cursor), limit + 1);
+        Long total = withTotal ? loginLogRepository.countPage(isDeleted, userId, client, type, from, to) : null;
+        return SeekPage.of(rows, limit, row -> new SeekCursor(row.getCreatedAt(), row.getId()), total);
+    }
+
     /**
      * Find login log by ID
      *
@@ -170,18 +199,21 @@ public class LoginLogService {
 
     /**
      * Delete all logs for a user
+     * Logs are soft deleted by ID in chunks with bulk updates, without loading them.
      *
      * @param userId user ID
+     * @return number of soft deleted logs
      */
     @Transactional
-    public void deleteByUserId(Long userId) {
+    public int deleteByUserId(Long userId) {
         log.info("Soft deleting all login logs for user: {}", userId);
-        List<LoginLog> logs = findByUserId(userId);
-        for (LoginLog log : logs) {
-            log.setIsDeleted(true);
+        int deleted = 0;
+        List<Long> ids;
+        while (!(ids = loginLogRepository.findActiveIdsByUserId(userId, PageRequest.of(0, DELETE_CHUNK_SIZE))).isEmpty()) {
+            deleted += loginLogRepository.markDeletedByIdIn(ids);
         }
-        loginLogRepository.saveAll(logs);
-        log.info("Soft deleted {} login logs for user: {}", logs.size(), userId);
+        log.info("Soft deleted {} login logs for user: {}", deleted, userId);
+        return deleted;
     }
 
     /**
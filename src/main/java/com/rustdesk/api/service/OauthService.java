@@ -0,0 +1,180 @@
+package com.rustdesk.api.service;
+
+import com.rustdesk.api.dto.response.OauthResponse;
+import com.rustdesk.api.entity.Oauth;
+import com.rustdesk.api.repository.OauthRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * OAuth Service
+ * Manages OAuth provider configurations and serves them from memory.
+ * <p>
+ * Provider configs live in an immutable registry of {@link OauthResponse}
+ * snapshots, which carry no client secret. The registry is swapped as a whole
+ * after an admin change commits and on a periodic refresh, so reads never hit
+ * the oauth table and callers cannot change the cached entries.
+ * </p>
+ *
+ * @author RustDesk API Team
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OauthService {
+
+    private final OauthRepository oauthRepository;
+
+    /**
+     * Current provider registry, replaced as a whole on refresh
+     */
+    private final AtomicReference<Map<String, OauthResponse>> providers = new AtomicReference<>(Collections.emptyMap());
+
+    @PostConstruct
+    public void init() {
+        refresh();
+    }
+
+    /**
+     * Find provider config by ID from the database
+     * Returns a fresh copy that can be modified and passed to update().
+     *
+     * @param id config ID
+     * @return Optional Oauth
+     */
+    @Transactional(readOnly = true)
+    public Optional<Oauth> findById(Long id) {
+        return oauthRepository.findById(id);
+    }
+
+    /**
+     * Find all provider configs
+     *
+     * @return list of provider configs ordered by ID
+     */
+    public List<OauthResponse> findAll() {
+        return providers.get().values().stream()
+                .sorted(Comparator.comparing(OauthResponse::getId))
+                .toList();
+    }
+
+    /**
+     * Create a provider config
+     *
+     * @param oauth provider config
+     * @return created config
+     * @throws IllegalArgumentException if the op already exists
+     */
+    @Transactional
+    public Oauth create(Oauth oauth) {
+        log.info("Creating OAuth provider: {}", oauth.getOp());
+
+        if (oauthRepository.findByOp(oauth.getOp()).isPresent()) {
+            log.warn("OAuth provider already exists: {}", oauth.getOp());
+            throw new IllegalArgumentException("OAuth provider already exists: " + oauth.getOp());
+        }
+
+        Oauth saved = oauthRepository.save(oauth);
+        refreshAfterCommit();
+        log.info("OAuth provider created with id: {}", saved.getId());
+        return saved;
+    }
+
+    /**
+     * Update a provider config
+     *
+     * @param oauth provider config with updated information
+     * @return updated config
+     * @throws IllegalArgumentException if the config is not found or the op conflicts
+     */
+    @Transactional
+    public Oauth update(Oauth oauth) {
+        log.info("Updating OAuth provider: {}", oauth.getId());
+
+        if (!oauthRepository.existsById(oauth.getId())) {
+            log.warn("OAuth provider not found with id: {}", oauth.getId());
+            throw new IllegalArgumentException("OAuth provider not found with id: " + oauth.getId());
+        }
+        Optional<Oauth> existingOpt = oauthRepository.findByOp(oauth.getOp());
+        if (existingOpt.isPresent() && !existingOpt.get().getId().equals(oauth.getId())) {
+            log.warn("OAuth provider already exists: {}", oauth.getOp());
+            throw new IllegalArgumentException("OAuth provider already exists: " + oauth.getOp());
+        }
+
+        Oauth saved = oauthRepository.save(oauth);
+        refreshAfterCommit();
+        log.info("OAuth provider updated: {}", saved.getId());
+        return saved;
+    }
+
+    /**
+     * Delete a provider config
+     *
+     * @param id config ID
+     * @throws IllegalArgumentException if the config is not found
+     */
+    @Transactional
+    public void delete(Long id) {
+        log.info("Deleting OAuth provider: {}", id);
+
+        if (!oauthRepository.existsById(id)) {
+            log.warn("OAuth provider not found with id: {}", id);
+            throw new IllegalArgumentException("OAuth provider not found with id: " + id);
+        }
+
+        oauthRepository.deleteById(id);
+        refreshAfterCommit();
+        log.info("OAuth provider deleted: {}", id);
+    }
+
+    /**
+     * Reload the provider registry from the database
+     * Runs periodically so changes made by other instances are picked up as well.
+     */
+    @Scheduled(initialDelayString = "${rustdesk.oauth.refresh-interval:300000}",
+            fixedDelayString = "${rustdesk.oauth.refresh-interval:300000}")
+    public void refresh() {
+        Map<String, OauthResponse> registry = new LinkedHashMap<>();
+        for (Oauth oauth : oauthRepository.findAll()) {
+            registry.put(oauth.getOp(), OauthResponse.from(oauth));
+        }
+        providers.set(Collections.unmodifiableMap(registry));
+        log.debug("OAuth provider registry loaded: {} providers", registry.size());
+    }
+
+    private void refreshAfterCommit() {
+        afterCommit(this::refresh);
+    }
+
+    /**
+     * Run an action after the current transaction commits, or immediately without one
+     *
+     * @param action action to run
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
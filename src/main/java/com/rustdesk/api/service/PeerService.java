@@ -1,5 +1,6 @@
 package com.rustdesk.api.service;
 
+import com.rustdesk.api.entity.Group;
 import com.rustdesk.api.entity.Peer;
 import com.rustdesk.api.repository.PeerRepository;
 import lombok.RequiredArgsConstructor;
@@ -22,6 +23,8 @@ import java.util.Optional;
 public class PeerService {
 
     private final PeerRepository peerRepository;
+    private final GroupStatsService groupStatsService;
+    private final PresenceService presenceService;
 
     /**
      * Find peer by device ID
@@ -57,7 +60,10 @@ public class PeerService {
     @Transactional
     public Peer save(Peer peer) {
         log.debug("Saving peer: {}", peer.getDeviceId());
-        return peerRepository.save(peer);
+        Long previousGroupId = peer.getId() != null ? peer.getPersistedGroupId() : null;
+        Peer saved = peerRepository.save(peer);
+        groupStatsService.peerMoved(previousGroupId, saved.getGroupId());
+        return saved;
     }
 
     /**
@@ -77,6 +83,7 @@ public class PeerService {
         if (existingOpt.isPresent()) {
             // Update existing peer
             Peer existing = existingOpt.get();
+            Long previousGroupId = existing.getGroupId();
             log.debug("Peer already exists, updating: {}", peer.getDeviceId());
 
             // Update fields
@@ -109,12 +116,14 @@ public class PeerService {
             }
 
             Peer saved = peerRepository.save(existing);
+            groupStatsService.peerMoved(previousGroupId, saved.getGroupId());
             log.info("Peer updated: {}", saved.getDeviceId());
             return saved;
         } else {
             // Create new peer
             log.debug("Creating new peer: {}", peer.getDeviceId());
             Peer saved = peerRepository.save(peer);
+            groupStatsService.peerMoved(null, saved.getGroupId());
             log.info("Peer created with id: {}", saved.getId());
             return saved;
         }
@@ -197,6 +206,7 @@ public class PeerService {
         peer.setLastOnlineIp(ip);
 
         Peer saved = peerRepository.save(peer);
+        presenceService.touch(deviceId);
         log.debug("Online status updated for peer: {}", deviceId);
         return saved;
     }
@@ -225,6 +235,19 @@ public class PeerService {
         return peerRepository.findByGroupId(groupId);
     }
 
+    /**
+     * Find peers in a group and all of its descendant groups
+     * Runs as a single path range query, independent of the subtree size.
+     *
+     * @param group subtree root group
+     * @return list of peers
+     */
+    @Transactional(readOnly = true)
+    public List<Peer> findByGroupSubtree(Group group) {
+        log.debug("Finding peers in subtree of group: {}", group.getId());
+        return peerRepository.findByGroupPathRange(group.getPath(), GroupService.subtreeEnd(group.getPath()));
+    }
+
     /**
      * Delete a peer
      *
@@ -234,12 +257,14 @@ public class PeerService {
     public void deletePeer(Long id) {
         log.info("Deleting peer with id: {}", id);
 
-        if (!peerRepository.existsById(id)) {
+        Optional<Peer> peerOpt = peerRepository.findById(id);
+        if (peerOpt.isEmpty()) {
             log.warn("Peer not found: {}", id);
             throw new IllegalArgumentException("Peer not found with id: " + id);
         }
 
-        peerRepository.deleteById(id);
+        peerRepository.delete(peerOpt.get());
+        groupStatsService.peerMoved(peerOpt.get().getGroupId(), null);
         log.info("Peer deleted: {}", id);
     }
 
@@ -259,6 +284,7 @@ public class PeerService {
         }
 
         peerRepository.delete(peerOpt.get());
+        groupStatsService.peerMoved(peerOpt.get().getGroupId(), null);
         log.info("Peer deleted: {}", deviceId);
     }
 
@@ -280,9 +306,11 @@ public class PeerService {
         }
 
         Peer peer = peerOpt.get();
+        Long previousGroupId = peer.getGroupId();
         peer.setGroupId(groupId);
 
         Peer saved = peerRepository.save(peer);
+        groupStatsService.peerMoved(previousGroupId, saved.getGroupId());
         log.info("Peer group updated successfully");
         return saved;
     }
@@ -0,0 +1,109 @@
+package com.rustdesk.api.service;
+
+import com.rustdesk.api.config.properties.RustDeskProperties;
+import com.rustdesk.api.repository.PeerRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Presence Service
+ * Live, in-memory online state of devices.
+ * <p>
+ * Heartbeats and sysinfo reports only stamp the device in a concurrent map, so
+ * presence costs no database writes. A device is online while its last stamp is
+ * within the online window. The map is seeded from the peers' last online times
+ * at startup and stale stamps are pruned periodically.
+ * </p>
+ *
+ * @author RustDesk API Team
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PresenceService {
+
+    private final PeerRepository peerRepository;
+    private final RustDeskProperties rustDeskProperties;
+
+    /**
+     * Last seen time in epoch milliseconds by device ID
+     */
+    private final Map<String, Long> lastSeen = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        long since = System.currentTimeMillis() - window();
+        for (Object[] row : peerRepository.findOnlineSince(since)) {
+            lastSeen.merge((String) row[0], (Long) row[1], Math::max);
+        }
+        log.info("Presence seeded with {} online devices", lastSeen.size());
+    }
+
+    /**
+     * Mark a device as seen now
+     *
+     * @param deviceId device ID
+     */
+    public void touch(String deviceId) {
+        if (deviceId != null && !deviceId.isBlank()) {
+            lastSeen.put(deviceId, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Check if a device is online
+     *
+     * @param deviceId device ID
+     * @return true if the device was seen within the online window
+     */
+    public boolean isOnline(String deviceId) {
+        if (deviceId == null) {
+            return false;
+        }
+        Long seen = lastSeen.get(deviceId);
+        return seen != null && seen > System.currentTimeMillis() - window();
+    }
+
+    /**
+     * Get the online state of devices as a bitset
+     *
+     * @param deviceIds device IDs
+     * @return bitset where bit i is set if device i is online
+     */
+    public BitSet onlineBits(List<String> deviceIds) {
+        long since = System.currentTimeMillis() - window();
+        BitSet bits = new BitSet(deviceIds.size());
+        for (int i = 0; i < deviceIds.size(); i++) {
+            String deviceId = deviceIds.get(i);
+            Long seen = deviceId != null ? lastSeen.get(deviceId) : null;
+            if (seen != null && seen > since) {
+                bits.set(i);
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Drop devices not seen within the online window
+     */
+    @Scheduled(initialDelayString = "${rustdesk.presence.online-window:300000}",
+            fixedDelayString = "${rustdesk.presence.online-window:300000}")
+    public void prune() {
+        long since = System.currentTimeMillis() - window();
+        int before = lastSeen.size();
+        lastSeen.values().removeIf(seen -> seen <= since);
+        log.debug("Presence pruned {} stale devices, {} online", before - lastSeen.size(), lastSeen.size());
+    }
+
+    private long window() {
+        return rustDeskProperties.getPresence().getOnlineWindow();
+    }
+}
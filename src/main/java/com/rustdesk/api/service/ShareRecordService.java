@@ -0,0 +1,296 @@
+package com.rustdesk.api.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.rustdesk.api.config.properties.RustDeskProperties;
+import com.rustdesk.api.entity.ShareRecord;
+import com.rustdesk.api.repository.ShareRecordRepository;
+import com.rustdesk.api.util.PasswordUtil;
+import com.rustdesk.api.util.TimingWheel;
+import com.rustdesk.api.util.TokenUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Share Record Service
+ * Creates share links and resolves share tokens.
+ * <p>
+ * Resolved links are cached in memory, and tokens that resolved to nothing are
+ * kept in a bounded negative cache, so repeated lookups of known, unknown or
+ * expired tokens skip the database. Each cached link with an expiry is put on a
+ * timing wheel that moves it to the negative cache right at its expiry. Expired
+ * rows are purged from the database in bounded chunks in the background.
+ * </p>
+ *
+ * @author RustDesk API Team
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ShareRecordService {
+
+    /**
+     * Timing wheel resolution
+     */
+    private static final long TICK_MILLIS = 1000L;
+
+    /**
+     * Timing wheel buckets, one rotation per hour
+     */
+    private static final int WHEEL_SIZE = 3600;
+
+    /**
+     * Maximum number of IDs per purge statement
+     */
+    private static final int PURGE_CHUNK_SIZE = 500;
+
+    private static final int MAX_TOKEN_LENGTH = 255;
+
+    private final ShareRecordRepository shareRecordRepository;
+    private final RustDeskProperties rustDeskProperties;
+
+    private Cache<String, ShareLink> links;
+    private Cache<String, Boolean> rejected;
+    private TimingWheel<String> expiries;
+
+    /**
+     * Expiry each token is on the wheel for, so reloading a link does not schedule it again
+     */
+    private final ConcurrentMap<String, Long> scheduled = new ConcurrentHashMap<>();
+
+    /**
+     * Bumped on every change so a lookup that raced with a write is not cached
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        RustDeskProperties.Share config = rustDeskProperties.getShare();
+        links = CacheBuilder.newBuilder()
+                .maximumSize(config.getCacheMaxEntries())
+                .build();
+        rejected = CacheBuilder.newBuilder()
+                .maximumSize(config.getCacheMaxEntries())
+                .expireAfterWrite(config.getNegativeTtl(), TimeUnit.SECONDS)
+                .build();
+        expiries = new TimingWheel<>(TICK_MILLIS, WHEEL_SIZE, System.currentTimeMillis());
+    }
+
+    /**
+     * Resolve a share token to an active share link
+     *
+     * @param shareToken share token
+     * @return Optional share link, empty if the token is unknown or expired
+     */
+    @Transactional(readOnly = true)
+    public Optional<ShareLink> resolve(String shareToken) {
+        if (shareToken == null || shareToken.isBlank() || shareToken.length() > MAX_TOKEN_LENGTH) {
+            return Optional.empty();
+        }
+        long now = System.currentTimeMillis();
+        ShareLink link = links.getIfPresent(shareToken);
+        if (link != null) {
+            return link.isActive(now) ? Optional.of(link) : Optional.empty();
+        }
+        if (rejected.getIfPresent(shareToken) != null) {
+            return Optional.empty();
+        }
+
+        long gen = generation.get();
+        Optional<ShareLink> loaded = shareRecordRepository.findByShareToken(shareToken)
+                .map(ShareLink::of)
+                .filter(found -> found.isActive(now));
+        if (generation.get() == gen) {
+            if (loaded.isPresent()) {
+                cache(loaded.get());
+            } else {
+                rejected.put(shareToken, Boolean.TRUE);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Create a share link for a peer
+     *
+     * @param userId owner user ID
+     * @param peerId shared device ID
+     * @param passwordType 0 = no password, 1 = fixed password, 2 = one-time password
+     * @param password password, required unless the type is 0
+     * @param ttlSeconds seconds until the link expires, 0 for no expiry
+     * @return created share record
+     */
+    @Transactional
+    public ShareRecord create(Long userId, String peerId, int passwordType, String password, long ttlSeconds) {
+        if (passwordType != 0 && (password == null || password.isEmpty())) {
+            throw new IllegalArgumentException("Password is required for this password type");
+        }
+        ShareRecord record = new ShareRecord();
+        record.setUserId(userId);
+        record.setPeerId(peerId);
+        record.setShareToken(TokenUtil.generateUuid());
+        record.setPasswordType(passwordType);
+        record.setPassword(passwordType != 0 ? PasswordUtil.encryptPassword(password) : null);
+        record.setExpire(ttlSeconds > 0 ? System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(ttlSeconds) : 0L);
+        ShareRecord saved = shareRecordRepository.save(record);
+
+        String token = saved.getShareToken();
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            rejected.invalidate(token);
+        });
+        log.info("Share link created for peer {} by user {}", peerId, userId);
+        return saved;
+    }
+
+    /**
+     * Find share records by user ID
+     *
+     * @param userId user ID
+     * @return List of share records
+     */
+    @Transactional(readOnly = true)
+    public List<ShareRecord> findByUserId(Long userId) {
+        return shareRecordRepository.findByUserId(userId);
+    }
+
+    /**
+     * Revoke a share link
+     *
+     * @param userId owner user ID
+     * @param id share record ID
+     * @return true if the record existed and belonged to the user
+     */
+    @Transactional
+    public boolean revoke(Long userId, Long id) {
+        Optional<ShareRecord> record = shareRecordRepository.findById(id)
+                .filter(found -> found.getUserId().equals(userId));
+        if (record.isEmpty()) {
+            return false;
+        }
+        shareRecordRepository.delete(record.get());
+        String token = record.get().getShareToken();
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            links.invalidate(token);
+            rejected.put(token, Boolean.TRUE);
+        });
+        log.info("Share link {} revoked by user {}", id, userId);
+        return true;
+    }
+
+    /**
+     * Drop the cached links of a user once the current transaction commits
+     * Used when the user's share records are removed in bulk.
+     *
+     * @param userId user ID
+     */
+    public void invalidateUser(Long userId) {
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            links.asMap().values().removeIf(link -> link.userId().equals(userId));
+        });
+    }
+
+    /**
+     * Move links whose expiry has passed from the cache to the negative cache
+     */
+    @Scheduled(fixedRate = TICK_MILLIS)
+    public void expire() {
+        long now = System.currentTimeMillis();
+        expiries.advance(now, token -> {
+            scheduled.computeIfPresent(token, (key, deadline) -> deadline <= now ? null : deadline);
+            ShareLink link = links.getIfPresent(token);
+            // The wheel cannot cancel, so ignore tokens re-cached with another expiry
+            if (link != null && !link.isActive(now)) {
+                links.invalidate(token);
+                rejected.put(token, Boolean.TRUE);
+            }
+        });
+    }
+
+    /**
+     * Delete expired share records in bounded chunks
+     * Each chunk is deleted in its own statement and transaction.
+     */
+    @Scheduled(initialDelayString = "${rustdesk.share.purge-interval:3600000}",
+            fixedDelayString = "${rustdesk.share.purge-interval:3600000}")
+    public void purgeExpired() {
+        int maxChunks = rustDeskProperties.getShare().getPurgeMaxChunks();
+        long now = System.currentTimeMillis();
+        int purged = 0;
+        for (int i = 0; i < maxChunks; i++) {
+            List<Long> ids = shareRecordRepository.findExpiredIds(now, PageRequest.of(0, PURGE_CHUNK_SIZE));
+            if (ids.isEmpty()) {
+                break;
+            }
+            shareRecordRepository.deleteAllByIdInBatch(ids);
+            purged += ids.size();
+        }
+        if (purged > 0) {
+            log.info("Purged {} expired share records", purged);
+        }
+    }
+
+    private void cache(ShareLink link) {
+        links.put(link.shareToken(), link);
+        // Evicted links are loaded again, keep one wheel entry per token and expiry
+        if (link.expire() > 0 && !Long.valueOf(link.expire()).equals(scheduled.put(link.shareToken(), link.expire()))) {
+            expiries.schedule(link.shareToken(), link.expire());
+        }
+    }
+
+    /**
+     * Run an action after the current transaction commits, or immediately without one
+     *
+     * @param action action to run
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Resolved share link, without the password
+     *
+     * @param id share record ID
+     * @param userId owner user ID
+     * @param peerId shared device ID
+     * @param shareToken share token
+     * @param passwordType password type
+     * @param expire expiry in epoch milliseconds, 0 for none
+     */
+    public record ShareLink(Long id, Long userId, String peerId, String shareToken, Integer passwordType, long expire) {
+
+        private static ShareLink of(ShareRecord record) {
+            return new ShareLink(record.getId(), record.getUserId(), record.getPeerId(), record.getShareToken(),
+                    record.getPasswordType(), record.getExpire() != null ? record.getExpire() : 0L);
+        }
+
+        private boolean isActive(long now) {
+            return expire <= 0 || expire > now;
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package com.rustdesk.api.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.rustdesk.api.config.properties.RustDeskProperties;
+import com.rustdesk.api.entity.Tag;
+import com.rustdesk.api.repository.TagRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tag Catalog Service
+ * Manages the tag catalog of each address book.
+ * <p>
+ * The tags of an address book, keyed by (user ID, collection ID) with collection 0
+ * being the personal book, are held as an immutable snapshot with name and ID maps,
+ * so name resolution and color lookups are single map reads. Writes go through this
+ * service; after they commit, the snapshot is replaced by a copy carrying the change
+ * instead of being reloaded. Snapshots live in a bounded cache and are loaded with
+ * one query on first use.
+ * </p>
+ *
+ * @author RustDesk API Team
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TagCatalogService {
+
+    private static final int MAX_NAME_LENGTH = 100;
+    private static final int MAX_COLOR_LENGTH = 20;
+
+    private final TagRepository tagRepository;
+    private final RustDeskProperties rustDeskProperties;
+    private final AddressBookSnapshotService addressBookSnapshotService;
+
+    private Cache<Key, Catalog> catalogs;
+
+    /**
+     * Bumped on every change so a load that raced with a write is not cached
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        catalogs = CacheBuilder.newBuilder()
+                .maximumSize(rustDeskProperties.getAddressBook().getTagCatalogMaxBooks())
+                .build();
+    }
+
+    /**
+     * Get the tag catalog of an address book
+     *
+     * @param userId owner user ID
+     * @param collectionId collection ID, 0 for the personal address book
+     * @return immutable catalog
+     */
+    @Transactional(readOnly = true)
+    public Catalog getCatalog(Long userId, Long collectionId) {
+        Key key = new Key(userId, collectionId);
+        Catalog catalog = catalogs.getIfPresent(key);
+        if (catalog != null) {
+            return catalog;
+        }
+        long gen = generation.get();
+        catalog = Catalog.of(tagRepository.findByBook(userId, collectionId));
+        if (generation.get() == gen) {
+            Catalog raced = catalogs.asMap().putIfAbsent(key, catalog);
+            if (raced != null) {
+                return raced;
+            }
+            if (generation.get() != gen) {
+                // A write committed while caching, it may have missed this catalog
+                catalogs.asMap().remove(key, catalog);
+            }
+        }
+        return catalog;
+    }
+
+    /**
+     * Create a tag or update its color
+     *
+     * @param userId owner user ID
+     * @param collectionId collection ID, 0 for the personal address book
+     * @param name tag name
+     * @param color tag color, null for none
+     * @return saved tag
+     */
+    @Transactional
+    public Tag saveTag(Long userId, Long collectionId, String name, String color) {
+        String trimmed = name != null ? name.trim() : "";
+        if (trimmed.isEmpty() || trimmed.length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("Tag name must be 1 to " + MAX_NAME_LENGTH + " characters");
+        }
+        if (color != null && color.length() > MAX_COLOR_LENGTH) {
+            throw new IllegalArgumentException("Tag color must not exceed " + MAX_COLOR_LENGTH + " characters");
+        }
+        Tag tag = getCatalog(userId, collectionId).find(trimmed)
+                .flatMap(info -> tagRepository.findById(info.id()))
+                .orElseGet(() -> {
+                    Tag created = new Tag();
+                    created.setUserId(userId);
+                    created.setName(trimmed);
+                    created.setCollectionId(toColumn(collectionId));
+                    return created;
+                });
+        tag.setColor(color);
+        Tag saved = tagRepository.save(tag);
+        tagsSaved(userId, collectionId, List.of(saved));
+        return saved;
+    }
+
+    /**
+     * Delete a tag
+     *
+     * @param userId owner user ID
+     * @param collectionId collection ID, 0 for the personal address book
+     * @param name tag name
+     * @return true if the tag existed
+     */
+    @Transactional
+    public boolean deleteTag(Long userId, Long collectionId, String name) {
+        Optional<TagInfo> info = getCatalog(userId, collectionId).find(name != null ? name.trim() : null);
+        if (info.isEmpty()) {
+            return false;
+        }
+        tagRepository.deleteById(info.get().id());
+        String removed = info.get().name();
+        Key key = new Key(userId, collectionId);
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            catalogs.asMap().computeIfPresent(key, (k, catalog) -> catalog.without(removed));
+        });
+        addressBookSnapshotService.evict(userId, collectionId);
+        return true;
+    }
+
+    /**
+     * Apply saved tags to the catalog once the current transaction commits
+     * For writers that save tags themselves, such as the importer.
+     *
+     * @param userId owner user ID
+     * @param collectionId collection ID, 0 for the personal address book
+     * @param tags saved tags
+     */
+    public void tagsSaved(Long userId, Long collectionId, Collection<Tag> tags) {
+        if (tags.isEmpty()) {
+            return;
+        }
+        List<TagInfo> saved = tags.stream().map(TagInfo::of).toList();
+        Key key = new Key(userId, collectionId);
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            catalogs.asMap().computeIfPresent(key, (k, catalog) -> catalog.with(saved));
+        });
+        addressBookSnapshotService.evict(userId, collectionId);
+    }
+
+    /**
+     * Drop all catalogs of a user once the current transaction commits
+     *
+     * @param userId user ID
+     */
+    public void invalidateUser(Long userId) {
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            catalogs.asMap().keySet().removeIf(key -> key.userId().equals(userId));
+        });
+        addressBookSnapshotService.evictUser(userId);
+    }
+
+    private static Long toColumn(Long collectionId) {
+        return AddressBookVersionService.PERSONAL_COLLECTION.equals(collectionId) ? null : collectionId;
+    }
+
+    /**
+     * Run an action after the current transaction commits, or immediately without one
+     *
+     * @param action action to run
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record Key(Long userId, Long collectionId) {
+    }
+
+    /**
+     * Catalog entry
+     *
+     * @param id tag ID
+     * @param name tag name
+     * @param color tag color, null for none
+     */
+    public record TagInfo(Long id, String name, String color) {
+
+        private static TagInfo of(Tag tag) {
+            return new TagInfo(tag.getId(), tag.getName(), tag.getColor());
+        }
+    }
+
+    /**
+     * Immutable tag catalog of one address book
+     * Updates return a modified copy.
+     */
+    public static final class Catalog {
+
+        private final Map<String, TagInfo> byName;
+        private final Map<Long, TagInfo> byId;
+        private final Map<String, String> colors;
+        private final long fingerprint;
+
+        private Catalog(Map<String, TagInfo> byName) {
+            this.byName = Collections.unmodifiableMap(byName);
+            Map<Long, TagInfo> ids = new LinkedHashMap<>();
+            Map<String, String> tagColors = new LinkedHashMap<>();
+            byName.values().forEach(info -> {
+                ids.put(info.id(), info);
+                if (info.color() != null) {
+                    tagColors.put(info.name(), info.color());
+                }
+            });
+            this.byId = Collections.unmodifiableMap(ids);
+            this.colors = Collections.unmodifiableMap(tagColors);
+            // Independent of insertion order, so a patched copy and a reload of the same tags agree
+            Hasher hasher = Hashing.murmur3_128().newHasher();
+            new TreeMap<>(byName).values().forEach(info -> hasher
+                    .putString(info.name(), StandardCharsets.UTF_8).putByte((byte) 0)
+                    .putString(info.color() != null ? info.color() : "", StandardCharsets.UTF_8).putByte((byte) 0));
+            this.fingerprint = hasher.hash().asLong();
+        }
+
+        private static Catalog of(List<Tag> tags) {
+            Map<String, TagInfo> byName = new LinkedHashMap<>();
+            // Duplicate names keep the oldest tag
+            tags.forEach(tag -> byName.putIfAbsent(tag.getName(), TagInfo.of(tag)));
+            return new Catalog(byName);
+        }
+
+        private Catalog with(List<TagInfo> saved) {
+            Map<String, TagInfo> copy = new LinkedHashMap<>(byName);
+            // A renamed tag keeps its ID, drop the entry under the old name
+            for (TagInfo info : saved) {
+                TagInfo previous = byId.get(info.id());
+                if (previous != null && !previous.name().equals(info.name())) {
+                    copy.remove(previous.name());
+                }
+                copy.put(info.name(), info);
+            }
+            return new Catalog(copy);
+        }
+
+        private Catalog without(String name) {
+            Map<String, TagInfo> copy = new LinkedHashMap<>(byName);
+            copy.remove(name);
+            return new Catalog(copy);
+        }
+
+        /**
+         * Find a tag by name
+         *
+         * @param name tag name
+         * @return Optional tag
+         */
+        public Optional<TagInfo> find(String name) {
+            return Optional.ofNullable(name != null ? byName.get(name) : null);
+        }
+
+        /**
+         * Find a tag by ID
+         *
+         * @param id tag ID
+         * @return Optional tag
+         */
+        public Optional<TagInfo> findById(Long id) {
+            return Optional.ofNullable(id != null ? byId.get(id) : null);
+        }
+
+        /**
+         * Check if a tag exists
+         *
+         * @param name tag name
+         * @return true if the catalog has the tag
+         */
+        public boolean contains(String name) {
+            return name != null && byName.containsKey(name);
+        }
+
+        /**
+         * Get the color of a tag
+         *
+         * @param name tag name
+         * @return color, null if the tag is unknown or has none
+         */
+        public String color(String name) {
+            TagInfo info = name != null ? byName.get(name) : null;
+            return info != null ? info.color() : null;
+        }
+
+        /**
+         * Get all tags in creation order
+         *
+         * @return unmodifiable tags
+         */
+        public Collection<TagInfo> tags() {
+            return byName.values();
+        }
+
+        /**
+         * Get a fingerprint of the tag names and colors
+         * Equal for equal catalogs, also across restarts, so it can be part of an entity tag.
+         *
+         * @return fingerprint
+         */
+        public long fingerprint() {
+            return fingerprint;
+        }
+
+        /**
+         * Get the colors of all tags that have one
+         *
+         * @return unmodifiable tag colors by name
+         */
+        public Map<String, String> colors() {
+            return colors;
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.rustdesk.api.service;
+
+import com.rustdesk.api.config.properties.RustDeskProperties;
+import com.rustdesk.api.constant.UserCleanupStep;
+import com.rustdesk.api.entity.User;
+import com.rustdesk.api.entity.UserCleanupJob;
+import com.rustdesk.api.repository.AddressBookCollectionRepository;
+import com.rustdesk.api.repository.AddressBookChangeRepository;
+import com.rustdesk.api.repository.AddressBookCollectionRuleRepository;
+import com.rustdesk.api.repository.AddressBookRepository;
+import com.rustdesk.api.repository.AddressBookTagRepository;
+import com.rustdesk.api.repository.AddressBookVersionRepository;
+import com.rustdesk.api.repository.LoginLogRepository;
+import com.rustdesk.api.repository.PeerRepository;
+import com.rustdesk.api.repository.ShareRecordRepository;
+import com.rustdesk.api.repository.TagRepository;
+import com.rustdesk.api.repository.UserCleanupJobRepository;
+import com.rustdesk.api.repository.UserRepository;
+import com.rustdesk.api.repository.UserThirdRepository;
+import com.rustdesk.api.repository.UserTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * User Cleanup Service
+ * Removes or detaches the rows that belong to a deleted user in the background.
+ * <p>
+ * Deleting a user only tombstones the user row and records a {@link UserCleanupJob}.
+ * A scheduled worker then walks the {@link UserCleanupStep} tables in order and
+ * processes each one in bounded chunks, one transaction per chunk. Every chunk
+ * removes its rows from the step predicate, so a job interrupted by a restart
+ * simply resumes from the persisted step on the next poll.
+ * </p>
+ *
+ * @author RustDesk API Team
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserCleanupService {
+
+    /**
+     * Rule type for rules that target an individual user
+     */
+    private static final Integer RULE_TYPE_USER = 1;
+
+    private final UserCleanupJobRepository userCleanupJobRepository;
+    private final UserRepository userRepository;
+    private final UserTokenRepository userTokenRepository;
+    private final ShareRecordRepository shareRecordRepository;
+    private final UserThirdRepository userThirdRepository;
+    private final PeerRepository peerRepository;
+    private final AddressBookRepository addressBookRepository;
+    private final AddressBookTagRepository addressBookTagRepository;
+    private final AddressBookChangeRepository addressBookChangeRepository;
+    private final AddressBookVersionRepository addressBookVersionRepository;
+    private final TagRepository tagRepository;
+    private final AddressBookCollectionRuleRepository addressBookCollectionRuleRepository;
+    private final AddressBookCollectionRepository addressBookCollectionRepository;
+    private final LoginLogRepository loginLogRepository;
+    private final RustDeskProperties rustDeskProperties;
+    private final GroupStatsService groupStatsService;
+    private final AddressBookTagIndexService addressBookTagIndexService;
+    private final AddressBookSnapshotService addressBookSnapshotService;
+    private final ShareRecordService shareRecordService;
+    private final TagCatalogService tagCatalogService;
+    private final CollectionAccessService collectionAccessService;
+    private final UserVersionService userVersionService;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Enqueue a cleanup job for a tombstoned user
+     * Must be called in the same transaction that tombstones the user.
+     *
+     * @param user tombstoned user
+     * @return created cleanup job
+     */
+    @Transactional
+    public UserCleanupJob enqueue(User user) {
+        log.info("Enqueuing cleanup job for user: {}", user.getId());
+
+        UserCleanupJob job = new UserCleanupJob();
+        job.setUserId(user.getId());
+        job.setUsername(user.getUsername());
+        job.setStep(UserCleanupStep.values()[0].name());
+        job.setStatus(UserCleanupJob.STATUS_PENDING);
+
+        UserCleanupJob saved = userCleanupJobRepository.save(job);
+        log.info("Cleanup job created with id: {}", saved.getId());
+        return saved;
+    }
+
+    /**
+     * Find the latest cleanup job for a user
+     *
+     * @param userId user ID
+     * @return Optional UserCleanupJob
+     */
+    @Transactional(readOnly = true)
+    public Optional<UserCleanupJob> findLatestByUserId(Long userId) {
+        return userCleanupJobRepository.findFirstByUserIdOrderByIdDesc(userId);
+    }
+
+    /**
+     * Process pending cleanup jobs
+     * Runs with a fixed delay, so a slow job never overlaps with the next poll.
+     * Pending jobs left behind by a restart are picked up here as well.
+     */
+    @Scheduled(fixedDelayString = "${rustdesk.user-cleanup.poll-interval:5000}")
+    public void processPendingJobs() {
+        List<UserCleanupJob> jobs = userCleanupJobRepository.findByStatusOrderByIdAsc(UserCleanupJob.STATUS_PENDING);
+        for (UserCleanupJob job : jobs) {
+            try {
+                runJob(job);
+            } catch (Exception e) {
+                log.error("Cleanup job {} failed at step {}", job.getId(), job.getStep(), e);
+                recordFailure(job.getId(), e);
+            }
+        }
+    }
+
+    /**
+     * Run a job until all steps are done
+     *
+     * @param job cleanup job
+     */
+    private void runJob(UserCleanupJob job) {
+        log.info("Running cleanup job {} for user {} from step {}", job.getId(), job.getUserId(), job.getStep());
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Pageable chunk = PageRequest.of(0, rustDeskProperties.getUserCleanup().getChunkSize());
+        Long jobId = job.getId();
+
+        boolean done = false;
+        while (!done) {
+            done = Boolean.TRUE.equals(tx.execute(status -> processChunk(jobId, chunk)));
+        }
+
+        log.info("Cleanup job {} completed for user {}", job.getId(), job.getUserId());
+    }
+
+    /**
+     * Process one chunk of the job's current step
+     * The chunk and the job progress are committed together.
+     *
+     * @param jobId cleanup job ID
+     * @param chunk chunk size
+     * @return true if the job has finished
+     */
+    private boolean processChunk(Long jobId, Pageable chunk) {
+        UserCleanupJob job = userCleanupJobRepository.findById(jobId)
+                .orElseThrow(() -> new IllegalStateException("Cleanup job not found: " + jobId));
+        if (job.getStatus() != UserCleanupJob.STATUS_PENDING) {
+            return true;
+        }
+
+        UserCleanupStep step = UserCleanupStep.valueOf(job.getStep());
+        int affected = processStep(step, job.getUserId(), chunk);
+
+        if (affected > 0) {
+            job.setStepProcessed(job.getStepProcessed() + affected);
+            job.setTotalProcessed(job.getTotalProcessed() + affected);
+            log.debug("Cleanup job {} processed {} rows in {}", jobId, affected, step.getTable());
+        } else {
+            log.info("Cleanup job {} finished step {} ({} rows)", jobId, step, job.getStepProcessed());
+            UserCleanupStep next = step.next();
+            if (next == null) {
+                job.setStatus(UserCleanupJob.STATUS_DONE);
+                job.setFinishedAt(LocalDateTime.now());
+            } else {
+                job.setStep(next.name());
+                job.setStepProcessed(0L);
+            }
+        }
+
+        userCleanupJobRepository.save(job);
+        return job.getStatus() == UserCleanupJob.STATUS_DONE;
+    }
+
+    /**
+     * Delete or detach one chunk of rows for the given step
+     *
+     * @param step cleanup step
+     * @param userId deleted user ID
+     * @param chunk chunk size
+     * @return number of rows processed, 0 when the step is complete
+     */
+    private int processStep(UserCleanupStep step, Long userId, Pageable chunk) {
+        List<Long> ids;
+        switch (step) {
+            case USER_TOKENS -> {
+                ids = userTokenRepository.findIdsByUserId(userId, chunk);
+                if (!ids.isEmpty()) {
+                    userTokenRepository.deleteAllByIdInBatch(ids);
+                }
+            }
+            case SHARE_RECORDS -> {
+                ids = shareRecordRepository.findIdsByUserId(userId, chunk);
+                if (!ids.isEmpty()) {
+                    shareRecordRepository.deleteAllByIdInBatch(ids);
+                    shareRecordService.invalidateUser(userId);
+                }
+            }
+            case USER_THIRD -> {
+                ids = userThirdRepository.findIdsByUserId(userId, chunk);
+                if (!ids.isEmpty()) {
+                    userThirdRepository.deleteAllByIdInBatch(ids);
+                }
+            }
+            case PEERS -> {
+                ids = peerRepository.findIdsByUserId(userId, chunk);
+                if (!ids.isEmpty()) {
+                    peerRepository.detachUserByIdIn(ids);
+                }
+            }
+            case ADDRESS_BOOKS -> {
+                ids = addressBookRepository.findIdsByUserId(userId, chunk);
+                if (!ids.isEmpty()) {
+                    addressBookTagRepository.deleteByAddressBookIdIn(ids);
+                    addressBookRepository.deleteAllByIdInBatch(ids);
+                    addressBookTagIndexService.invalidate(userId);
+                    addressBookSnapshotService.evictUser(userId);
+                }
+            }
+            case ADDRESS_BOOK_CHANGES -> {
+                ids = addressBookChangeRepository.findIdsByUserId(userId, chunk);
+                if (!ids.isEmpty()) {
+                    addressBookChangeRepository.deleteAllByIdInBatch(ids);
+                }
+            }
+            case ADDRESS_BOOK_VERSIONS -> {
+                ids = addressBookVersionRepository.findIdsByUserId(userId, chunk);
+                if (!ids.isEmpty()) {
+                    addressBookVersionRepository.deleteAllByIdInBatch(ids);
+                }
+            }
+            case TAGS -> {
+                ids = tagRepository.findIdsByUserId(userId, chunk);
+                if (!ids.isEmpty()) {
+                    tagRepository.deleteAllByIdInBatch(ids);
+                    tagCatalogService.invalidateUser(userId);
+                }
+            }
+            case COLLECTION_RULES -> {
+                ids = addressBookCollectionRuleRepository.findIdsByUserId(userId, chunk);
+                if (!ids.isEmpty()) {
+                    addressBookCollectionRuleRepository.deleteAllByIdInBatch(ids);
+                    collectionAccessService.invalidateAll();
+                }
+            }
+            case SHARED_RULES -> {
+                ids = addressBookCollectionRuleRepository.findIdsByTypeAndToId(RULE_TYPE_USER, userId, chunk);
+                if (!ids.isEmpty()) {
+                    addressBookCollectionRuleRepository.deleteAllByIdInBatch(ids);
+                    collectionAccessService.rulesChanged(List.of(userId), List.of());
+                }
+            }
+            case COLLECTIONS -> {
+                ids = addressBookCollectionRepository.findIdsByUserId(userId, chunk);
+                if (!ids.isEmpty()) {
+                    addressBookCollectionRepository.deleteAllByIdInBatch(ids);
+                    collectionAccessService.invalidateAll();
+                }
+            }
+            case LOGIN_LOGS -> {
+                ids = loginLogRepository.findActiveIdsByUserId(userId, chunk);
+                if (!ids.isEmpty()) {
+                    loginLogRepository.markDeletedByIdIn(ids);
+                }
+            }
+            case USER -> {
+                Optional<User> user = userRepository.findById(userId);
+                if (user.isEmpty()) {
+                    return 0;
+                }
+                userRepository.deleteAllByIdInBatch(List.of(userId));
+                groupStatsService.userMoved(user.get().getGroupId(), null);
+                userVersionService.bump(userId);
+                collectionAccessService.userChanged(userId);
+                return 1;
+            }
+            default -> throw new IllegalStateException("Unknown cleanup step: " + step);
+        }
+        return ids.size();
+    }
+
+    /**
+     * Record a failed attempt, marking the job failed after too many attempts
+     *
+     * @param jobId cleanup job ID
+     * @param e failure cause
+     */
+    private void recordFailure(Long jobId, Exception e) {
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                    userCleanupJobRepository.findById(jobId).ifPresent(job -> {
+                        job.setAttempts(job.getAttempts() + 1);
+                        job.setLastError(truncate(e.getMessage()));
+                        if (job.getAttempts() >= rustDeskProperties.getUserCleanup().getMaxAttempts()) {
+                            log.warn("Cleanup job {} marked as failed after {} attempts", jobId, job.getAttempts());
+                            job.setStatus(UserCleanupJob.STATUS_FAILED);
+                        }
+                        userCleanupJobRepository.save(job);
+                    }));
+        } catch (Exception ex) {
+            log.error("Failed to record cleanup job failure: {}", jobId, ex);
+        }
+    }
+
+    /**
+     * Truncate an error message to the column length
+     *
+     * @param message error message
+     * @return truncated message
+     */
+    private String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
@@ -1,5 +1,7 @@
 package com.rustdesk.api.service;
 
+import com.rustdesk.api.constant.Constants;
+import com.rustdesk.api.entity.Group;
 import com.rustdesk.api.entity.User;
 import com.rustdesk.api.repository.UserRepository;
 import com.rustdesk.api.util.PasswordUtil;
@@ -8,6 +10,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
@@ -22,6 +26,11 @@ import java.util.Optional;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final UserCleanupService userCleanupService;
+    private final GroupStatsService groupStatsService;
+    private final UserVersionService userVersionService;
+    private final CollectionAccessService collectionAccessService;
+    private final LdapSyncService ldapSyncService;
 
     /**
      * Find user by ID
@@ -59,6 +68,19 @@ public class UserService {
         return userRepository.findByEmail(email);
     }
 
+    /**
+     * Find users in a group and all of its descendant groups
+     * Runs as a single path range query, independent of the subtree size.
+     *
+     * @param group subtree root group
+     * @return list of users
+     */
+    @Transactional(readOnly = true)
+    public List<User> findByGroupSubtree(Group group) {
+        log.debug("Finding users in subtree of group: {}", group.getId());
+        return userRepository.findByGroupPathRange(group.getPath(), GroupService.subtreeEnd(group.getPath()));
+    }
+
     /**
      * Create a new user
      * Validates that username is unique and encrypts the password before saving.
@@ -97,6 +119,7 @@ public class UserService {
         }
 
         User savedUser = userRepository.save(user);
+        groupStatsService.userMoved(null, savedUser.getGroupId());
         log.info("User created successfully with id: {}", savedUser.getId());
         return savedUser;
     }
@@ -107,25 +130,41 @@ public class UserService {
      *
      * @param user user entity with updated information
      * @return updated user
-     * @throws IllegalArgumentException if user not found
+     * @throws IllegalArgumentException if user not found, is being deleted, or would be marked as deleting
      */
     @Transactional
     public User updateUser(User user) {
         log.info("Updating user: {}", user.getId());
 
-        if (!userRepository.existsById(user.getId())) {
+        User existing = userRepository.findById(user.getId()).orElseThrow(() -> {
             log.warn("User not found with id: {}", user.getId());
-            throw new IllegalArgumentException("User not found with id: " + user.getId());
+            return new IllegalArgumentException("User not found with id: " + user.getId());
+        });
+        // The cleanup job removes the row anyway, an update must not re-enable login meanwhile
+        if (Constants.STATUS_DELETING.equals(existing.getStatus())) {
+            log.warn("Cannot update user being deleted: {}", user.getId());
+            throw new IllegalArgumentException("User is being deleted: " + user.getId());
+        }
+        if (Constants.STATUS_DELETING.equals(user.getStatus())) {
+            throw new IllegalArgumentException("Use delete to remove user: " + user.getId());
         }
 
+        Long previousGroupId = user.getPersistedGroupId();
         User savedUser = userRepository.save(user);
+        groupStatsService.userMoved(previousGroupId, savedUser.getGroupId());
+        if (!Objects.equals(previousGroupId, savedUser.getGroupId())) {
+            collectionAccessService.userChanged(savedUser.getId());
+        }
+        userVersionService.bump(savedUser.getId());
         log.info("User updated successfully: {}", savedUser.getId());
         return savedUser;
     }
 
     /**
      * Delete user by ID
-     * This is a hard delete operation. Consider implementing soft delete if needed.
+     * The user is tombstoned immediately and the dependent rows (tokens, peers, address books,
+     * tags, collections, share records, third-party bindings and login logs) are cleaned up
+     * in the background by {@link UserCleanupService}, which removes the user row last.
      *
      * @param id user ID to delete
      * @throws IllegalArgumentException if user not found
@@ -134,13 +173,25 @@ public class UserService {
     public void deleteUser(Long id) {
         log.info("Deleting user with id: {}", id);
 
-        if (!userRepository.existsById(id)) {
+        Optional<User> userOpt = userRepository.findById(id);
+        if (userOpt.isEmpty()) {
             log.warn("User not found with id: {}", id);
             throw new IllegalArgumentException("User not found with id: " + id);
         }
 
-        userRepository.deleteById(id);
-        log.info("User deleted successfully: {}", id);
+        User user = userOpt.get();
+        if (Constants.STATUS_DELETING.equals(user.getStatus())) {
+            log.info("User is already being deleted: {}", id);
+            return;
+        }
+
+        // Tombstone first so the user can no longer log in while cleanup runs
+        user.setStatus(Constants.STATUS_DELETING);
+        userRepository.save(user);
+        userCleanupService.enqueue(user);
+        userVersionService.bump(id);
+
+        log.info("User tombstoned, cleanup scheduled: {}", id);
     }
 
     /**
@@ -170,7 +221,7 @@ public class UserService {
         }
 
         // Verify password
-        if (PasswordUtil.verifyPassword(password, user.getPassword())) {
+        if (verifyPassword(user, password)) {
             log.info("User authenticated successfully: {}", username);
             return Optional.of(user);
         }
@@ -179,6 +230,22 @@ public class UserService {
         return Optional.empty();
     }
 
+    /**
+     * Verify the password of a user
+     * Users synced from LDAP are verified by binding to the directory, others
+     * against the stored hash.
+     *
+     * @param user user
+     * @param password raw password (not encoded)
+     * @return true if the password is correct
+     */
+    public boolean verifyPassword(User user, String password) {
+        if (user.getLdapDn() != null) {
+            return ldapSyncService.authenticate(user.getLdapDn(), password);
+        }
+        return PasswordUtil.verifyPassword(password, user.getPassword());
+    }
+
     /**
      * Change user password
      * Verifies the old password before setting the new one.
@@ -199,6 +266,10 @@ public class UserService {
         }
 
         User user = userOpt.get();
+        if (user.getLdapDn() != null) {
+            log.warn("Password of LDAP user is managed by the directory: {}", userId);
+            return false;
+        }
 
         // Verify old password
         if (!PasswordUtil.verifyPassword(oldPassword, user.getPassword())) {
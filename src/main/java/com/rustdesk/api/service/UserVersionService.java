@@ -0,0 +1,105 @@
+package com.rustdesk.api.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.security.SecureRandom;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * User Version Service
+ * Per-user version stamps used as strong ETags for the profile endpoints.
+ * <p>
+ * Every user mutation bumps the user's version once the transaction commits,
+ * so a client holding the current ETag can be answered with 304 Not Modified
+ * without reading the user row. Versions live in memory; the ETag also carries
+ * a random per-process nonce so that tags handed out before a restart, or by
+ * another instance, never match.
+ * </p>
+ *
+ * @author RustDesk API Team
+ */
+@Slf4j
+@Service
+public class UserVersionService {
+
+    /**
+     * Random per-process prefix of every ETag
+     */
+    private final String nonce = Long.toHexString(new SecureRandom().nextLong());
+
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Get the current strong ETag of a user's profile
+     *
+     * @param userId user ID
+     * @return quoted ETag value
+     */
+    public String etag(Long userId) {
+        return "\"" + nonce + "-" + userId + "-" + versions.getOrDefault(userId, 0L) + "\"";
+    }
+
+    /**
+     * Check an If-None-Match header against an ETag
+     *
+     * @param ifNoneMatch If-None-Match header value, may be null
+     * @param etag current ETag
+     * @return true if the client already has the current representation
+     */
+    public boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Bump a user's version once the current transaction commits
+     *
+     * @param userId user ID
+     */
+    public void bump(Long userId) {
+        if (userId != null) {
+            bump(List.of(userId));
+        }
+    }
+
+    /**
+     * Bump the versions of several users once the current transaction commits
+     *
+     * @param userIds user IDs
+     */
+    public void bump(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(userIds);
+        Runnable action = () -> ids.forEach(id -> versions.merge(id, 1L, Long::sum));
+        // Bumping before commit would let a concurrent read cache the old row under the new tag
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.rustdesk.api.util;
+
+import com.google.common.hash.Hashing;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Immutable compressed archive segment
+ * <p>
+ * A segment is a pair of files. The data file ({@code .seg}) is a sequence of
+ * independently gzip-compressed blocks of newline-delimited rows. The index file
+ * ({@code .idx}) holds one fixed-size entry per block with its offset, row count,
+ * time and ID bounds and a Bloom filter of the keys of its rows. The index is
+ * memory-mapped, so finding the blocks a query needs reads no compressed data,
+ * and only matching blocks are decompressed. Both files are written under
+ * temporary names and the index is moved into place last, so a segment without
+ * an index is an interrupted write.
+ * </p>
+ *
+ * @author RustDesk
+ * @version 2.0.0
+ */
+public final class ArchiveSegment {
+
+    public static final String DATA_SUFFIX = ".seg";
+    public static final String INDEX_SUFFIX = ".idx";
+
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int MAGIC = 0x52444149;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+
+    /**
+     * Bloom filter of 1024 bits per block, about 1.5% false positives at 100 distinct keys
+     */
+    private static final int BLOOM_LONGS = 16;
+    private static final int BLOOM_BITS = BLOOM_LONGS * 64;
+    private static final int BLOOM_HASHES = 3;
+
+    /**
+     * offset, length, rows, minTime, maxTime, minId, maxId, bloom
+     */
+    private static final int ENTRY_BYTES = 8 + 4 + 4 + 4 * 8 + BLOOM_LONGS * 8;
+
+    private final Path dataFile;
+    private final MappedByteBuffer index;
+    private final int blockCount;
+    private final long firstId;
+    private final long lastId;
+
+    private ArchiveSegment(Path dataFile, MappedByteBuffer index) {
+        this.dataFile = dataFile;
+        this.index = index;
+        if (index.getInt(0) != MAGIC || index.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Not an archive segment index: " + dataFile);
+        }
+        this.blockCount = index.getInt(8);
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (int i = 0; i < blockCount; i++) {
+            first = Math.min(first, block(i).minId());
+            last = Math.max(last, block(i).maxId());
+        }
+        this.firstId = first;
+        this.lastId = last;
+    }
+
+    /**
+     * Open a segment
+     *
+     * @param dataFile data file; its index file must exist next to it
+     * @return segment
+     * @throws IOException if the index cannot be mapped
+     */
+    public static ArchiveSegment open(Path dataFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(indexFileOf(dataFile), StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new ArchiveSegment(dataFile, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Write a segment
+     *
+     * @param dataFile data file to create
+     * @param rows rows in ID order
+     * @param blockRows rows per block
+     * @return opened segment
+     * @throws IOException if the segment cannot be written
+     */
+    public static ArchiveSegment write(Path dataFile, Iterator<Row> rows, int blockRows) throws IOException {
+        Path dataTemp = dataFile.resolveSibling(dataFile.getFileName() + TEMP_SUFFIX);
+        Path indexFile = indexFileOf(dataFile);
+        Path indexTemp = indexFile.resolveSibling(indexFile.getFileName() + TEMP_SUFFIX);
+        List<ByteBuffer> entries = new ArrayList<>();
+        try (FileChannel data = FileChannel.open(dataTemp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            List<Row> block = new ArrayList<>(blockRows);
+            while (rows.hasNext()) {
+                block.add(rows.next());
+                if (block.size() == blockRows || !rows.hasNext()) {
+                    entries.add(writeBlock(data, block));
+                    block.clear();
+                }
+            }
+            data.force(true);
+        }
+        if (entries.isEmpty()) {
+            Files.delete(dataTemp);
+            throw new IllegalArgumentException("Archive segment must contain rows");
+        }
+
+        try (FileChannel indexChannel = FileChannel.open(indexTemp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION).putInt(entries.size()).putInt(0);
+            indexChannel.write(header.flip());
+            for (ByteBuffer entry : entries) {
+                indexChannel.write(entry.flip());
+            }
+            indexChannel.force(true);
+        }
+        Files.move(dataTemp, dataFile, StandardCopyOption.ATOMIC_MOVE);
+        Files.move(indexTemp, indexFile, StandardCopyOption.ATOMIC_MOVE);
+        return open(dataFile);
+    }
+
+    /**
+     * Get the index file of a data file
+     *
+     * @param dataFile data file
+     * @return index file
+     */
+    public static Path indexFileOf(Path dataFile) {
+        String name = dataFile.getFileName().toString();
+        return dataFile.resolveSibling(name.substring(0, name.length() - DATA_SUFFIX.length()) + INDEX_SUFFIX);
+    }
+
+    public Path dataFile() {
+        return dataFile;
+    }
+
+    public int blockCount() {
+        return blockCount;
+    }
+
+    public long firstId() {
+        return firstId;
+    }
+
+    public long lastId() {
+        return lastId;
+    }
+
+    /**
+     * Get the index entry of a block
+     *
+     * @param block block number
+     * @return block bounds
+     */
+    public Block block(int block) {
+        int at = HEADER_BYTES + block * ENTRY_BYTES;
+        return new Block(block, index.getInt(at + 12), index.getLong(at + 16), index.getLong(at + 24),
+                index.getLong(at + 32), index.getLong(at + 40));
+    }
+
+    /**
+     * Check if a block may contain rows with a key
+     *
+     * @param block block number
+     * @param key row key
+     * @return false if no row of the block has the key
+     */
+    public boolean mightContain(int block, String key) {
+        int bloom = HEADER_BYTES + block * ENTRY_BYTES + 48;
+        long hash = Hashing.murmur3_128().hashString(key, StandardCharsets.UTF_8).asLong();
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            int bit = bloomBit(hash, i);
+            if ((index.getLong(bloom + (bit >>> 6) * 8) & (1L << (bit & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Read the rows of a block
+     *
+     * @param block block number
+     * @return rows, one line each
+     * @throws IOException if the data file cannot be read
+     */
+    public List<String> readBlock(int block) throws IOException {
+        int at = HEADER_BYTES + block * ENTRY_BYTES;
+        long offset = index.getLong(at);
+        int length = index.getInt(at + 8);
+        ByteBuffer compressed = ByteBuffer.allocate(length);
+        try (FileChannel data = FileChannel.open(dataFile, StandardOpenOption.READ)) {
+            while (compressed.hasRemaining()) {
+                if (data.read(compressed, offset + compressed.position()) < 0) {
+                    throw new IOException("Archive segment is truncated: " + dataFile);
+                }
+            }
+        }
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed.array()))) {
+            String text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            List<String> lines = new ArrayList<>(block(block).rows());
+            int start = 0;
+            for (int end = text.indexOf('\n'); end >= 0; end = text.indexOf('\n', start)) {
+                lines.add(text.substring(start, end));
+                start = end + 1;
+            }
+            return lines;
+        }
+    }
+
+    private static ByteBuffer writeBlock(FileChannel data, List<Row> rows) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        long[] bloom = new long[BLOOM_LONGS];
+        long minTime = Long.MAX_VALUE;
+        long maxTime = Long.MIN_VALUE;
+        long minId = Long.MAX_VALUE;
+        long maxId = Long.MIN_VALUE;
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            for (Row row : rows) {
+                out.write(row.line());
+                out.write('\n');
+                minTime = Math.min(minTime, row.time());
+                maxTime = Math.max(maxTime, row.time());
+                minId = Math.min(minId, row.id());
+                maxId = Math.max(maxId, row.id());
+                for (String key : row.keys()) {
+                    long hash = Hashing.murmur3_128().hashString(key, StandardCharsets.UTF_8).asLong();
+                    for (int i = 0; i < BLOOM_HASHES; i++) {
+                        int bit = bloomBit(hash, i);
+                        bloom[bit >>> 6] |= 1L << (bit & 63);
+                    }
+                }
+            }
+        }
+        long offset = data.position();
+        data.write(ByteBuffer.wrap(bytes.toByteArray()));
+
+        ByteBuffer entry = ByteBuffer.allocate(ENTRY_BYTES)
+                .putLong(offset).putInt(bytes.size()).putInt(rows.size())
+                .putLong(minTime).putLong(maxTime).putLong(minId).putLong(maxId);
+        for (long word : bloom) {
+            entry.putLong(word);
+        }
+        return entry;
+    }
+
+    private static int bloomBit(long hash, int i) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        return Math.floorMod(h1 + i * h2, BLOOM_BITS);
+    }
+
+    /**
+     * Row to archive
+     *
+     * @param line serialized row without line break
+     * @param time row time in epoch milliseconds
+     * @param id row ID
+     * @param keys values indexed by the block Bloom filter
+     */
+    public record Row(byte[] line, long time, long id, List<String> keys) {
+    }
+
+    /**
+     * Index entry of a block
+     *
+     * @param number block number
+     * @param rows number of rows
+     * @param minTime earliest row time in epoch milliseconds
+     * @param maxTime latest row time in epoch milliseconds
+     * @param minId lowest row ID
+     * @param maxId highest row ID
+     */
+    public record Block(int number, int rows, long minTime, long maxTime, long minId, long maxId) {
+    }
+}
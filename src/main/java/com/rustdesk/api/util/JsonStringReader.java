@@ -0,0 +1,86 @@
+package com.rustdesk.api.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reader over the contents of a JSON string literal
+ * <p>
+ * Decodes escapes on the fly from a source positioned just after the opening
+ * quote and ends at the closing quote, so a document stored as a JSON string can
+ * be parsed without first loading it into memory. The source is not read past
+ * the closing quote.
+ * </p>
+ *
+ * @author RustDesk
+ * @version 2.0.0
+ */
+public final class JsonStringReader extends Reader {
+
+    private final Reader source;
+    private boolean done;
+
+    /**
+     * Create a reader
+     *
+     * @param source source positioned after the opening quote, preferably buffered
+     */
+    public JsonStringReader(Reader source) {
+        this.source = source;
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        int count = 0;
+        while (count < length && !done) {
+            int c = next();
+            if (c == '"') {
+                done = true;
+            } else {
+                buffer[offset + count++] = (char) (c == '\\' ? unescape() : c);
+            }
+        }
+        return count == 0 ? -1 : count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+    private int unescape() throws IOException {
+        int c = next();
+        return switch (c) {
+            case '"', '\\', '/' -> c;
+            case 'b' -> '\b';
+            case 'f' -> '\f';
+            case 'n' -> '\n';
+            case 'r' -> '\r';
+            case 't' -> '\t';
+            case 'u' -> {
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(next(), 16);
+                    if (digit < 0) {
+                        throw new IOException("Invalid \\u escape in JSON string");
+                    }
+                    value = (value << 4) | digit;
+                }
+                yield value;
+            }
+            default -> throw new IOException("Invalid escape in JSON string: \\" + (char) c);
+        };
+    }
+
+    private int next() throws IOException {
+        int c = source.read();
+        if (c < 0) {
+            throw new EOFException("Unterminated JSON string");
+        }
+        return c;
+    }
+}
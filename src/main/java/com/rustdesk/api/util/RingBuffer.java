@@ -0,0 +1,135 @@
+package com.rustdesk.api.util;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free multi-producer multi-consumer ring buffer
+ * <p>
+ * Slots are preallocated in a power-of-two array, each with a sequence number
+ * that tells producers and consumers whose turn it is. A producer claims the
+ * next write position with one CAS and publishes by advancing the slot sequence;
+ * a consumer does the same on the read side, so neither side ever takes a lock
+ * and a full or empty buffer is detected without blocking.
+ * </p>
+ *
+ * @param <T> element type
+ * @author RustDesk
+ * @version 2.0.0
+ */
+public final class RingBuffer<T> {
+
+    private final int mask;
+    private final AtomicReferenceArray<T> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong writePosition = new AtomicLong();
+    private final AtomicLong readPosition = new AtomicLong();
+
+    /**
+     * Create a ring buffer
+     *
+     * @param capacity capacity, rounded up to a power of two
+     */
+    public RingBuffer(int capacity) {
+        if (capacity < 2 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Ring buffer capacity must be between 2 and 2^30");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Add an element if there is room
+     *
+     * @param element element, not null
+     * @return false if the buffer is full
+     */
+    public boolean offer(T element) {
+        long position = writePosition.get();
+        while (true) {
+            int slot = (int) (position & mask);
+            long difference = sequences.get(slot) - position;
+            if (difference == 0) {
+                if (writePosition.compareAndSet(position, position + 1)) {
+                    elements.lazySet(slot, element);
+                    sequences.set(slot, position + 1);
+                    return true;
+                }
+                position = writePosition.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = writePosition.get();
+            }
+        }
+    }
+
+    /**
+     * Take the oldest element
+     *
+     * @return element, or null if the buffer is empty
+     */
+    public T poll() {
+        long position = readPosition.get();
+        while (true) {
+            int slot = (int) (position & mask);
+            long difference = sequences.get(slot) - (position + 1);
+            if (difference == 0) {
+                if (readPosition.compareAndSet(position, position + 1)) {
+                    T element = elements.get(slot);
+                    elements.lazySet(slot, null);
+                    sequences.set(slot, position + mask + 1);
+                    return element;
+                }
+                position = readPosition.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = readPosition.get();
+            }
+        }
+    }
+
+    /**
+     * Move up to a number of elements into a collection
+     *
+     * @param target collection receiving the elements in order
+     * @param max maximum number of elements
+     * @return number of elements moved
+     */
+    public int drainTo(Collection<? super T> target, int max) {
+        int drained = 0;
+        T element;
+        while (drained < max && (element = poll()) != null) {
+            target.add(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * Get the approximate number of elements
+     *
+     * @return element count, exact only when no operation is in flight
+     */
+    public int size() {
+        long size = writePosition.get() - readPosition.get();
+        return (int) Math.max(0, Math.min(size, mask + 1L));
+    }
+
+    /**
+     * Get the capacity
+     *
+     * @return capacity
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+}
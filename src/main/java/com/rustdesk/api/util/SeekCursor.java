@@ -0,0 +1,69 @@
+package com.rustdesk.api.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Keyset pagination cursor
+ * <p>
+ * Position after the last row of a page ordered by {@code (created_at, id)}
+ * descending. It is handed to clients as an opaque URL-safe token so the format
+ * can change without breaking them.
+ * </p>
+ *
+ * @param createdAt creation time of the last row returned
+ * @param id ID of the last row returned
+ * @author RustDesk
+ * @version 2.0.0
+ */
+public record SeekCursor(LocalDateTime createdAt, long id) implements Comparable<SeekCursor> {
+
+    private static final String VERSION = "1";
+
+    /**
+     * Encode the cursor
+     *
+     * @return opaque token
+     */
+    public String encode() {
+        String raw = VERSION + "." + createdAt.toEpochSecond(ZoneOffset.UTC) + "." + createdAt.getNano() + "." + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Compare positions in ascending {@code (created_at, id)} order
+     *
+     * @param other other cursor
+     * @return comparison result
+     */
+    @Override
+    public int compareTo(SeekCursor other) {
+        int result = createdAt.compareTo(other.createdAt);
+        return result != 0 ? result : Long.compare(id, other.id);
+    }
+
+    /**
+     * Decode a cursor
+     *
+     * @param token opaque token, null or blank for the first page
+     * @return cursor, or null for the first page
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static SeekCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\.");
+            if (parts.length != 4 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            LocalDateTime createdAt = LocalDateTime.ofEpochSecond(Long.parseLong(parts[1]), Integer.parseInt(parts[2]), ZoneOffset.UTC);
+            return new SeekCursor(createdAt, Long.parseLong(parts[3]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
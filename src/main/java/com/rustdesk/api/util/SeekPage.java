@@ -0,0 +1,35 @@
+package com.rustdesk.api.util;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset query
+ *
+ * @param items rows of the page
+ * @param next cursor of the following page, null on the last page
+ * @param total number of matching rows, null if not requested
+ * @param <T> row type
+ * @author RustDesk
+ * @version 2.0.0
+ */
+public record SeekPage<T>(List<T> items, SeekCursor next, Long total) {
+
+    /**
+     * Build a page from rows fetched with one row of lookahead
+     *
+     * @param rows up to {@code limit + 1} rows in page order
+     * @param limit page size
+     * @param key cursor of a row
+     * @param total number of matching rows, null if not requested
+     * @param <T> row type
+     * @return page
+     */
+    public static <T> SeekPage<T> of(List<T> rows, int limit, Function<T, SeekCursor> key, Long total) {
+        if (rows.size() <= limit) {
+            return new SeekPage<>(rows, null, total);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new SeekPage<>(items, key.apply(items.get(limit - 1)), total);
+    }
+}
@@ -0,0 +1,253 @@
+package com.rustdesk.api.util;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Boolean tag expression
+ * <p>
+ * Parses filters such as {@code windows AND finance AND NOT kiosk} and evaluates
+ * them over bitmaps of entry ordinals. Operators are {@code AND}, {@code OR} and
+ * {@code NOT} (case-insensitive, or {@code &&}, {@code ||}, {@code !}) with the usual
+ * precedence NOT &gt; AND &gt; OR, plus parentheses. Tags are bare words or
+ * double-quoted strings; a tag named like an operator must be quoted.
+ * </p>
+ *
+ * @author RustDesk
+ * @version 2.0.0
+ */
+public final class TagExpression {
+
+    /**
+     * Maximum accepted expression length
+     */
+    public static final int MAX_LENGTH = 2000;
+
+    private final Node root;
+
+    private TagExpression(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Parse an expression
+     *
+     * @param expression expression text
+     * @return parsed expression
+     * @throws IllegalArgumentException if the expression is empty, too long or malformed
+     */
+    public static TagExpression parse(String expression) {
+        if (expression == null || expression.isBlank()) {
+            throw new IllegalArgumentException("Tag expression cannot be empty");
+        }
+        if (expression.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException("Tag expression must not exceed " + MAX_LENGTH + " characters");
+        }
+        Parser parser = new Parser(tokenize(expression));
+        Node root = parser.parseOr();
+        if (parser.pos < parser.tokens.size()) {
+            throw new IllegalArgumentException("Unexpected '" + parser.tokens.get(parser.pos).text() + "' in tag expression");
+        }
+        return new TagExpression(root);
+    }
+
+    /**
+     * Get the tags referenced by the expression
+     *
+     * @return distinct tags
+     */
+    public Set<String> tags() {
+        Set<String> tags = new LinkedHashSet<>();
+        collectTags(root, tags);
+        return tags;
+    }
+
+    /**
+     * Evaluate the expression
+     *
+     * @param tagBits bitmap of a tag, null or empty if no entry carries it; never modified
+     * @param universe bitmap of all entries, used for negation; never modified
+     * @return new bitmap of matching entries
+     */
+    public BitSet evaluate(Function<String, BitSet> tagBits, BitSet universe) {
+        return eval(root, tagBits, universe);
+    }
+
+    private static BitSet eval(Node node, Function<String, BitSet> tagBits, BitSet universe) {
+        return switch (node) {
+            case TagNode tag -> {
+                BitSet bits = tagBits.apply(tag.tag());
+                yield bits != null ? (BitSet) bits.clone() : new BitSet();
+            }
+            case NotNode not -> {
+                BitSet result = (BitSet) universe.clone();
+                result.andNot(eval(not.operand(), tagBits, universe));
+                yield result;
+            }
+            case AndNode and -> {
+                // Positive operands first so negations become ANDNOT on an already narrow set
+                BitSet result = null;
+                List<Node> negated = new ArrayList<>();
+                for (Node operand : and.operands()) {
+                    if (operand instanceof NotNode not) {
+                        negated.add(not.operand());
+                    } else if (result == null) {
+                        result = eval(operand, tagBits, universe);
+                    } else {
+                        result.and(eval(operand, tagBits, universe));
+                    }
+                    if (result != null && result.isEmpty()) {
+                        yield result;
+                    }
+                }
+                if (result == null) {
+                    result = (BitSet) universe.clone();
+                }
+                for (Node operand : negated) {
+                    result.andNot(eval(operand, tagBits, universe));
+                }
+                yield result;
+            }
+            case OrNode or -> {
+                BitSet result = new BitSet();
+                for (Node operand : or.operands()) {
+                    result.or(eval(operand, tagBits, universe));
+                }
+                yield result;
+            }
+        };
+    }
+
+    private static void collectTags(Node node, Set<String> tags) {
+        switch (node) {
+            case TagNode tag -> tags.add(tag.tag());
+            case NotNode not -> collectTags(not.operand(), tags);
+            case AndNode and -> and.operands().forEach(operand -> collectTags(operand, tags));
+            case OrNode or -> or.operands().forEach(operand -> collectTags(operand, tags));
+        }
+    }
+
+    private static List<Token> tokenize(String expression) {
+        List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        int length = expression.length();
+        while (i < length) {
+            char c = expression.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(' || c == ')' || c == '!') {
+                tokens.add(new Token(String.valueOf(c), false));
+                i++;
+            } else if ((c == '&' || c == '|') && i + 1 < length && expression.charAt(i + 1) == c) {
+                tokens.add(new Token(c == '&' ? "AND" : "OR", false));
+                i += 2;
+            } else if (c == '"') {
+                int end = expression.indexOf('"', i + 1);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unterminated quote in tag expression");
+                }
+                tokens.add(new Token(expression.substring(i + 1, end), true));
+                i = end + 1;
+            } else {
+                int start = i;
+                while (i < length && !Character.isWhitespace(expression.charAt(i))
+                        && "()!&|\"".indexOf(expression.charAt(i)) < 0) {
+                    i++;
+                }
+                if (start == i) {
+                    throw new IllegalArgumentException("Unexpected '" + c + "' in tag expression");
+                }
+                tokens.add(new Token(expression.substring(start, i), false));
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Recursive descent parser: or := and (OR and)*, and := not (AND not)*, not := NOT not | ( or ) | tag
+     */
+    private static final class Parser {
+
+        private final List<Token> tokens;
+        private int pos;
+
+        private Parser(List<Token> tokens) {
+            this.tokens = tokens;
+        }
+
+        private Node parseOr() {
+            List<Node> operands = new ArrayList<>();
+            operands.add(parseAnd());
+            while (accept("OR")) {
+                operands.add(parseAnd());
+            }
+            return operands.size() == 1 ? operands.get(0) : new OrNode(operands);
+        }
+
+        private Node parseAnd() {
+            List<Node> operands = new ArrayList<>();
+            operands.add(parseNot());
+            while (accept("AND")) {
+                operands.add(parseNot());
+            }
+            return operands.size() == 1 ? operands.get(0) : new AndNode(operands);
+        }
+
+        private Node parseNot() {
+            if (accept("NOT") || accept("!")) {
+                return new NotNode(parseNot());
+            }
+            if (accept("(")) {
+                Node inner = parseOr();
+                if (!accept(")")) {
+                    throw new IllegalArgumentException("Missing ')' in tag expression");
+                }
+                return inner;
+            }
+            if (pos >= tokens.size()) {
+                throw new IllegalArgumentException("Tag expression ends unexpectedly");
+            }
+            Token token = tokens.get(pos);
+            if (!token.quoted() && isReserved(token.text())) {
+                throw new IllegalArgumentException("Expected a tag but found '" + token.text() + "' in tag expression");
+            }
+            pos++;
+            return new TagNode(token.text());
+        }
+
+        private boolean accept(String operator) {
+            if (pos < tokens.size() && !tokens.get(pos).quoted() && tokens.get(pos).text().equalsIgnoreCase(operator)) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private static boolean isReserved(String text) {
+            return text.equalsIgnoreCase("AND") || text.equalsIgnoreCase("OR") || text.equalsIgnoreCase("NOT")
+                    || text.equals("(") || text.equals(")") || text.equals("!");
+        }
+    }
+
+    private record Token(String text, boolean quoted) {
+    }
+
+    private sealed interface Node permits TagNode, NotNode, AndNode, OrNode {
+    }
+
+    private record TagNode(String tag) implements Node {
+    }
+
+    private record NotNode(Node operand) implements Node {
+    }
+
+    private record AndNode(List<Node> operands) implements Node {
+    }
+
+    private record OrNode(List<Node> operands) implements Node {
+    }
+}
@@ -0,0 +1,114 @@
+package com.rustdesk.api.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel
+ * <p>
+ * Items are scheduled at an absolute deadline and hashed by tick into one of a
+ * fixed ring of buckets, so scheduling is O(1) regardless of how many items are
+ * pending. {@link #advance(long, Consumer)} walks the buckets of the ticks that
+ * have passed and hands out the items whose deadline tick is reached; items whose
+ * deadline lies beyond one rotation stay in their bucket until a later lap.
+ * Items cannot be cancelled: consumers re-check the item's state when it fires.
+ * </p>
+ *
+ * @param <T> item type
+ * @author RustDesk
+ * @version 2.0.0
+ */
+public final class TimingWheel<T> {
+
+    private final long tickMillis;
+    private final List<ArrayDeque<Timeout<T>>> buckets;
+    private long processedTick;
+    private int size;
+
+    /**
+     * Create a wheel
+     *
+     * @param tickMillis resolution in milliseconds
+     * @param wheelSize number of buckets, one rotation spans {@code tickMillis * wheelSize}
+     * @param startMillis current time in milliseconds
+     */
+    public TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick and wheel size must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new ArrayDeque<>());
+        }
+        this.processedTick = Math.floorDiv(startMillis, tickMillis);
+    }
+
+    /**
+     * Schedule an item
+     * Deadlines already passed fire on the next tick.
+     *
+     * @param item item
+     * @param deadlineMillis deadline in milliseconds
+     */
+    public synchronized void schedule(T item, long deadlineMillis) {
+        long tick = Math.max(Math.ceilDiv(deadlineMillis, tickMillis), processedTick + 1);
+        buckets.get(bucket(tick)).add(new Timeout<>(item, tick));
+        size++;
+    }
+
+    /**
+     * Advance the wheel to a time and collect the items that are due
+     *
+     * @param nowMillis current time in milliseconds
+     * @param expired receives each due item, outside the wheel's lock
+     */
+    public void advance(long nowMillis, Consumer<T> expired) {
+        List<T> due = new ArrayList<>();
+        synchronized (this) {
+            long target = Math.floorDiv(nowMillis, tickMillis);
+            if (target - processedTick >= buckets.size()) {
+                // Fell behind by a full rotation or more: one pass over every bucket
+                for (ArrayDeque<Timeout<T>> bucket : buckets) {
+                    drain(bucket, target, due);
+                }
+                processedTick = target;
+            }
+            while (processedTick < target) {
+                processedTick++;
+                drain(buckets.get(bucket(processedTick)), processedTick, due);
+            }
+            size -= due.size();
+        }
+        due.forEach(expired);
+    }
+
+    /**
+     * Get the number of pending items
+     *
+     * @return pending items
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    private static <T> void drain(ArrayDeque<Timeout<T>> bucket, long upToTick, List<T> due) {
+        for (Iterator<Timeout<T>> it = bucket.iterator(); it.hasNext(); ) {
+            Timeout<T> timeout = it.next();
+            if (timeout.tick() <= upToTick) {
+                it.remove();
+                due.add(timeout.item());
+            }
+        }
+    }
+
+    private int bucket(long tick) {
+        return (int) Math.floorMod(tick, (long) buckets.size());
+    }
+
+    private record Timeout<T>(T item, long tick) {
+    }
+}
@@ -0,0 +1,16 @@
+-- V10__audit_keyset_indexes.sql
+-- Composite indexes for keyset pagination on (created_at, id) under equality filters;
+-- they replace the single-column indexes they extend
+
+DROP INDEX IF EXISTS idx_ac_peer_id;
+DROP INDEX IF EXISTS idx_ac_from_peer;
+CREATE INDEX idx_ac_peer_created ON audit_conn(peer_id, created_at);
+CREATE INDEX idx_ac_from_peer_created ON audit_conn(from_peer, created_at);
+
+DROP INDEX IF EXISTS idx_af_peer_id;
+DROP INDEX IF EXISTS idx_af_from_peer;
+CREATE INDEX idx_af_peer_created ON audit_file(peer_id, created_at);
+CREATE INDEX idx_af_from_peer_created ON audit_file(from_peer, created_at);
+
+DROP INDEX IF EXISTS idx_ll_user_id;
+CREATE INDEX idx_ll_user_created ON login_log(user_id, created_at);
@@ -0,0 +1,4 @@
+-- V11__ldap_sync_conflicts.sql
+-- Directory entries whose username belongs to a local user are skipped and counted
+
+ALTER TABLE ldap_sync_state ADD COLUMN last_conflicts INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,21 @@
+-- V3__user_cleanup_job.sql
+-- Background cascade cleanup for deleted users
+
+-- Create user_cleanup_job table
+CREATE TABLE user_cleanup_job (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    user_id INTEGER NOT NULL,
+    username VARCHAR(50),
+    step VARCHAR(50) NOT NULL,
+    status INTEGER NOT NULL DEFAULT 0,
+    step_processed INTEGER NOT NULL DEFAULT 0,
+    total_processed INTEGER NOT NULL DEFAULT 0,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    last_error VARCHAR(1000),
+    finished_at DATETIME,
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_ucj_user_id ON user_cleanup_job(user_id);
+CREATE INDEX idx_ucj_status ON user_cleanup_job(status);
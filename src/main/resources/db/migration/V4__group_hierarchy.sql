@@ -0,0 +1,12 @@
+-- V4__group_hierarchy.sql
+-- Parent/child groups stored as a materialized path
+
+ALTER TABLE groups ADD COLUMN parent_id INTEGER;
+ALTER TABLE groups ADD COLUMN path VARCHAR(500) NOT NULL DEFAULT '';
+ALTER TABLE groups ADD COLUMN depth INTEGER NOT NULL DEFAULT 0;
+
+-- Existing groups become root groups
+UPDATE groups SET path = '/' || id || '/';
+
+CREATE INDEX idx_groups_parent_id ON groups(parent_id);
+CREATE INDEX idx_groups_path ON groups(path);
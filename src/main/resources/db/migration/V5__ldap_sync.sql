@@ -0,0 +1,21 @@
+-- V5__ldap_sync.sql
+-- Incremental LDAP user synchronization
+
+-- Distinguished name of users managed by LDAP
+ALTER TABLE users ADD COLUMN ldap_dn VARCHAR(255);
+
+CREATE INDEX idx_users_ldap_dn ON users(ldap_dn);
+
+-- Create ldap_sync_state table (single row)
+CREATE TABLE ldap_sync_state (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    watermark VARCHAR(64),
+    last_sync_at DATETIME,
+    last_full_sync_at DATETIME,
+    last_created INTEGER NOT NULL DEFAULT 0,
+    last_updated INTEGER NOT NULL DEFAULT 0,
+    last_disabled INTEGER NOT NULL DEFAULT 0,
+    last_error VARCHAR(1000),
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
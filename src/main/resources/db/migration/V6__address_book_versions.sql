@@ -0,0 +1,28 @@
+-- V6__address_book_versions.sql
+-- Per-book version counters and change log for address book delta sync
+
+-- Create address_book_version table (collection_id 0 = personal address book)
+CREATE TABLE address_book_version (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    user_id INTEGER NOT NULL,
+    collection_id INTEGER NOT NULL DEFAULT 0,
+    version INTEGER NOT NULL DEFAULT 0,
+    compacted_version INTEGER NOT NULL DEFAULT 0,
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE UNIQUE INDEX idx_abv_user_collection ON address_book_version(user_id, collection_id);
+
+-- Create address_book_change table
+CREATE TABLE address_book_change (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    user_id INTEGER NOT NULL,
+    collection_id INTEGER NOT NULL DEFAULT 0,
+    version INTEGER NOT NULL,
+    address_book_id INTEGER NOT NULL,
+    op INTEGER NOT NULL,
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_abc_user_collection_version ON address_book_change(user_id, collection_id, version);
@@ -0,0 +1,20 @@
+-- V7__address_book_tags.sql
+-- Normalized tag membership of address book entries, mirrors address_books.tags
+
+-- Create address_book_tags table
+CREATE TABLE address_book_tags (
+    address_book_id INTEGER NOT NULL,
+    user_id INTEGER NOT NULL,
+    tag VARCHAR(255) NOT NULL,
+    PRIMARY KEY (address_book_id, tag)
+);
+
+CREATE INDEX idx_abt_user_tag ON address_book_tags(user_id, tag, address_book_id);
+
+-- Backfill from the JSON column
+INSERT OR IGNORE INTO address_book_tags (address_book_id, user_id, tag)
+SELECT ab.id, ab.user_id, TRIM(j.value)
+FROM address_books ab, json_each(ab.tags) j
+WHERE ab.user_id IS NOT NULL
+  AND ab.tags IS NOT NULL AND json_valid(ab.tags)
+  AND j.type = 'text' AND TRIM(j.value) <> '';
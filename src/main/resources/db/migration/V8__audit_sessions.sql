@@ -0,0 +1,24 @@
+-- V8__audit_sessions.sql
+-- Completed connection sessions stitched from new/close audit events
+
+-- Create audit_session table
+CREATE TABLE audit_session (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    conn_id VARCHAR(255) NOT NULL,
+    session_id VARCHAR(255),
+    peer_id VARCHAR(255) NOT NULL,
+    from_peer VARCHAR(255),
+    from_name VARCHAR(255),
+    ip VARCHAR(100),
+    type VARCHAR(100),
+    uuid VARCHAR(255),
+    start_time DATETIME NOT NULL,
+    end_time DATETIME,
+    duration INTEGER,
+    status VARCHAR(20) NOT NULL,
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE UNIQUE INDEX idx_as_conn_start ON audit_session(conn_id, start_time);
+CREATE INDEX idx_as_peer_id ON audit_session(peer_id);
+CREATE INDEX idx_as_start_time ON audit_session(start_time);
@@ -0,0 +1,26 @@
+-- V9__audit_rollups.sql
+-- Hourly and daily event counts of the audit tables, folded in by a watermark-driven aggregator
+
+-- Create audit_rollup table (source: conn | file, granularity: hour | day)
+CREATE TABLE audit_rollup (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    source VARCHAR(10) NOT NULL,
+    granularity VARCHAR(10) NOT NULL,
+    bucket DATETIME NOT NULL,
+    peer_id VARCHAR(255) NOT NULL,
+    action VARCHAR(100) NOT NULL DEFAULT '',
+    count INTEGER NOT NULL DEFAULT 0,
+    updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE UNIQUE INDEX idx_ar_key ON audit_rollup(source, granularity, bucket, peer_id, action);
+CREATE INDEX idx_ar_peer_bucket ON audit_rollup(source, granularity, peer_id, bucket);
+
+-- Create audit_rollup_watermark table, last audit row ID folded into the rollups per source
+CREATE TABLE audit_rollup_watermark (
+    source VARCHAR(10) PRIMARY KEY,
+    last_id INTEGER NOT NULL DEFAULT 0,
+    updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO audit_rollup_watermark (source, last_id) VALUES ('conn', 0), ('file', 0);
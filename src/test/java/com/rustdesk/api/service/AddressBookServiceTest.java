@@ -0,0 +1,208 @@
+package com.rustdesk.api.service;
+
+import com.rustdesk.api.entity.AddressBook;
+import com.rustdesk.api.entity.Peer;
+import com.rustdesk.api.repository.AddressBookRepository;
+import com.rustdesk.api.repository.PeerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Statement counts of bulk address book creation
+ * <p>
+ * Every JDBC execute call made by the test thread is counted, including the
+ * JdbcTemplate batches that Hibernate statistics would not see; a batch counts
+ * as one round trip. The per-peer loop that batchCreateFromPeers replaced is
+ * replayed against the same data as the baseline.
+ * </p>
+ *
+ * @author RustDesk API Team
+ */
+@SpringBootTest
+class AddressBookServiceTest {
+
+    private static final int PEERS = 5000;
+
+    /**
+     * Chunked IN queries, JDBC batches and version bookkeeping stay well below this
+     */
+    private static final int MAX_STATEMENTS = 100;
+
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+    private static final AtomicInteger STATEMENTS = new AtomicInteger();
+    private static volatile Thread counted;
+
+    @Autowired
+    private AddressBookService addressBookService;
+
+    @Autowired
+    private AddressBookVersionService addressBookVersionService;
+
+    @Autowired
+    private AddressBookRepository addressBookRepository;
+
+    @Autowired
+    private PeerRepository peerRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) throws Exception {
+        Path dataDir = Files.createTempDirectory("address-book-test");
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + dataDir.resolve("rustdesk.db"));
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("logging.level.org.hibernate.SQL", () -> "INFO");
+        registry.add("logging.level.org.hibernate.type.descriptor.sql.BasicBinder", () -> "INFO");
+    }
+
+    @TestConfiguration
+    static class StatementCounting {
+
+        @Bean
+        static BeanPostProcessor statementCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? proxy(DataSource.class, dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    @Test
+    void batchCreateFromPeersUsesConstantStatements() {
+        List<Long> peerIds = insertPeers("new");
+
+        List<AddressBook> looped = count(() -> perPeerLoop(1L, peerIds));
+        int before = STATEMENTS.get();
+        List<AddressBook> created = count(() -> addressBookService.batchCreateFromPeers(2L, peerIds));
+        int after = STATEMENTS.get();
+
+        assertEquals(PEERS, looped.size());
+        assertEquals(PEERS, created.size());
+        assertEquals(PEERS, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM address_books WHERE user_id = ?",
+                Integer.class, 2L));
+        String counts = "statements for " + PEERS + " peers: before " + before + ", after " + after;
+        assertTrue(before >= 3 * PEERS, counts);
+        assertTrue(after <= MAX_STATEMENTS, counts);
+    }
+
+    @Test
+    void batchCreateFromPeersSkipsExistingEntries() {
+        List<Long> peerIds = insertPeers("existing");
+        addressBookService.batchCreateFromPeers(3L, peerIds);
+
+        List<AddressBook> created = count(() -> addressBookService.batchCreateFromPeers(3L, peerIds));
+
+        assertEquals(0, created.size());
+        assertTrue(STATEMENTS.get() <= MAX_STATEMENTS, "statements: " + STATEMENTS.get());
+    }
+
+    private List<Long> insertPeers(String prefix) {
+        List<Object[]> rows = IntStream.range(0, PEERS)
+                .mapToObj(i -> new Object[]{prefix + i, "host" + i, "linux"})
+                .toList();
+        jdbcTemplate.batchUpdate("INSERT INTO peers (device_id, hostname, os) VALUES (?, ?, ?)", rows);
+        return jdbcTemplate.queryForList("SELECT id FROM peers WHERE device_id LIKE ? ORDER BY id", Long.class,
+                prefix + "%");
+    }
+
+    /**
+     * Replay of batchCreateFromPeers before it was batched
+     * <p>
+     * Looks up each peer and its existing entry and saves the entry one at a
+     * time. The old change log write issued one more insert per entry through
+     * saveAll; the current batched write is used here, so the count is a lower
+     * bound of the old path.
+     * </p>
+     */
+    private List<AddressBook> perPeerLoop(Long userId, List<Long> peerIds) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            List<AddressBook> createdEntries = new ArrayList<>();
+            for (Long peerId : peerIds) {
+                Peer peer = peerRepository.findById(peerId).orElse(null);
+                if (peer == null || addressBookRepository.findByUserIdAndDeviceId(userId, peer.getDeviceId()).isPresent()) {
+                    continue;
+                }
+                AddressBook addressBook = new AddressBook();
+                addressBook.setUserId(userId);
+                addressBook.setDeviceId(peer.getDeviceId());
+                addressBook.setHostname(peer.getHostname());
+                addressBook.setAlias(peer.getAlias());
+                addressBook.setPlatform(peer.getOs());
+                addressBook.setUsername(peer.getUsername());
+                createdEntries.add(addressBookRepository.save(addressBook));
+            }
+            addressBookVersionService.recordUpserts(createdEntries);
+            return createdEntries;
+        });
+    }
+
+    private static <T> T count(Supplier<T> action) {
+        STATEMENTS.set(0);
+        counted = Thread.currentThread();
+        try {
+            return action.get();
+        } finally {
+            counted = null;
+        }
+    }
+
+    /**
+     * Wrap a JDBC object so that statements it creates count their executions
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (EXECUTE_METHODS.contains(method.getName()) && counted == Thread.currentThread()) {
+                STATEMENTS.incrementAndGet();
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Connection connection && method.getReturnType() == Connection.class) {
+                return proxy(Connection.class, connection);
+            }
+            if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                return proxy((Class<Statement>) method.getReturnType(), statement);
+            }
+            return result;
+        };
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
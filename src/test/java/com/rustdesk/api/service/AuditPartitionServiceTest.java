@@ -0,0 +1,118 @@
+package com.rustdesk.api.service;
+
+import com.rustdesk.api.repository.LoginLogRepository;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Monthly partitioning of login logs on SQLite
+ *
+ * @author RustDesk API Team
+ */
+@SpringBootTest
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class AuditPartitionServiceTest {
+
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final YearMonth CURRENT = YearMonth.now();
+    private static final long USER_ID = 42L;
+
+    @Autowired
+    private AuditPartitionService auditPartitionService;
+
+    @Autowired
+    private LoginLogService loginLogService;
+
+    @Autowired
+    private LoginLogRepository loginLogRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) throws Exception {
+        Path dataDir = Files.createTempDirectory("audit-partition-test");
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + dataDir.resolve("rustdesk.db"));
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("rustdesk.audit.partition-enabled", () -> "true");
+        registry.add("rustdesk.audit.partition-tables", () -> "login_log");
+        registry.add("rustdesk.audit.retention-months", () -> "3");
+    }
+
+    @Test
+    @Order(1)
+    void rotationSplitsPastMonthsAndDropsExpiredRows() {
+        // As left behind by downtime: several past months still in the base table
+        insert(CURRENT.minusMonths(5));
+        insert(CURRENT.minusMonths(2));
+        insert(CURRENT.minusMonths(1));
+        insert(CURRENT.minusMonths(1));
+        insert(CURRENT);
+
+        auditPartitionService.maintain();
+
+        assertEquals(1, rows("login_log"));
+        assertEquals(2, rows(monthly(CURRENT.minusMonths(1))));
+        assertEquals(1, rows(monthly(CURRENT.minusMonths(2))));
+        assertFalse(tableExists(monthly(CURRENT.minusMonths(5))));
+        assertTrue(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sqlite_master WHERE type = 'index' AND name = ?",
+                Integer.class, "idx_ll_user_created_" + CURRENT.minusMonths(2).format(MONTH)) > 0);
+    }
+
+    @Test
+    @Order(2)
+    void repositoriesReadAllMonths() {
+        assertEquals(4, loginLogRepository.count());
+        assertEquals(4, loginLogRepository.findActiveIdsByUserId(USER_ID, PageRequest.of(0, 10)).size());
+        assertEquals(4, loginLogService.findPage(false, USER_ID, null, null, null, null, null, 10, true).total());
+    }
+
+    @Test
+    @Order(3)
+    void writesReachPastMonths() {
+        Long oldest = jdbcTemplate.queryForObject("SELECT id FROM " + monthly(CURRENT.minusMonths(2)), Long.class);
+        loginLogService.hardDeleteLog(oldest);
+        assertEquals(0, rows(monthly(CURRENT.minusMonths(2))));
+
+        assertEquals(3, loginLogService.deleteByUserId(USER_ID));
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM login_log_all WHERE is_deleted = 1",
+                Integer.class));
+    }
+
+    private void insert(YearMonth month) {
+        jdbcTemplate.update("INSERT INTO login_log (user_id, client, type, is_deleted, created_at, updated_at) "
+                        + "VALUES (?, 'web', 'account', 0, ?, ?)", USER_ID,
+                Timestamp.valueOf(month.atDay(1).atTime(12, 0)), Timestamp.valueOf(month.atDay(1).atTime(12, 0)));
+    }
+
+    private int rows(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+
+    private boolean tableExists(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sqlite_master WHERE type = 'table' AND name = ?",
+                Integer.class, table) > 0;
+    }
+
+    private static String monthly(YearMonth month) {
+        return "login_log_" + month.format(MONTH);
+    }
+}
@@ -0,0 +1,230 @@
+package com.rustdesk.api.service;
+
+import com.rustdesk.api.constant.Constants;
+import com.rustdesk.api.entity.LdapSyncState;
+import com.rustdesk.api.entity.User;
+import com.rustdesk.api.repository.UserRepository;
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.ldap.listener.InMemoryDirectoryServerConfig;
+import com.unboundid.ldap.sdk.Modification;
+import com.unboundid.ldap.sdk.ModificationType;
+import com.unboundid.util.StaticUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * LDAP sync against an in-memory directory
+ *
+ * @author RustDesk API Team
+ */
+@SpringBootTest
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class LdapSyncServiceTest {
+
+    private static final String BASE_DN = "dc=example,dc=com";
+    private static final String PEOPLE_DN = "ou=people," + BASE_DN;
+    private static final String ADMINS_DN = "cn=admins,ou=groups," + BASE_DN;
+
+    private static final AtomicInteger SEARCHES = new AtomicInteger();
+
+    /**
+     * Directory clock, one second per change so every entry has its own modifyTimestamp
+     */
+    private static final AtomicLong CLOCK = new AtomicLong(Instant.parse("2026-01-01T00:00:00Z").toEpochMilli());
+
+    private static InMemoryDirectoryServer directory;
+
+    @Autowired
+    private LdapSyncService ldapSyncService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) throws Exception {
+        InMemoryDirectoryServerConfig config = new InMemoryDirectoryServerConfig(BASE_DN);
+        config.addAdditionalBindCredentials("cn=admin," + BASE_DN, "secret");
+        // memberOf is not part of the standard schema
+        config.setSchema(null);
+        // modifyTimestamp is set by the test, see tick()
+        config.setGenerateOperationalAttributes(false);
+        config.setAccessLogHandler(new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                if (record.getMessage().contains("SEARCH REQUEST")) {
+                    SEARCHES.incrementAndGet();
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        directory = new InMemoryDirectoryServer(config);
+        directory.startListening();
+        directory.add("dn: " + BASE_DN, "objectClass: domain", "dc: example");
+        directory.add("dn: " + PEOPLE_DN, "objectClass: organizationalUnit", "ou: people");
+        for (int i = 1; i <= 5; i++) {
+            addPerson("user" + i, i == 1);
+        }
+        // Same username as the built-in local admin
+        addPerson("admin", true);
+
+        Path dataDir = Files.createTempDirectory("ldap-sync-test");
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + dataDir.resolve("rustdesk.db"));
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("rustdesk.ldap.enabled", () -> "true");
+        registry.add("rustdesk.ldap.url", () -> "ldap://localhost:" + directory.getListenPort());
+        registry.add("rustdesk.ldap.base-dn", () -> BASE_DN);
+        registry.add("rustdesk.ldap.bind-dn", () -> "cn=admin," + BASE_DN);
+        registry.add("rustdesk.ldap.bind-password", () -> "secret");
+        registry.add("rustdesk.ldap.user-base-dn", () -> PEOPLE_DN);
+        registry.add("rustdesk.ldap.admin-group", () -> ADMINS_DN);
+        registry.add("rustdesk.ldap.change-attr", () -> "modifyTimestamp");
+        registry.add("rustdesk.ldap.page-size", () -> "2");
+    }
+
+    @AfterAll
+    static void stopDirectory() {
+        directory.shutDown(true);
+    }
+
+    private static void addPerson(String uid, boolean admin) throws Exception {
+        addPerson("uid=" + uid + "," + PEOPLE_DN, uid, admin);
+    }
+
+    private static void addPerson(String dn, String uid, boolean admin) throws Exception {
+        directory.add("dn: " + dn,
+                "objectClass: person",
+                "objectClass: organizationalPerson",
+                "objectClass: inetOrgPerson",
+                "uid: " + uid,
+                "cn: " + uid,
+                "givenName: " + uid,
+                "sn: Test",
+                "mail: " + uid + "@example.com",
+                "userPassword: pw-" + uid,
+                "memberOf: " + (admin ? ADMINS_DN : "cn=staff,ou=groups," + BASE_DN),
+                "modifyTimestamp: " + tick());
+    }
+
+    /**
+     * Advance the directory clock
+     *
+     * @return next modifyTimestamp value
+     */
+    private static String tick() {
+        return StaticUtils.encodeGeneralizedTime(new Date(CLOCK.addAndGet(1000)));
+    }
+
+    @Test
+    @Order(1)
+    void fullSyncReadsAllPagesAndMapsAdminGroup() {
+        SEARCHES.set(0);
+        LdapSyncState state = ldapSyncService.sync(true);
+
+        assertEquals(5, state.getLastCreated());
+        assertEquals(1, state.getLastConflicts());
+        // 6 entries at 2 per page
+        assertEquals(3, SEARCHES.get());
+        User user1 = userRepository.findByUsername("user1").orElseThrow();
+        assertEquals("uid=user1," + PEOPLE_DN, user1.getLdapDn());
+        assertTrue(user1.getIsAdmin());
+        assertEquals("user1 Test", user1.getNickname());
+        assertFalse(userRepository.findByUsername("user2").orElseThrow().getIsAdmin());
+    }
+
+    @Test
+    @Order(2)
+    void localUserWithSameNameIsNotTakenOver() {
+        User admin = userRepository.findByUsername("admin").orElseThrow();
+
+        assertNull(admin.getLdapDn());
+        assertTrue(admin.getIsAdmin());
+        assertEquals("admin@rustdesk.com", admin.getEmail());
+        assertFalse(userService.verifyPassword(admin, "pw-admin"));
+    }
+
+    @Test
+    @Order(3)
+    void incrementalSyncOnlyAppliesChangedEntries() throws Exception {
+        directory.modify("uid=user2," + PEOPLE_DN,
+                new Modification(ModificationType.REPLACE, "mail", "user2@new.example.com"),
+                new Modification(ModificationType.REPLACE, "memberOf", ADMINS_DN),
+                new Modification(ModificationType.REPLACE, "modifyTimestamp", tick()));
+
+        SEARCHES.set(0);
+        LdapSyncState state = ldapSyncService.sync(false);
+
+        assertEquals(1, SEARCHES.get());
+        assertEquals(0, state.getLastCreated());
+        assertEquals(1, state.getLastUpdated());
+        User user2 = userRepository.findByUsername("user2").orElseThrow();
+        assertEquals("user2@new.example.com", user2.getEmail());
+        assertTrue(user2.getIsAdmin());
+    }
+
+    @Test
+    @Order(4)
+    void fullSyncDisablesRemovedEntries() throws Exception {
+        directory.delete("uid=user3," + PEOPLE_DN);
+
+        LdapSyncState state = ldapSyncService.sync(true);
+
+        assertEquals(1, state.getLastDisabled());
+        assertEquals(Constants.STATUS_DISABLED, userRepository.findByUsername("user3").orElseThrow().getStatus());
+        assertEquals(Constants.STATUS_ENABLE, userRepository.findByUsername("user4").orElseThrow().getStatus());
+    }
+
+    @Test
+    @Order(5)
+    void syncedUsersLogInByBinding() {
+        User user4 = userRepository.findByUsername("user4").orElseThrow();
+
+        assertTrue(userService.verifyPassword(user4, "pw-user4"));
+        assertFalse(userService.verifyPassword(user4, "wrong"));
+        assertFalse(userService.verifyPassword(user4, ""));
+        assertTrue(userService.authenticate("user4", "pw-user4").isPresent());
+    }
+
+    @Test
+    @Order(6)
+    void sameUsernameUnderTwoDnsIsAConflict() throws Exception {
+        addPerson("cn=dup1," + PEOPLE_DN, "dupuser", false);
+        addPerson("cn=dup2," + PEOPLE_DN, "dupuser", false);
+
+        LdapSyncState state = ldapSyncService.sync(false);
+
+        assertEquals(1, state.getLastCreated());
+        assertEquals(1, state.getLastConflicts());
+        assertEquals("cn=dup1," + PEOPLE_DN, userRepository.findByUsername("dupuser").orElseThrow().getLdapDn());
+    }
+}